@@ -0,0 +1,75 @@
+package org.jzy3d.benchmarks;
+
+import java.util.List;
+import java.util.Random;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.colors.colormaps.ColorMapRainbow;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Range;
+import org.jzy3d.plot3d.builder.Mapper;
+import org.jzy3d.plot3d.builder.SurfaceBuilder;
+import org.jzy3d.plot3d.builder.concrete.OrthonormalGrid;
+import org.jzy3d.plot3d.primitives.Shape;
+
+/**
+ * Data sets shared by benchmarks, generated from a seed so that all runs measure the same data.
+ *
+ * @author Martin Pernollet
+ */
+public class BenchmarkData {
+  public static final Range RANGE = new Range(-3, 3);
+
+  public static final Mapper MAPPER = new Mapper() {
+    @Override
+    public double f(double x, double y) {
+      return x * Math.sin(x * y);
+    }
+  };
+
+  /** Number of steps of a square grid having about the given number of points. */
+  public static int steps(int size) {
+    return Math.max(2, (int) Math.round(Math.sqrt(size)));
+  }
+
+  /** Points of a square grid having about size points. */
+  public static List<Coord3d> grid(int size) {
+    return new OrthonormalGrid(RANGE, steps(size)).apply(MAPPER);
+  }
+
+  /** A colored surface made of about size polygons. */
+  public static Shape surface(int size) {
+    Shape surface = new SurfaceBuilder().orthonormal(new OrthonormalGrid(RANGE, steps(size)),
+        MAPPER);
+    surface.setColorMapper(colorMapper(surface.getBounds().getZRange()));
+    surface.setFaceDisplayed(true);
+    surface.setWireframeDisplayed(false);
+    return surface;
+  }
+
+  public static ColorMapper colorMapper(Range range) {
+    return new ColorMapper(new ColorMapRainbow(), range.getMin(), range.getMax(),
+        new Color(1, 1, 1, .5f));
+  }
+
+  /** Points randomly distributed in [-1, 1] on each axis. */
+  public static Coord3d[] points(int size) {
+    Random r = new Random(0);
+    Coord3d[] points = new Coord3d[size];
+    for (int i = 0; i < size; i++)
+      points[i] = new Coord3d(r.nextFloat() * 2 - 1, r.nextFloat() * 2 - 1,
+          r.nextFloat() * 2 - 1);
+    return points;
+  }
+
+  /** The x, y, z triplets of points. */
+  public static float[] xyz(Coord3d[] points) {
+    float[] xyz = new float[points.length * 3];
+    for (int i = 0; i < points.length; i++) {
+      xyz[i * 3] = points[i].x;
+      xyz[i * 3 + 1] = points[i].y;
+      xyz[i * 3 + 2] = points[i].z;
+    }
+    return xyz;
+  }
+}
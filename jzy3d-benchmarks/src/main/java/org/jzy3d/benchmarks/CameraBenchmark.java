@@ -0,0 +1,76 @@
+package org.jzy3d.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.chart.Chart;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.primitives.Scatter;
+import org.jzy3d.plot3d.rendering.canvas.EmulGLCanvas;
+import org.jzy3d.plot3d.rendering.view.Camera;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Project points to screen with {@link Camera#modelToScreen(IPainter, Coord3d[])}, using the
+ * matrices of an offscreen EmulGL chart rendered once.
+ *
+ * @author Martin Pernollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CameraBenchmark {
+  /** Number of points to project. */
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  protected Chart chart;
+  protected Camera camera;
+  protected IPainter painter;
+  protected Coord3d[] points;
+  protected float[] xyz;
+  protected float[] screen;
+
+  @Setup
+  public void setup() {
+    points = BenchmarkData.points(size);
+    xyz = BenchmarkData.xyz(points);
+    screen = new float[xyz.length];
+
+    chart = EmulGLRenderingBenchmark.offscreenChart("800x600");
+    chart.add(new Scatter(points));
+    ((EmulGLCanvas) chart.getCanvas()).doRender();
+
+    camera = chart.getView().getCamera();
+    painter = chart.getPainter();
+  }
+
+  @TearDown
+  public void tearDown() {
+    chart.dispose();
+  }
+
+  @Benchmark
+  public Coord3d[] modelToScreen() {
+    return camera.modelToScreen(painter, points);
+  }
+
+  /** Project in a reused array. */
+  @Benchmark
+  public float[] modelToScreenArray() {
+    return camera.modelToScreen(painter, xyz, screen);
+  }
+}
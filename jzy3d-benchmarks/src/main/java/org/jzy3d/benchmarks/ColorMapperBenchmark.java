@@ -0,0 +1,50 @@
+package org.jzy3d.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Range;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Map points to colors with a {@link ColorMapper}.
+ *
+ * @author Martin Pernollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ColorMapperBenchmark {
+  /** Number of points to map. */
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  protected Coord3d[] points;
+  protected ColorMapper mapper;
+
+  @Setup
+  public void setup() {
+    points = BenchmarkData.points(size);
+    mapper = BenchmarkData.colorMapper(new Range(-1, 1));
+  }
+
+  @Benchmark
+  public void getColor(Blackhole blackhole) {
+    for (Coord3d point : points)
+      blackhole.consume(mapper.getColor(point));
+  }
+}
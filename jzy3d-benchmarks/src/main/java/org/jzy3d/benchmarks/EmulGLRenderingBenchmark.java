@@ -0,0 +1,65 @@
+package org.jzy3d.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.chart.Chart;
+import org.jzy3d.chart.factories.EmulGLChartFactory;
+import org.jzy3d.plot3d.rendering.canvas.EmulGLCanvas;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Render a surface with jGL in an offscreen {@link EmulGLCanvas}, at several canvas sizes.
+ *
+ * @author Martin Pernollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class EmulGLRenderingBenchmark {
+  /** Number of polygons of the surface. */
+  @Param({"1000", "10000"})
+  public int size;
+
+  /** Canvas width x height in pixels. */
+  @Param({"400x300", "800x600", "1600x1200"})
+  public String canvas;
+
+  protected Chart chart;
+
+  @Setup
+  public void setup() {
+    chart = offscreenChart(canvas);
+    chart.add(BenchmarkData.surface(size));
+  }
+
+  @TearDown
+  public void tearDown() {
+    chart.dispose();
+  }
+
+  @Benchmark
+  public void render() {
+    ((EmulGLCanvas) chart.getCanvas()).doRender();
+  }
+
+  /** Build an offscreen EmulGL chart of the given width x height. */
+  public static Chart offscreenChart(String canvas) {
+    String[] size = canvas.split("x");
+    EmulGLChartFactory factory = new EmulGLChartFactory();
+    factory.getPainterFactory().setOffscreen(Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+    return factory.newChart();
+  }
+}
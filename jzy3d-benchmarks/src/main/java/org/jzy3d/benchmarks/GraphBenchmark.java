@@ -0,0 +1,71 @@
+package org.jzy3d.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.plot3d.primitives.Drawable;
+import org.jzy3d.plot3d.primitives.Shape;
+import org.jzy3d.plot3d.rendering.ordering.AbstractOrderingStrategy;
+import org.jzy3d.plot3d.rendering.ordering.BarycentreOrderingStrategy;
+import org.jzy3d.plot3d.rendering.scene.Decomposition;
+import org.jzy3d.plot3d.rendering.view.Camera;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decompose a surface in polygons and sort them by distance to the camera, as done by the graph
+ * when rendering with an ordering strategy.
+ *
+ * @author Martin Pernollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class GraphBenchmark {
+  /** Number of polygons of the surface. */
+  @Param({"1000", "10000", "100000"})
+  public int size;
+
+  protected List<Drawable> drawables;
+  protected List<Drawable> decomposition;
+  protected AbstractOrderingStrategy strategy;
+  protected Camera camera;
+
+  @Setup
+  public void setup() {
+    Shape surface = BenchmarkData.surface(size);
+    drawables = new ArrayList<>();
+    drawables.add(surface);
+    decomposition = Decomposition.getDecomposition(drawables);
+
+    camera = new Camera(Coord3d.ORIGIN);
+    camera.setEye(new Coord3d(10, -8, 6));
+    strategy = new BarycentreOrderingStrategy();
+  }
+
+  @Benchmark
+  public List<Drawable> decompose() {
+    return Decomposition.getDecomposition(drawables);
+  }
+
+  /** Sort a copy of the decomposition, the copy being part of the measure. */
+  @Benchmark
+  public List<Drawable> sort() {
+    List<Drawable> monotypes = new ArrayList<>(decomposition);
+    strategy.sort(monotypes, camera);
+    return monotypes;
+  }
+}
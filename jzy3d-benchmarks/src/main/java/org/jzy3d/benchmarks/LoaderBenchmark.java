@@ -0,0 +1,173 @@
+package org.jzy3d.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.io.CsvPointReader;
+import org.jzy3d.io.obj.OBJFile;
+import org.jzy3d.io.obj.OBJFileParallel;
+import org.jzy3d.io.ply.PlyData;
+import org.jzy3d.io.ply.PlyReader;
+import org.jzy3d.maths.Coord3ds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Load OBJ, PLY and CSV files of a grid mesh written in temporary files before the benchmark.
+ *
+ * @author Martin Pernollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class LoaderBenchmark {
+  /** Number of vertices of the mesh. */
+  @Param({"10000", "100000", "1000000"})
+  public int size;
+
+  protected File obj;
+  protected File ply;
+  protected File csv;
+
+  @Setup
+  public void setup() throws IOException {
+    int steps = BenchmarkData.steps(size);
+    obj = writeObj(steps);
+    ply = writePly(steps);
+    csv = writeCsv(steps);
+  }
+
+  @TearDown
+  public void tearDown() {
+    obj.delete();
+    ply.delete();
+    csv.delete();
+  }
+
+  @Benchmark
+  public OBJFile objFile() {
+    OBJFile file = new OBJFile();
+    file.loadModelFromFilename(obj.toURI().toString());
+    file.compileModel();
+    return file;
+  }
+
+  @Benchmark
+  public OBJFile objFileParallel() throws IOException {
+    OBJFileParallel file = new OBJFileParallel();
+    file.loadModelFromFile(obj);
+    file.compileModel();
+    return file;
+  }
+
+  @Benchmark
+  public PlyData plyReader() throws IOException {
+    return new PlyReader().read(ply);
+  }
+
+  @Benchmark
+  public Coord3ds csvPointReader() throws IOException {
+    return new CsvPointReader().read(csv);
+  }
+
+  /* ***************************************************************** */
+
+  protected static float z(int i, int j, int steps) {
+    double x = 6.0 * i / steps - 3;
+    double y = 6.0 * j / steps - 3;
+    return (float) BenchmarkData.MAPPER.f(x, y);
+  }
+
+  /** A grid of steps x steps vertices made of two triangles per cell. */
+  protected static File writeObj(int steps) throws IOException {
+    File file = File.createTempFile("jzy3d-benchmark", ".obj");
+    try (Writer out = writer(file)) {
+      for (int i = 0; i < steps; i++)
+        for (int j = 0; j < steps; j++)
+          out.write("v " + i + " " + j + " " + z(i, j, steps) + "\n");
+
+      for (int i = 0; i < steps - 1; i++) {
+        for (int j = 0; j < steps - 1; j++) {
+          int v = i * steps + j + 1; // OBJ indices start at 1
+          out.write("f " + v + " " + (v + steps) + " " + (v + steps + 1) + "\n");
+          out.write("f " + v + " " + (v + steps + 1) + " " + (v + 1) + "\n");
+        }
+      }
+    }
+    return file;
+  }
+
+  /** The grid of {@link #writeObj(int)} as a binary PLY file. */
+  protected static File writePly(int steps) throws IOException {
+    File file = File.createTempFile("jzy3d-benchmark", ".ply");
+    int faces = (steps - 1) * (steps - 1) * 2;
+
+    String header = "ply\n" //
+        + "format binary_little_endian 1.0\n" //
+        + "element vertex " + (steps * steps) + "\n" //
+        + "property float x\n" //
+        + "property float y\n" //
+        + "property float z\n" //
+        + "element face " + faces + "\n" //
+        + "property list uchar int vertex_indices\n" //
+        + "end_header\n";
+
+    ByteBuffer body = ByteBuffer.allocate(steps * steps * 12 + faces * 13)
+        .order(ByteOrder.LITTLE_ENDIAN);
+    for (int i = 0; i < steps; i++)
+      for (int j = 0; j < steps; j++)
+        body.putFloat(i).putFloat(j).putFloat(z(i, j, steps));
+
+    for (int i = 0; i < steps - 1; i++) {
+      for (int j = 0; j < steps - 1; j++) {
+        int v = i * steps + j;
+        body.put((byte) 3).putInt(v).putInt(v + steps).putInt(v + steps + 1);
+        body.put((byte) 3).putInt(v).putInt(v + steps + 1).putInt(v + 1);
+      }
+    }
+
+    try (OutputStream out = new FileOutputStream(file)) {
+      out.write(header.getBytes(StandardCharsets.US_ASCII));
+      out.write(body.array(), 0, body.position());
+    }
+    return file;
+  }
+
+  /** The vertices of {@link #writeObj(int)} as a CSV file with a header. */
+  protected static File writeCsv(int steps) throws IOException {
+    File file = File.createTempFile("jzy3d-benchmark", ".csv");
+    try (Writer out = writer(file)) {
+      out.write("x,y,z\n");
+      for (int i = 0; i < steps; i++)
+        for (int j = 0; j < steps; j++)
+          out.write(i + "," + j + "," + z(i, j, steps) + "\n");
+    }
+    return file;
+  }
+
+  protected static Writer writer(File file) throws IOException {
+    return new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII));
+  }
+}
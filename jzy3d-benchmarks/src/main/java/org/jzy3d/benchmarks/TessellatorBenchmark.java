@@ -0,0 +1,64 @@
+package org.jzy3d.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Range;
+import org.jzy3d.plot3d.builder.concrete.OrthonormalTessellator;
+import org.jzy3d.plot3d.builder.concrete.RingTessellator;
+import org.jzy3d.plot3d.builder.delaunay.DelaunayTessellator;
+import org.jzy3d.plot3d.primitives.Composite;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Build surfaces out of a grid of points with each tessellator.
+ *
+ * @author Martin Pernollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TessellatorBenchmark {
+  /** Number of points of the grid. */
+  @Param({"1000", "10000", "100000"})
+  public int size;
+
+  protected List<Coord3d> grid;
+  protected ColorMapper colorMapper;
+
+  @Setup
+  public void setup() {
+    grid = BenchmarkData.grid(size);
+    colorMapper = BenchmarkData.colorMapper(new Range(-3, 3));
+  }
+
+  @Benchmark
+  public Composite orthonormal() {
+    return new OrthonormalTessellator().build(grid);
+  }
+
+  @Benchmark
+  public Composite delaunay() {
+    return new DelaunayTessellator().build(grid);
+  }
+
+  @Benchmark
+  public Composite ring() {
+    return new RingTessellator(0, 2.5f, colorMapper, Color.WHITE).build(grid);
+  }
+}
@@ -0,0 +1,53 @@
+package org.jzy3d.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.plot3d.transform.Rotate;
+import org.jzy3d.plot3d.transform.Scale;
+import org.jzy3d.plot3d.transform.Transform;
+import org.jzy3d.plot3d.transform.Translate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Apply a scale, rotation and translation to points with {@link Transform#compute(Coord3d)}.
+ *
+ * @author Martin Pernollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class TransformBenchmark {
+  /** Number of points to transform. */
+  @Param({"1000", "100000", "1000000"})
+  public int size;
+
+  protected Coord3d[] points;
+  protected Transform transform;
+
+  @Setup
+  public void setup() {
+    points = BenchmarkData.points(size);
+    transform = new Transform(new Scale(new Coord3d(2, 1, .5)),
+        new Rotate(45, new Coord3d(0, 0, 1)), new Translate(new Coord3d(1, 2, 3)));
+  }
+
+  @Benchmark
+  public void compute(Blackhole blackhole) {
+    for (Coord3d point : points)
+      blackhole.consume(transform.compute(point));
+  }
+}
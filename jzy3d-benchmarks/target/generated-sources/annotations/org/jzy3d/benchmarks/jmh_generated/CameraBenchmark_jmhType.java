@@ -0,0 +1,4 @@
+package org.jzy3d.benchmarks.jmh_generated;
+public class CameraBenchmark_jmhType extends CameraBenchmark_jmhType_B3 {
+}
+
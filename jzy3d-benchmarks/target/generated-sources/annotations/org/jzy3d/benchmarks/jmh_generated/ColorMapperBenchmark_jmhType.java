@@ -0,0 +1,4 @@
+package org.jzy3d.benchmarks.jmh_generated;
+public class ColorMapperBenchmark_jmhType extends ColorMapperBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jzy3d.benchmarks.jmh_generated;
+public class EmulGLRenderingBenchmark_jmhType extends EmulGLRenderingBenchmark_jmhType_B3 {
+}
+
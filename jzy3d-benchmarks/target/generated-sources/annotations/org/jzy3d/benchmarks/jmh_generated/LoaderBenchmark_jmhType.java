@@ -0,0 +1,4 @@
+package org.jzy3d.benchmarks.jmh_generated;
+public class LoaderBenchmark_jmhType extends LoaderBenchmark_jmhType_B3 {
+}
+
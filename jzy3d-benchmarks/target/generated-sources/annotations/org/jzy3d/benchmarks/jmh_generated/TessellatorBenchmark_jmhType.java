@@ -0,0 +1,4 @@
+package org.jzy3d.benchmarks.jmh_generated;
+public class TessellatorBenchmark_jmhType extends TessellatorBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.jzy3d.benchmarks.jmh_generated;
+public class TransformBenchmark_jmhType extends TransformBenchmark_jmhType_B3 {
+}
+
@@ -2,14 +2,26 @@ package org.jzy3d.chart.controllers.keyboard.screenshot;
 
 import java.awt.event.KeyEvent;
 import java.awt.event.KeyListener;
+import java.awt.image.BufferedImage;
+import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.ImageIO;
 import org.jzy3d.chart.Chart;
+import org.jzy3d.io.AsyncImageExporter;
+import org.jzy3d.io.AsyncImageExporter.DropPolicy;
 
 /**
  * Saves a screenshot in PNG format once key S is pressed.
+ * 
+ * If asynchronous (see {@link #setAsync(boolean)}), the screenshot image is grabbed on the caller
+ * thread and encoded in a background thread, which then notifies listeners. Only canvases
+ * providing screenshots as {@link BufferedImage} (e.g. EmulGL) are saved asynchronously.
  */
 public class AWTScreenshotKeyController extends AbstractScreenshotKeyController
     implements KeyListener, IScreenshotKeyController {
+  protected AsyncImageExporter exporter;
+
   public AWTScreenshotKeyController(Chart chart, String outputFile) {
     super(chart, outputFile);
   }
@@ -19,6 +31,8 @@ public class AWTScreenshotKeyController extends AbstractScreenshotKeyController
     switch (e.getKeyChar()) {
       case 's':
         try {
+          if (exporter != null && screenshotAsync(chart, outputFile))
+            break;
           screenshot(chart, outputFile);
           fireDone(outputFile);
         } catch (IOException e1) {
@@ -29,6 +43,54 @@ public class AWTScreenshotKeyController extends AbstractScreenshotKeyController
     }
   }
 
+  /**
+   * Queue the screenshot for encoding and return true, or return false if the canvas does not
+   * provide a {@link BufferedImage}.
+   */
+  protected boolean screenshotAsync(Chart chart, String filename) throws IOException {
+    Object image = chart.screenshot();
+    if (!(image instanceof BufferedImage))
+      return false;
+    exporter.export((BufferedImage) image, filename);
+    return true;
+  }
+
+  public boolean isAsync() {
+    return exporter != null;
+  }
+
+  /** If true, encode screenshots in a background thread. */
+  public void setAsync(boolean async) {
+    if (async && exporter == null) {
+      exporter = new AsyncImageExporter(frame -> {
+        String filename = (String) frame.getAttachment();
+        try {
+          File file = new File(filename);
+          if (file.getParentFile() != null && !file.getParentFile().exists())
+            file.getParentFile().mkdirs();
+          ImageIO.write(frame.getImage(), "png", file);
+          fireDone(filename);
+        } catch (IOException e) {
+          fireError(filename, e);
+          throw e;
+        }
+      }, 1, AsyncImageExporter.DEFAULT_QUEUE_SIZE, DropPolicy.BLOCK);
+    } else if (!async && exporter != null) {
+      exporter.terminate(10, TimeUnit.SECONDS);
+      exporter = null;
+    }
+  }
+
+  public AsyncImageExporter getExporter() {
+    return exporter;
+  }
+
+  @Override
+  public void dispose() {
+    setAsync(false);
+    super.dispose();
+  }
+
   @Override
   public void keyReleased(KeyEvent e) {}
 
@@ -5,8 +5,11 @@ import java.awt.Graphics2D;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import org.apache.log4j.Logger;
 import org.jzy3d.chart.Chart;
+import org.jzy3d.maths.Coord2d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.maths.IntegerCoord2d;
 import org.jzy3d.plot3d.rendering.canvas.ICanvas;
@@ -29,6 +32,10 @@ public abstract class AWTAbstractMouseSelector implements MouseListener, MouseMo
   protected IntegerCoord2d last;
   protected AWTRenderer2d selectionRenderer;
 
+  /** Select with a free hand polygon instead of a rectangle. */
+  protected boolean lasso = false;
+  protected List<IntegerCoord2d> lassoPath = new CopyOnWriteArrayList<>();
+
   public AWTAbstractMouseSelector() {
     in = new IntegerCoord2d(-1, -1);
     last = new IntegerCoord2d(-1, -1);
@@ -151,12 +158,28 @@ public abstract class AWTAbstractMouseSelector implements MouseListener, MouseMo
     }
   }
 
+  protected void drawLasso(Graphics2D g2d, List<IntegerCoord2d> path, Coord2d pixScale) {
+    int n = path.size();
+    int[] xs = new int[n];
+    int[] ys = new int[n];
+    for (int i = 0; i < n; i++) {
+      IntegerCoord2d p = path.get(i).mul(pixScale);
+      xs[i] = p.x;
+      ys[i] = p.y;
+    }
+    g2d.setColor(java.awt.Color.RED);
+    g2d.drawPolygon(xs, ys, n);
+  }
+
   /*****************************************/
 
   protected void startSelection(MouseEvent e) {
     in = xy(e);
     last = xy(e);
     out = xy(e);
+    lassoPath.clear();
+    if (lasso)
+      lassoPath.add(xy(e));
   }
 
   public IntegerCoord2d xy(MouseEvent e) {
@@ -174,12 +197,16 @@ public abstract class AWTAbstractMouseSelector implements MouseListener, MouseMo
   protected void dragSelection(MouseEvent e) {
     out.x = x(e);
     out.y = y(e);
+    if (lasso)
+      lassoPath.add(xy(e));
     chart.render();
   }
 
   protected void releaseSelection(MouseEvent e) {
     out.x = x(e);
     out.y = y(e);
+    if (lasso)
+      lassoPath.add(xy(e));
 
     processSelection(chart.getScene(), chart.getView(), chart.getCanvas().getRendererWidth(),
         chart.getCanvas().getRendererHeight());
@@ -195,6 +222,15 @@ public abstract class AWTAbstractMouseSelector implements MouseListener, MouseMo
     last.y = out.y;
   }
 
+  public boolean isLasso() {
+    return lasso;
+  }
+
+  /** Select with a polygon following the mouse if true, with a rectangle otherwise (default). */
+  public void setLasso(boolean lasso) {
+    this.lasso = lasso;
+  }
+
   /*****************************************/
 
   @Override
@@ -3,8 +3,8 @@ package org.jzy3d.chart.controllers.mouse.selection;
 import java.awt.Graphics2D;
 import org.jzy3d.chart.Chart;
 import org.jzy3d.maths.Coord2d;
-import org.jzy3d.maths.Coord3d;
 import org.jzy3d.maths.IntegerCoord2d;
+import org.jzy3d.plot3d.primitives.selectable.ScreenGridIndex;
 import org.jzy3d.plot3d.primitives.selectable.SelectableScatter;
 import org.jzy3d.plot3d.rendering.scene.Scene;
 import org.jzy3d.plot3d.rendering.view.View;
@@ -27,15 +27,29 @@ public class AWTScatterMouseSelector extends AWTAbstractMouseSelector {
   @Override
   protected void processSelection(Scene scene, View view, int width, int height) {
     view.project();
-    Coord3d[] projection = scatter.getProjection();
-    
+    ScreenGridIndex index = scatter.getScreenIndex();
+    if (index == null)
+      return;
+
+    // mouse coordinates have y axis flipped compared to screen projection
     Coord2d pixScale = getPixelScale();
-    IntegerCoord2d from = in.mul(pixScale);
-    IntegerCoord2d to = out.mul(pixScale);
-    
-    for (int i = 0; i < projection.length; i++)
-      if (matchRectangleSelection(from, to, projection[i], width, height))
-        scatter.setHighlighted(i, true);
+    if (lasso) {
+      int n = lassoPath.size();
+      float[] xs = new float[n];
+      float[] ys = new float[n];
+      for (int i = 0; i < n; i++) {
+        IntegerCoord2d p = lassoPath.get(i).mul(pixScale);
+        xs[i] = p.x;
+        ys[i] = height - p.y;
+      }
+      scatter.highlight(index.selectPolygon(xs, ys));
+    } else {
+      IntegerCoord2d from = in.mul(pixScale);
+      IntegerCoord2d to = out.mul(pixScale);
+      scatter.highlight(index.selectRectangle(Math.min(from.x, to.x),
+          height - Math.max(from.y, to.y), Math.max(from.x, to.x),
+          height - Math.min(from.y, to.y)));
+    }
   }
 
   protected Coord2d getPixelScale() {
@@ -51,8 +65,12 @@ public class AWTScatterMouseSelector extends AWTAbstractMouseSelector {
     IntegerCoord2d from  =in.mul(pixScale);
     IntegerCoord2d to = out.mul(pixScale);
 
-    if (dragging)
-      drawRectangle(g2d, from, to);
+    if (dragging) {
+      if (lasso)
+        drawLasso(g2d, lassoPath, pixScale);
+      else
+        drawRectangle(g2d, from, to);
+    }
   }
 
   @Override
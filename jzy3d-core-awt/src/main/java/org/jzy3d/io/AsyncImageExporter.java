@@ -0,0 +1,344 @@
+package org.jzy3d.io;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import org.apache.log4j.Logger;
+
+/**
+ * An {@link AWTImageExporter} that returns immediately to the rendering thread and lets a pool of
+ * encoder threads process the frames.
+ *
+ * Exported frames are put in a bounded queue drained by the encoder threads. When encoders fall
+ * behind and the queue is full, the {@link DropPolicy} states if the oldest queued frame is
+ * dropped, if the new frame is skipped, or if the rendering thread waits.
+ *
+ * Frames are either pinned, i.e. the exported image is queued as is and should not be modified
+ * by the caller afterward, or copied in an image taken from a pool of recycled images, which is
+ * required if the caller reuses the exported image (see {@link #setCopy(boolean)}). Images
+ * returned by an EmulGL canvas are allocated at each frame and can be pinned.
+ *
+ * <pre>
+ * <code>
+ * AsyncImageExporter exporter = new AsyncImageExporter(AsyncImageExporter.toFiles(dir, "frame", "png"));
+ * ((EmulGLCanvas) chart.getCanvas()).setExporter(exporter);
+ * ...
+ * exporter.terminate(10, TimeUnit.SECONDS);
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class AsyncImageExporter implements AWTImageExporter {
+  static Logger logger = Logger.getLogger(AsyncImageExporter.class);
+
+  public enum DropPolicy {
+    /** Drop the oldest queued frame to make room for the new one. */
+    DROP_OLDEST,
+    /** Ignore the new frame. */
+    SKIP,
+    /** Wait until encoders make room for the new frame. */
+    BLOCK
+  }
+
+  /** Encode a frame, invoked concurrently by the encoder threads. */
+  public interface Encoder {
+    public void encode(Frame frame) throws IOException;
+  }
+
+  /** An image to encode, with its index in the sequence of exported images. */
+  public static class Frame {
+    protected BufferedImage image;
+    protected int id;
+    protected long timestamp;
+    protected Object attachment;
+    protected boolean pooled;
+
+    public BufferedImage getImage() {
+      return image;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    /** The time at which the frame was exported, as given by {@link System#nanoTime()}. */
+    public long getTimestamp() {
+      return timestamp;
+    }
+
+    /** The object given to {@link AsyncImageExporter#export(BufferedImage, Object)}, or null. */
+    public Object getAttachment() {
+      return attachment;
+    }
+  }
+
+  protected static final Frame END = new Frame();
+
+  public static final int DEFAULT_QUEUE_SIZE = 16;
+
+  protected Encoder encoder;
+  protected DropPolicy policy;
+  protected boolean copy = false;
+
+  protected BlockingQueue<Frame> queue;
+  protected ConcurrentLinkedQueue<BufferedImage> pool = new ConcurrentLinkedQueue<>();
+  protected int poolSize;
+  protected List<Thread> threads = new ArrayList<>();
+  protected volatile boolean terminated = false;
+
+  protected AtomicInteger nextId = new AtomicInteger();
+  protected AtomicLong exported = new AtomicLong();
+  protected AtomicLong encoded = new AtomicLong();
+  protected AtomicLong dropped = new AtomicLong();
+  protected AtomicLong failed = new AtomicLong();
+
+  /** Encode frames with half of the available processors, dropping oldest frames if late. */
+  public AsyncImageExporter(Encoder encoder) {
+    this(encoder, Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_SIZE,
+        DropPolicy.DROP_OLDEST);
+  }
+
+  /**
+   * @param encoder invoked by encoder threads for each frame.
+   * @param threads number of encoder threads.
+   * @param queueSize maximum number of frames waiting for an encoder.
+   * @param policy what to do with a new frame if the queue is full.
+   */
+  public AsyncImageExporter(Encoder encoder, int threads, int queueSize, DropPolicy policy) {
+    this.encoder = encoder;
+    this.policy = policy;
+    this.queue = new ArrayBlockingQueue<>(queueSize);
+    this.poolSize = queueSize + threads + 1;
+
+    for (int i = 0; i < threads; i++) {
+      Thread t = new Thread(this::encodeQueue, "AsyncImageExporter " + i);
+      t.setDaemon(true);
+      t.start();
+      this.threads.add(t);
+    }
+  }
+
+  /**
+   * Return an encoder writing each frame in the directory, in files named prefix-000000.format,
+   * where format is an ImageIO format name such as "png" or "jpg".
+   */
+  public static Encoder toFiles(File dir, String prefix, String format) {
+    return frame -> {
+      if (!dir.exists())
+        dir.mkdirs();
+      File file = new File(dir, String.format("%s-%06d.%s", prefix, frame.getId(), format));
+      if (!ImageIO.write(frame.getImage(), format, file))
+        throw new IOException("No ImageIO writer for " + format);
+    };
+  }
+
+  /* ***************************************************************** */
+
+  @Override
+  public void export(BufferedImage image) {
+    export(image, null);
+  }
+
+  /**
+   * Queue the image for encoding and return its frame id, or -1 if the frame was skipped because
+   * the queue is full or the exporter terminated.
+   */
+  public int export(BufferedImage image, Object attachment) {
+    if (terminated)
+      return -1;
+
+    Frame frame = new Frame();
+    frame.id = nextId.getAndIncrement();
+    frame.timestamp = System.nanoTime();
+    frame.attachment = attachment;
+    frame.pooled = copy;
+    frame.image = copy ? copyToPooledImage(image) : image;
+    exported.incrementAndGet();
+
+    switch (policy) {
+      case BLOCK:
+        try {
+          queue.put(frame);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          drop(frame);
+          return -1;
+        }
+        break;
+      case SKIP:
+        if (!queue.offer(frame)) {
+          drop(frame);
+          return -1;
+        }
+        break;
+      case DROP_OLDEST:
+        while (!queue.offer(frame)) {
+          Frame oldest = queue.poll();
+          if (oldest != null)
+            drop(oldest);
+        }
+        break;
+    }
+    return frame.id;
+  }
+
+  protected void drop(Frame frame) {
+    dropped.incrementAndGet();
+    release(frame);
+  }
+
+  protected void encodeQueue() {
+    while (true) {
+      Frame frame;
+      try {
+        frame = queue.take();
+      } catch (InterruptedException e) {
+        return;
+      }
+      if (frame == END)
+        return;
+
+      try {
+        encoder.encode(frame);
+        encoded.incrementAndGet();
+      } catch (Exception e) {
+        failed.incrementAndGet();
+        logger.error("Could not encode frame " + frame.getId(), e);
+      } finally {
+        release(frame);
+      }
+    }
+  }
+
+  /* ***************************************************************** */
+
+  /** Copy the image in a recycled image of same size and type, or a new one if none. */
+  protected BufferedImage copyToPooledImage(BufferedImage image) {
+    BufferedImage copy = pool.poll();
+    if (copy == null || copy.getWidth() != image.getWidth()
+        || copy.getHeight() != image.getHeight() || copy.getType() != image.getType()) {
+      int type = image.getType() == BufferedImage.TYPE_CUSTOM ? BufferedImage.TYPE_INT_ARGB
+          : image.getType();
+      copy = new BufferedImage(image.getWidth(), image.getHeight(), type);
+    }
+
+    if (image.getType() == copy.getType()
+        && image.getRaster().getDataBuffer() instanceof DataBufferInt
+        && copy.getRaster().getDataBuffer() instanceof DataBufferInt) {
+      int[] from = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+      int[] to = ((DataBufferInt) copy.getRaster().getDataBuffer()).getData();
+      System.arraycopy(from, 0, to, 0, Math.min(from.length, to.length));
+    } else {
+      Graphics2D g = copy.createGraphics();
+      g.setComposite(AlphaComposite.Src);
+      g.drawImage(image, 0, 0, null);
+      g.dispose();
+    }
+    return copy;
+  }
+
+  /** Give the image of a copied frame back to the pool. */
+  protected void release(Frame frame) {
+    if (frame.pooled && pool.size() < poolSize)
+      pool.offer(frame.image);
+    frame.image = null;
+  }
+
+  /**
+   * Stop accepting frames, and wait at most the given timeout for encoders to process the queued
+   * frames.
+   */
+  @Override
+  public void terminate(long timeout, TimeUnit unit) {
+    terminated = true;
+
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    try {
+      for (int i = 0; i < threads.size(); i++)
+        queue.offer(END, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+      for (Thread t : threads) {
+        long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        if (remaining > 0)
+          t.join(remaining);
+        if (t.isAlive())
+          t.interrupt();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      for (Thread t : threads)
+        t.interrupt();
+    }
+    pool.clear();
+  }
+
+  /* ***************************************************************** */
+
+  public DropPolicy getDropPolicy() {
+    return policy;
+  }
+
+  public void setDropPolicy(DropPolicy policy) {
+    this.policy = policy;
+  }
+
+  public boolean isCopy() {
+    return copy;
+  }
+
+  /**
+   * If true, exported images are copied, so that the caller can reuse them. Otherwise, they are
+   * queued as is and should not be modified afterward.
+   */
+  public void setCopy(boolean copy) {
+    this.copy = copy;
+  }
+
+  public boolean isTerminated() {
+    return terminated;
+  }
+
+  /** Number of frames given to {@link #export(BufferedImage)} since creation. */
+  public long getExportedFrames() {
+    return exported.get();
+  }
+
+  /** Number of frames successfully encoded. */
+  public long getEncodedFrames() {
+    return encoded.get();
+  }
+
+  /** Number of frames dropped because encoders were late. */
+  public long getDroppedFrames() {
+    return dropped.get();
+  }
+
+  /** Number of frames for which encoder failed. */
+  public long getFailedFrames() {
+    return failed.get();
+  }
+
+  /** Number of frames waiting for an encoder. */
+  public int getQueuedFrames() {
+    return queue.size();
+  }
+
+  @Override
+  public String toString() {
+    return "AsyncImageExporter(exported=" + getExportedFrames() + ", encoded="
+        + getEncodedFrames() + ", dropped=" + getDroppedFrames() + ", failed="
+        + getFailedFrames() + ", queued=" + getQueuedFrames() + ")";
+  }
+}
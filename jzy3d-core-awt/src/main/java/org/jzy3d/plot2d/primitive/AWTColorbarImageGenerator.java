@@ -65,6 +65,7 @@ public class AWTColorbarImageGenerator extends AWTAbstractImageGenerator
       return null;
 
     this.barWidth = width;
+    updateRange();
 
 
     BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
@@ -135,6 +136,16 @@ public class AWTColorbarImageGenerator extends AWTAbstractImageGenerator
     }
   }
 
+  /** Follow the range of the color mapper, which may have changed since the last image. */
+  protected void updateRange() {
+    this.min = mapper.getMin();
+    this.max = mapper.getMax();
+  }
+
+  public ColorMapper getMapper() {
+    return mapper;
+  }
+
   public Coord2d getPixelScale() {
     return pixelScale;
   }
@@ -167,6 +178,7 @@ public class AWTColorbarImageGenerator extends AWTAbstractImageGenerator
   }
 
   public int getMaxTickLabelWidth(IPainter painter) {
+    updateRange();
     int maxWidth = 0;
     if (provider != null) {
       double[] ticks = provider.generateTicks(min, max);
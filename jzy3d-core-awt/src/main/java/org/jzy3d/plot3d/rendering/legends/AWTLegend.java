@@ -1,7 +1,11 @@
 package org.jzy3d.plot3d.rendering.legends;
 
+import java.awt.Image;
 import java.awt.image.BufferedImage;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.jzy3d.chart.ChartView;
 import org.jzy3d.colors.Color;
 import org.jzy3d.events.DrawableChangedEvent;
@@ -30,7 +34,10 @@ import org.jzy3d.plot3d.rendering.view.AWTImageViewport;
  * Last, a {@link AWTLegend} optimizes rendering by :
  * <ul>
  * <li>storing current image dimension,
- * <li>computing a new image only if the required {@link AWTLegend} dimensions changed.
+ * <li>computing a new image only if the required {@link AWTLegend} dimensions changed,
+ * <li>keeping the last rendered images in a small cache if {@link #imageKey(int, int)} describes
+ * what the image depends on. The cache is cleared by {@link #updateImage()} and when the parent
+ * {@link Drawable} changes its colors.
  * </ul>
  * 
  * @author Martin Pernollet
@@ -41,7 +48,23 @@ public abstract class AWTLegend extends AWTImageViewport implements IDrawableLis
   protected Color background;
   protected Dimension minimumDimension;
   protected AWTImageGenerator imageGenerator;
-  
+
+  /** Number of images kept by the cache, e.g. for each pixel scale when toggling HiDPI. */
+  public static int IMAGE_CACHE_SIZE = 4;
+
+  protected Map<Object, CachedImage> imageCache =
+      new LinkedHashMap<Object, CachedImage>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, CachedImage> eldest) {
+          return size() > IMAGE_CACHE_SIZE;
+        }
+      };
+  protected Object imageKey;
+  protected int imageCacheHits = 0;
+  protected int imageCacheMisses = 0;
+
   public AWTLegend(Drawable drawable) {
     this.drawable = drawable;
     if (drawable != null) {
@@ -72,20 +95,84 @@ public abstract class AWTLegend extends AWTImageViewport implements IDrawableLis
 
     int imgWidth = getSliceWidth(width, left, right);
 
-    if (imageWidth != imgWidth || imageHeight != height) {
-      //imageWidth = imgWidth;
-      //imageHeight = height;
-      //updateImage();
+    Object key = imageKey(imgWidth, height);
+
+    if (key != null) {
+      if (!key.equals(imageKey))
+        setCachedImage(key, imgWidth, height);
+    } else if (imageWidth != imgWidth || imageHeight != height) {
       setImage(toImage(imgWidth, height));
     }
   }
 
   @Override
   public void drawableChanged(DrawableChangedEvent e) {
-    if (e.what() == DrawableChangedEvent.FIELD_COLOR)
+    if (e.what() == DrawableChangedEvent.FIELD_COLOR) {
+      clearImageCache();
       updateImage();
+    }
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Return a key describing everything the image of this legend depends on for the given size, or
+   * null if images should not be cached, which is the default. Keys must implement equals and
+   * hashCode.
+   */
+  protected Object imageKey(int width, int height) {
+    return null;
+  }
+
+  /** Set the image matching the key, rendering it with {@link #toImage(int, int)} if not cached. */
+  protected void setCachedImage(Object key, int width, int height) {
+    CachedImage cached = imageCache.get(key);
+
+    if (cached == null) {
+      imageCacheMisses++;
+      BufferedImage rendered = toImage(width, height);
+      if (rendered == null)
+        return;
+      setImage(rendered);
+      imageCache.put(key, new CachedImage(image, imageWidth, imageHeight, imageData));
+    } else {
+      imageCacheHits++;
+      setImage(cached.image, cached.width, cached.height, cached.data);
+    }
+    imageKey = key;
   }
 
+  /** Forget all cached images, so that the next image is rendered again. */
+  public void clearImageCache() {
+    imageCache.clear();
+    imageKey = null;
+  }
+
+  public int getImageCacheHits() {
+    return imageCacheHits;
+  }
+
+  public int getImageCacheMisses() {
+    return imageCacheMisses;
+  }
+
+  /** An image rendered by the legend and its pixels prepared for the painter. */
+  protected static class CachedImage {
+    protected Image image;
+    protected int width;
+    protected int height;
+    protected ByteBuffer data;
+
+    public CachedImage(Image image, int width, int height, ByteBuffer data) {
+      this.image = image;
+      this.width = width;
+      this.height = height;
+      this.data = data;
+    }
+  }
+
+  /* ***************************************************************** */
+
 
   @Override
   public void updateImage() {
@@ -1,6 +1,7 @@
 package org.jzy3d.plot3d.rendering.legends.colorbars;
 
 import java.awt.image.BufferedImage;
+import java.util.Arrays;
 import org.apache.log4j.Logger;
 import org.jzy3d.chart.Chart;
 import org.jzy3d.colors.Color;
@@ -155,9 +156,115 @@ public class AWTColorbarLegend extends AWTLegend implements IColorbarLegend {
     return null;
   }
 
+  /** Render the image again, e.g. after editing the colormap or the ticks. */
   @Override
   public void updateImage() {
-    setImage(toImage(askedWidth, askedHeight));
+    clearImageCache();
+    setCachedImage(imageKey(askedWidth, askedHeight), askedWidth, askedHeight);
+  }
+
+  /**
+   * The image depends on its size, margin, pixel scale, colormapper range, colors, and on the
+   * colormap, ticks and font.
+   *
+   * The colormap, tick provider, tick renderer and font are compared by reference, since comparing
+   * their content would require sampling colors and formatting ticks at each frame. Editing them in
+   * place requires {@link #updateImage()}.
+   */
+  @Override
+  protected Object imageKey(int width, int height) {
+    if (imageGenerator == null)
+      return null;
+
+    AWTColorbarImageGenerator generator = getImageGenerator();
+    return new ImageKey(width, height, margin, pixelScale, generator.getMapper(), provider,
+        renderer, foreground, background, generator.getFont());
+  }
+
+  /** The values an image depends on, compared from the cheapest to the most expensive. */
+  protected static class ImageKey {
+    protected final int width;
+    protected final int height;
+    protected final int marginWidth;
+    protected final int marginHeight;
+    protected final float scaleX;
+    protected final float scaleY;
+    protected final double min;
+    protected final double max;
+    protected final float[] colors;
+    protected final Object mapper;
+    protected final Object colorMap;
+    protected final Object provider;
+    protected final Object renderer;
+    protected final Object font;
+
+    public ImageKey(int width, int height, Dimension margin, Coord2d pixelScale,
+        ColorMapper mapper, ITickProvider provider, ITickRenderer renderer, Color foreground,
+        Color background, Font font) {
+      this.width = width;
+      this.height = height;
+      this.marginWidth = margin.width;
+      this.marginHeight = margin.height;
+      this.scaleX = pixelScale.x;
+      this.scaleY = pixelScale.y;
+      this.min = mapper.getMin();
+      this.max = mapper.getMax();
+      this.colors = new float[8];
+      put(foreground, colors, 0);
+      put(background, colors, 4);
+      this.mapper = mapper;
+      this.colorMap = mapper.getColorMap();
+      this.provider = provider;
+      this.renderer = renderer;
+      this.font = font;
+    }
+
+    protected static void put(Color color, float[] colors, int offset) {
+      if (color == null)
+        Arrays.fill(colors, offset, offset + 4, Float.NaN);
+      else {
+        colors[offset] = color.r;
+        colors[offset + 1] = color.g;
+        colors[offset + 2] = color.b;
+        colors[offset + 3] = color.a;
+      }
+    }
+
+    @Override
+    public int hashCode() {
+      int result = width;
+      result = 31 * result + height;
+      result = 31 * result + marginWidth;
+      result = 31 * result + marginHeight;
+      result = 31 * result + Float.floatToIntBits(scaleX);
+      result = 31 * result + Float.floatToIntBits(scaleY);
+      result = 31 * result + Double.hashCode(min);
+      result = 31 * result + Double.hashCode(max);
+      return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj)
+        return true;
+      if (!(obj instanceof ImageKey))
+        return false;
+      ImageKey other = (ImageKey) obj;
+      return width == other.width && height == other.height && marginWidth == other.marginWidth
+          && marginHeight == other.marginHeight && scaleX == other.scaleX
+          && scaleY == other.scaleY && Double.compare(min, other.min) == 0
+          && Double.compare(max, other.max) == 0 && mapper == other.mapper
+          && colorMap == other.colorMap && provider == other.provider
+          && renderer == other.renderer && font == other.font
+          && Arrays.equals(colors, other.colors);
+    }
+  }
+
+  @Override
+  protected void setCachedImage(Object key, int width, int height) {
+    askedWidth = width;
+    askedHeight = height;
+    super.setCachedImage(key, width, height);
   }
 
   public Dimension getMargin() {
@@ -165,12 +272,10 @@ public class AWTColorbarLegend extends AWTLegend implements IColorbarLegend {
   }
 
   public void setMargin(Dimension margin) {
+    this.margin = margin;
     if (image != null) {
-      // updateImage();
-      setImage(toImage(askedWidth, askedHeight, margin, pixelScale));
-
+      setCachedImage(imageKey(askedWidth, askedHeight), askedWidth, askedHeight);
     }
-    this.margin = margin;
   }
 
   /** Update the image with pixel scale if scale changed */
@@ -179,7 +284,7 @@ public class AWTColorbarLegend extends AWTLegend implements IColorbarLegend {
     if (!this.pixelScale.equals(pixelScale)) {
       this.pixelScale = pixelScale;
       getImageGenerator().setPixelScale(pixelScale);
-      setImage(toImage(askedWidth, askedHeight, margin, pixelScale));
+      setCachedImage(imageKey(askedWidth, askedHeight), askedWidth, askedHeight);
     }
   }
   
@@ -0,0 +1,74 @@
+package org.jzy3d.io;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.jzy3d.io.AsyncImageExporter.DropPolicy;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestAsyncImageExporter {
+  @Test
+  public void dropOldestWhenEncoderIsLate() throws InterruptedException {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Set<Integer> encoded = Collections.synchronizedSet(new HashSet<>());
+
+    AsyncImageExporter exporter = new AsyncImageExporter(frame -> {
+      started.countDown();
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        return;
+      }
+      encoded.add(frame.getId());
+    }, 1, 2, DropPolicy.DROP_OLDEST);
+    exporter.setCopy(true);
+
+    BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+
+    // first frame blocks the encoder, the queue then keeps the 2 last frames
+    exporter.export(image);
+    Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+    for (int i = 1; i < 10; i++) {
+      image.setRGB(0, 0, i);
+      exporter.export(image);
+    }
+    Assert.assertEquals(10, exporter.getExportedFrames());
+    Assert.assertEquals(7, exporter.getDroppedFrames());
+
+    release.countDown();
+    exporter.terminate(5, TimeUnit.SECONDS);
+
+    Assert.assertEquals(3, exporter.getEncodedFrames());
+    Assert.assertEquals(new HashSet<>(Arrays.asList(0, 8, 9)), encoded);
+    Assert.assertEquals(-1, exporter.export(image, null));
+  }
+
+  @Test
+  public void blockEncodesAllCopiedFrames() {
+    int[] pixels = new int[20];
+
+    AsyncImageExporter exporter = new AsyncImageExporter(frame -> {
+      pixels[frame.getId()] = frame.getImage().getRGB(1, 1);
+    }, 3, 2, DropPolicy.BLOCK);
+    exporter.setCopy(true);
+
+    // the same image is modified after each export, copies keep each frame content
+    BufferedImage image = new BufferedImage(4, 4, BufferedImage.TYPE_INT_ARGB);
+    for (int i = 0; i < pixels.length; i++) {
+      image.setRGB(1, 1, 0xff000000 | i);
+      exporter.export(image);
+    }
+    exporter.terminate(5, TimeUnit.SECONDS);
+
+    Assert.assertEquals(pixels.length, exporter.getEncodedFrames());
+    Assert.assertEquals(0, exporter.getDroppedFrames());
+    for (int i = 0; i < pixels.length; i++)
+      Assert.assertEquals(0xff000000 | i, pixels[i]);
+  }
+}
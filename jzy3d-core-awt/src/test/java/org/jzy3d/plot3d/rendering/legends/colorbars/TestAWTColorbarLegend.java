@@ -1,5 +1,6 @@
 package org.jzy3d.plot3d.rendering.legends.colorbars;
 
+import java.awt.Image;
 import org.junit.Assert;
 import org.junit.Test;
 import org.jzy3d.colors.Color;
@@ -14,6 +15,7 @@ import org.jzy3d.plot3d.builder.SurfaceBuilder;
 import org.jzy3d.plot3d.builder.concrete.OrthonormalGrid;
 import org.jzy3d.plot3d.primitives.Shape;
 import org.jzy3d.plot3d.primitives.axis.layout.AxisLayout;
+import org.jzy3d.plot3d.primitives.axis.layout.renderers.TickLabelMap;
 
 /**
 //tester toute l'api
@@ -71,6 +73,81 @@ public class TestAWTColorbarLegend {
     // But the [EmulGL]+ViewAndColorbarLayout will fix the layout due to pixel scale
   }
   
+  @Test
+  public void whenViewportUnchanged_thenImageIsNotRenderedAgain() {
+    // Given
+    Shape surface = surface();
+    AWTColorbarLegend legend = new AWTColorbarLegend(surface, new AxisLayout());
+
+    // When setting the same viewport twice
+    legend.setViewPort(300, 600, 0.8f, 1f);
+    Image image = legend.getImage();
+    legend.setViewPort(300, 600, 0.8f, 1f);
+
+    // Then image is rendered once
+    Assert.assertSame(image, legend.getImage());
+    Assert.assertEquals(1, legend.getImageCacheMisses());
+
+    // When toggling pixel scale back and forth
+    legend.updatePixelScale(new Coord2d(2, 2));
+    legend.updatePixelScale(new Coord2d(1, 1));
+
+    // Then the first image is taken from the cache
+    Assert.assertSame(image, legend.getImage());
+    Assert.assertEquals(2, legend.getImageCacheMisses());
+    Assert.assertEquals(1, legend.getImageCacheHits());
+
+    // When the colormap range changes
+    surface.getColorMapper().setMax(surface.getColorMapper().getMax() + 1);
+    legend.setViewPort(300, 600, 0.8f, 1f);
+
+    // Then image is rendered again
+    Assert.assertNotSame(image, legend.getImage());
+    Assert.assertEquals(3, legend.getImageCacheMisses());
+
+    // When drawable colors change
+    image = legend.getImage();
+    surface.setColorMapper(surface.getColorMapper());
+
+    // Then image is rendered again
+    Assert.assertNotSame(image, legend.getImage());
+  }
+
+  @Test
+  public void whenColormapOrTicksEditedInPlace_thenUpdateImageRendersAgain() {
+    // Given
+    Shape surface = surface();
+    AxisLayout layout = new AxisLayout();
+    TickLabelMap labels = new TickLabelMap();
+    AWTColorbarLegend legend =
+        new AWTColorbarLegend(surface, layout.getZTickProvider(), labels);
+    legend.setViewPort(300, 600, 0.8f, 1f);
+    Image image = legend.getImage();
+
+    // When the colormap is reversed in place
+    ((ColorMapRainbow) surface.getColorMapper().getColorMap()).setDirection(false);
+    legend.setViewPort(300, 600, 0.8f, 1f);
+
+    // Then the image is kept until updated
+    Assert.assertSame(image, legend.getImage());
+    legend.updateImage();
+    legend.setViewPort(300, 600, 0.8f, 1f);
+    Assert.assertNotSame(image, legend.getImage());
+    Assert.assertEquals(2, legend.getImageCacheMisses());
+    image = legend.getImage();
+
+    // When a tick label is edited in place
+    ColorMapper mapper = surface.getColorMapper();
+    double tick = layout.getZTickProvider().generateTicks(mapper.getMin(), mapper.getMax())[0];
+    labels.register(tick, "first");
+    legend.updateImage();
+    legend.setViewPort(300, 600, 0.8f, 1f);
+
+    // Then image is rendered again
+    Assert.assertNotSame(image, legend.getImage());
+    Assert.assertEquals(3, legend.getImageCacheMisses());
+  }
+
   public void whenMinimumDimension_Then() {
     AWTColorbarLegend legend = new AWTColorbarLegend(surface(), new AxisLayout());
     Dimension margin = legend.getMargin();
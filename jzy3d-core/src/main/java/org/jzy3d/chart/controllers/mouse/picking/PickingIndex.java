@@ -0,0 +1,403 @@
+package org.jzy3d.chart.controllers.mouse.picking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import org.jzy3d.io.mesh.MeshChunker;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Frustum;
+import org.jzy3d.plot3d.primitives.Drawable;
+import org.jzy3d.plot3d.primitives.Point;
+import org.jzy3d.plot3d.primitives.pickable.Pickable;
+import org.jzy3d.plot3d.primitives.pickable.PickablePoint;
+import org.jzy3d.plot3d.primitives.pickable.PickablePolygon;
+import org.jzy3d.plot3d.primitives.pickable.PickableSphere;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
+
+/**
+ * A bounding volume hierarchy over {@link Pickable}s allowing to pick them on CPU, without
+ * rendering the scene in OpenGL selection mode.
+ *
+ * A pick region of the screen defines a narrow frustum, built as gluPickMatrix would do. Nodes of
+ * the hierarchy out of this frustum are skipped, and remaining items are tested according to their
+ * shape :
+ * <ul>
+ * <li>{@link PickablePoint} is picked if its coordinate lies in the frustum.
+ * <li>{@link PickableSphere} is picked if its sphere intersects the frustum.
+ * <li>{@link PickablePolygon} is picked if one of its vertices lies in the frustum or if the pick
+ * ray hits the polygon.
+ * <li>any other pickable {@link Drawable} is picked if its bounds intersect the frustum.
+ * </ul>
+ *
+ * Picked items are sorted by depth along the pick ray, closest first.
+ *
+ * Item coordinates are read once when building the index, which should be built again if pickables
+ * move.
+ *
+ * @author Martin Pernollet
+ */
+public class PickingIndex {
+  public static final int LEAF_SIZE = 8;
+
+  protected static final int POINT = 0;
+  protected static final int SPHERE = 1;
+  protected static final int POLYGON = 2;
+  protected static final int BOX = 3;
+
+  protected Pickable[] items;
+  protected int[] kinds;
+  /** xmin, xmax, ymin, ymax, zmin, zmax of each item. */
+  protected float[] bounds;
+  /** x, y, z of polygon vertices, null for other items. */
+  protected float[][] shapes;
+  protected int[] order;
+
+  protected int nodes = 0;
+  protected float[] nodeBounds;
+  protected int[] nodeFrom;
+  protected int[] nodeTo;
+  protected int[] nodeLeft;
+  protected int[] nodeRight;
+
+  public PickingIndex(Collection<? extends Pickable> pickables) {
+    List<Pickable> indexed = new ArrayList<>(pickables.size());
+    for (Pickable pickable : pickables)
+      if (pickable instanceof Drawable)
+        indexed.add(pickable);
+
+    int n = indexed.size();
+    items = indexed.toArray(new Pickable[n]);
+    kinds = new int[n];
+    bounds = new float[n * 6];
+    shapes = new float[n][];
+
+    float[] centers = new float[n * 3];
+    for (int i = 0; i < n; i++) {
+      setItem(i, items[i]);
+      for (int k = 0; k < 3; k++)
+        centers[i * 3 + k] = (bounds[i * 6 + k * 2] + bounds[i * 6 + k * 2 + 1]) / 2;
+    }
+
+    order = new int[n];
+    for (int i = 0; i < n; i++)
+      order[i] = i;
+
+    int capacity = Math.max(1, n / LEAF_SIZE * 4);
+    nodeBounds = new float[capacity * 6];
+    nodeFrom = new int[capacity];
+    nodeTo = new int[capacity];
+    nodeLeft = new int[capacity];
+    nodeRight = new int[capacity];
+    if (n > 0)
+      build(centers, 0, n);
+  }
+
+  protected void setItem(int i, Pickable pickable) {
+    if (pickable instanceof PickablePoint) {
+      Coord3d c = ((PickablePoint) pickable).getCoord();
+      kinds[i] = POINT;
+      setBounds(i, c.x, c.x, c.y, c.y, c.z, c.z);
+    } else if (pickable instanceof PickableSphere) {
+      // the bounds of a sphere are a cube around its position
+      kinds[i] = SPHERE;
+      setBounds(i, ((Drawable) pickable).getBounds());
+    } else if (pickable instanceof PickablePolygon) {
+      List<Point> points = ((PickablePolygon) pickable).getPoints();
+      float[] shape = new float[points.size() * 3];
+      BoundingBox3d box = new BoundingBox3d();
+      for (int p = 0; p < points.size(); p++) {
+        Coord3d c = points.get(p).getCoord();
+        shape[p * 3] = c.x;
+        shape[p * 3 + 1] = c.y;
+        shape[p * 3 + 2] = c.z;
+        box.add(c);
+      }
+      kinds[i] = POLYGON;
+      shapes[i] = shape;
+      setBounds(i, box);
+    } else {
+      kinds[i] = BOX;
+      setBounds(i, ((Drawable) pickable).getBounds());
+    }
+  }
+
+  protected void setBounds(int i, BoundingBox3d box) {
+    if (box == null || !box.valid())
+      // can not be picked
+      setBounds(i, Float.NaN, Float.NaN, Float.NaN, Float.NaN, Float.NaN, Float.NaN);
+    else
+      setBounds(i, box.getXmin(), box.getXmax(), box.getYmin(), box.getYmax(), box.getZmin(),
+          box.getZmax());
+  }
+
+  protected void setBounds(int i, float xmin, float xmax, float ymin, float ymax, float zmin,
+      float zmax) {
+    float[] b = {xmin, xmax, ymin, ymax, zmin, zmax};
+    System.arraycopy(b, 0, bounds, i * 6, 6);
+  }
+
+  /* ***************************************************************** */
+
+  /** Split items [from, to[ in two halves along the longest axis of their centers. */
+  protected int build(float[] centers, int from, int to) {
+    int node = newNode();
+    nodeFrom[node] = from;
+    nodeTo[node] = to;
+    nodeLeft[node] = -1;
+    nodeRight[node] = -1;
+
+    float[] b = {Float.MAX_VALUE, -Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE,
+        Float.MAX_VALUE, -Float.MAX_VALUE};
+    float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+    float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+    for (int i = from; i < to; i++) {
+      int item = order[i];
+      for (int k = 0; k < 3; k++) {
+        // NaN bounds of items that can not be picked are ignored by min and max comparisons
+        if (bounds[item * 6 + k * 2] < b[k * 2])
+          b[k * 2] = bounds[item * 6 + k * 2];
+        if (bounds[item * 6 + k * 2 + 1] > b[k * 2 + 1])
+          b[k * 2 + 1] = bounds[item * 6 + k * 2 + 1];
+        float c = centers[item * 3 + k];
+        if (c < min[k])
+          min[k] = c;
+        if (c > max[k])
+          max[k] = c;
+      }
+    }
+    System.arraycopy(b, 0, nodeBounds, node * 6, 6);
+
+    if (to - from <= LEAF_SIZE)
+      return node;
+
+    int axis = 0;
+    for (int k = 1; k < 3; k++)
+      if (max[k] - min[k] > max[axis] - min[axis])
+        axis = k;
+
+    int mid = (from + to) >>> 1;
+    MeshChunker.select(order, centers, axis, from, to - 1, mid);
+
+    int left = build(centers, from, mid);
+    int right = build(centers, mid, to);
+    nodeLeft[node] = left;
+    nodeRight[node] = right;
+    return node;
+  }
+
+  protected int newNode() {
+    if (nodes == nodeFrom.length) {
+      int capacity = nodes * 2;
+      nodeBounds = Arrays.copyOf(nodeBounds, capacity * 6);
+      nodeFrom = Arrays.copyOf(nodeFrom, capacity);
+      nodeTo = Arrays.copyOf(nodeTo, capacity);
+      nodeLeft = Arrays.copyOf(nodeLeft, capacity);
+      nodeRight = Arrays.copyOf(nodeRight, capacity);
+    }
+    return nodes++;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Return the items lying in a region of width x height pixels centered on the window coordinates
+   * (x, y), closest first.
+   *
+   * @param projection the camera projection matrix, in column-major order.
+   * @param modelView the model view matrix applied to the pickables, in column-major order.
+   * @param viewport x, y, width, height of the viewport, as given by
+   *        {@link org.jzy3d.painters.IPainter#getViewPortAsInt()}
+   */
+  public List<Pickable> pick(float[] projection, float[] modelView, int[] viewport, double x,
+      double y, double width, double height) {
+    List<Pickable> picked = new ArrayList<>();
+    if (nodes == 0)
+      return picked;
+
+    float[] pick = pickMatrix(x, y, width, height, viewport);
+    Frustum frustum = new Frustum(Frustum.multiply(pick, projection), modelView);
+    float[] ray = ray(Frustum.multiply(projection, modelView), viewport, x, y);
+    if (ray == null)
+      return picked;
+
+    List<float[]> depths = new ArrayList<>();
+    int[] stack = new int[64];
+    int top = 0;
+    stack[top++] = 0;
+
+    while (top > 0) {
+      int node = stack[--top];
+      int b = node * 6;
+      if (!(nodeBounds[b] <= nodeBounds[b + 1]) || !frustum.intersects(nodeBounds[b],
+          nodeBounds[b + 1], nodeBounds[b + 2], nodeBounds[b + 3], nodeBounds[b + 4],
+          nodeBounds[b + 5]))
+        continue;
+
+      if (nodeLeft[node] >= 0) {
+        if (top + 2 > stack.length)
+          stack = Arrays.copyOf(stack, stack.length * 2);
+        stack[top++] = nodeLeft[node];
+        stack[top++] = nodeRight[node];
+        continue;
+      }
+
+      for (int i = nodeFrom[node]; i < nodeTo[node]; i++) {
+        int item = order[i];
+        float depth = hit(item, frustum, ray);
+        if (!Float.isNaN(depth))
+          depths.add(new float[] {depth, item});
+      }
+    }
+
+    depths.sort((a, b) -> Float.compare(a[0], b[0]));
+    for (float[] depth : depths)
+      picked.add(items[(int) depth[1]]);
+    return picked;
+  }
+
+  /** Return the depth of the item along the ray if picked, NaN otherwise. */
+  protected float hit(int item, Frustum frustum, float[] ray) {
+    int b = item * 6;
+    float xmin = bounds[b], xmax = bounds[b + 1];
+    float ymin = bounds[b + 2], ymax = bounds[b + 3];
+    float zmin = bounds[b + 4], zmax = bounds[b + 5];
+    if (!(xmin <= xmax))
+      return Float.NaN;
+
+    switch (kinds[item]) {
+      case POINT:
+        if (frustum.intersects(xmin, ymin, zmin, 0))
+          return depth(ray, xmin, ymin, zmin);
+        return Float.NaN;
+
+      case SPHERE: {
+        float r = (xmax - xmin) / 2;
+        float cx = xmin + r, cy = ymin + r, cz = zmin + r;
+        if (frustum.intersects(cx, cy, cz, r))
+          return depth(ray, cx, cy, cz) - r;
+        return Float.NaN;
+      }
+
+      case POLYGON:
+        if (!frustum.intersects(xmin, xmax, ymin, ymax, zmin, zmax))
+          return Float.NaN;
+        return hitPolygon(shapes[item], frustum, ray);
+
+      default:
+        if (frustum.intersects(xmin, xmax, ymin, ymax, zmin, zmax))
+          return depth(ray, (xmin + xmax) / 2, (ymin + ymax) / 2, (zmin + zmax) / 2);
+        return Float.NaN;
+    }
+  }
+
+  /**
+   * A polygon is picked at the point hit by the ray, if any, otherwise at its closest vertex lying
+   * in the frustum.
+   */
+  protected float hitPolygon(float[] shape, Frustum frustum, float[] ray) {
+    int n = shape.length / 3;
+
+    // triangle fan, as polygons are drawn
+    for (int p = 1; p < n - 1; p++) {
+      float t = intersectTriangle(ray, shape, 0, p * 3, (p + 1) * 3);
+      if (!Float.isNaN(t))
+        return t;
+    }
+
+    float closest = Float.NaN;
+    for (int p = 0; p < n; p++) {
+      float x = shape[p * 3], y = shape[p * 3 + 1], z = shape[p * 3 + 2];
+      if (frustum.intersects(x, y, z, 0)) {
+        float depth = depth(ray, x, y, z);
+        if (!(closest <= depth))
+          closest = depth;
+      }
+    }
+    return closest;
+  }
+
+  /* ***************************************************************** */
+
+  /** Same matrix as gluPickMatrix, in column-major order. */
+  protected static float[] pickMatrix(double x, double y, double width, double height,
+      int[] viewport) {
+    float[] m = new float[16];
+    m[0] = (float) (viewport[2] / width);
+    m[5] = (float) (viewport[3] / height);
+    m[10] = 1;
+    m[12] = (float) ((viewport[2] - 2 * (x - viewport[0])) / width);
+    m[13] = (float) ((viewport[3] - 2 * (y - viewport[1])) / height);
+    m[15] = 1;
+    return m;
+  }
+
+  /**
+   * The ray going through the window coordinates (x, y) from the near to the far plane, as origin
+   * x, y, z followed by a unit direction x, y, z. Return null if the matrix can not be inverted.
+   */
+  protected static float[] ray(float[] projectionModelView, int[] viewport, double x, double y) {
+    float[] inverse = ScreenProjection.invert(projectionModelView);
+    if (inverse == null)
+      return null;
+
+    float nx = (float) (2 * (x - viewport[0]) / viewport[2] - 1);
+    float ny = (float) (2 * (y - viewport[1]) / viewport[3] - 1);
+    float[] near = unproject(inverse, nx, ny, -1);
+    float[] far = unproject(inverse, nx, ny, 1);
+
+    float dx = far[0] - near[0], dy = far[1] - near[1], dz = far[2] - near[2];
+    float norm = (float) Math.sqrt(dx * dx + dy * dy + dz * dz);
+    if (norm == 0)
+      return null;
+    return new float[] {near[0], near[1], near[2], dx / norm, dy / norm, dz / norm};
+  }
+
+  protected static float[] unproject(float[] inverse, float x, float y, float z) {
+    float[] out = new float[4];
+    for (int row = 0; row < 4; row++)
+      out[row] = inverse[row] * x + inverse[4 + row] * y + inverse[8 + row] * z + inverse[12 + row];
+    return new float[] {out[0] / out[3], out[1] / out[3], out[2] / out[3]};
+  }
+
+  protected static float depth(float[] ray, float x, float y, float z) {
+    return (x - ray[0]) * ray[3] + (y - ray[1]) * ray[4] + (z - ray[2]) * ray[5];
+  }
+
+  /** Möller-Trumbore ray triangle intersection, returning the ray parameter or NaN. */
+  protected static float intersectTriangle(float[] ray, float[] v, int a, int b, int c) {
+    float e1x = v[b] - v[a], e1y = v[b + 1] - v[a + 1], e1z = v[b + 2] - v[a + 2];
+    float e2x = v[c] - v[a], e2y = v[c + 1] - v[a + 1], e2z = v[c + 2] - v[a + 2];
+
+    float px = ray[4] * e2z - ray[5] * e2y;
+    float py = ray[5] * e2x - ray[3] * e2z;
+    float pz = ray[3] * e2y - ray[4] * e2x;
+    float det = e1x * px + e1y * py + e1z * pz;
+    if (Math.abs(det) < 1e-12f)
+      return Float.NaN;
+    float inv = 1 / det;
+
+    float tx = ray[0] - v[a], ty = ray[1] - v[a + 1], tz = ray[2] - v[a + 2];
+    float u = (tx * px + ty * py + tz * pz) * inv;
+    if (u < 0 || u > 1)
+      return Float.NaN;
+
+    float qx = ty * e1z - tz * e1y;
+    float qy = tz * e1x - tx * e1z;
+    float qz = tx * e1y - ty * e1x;
+    float w = (ray[3] * qx + ray[4] * qy + ray[5] * qz) * inv;
+    if (w < 0 || u + w > 1)
+      return Float.NaN;
+
+    float t = (e2x * qx + e2y * qy + e2z * qz) * inv;
+    return t >= 0 ? t : Float.NaN;
+  }
+
+  /* ***************************************************************** */
+
+  /** Number of indexed pickables. */
+  public int size() {
+    return items.length;
+  }
+}
@@ -22,6 +22,13 @@ import org.jzy3d.plot3d.transform.Scale;
 import org.jzy3d.plot3d.transform.Transform;
 
 /**
+ * Pick objects under the mouse.
+ * 
+ * By default, pickables are picked on CPU by a {@link PickingIndex} over their geometry, which works
+ * the same for all canvas and does not render the scene again. Picked objects are sorted by depth,
+ * closest first. The former OpenGL selection mode can be enabled with
+ * {@link #setRayCasting(boolean)}.
+ * 
  * @see: http://www.opengl.org/resources/faq/technical/selection.htm
  * 
  * @author Martin Pernollet
@@ -37,6 +44,8 @@ public class PickingSupport {
   protected Map<Pickable, Object> pickableTargets = new HashMap<>();
   protected int brushSize;
   protected int bufferSize;
+  protected boolean rayCasting = true;
+  protected PickingIndex index;
 
   public PickingSupport() {
     this(BRUSH_SIZE);
@@ -79,6 +88,7 @@ public class PickingSupport {
     pickable.setPickingId(pickId++);
     pickables.put(pickable.getPickingId(), pickable);
     pickableTargets.put(pickable, model);
+    index = null;
   }
 
   public synchronized void getPickableObject(int id) {
@@ -90,6 +100,53 @@ public class PickingSupport {
   protected TicToc perf = new TicToc();
 
   public void pickObjects(IPainter painter, View view, Graph graph, IntegerCoord2d pickPoint) {
+    if (rayCasting)
+      pickObjectsRayCasting(painter, view, pickPoint);
+    else
+      pickObjectsGLSelect(painter, view, graph, pickPoint);
+  }
+
+  /**
+   * Pick with the current camera projection, which is the only information read from GL, pickables
+   * being tested by the {@link PickingIndex}.
+   */
+  protected void pickObjectsRayCasting(IPainter painter, View view, IntegerCoord2d pickPoint) {
+    perf.tic();
+
+    painter.acquireGL();
+    painter.glMatrixMode_Projection();
+    painter.glPushMatrix();
+    painter.glLoadIdentity();
+    view.getCamera().doShoot(painter, view.getCameraMode());
+    float[] projection = painter.getProjectionAsFloat();
+    int[] viewport = painter.getViewPortAsInt();
+    painter.glPopMatrix();
+    painter.glMatrixMode_ModelView();
+    painter.releaseGL();
+
+    // pickables are drawn with the view scaling as model view
+    Coord3d scaling = view.getLastViewScaling();
+    float[] modelView = new float[16];
+    modelView[0] = scaling.x;
+    modelView[5] = scaling.y;
+    modelView[10] = scaling.z;
+    modelView[15] = 1;
+
+    List<Pickable> picked = getIndex().pick(projection, modelView, viewport, pickPoint.x,
+        pickPoint.y, brushSize, brushSize);
+
+    List<Object> clickedObjects = new ArrayList<>(picked.size());
+    synchronized (this) {
+      for (Pickable pickable : picked)
+        clickedObjects.add(pickableTargets.get(pickable));
+    }
+    perf.toc();
+
+    fireObjectPicked(clickedObjects);
+  }
+
+  protected void pickObjectsGLSelect(IPainter painter, View view, Graph graph,
+      IntegerCoord2d pickPoint) {
     perf.tic();
 
     IntBuffer selectBuffer = newDirectIntBuffer(bufferSize);
@@ -239,6 +296,30 @@ public class PickingSupport {
   public synchronized void unRegisterAllPickableObjects() {
     pickables.clear();
     pickableTargets.clear();
+    index = null;
+  }
+
+  /** Build the picking index again at next pick, e.g. after moving pickables. */
+  public synchronized void invalidateIndex() {
+    index = null;
+  }
+
+  protected synchronized PickingIndex getIndex() {
+    if (index == null)
+      index = new PickingIndex(pickables.values());
+    return index;
+  }
+
+  public boolean isRayCasting() {
+    return rayCasting;
+  }
+
+  /**
+   * Pick on CPU with a {@link PickingIndex} if true (default), or by rendering pickables in OpenGL
+   * selection mode otherwise.
+   */
+  public void setRayCasting(boolean rayCasting) {
+    this.rayCasting = rayCasting;
   }
 
 }
@@ -0,0 +1,437 @@
+package org.jzy3d.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Read numbers and tokens of an ASCII text directly out of a {@link ByteBuffer}, without building a
+ * {@link String} per line or per value. Used by loaders working on memory mapped files.
+ *
+ * The scanner works on the range [position, limit[ of the given buffer, which remains untouched as
+ * all reads are made at absolute positions.
+ *
+ * Numbers are parsed with a fast path that accumulates the digits in a long and scales it with an
+ * exact power of ten, which is exact as long as the mantissa has less than 16 significant digits
+ * and the exponent is small. Other numbers fall back on {@link Double#parseDouble(String)}.
+ *
+ * @author Martin Pernollet
+ */
+public class AsciiScanner {
+  protected ByteBuffer buffer;
+  protected int position;
+  protected int limit;
+
+  public AsciiScanner(ByteBuffer buffer) {
+    this(buffer, buffer.position(), buffer.limit());
+  }
+
+  public AsciiScanner(ByteBuffer buffer, int start, int end) {
+    this.buffer = buffer;
+    this.position = start;
+    this.limit = end;
+  }
+
+  /* ***************************************************************** */
+
+  public boolean hasMore() {
+    return position < limit;
+  }
+
+  public int position() {
+    return position;
+  }
+
+  public void position(int position) {
+    this.position = position;
+  }
+
+  public int limit() {
+    return limit;
+  }
+
+  /** Return the current byte without consuming it, or -1 if the end is reached. */
+  public int peek() {
+    return position < limit ? buffer.get(position) : -1;
+  }
+
+  /** Return the byte at the given distance of the current position, or -1 if out of range. */
+  public int peek(int offset) {
+    int p = position + offset;
+    return p < limit ? buffer.get(p) : -1;
+  }
+
+  public void skip(int n) {
+    position = Math.min(position + n, limit);
+  }
+
+  /** Skip spaces and tabulations, but not line ends. */
+  public void skipBlanks() {
+    while (position < limit) {
+      byte b = buffer.get(position);
+      if (b == ' ' || b == '\t')
+        position++;
+      else
+        return;
+    }
+  }
+
+  /** Skip spaces, tabulations and line ends. */
+  public void skipWhitespaces() {
+    while (position < limit) {
+      byte b = buffer.get(position);
+      if (b == ' ' || b == '\t' || b == '\n' || b == '\r')
+        position++;
+      else
+        return;
+    }
+  }
+
+  /** Skip everything up to and including the next line end. */
+  public void nextLine() {
+    while (position < limit) {
+      if (buffer.get(position++) == '\n')
+        return;
+    }
+  }
+
+  /** Return true if the current position is on a line end (or at the end of the text). */
+  public boolean isEndOfLine() {
+    if (position >= limit)
+      return true;
+    byte b = buffer.get(position);
+    return b == '\n' || b == '\r';
+  }
+
+  /** Skip blanks and return true if a value remains to be read on the current line. */
+  public boolean hasNextOnLine() {
+    skipBlanks();
+    return !isEndOfLine();
+  }
+
+  /** Skip blanks and consume the given character if it is the next one. */
+  public boolean skipIf(char c) {
+    skipBlanks();
+    if (position < limit && buffer.get(position) == c) {
+      position++;
+      return true;
+    }
+    return false;
+  }
+
+  /** Skip the next token, i.e. everything up to a blank, a line end or the given separator. */
+  public void skipToken(char separator) {
+    while (position < limit) {
+      byte b = buffer.get(position);
+      if (b == ' ' || b == '\t' || b == '\n' || b == '\r' || b == separator)
+        return;
+      position++;
+    }
+  }
+
+  /**
+   * Skip everything up to the given separator or a line end, without consuming them. Unlike
+   * {@link #skipToken(char)}, blanks are part of the skipped text.
+   */
+  public void skipUntil(char separator) {
+    while (position < limit) {
+      byte b = buffer.get(position);
+      if (b == separator || b == '\n' || b == '\r')
+        return;
+      position++;
+    }
+  }
+
+  /** Read a token delimited by blanks or line ends. */
+  public String nextToken() {
+    skipBlanks();
+    int start = position;
+    skipToken(' ');
+    return string(start, position);
+  }
+
+  /** Read what remains of the current line, excluding the line end, and move to next line. */
+  public String nextLineString() {
+    int start = position;
+    while (position < limit) {
+      byte b = buffer.get(position);
+      if (b == '\n' || b == '\r')
+        break;
+      position++;
+    }
+    String line = string(start, position);
+    nextLine();
+    return line;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Read an integer, after skipping blanks.
+   *
+   * @throws NumberFormatException if no digit can be read.
+   */
+  public int nextInt() {
+    return (int) nextLong();
+  }
+
+  /**
+   * Read a long integer, after skipping blanks.
+   *
+   * @throws NumberFormatException if no digit can be read.
+   */
+  public long nextLong() {
+    skipBlanks();
+    int start = position;
+    boolean negative = false;
+
+    if (position < limit) {
+      byte b = buffer.get(position);
+      if (b == '-') {
+        negative = true;
+        position++;
+      } else if (b == '+') {
+        position++;
+      }
+    }
+
+    long value = 0;
+    int digits = 0;
+    while (position < limit) {
+      int d = buffer.get(position) - '0';
+      if (d < 0 || d > 9)
+        break;
+      value = value * 10 + d;
+      digits++;
+      position++;
+    }
+    if (digits == 0) {
+      throw new NumberFormatException("Not an integer at byte " + start + " : '"
+          + string(start, Math.min(start + 16, limit)) + "'");
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Read a float, after skipping blanks.
+   *
+   * @throws NumberFormatException if the text is not a number.
+   */
+  public float nextFloat() {
+    return (float) nextDouble();
+  }
+
+  /**
+   * Read a double, after skipping blanks. Accept decimal and scientific notations, as well as
+   * "nan", "inf" and "infinity" ignoring case.
+   *
+   * @throws NumberFormatException if the text is not a number.
+   */
+  public double nextDouble() {
+    skipBlanks();
+    int start = position;
+    boolean negative = false;
+
+    if (position < limit) {
+      byte b = buffer.get(position);
+      if (b == '-') {
+        negative = true;
+        position++;
+      } else if (b == '+') {
+        position++;
+      }
+    }
+
+    long mantissa = 0;
+    int significant = 0;
+    int exponent = 0;
+    int digits = 0;
+
+    // integer part
+    while (position < limit) {
+      int d = buffer.get(position) - '0';
+      if (d < 0 || d > 9)
+        break;
+      if (significant < MAX_SIGNIFICANT) {
+        if (mantissa != 0 || d != 0) {
+          mantissa = mantissa * 10 + d;
+          significant++;
+        }
+      } else {
+        exponent++;
+      }
+      digits++;
+      position++;
+    }
+
+    // decimal part
+    if (position < limit && buffer.get(position) == '.') {
+      position++;
+      while (position < limit) {
+        int d = buffer.get(position) - '0';
+        if (d < 0 || d > 9)
+          break;
+        if (significant < MAX_SIGNIFICANT) {
+          if (mantissa != 0 || d != 0) {
+            mantissa = mantissa * 10 + d;
+            significant++;
+          }
+          exponent--;
+        }
+        digits++;
+        position++;
+      }
+    }
+
+    if (digits == 0) {
+      return nextSpecial(start, negative);
+    }
+
+    // exponent part
+    boolean truncated = significant >= MAX_SIGNIFICANT;
+    if (position < limit && (buffer.get(position) == 'e' || buffer.get(position) == 'E')) {
+      int p = position + 1;
+      boolean negativeExp = false;
+      if (p < limit && (buffer.get(p) == '-' || buffer.get(p) == '+')) {
+        negativeExp = buffer.get(p) == '-';
+        p++;
+      }
+      int exp = 0;
+      int expDigits = 0;
+      while (p < limit) {
+        int d = buffer.get(p) - '0';
+        if (d < 0 || d > 9)
+          break;
+        if (exp < 100000)
+          exp = exp * 10 + d;
+        expDigits++;
+        p++;
+      }
+      if (expDigits > 0) {
+        exponent += negativeExp ? -exp : exp;
+        position = p;
+      }
+    }
+
+    double value;
+    if (mantissa == 0) {
+      value = 0;
+    } else if (!truncated && exponent >= -MAX_EXACT_POW && exponent <= MAX_EXACT_POW) {
+      value = exponent < 0 ? mantissa / POW10[-exponent] : mantissa * POW10[exponent];
+    } else {
+      value = Double.parseDouble(string(start, position));
+      return value;
+    }
+    return negative ? -value : value;
+  }
+
+  protected double nextSpecial(int start, boolean negative) {
+    int p = position;
+    while (p < limit && Character.isLetter(buffer.get(p)))
+      p++;
+    String word = string(position, p).toLowerCase();
+
+    if ("nan".equals(word)) {
+      position = p;
+      return Double.NaN;
+    } else if ("inf".equals(word) || "infinity".equals(word)) {
+      position = p;
+      return negative ? Double.NEGATIVE_INFINITY : Double.POSITIVE_INFINITY;
+    }
+    position = start;
+    throw new NumberFormatException("Not a number at byte " + start + " : '"
+        + string(start, Math.min(start + 16, limit)) + "'");
+  }
+
+  protected String string(int start, int end) {
+    byte[] bytes = new byte[end - start];
+    for (int i = 0; i < bytes.length; i++)
+      bytes[i] = buffer.get(start + i);
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+
+  /** Mantissa digits kept before the long accumulator may overflow. */
+  protected static final int MAX_SIGNIFICANT = 15;
+  /** Larger powers of ten are not exactly represented by a double. */
+  protected static final int MAX_EXACT_POW = 22;
+
+  protected static final double[] POW10 = new double[MAX_EXACT_POW + 1];
+
+  static {
+    POW10[0] = 1;
+    for (int i = 1; i < POW10.length; i++)
+      POW10[i] = POW10[i - 1] * 10;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Split the range [start, end[ of a file in at most <code>chunks</code> contiguous ranges, each of
+   * them starting at the beginning of a line. Returns the ranges boundaries, hence an array of
+   * (number of ranges + 1) offsets.
+   *
+   * This allows parsing a large text file concurrently, each thread reading its own range.
+   */
+  public static long[] splitOnLines(FileChannel channel, long start, long end, int chunks)
+      throws IOException {
+    chunks = (int) Math.max(1, Math.min(chunks, (end - start) / MIN_CHUNK_SIZE));
+
+    long[] bounds = new long[chunks + 1];
+    bounds[0] = start;
+    int n = 1;
+
+    ByteBuffer probe = ByteBuffer.allocate(4096);
+
+    for (int i = 1; i < chunks; i++) {
+      long nominal = start + (end - start) * i / chunks;
+      long split = nextLineStart(channel, Math.max(nominal, bounds[n - 1]), end, probe);
+      if (split > bounds[n - 1] && split < end)
+        bounds[n++] = split;
+    }
+    bounds[n++] = end;
+
+    if (n == bounds.length)
+      return bounds;
+    long[] trimmed = new long[n];
+    System.arraycopy(bounds, 0, trimmed, 0, n);
+    return trimmed;
+  }
+
+  /** Return the offset following the first line end found at or after from, or end. */
+  protected static long nextLineStart(FileChannel channel, long from, long end, ByteBuffer probe)
+      throws IOException {
+    long p = from;
+    while (p < end) {
+      probe.clear();
+      int read = channel.read(probe, p);
+      if (read <= 0)
+        return end;
+      for (int i = 0; i < read; i++) {
+        if (probe.get(i) == '\n')
+          return Math.min(p + i + 1, end);
+      }
+      p += read;
+    }
+    return end;
+  }
+
+  /** Below this size, splitting a file for concurrent parsing is not worth it. */
+  public static final long MIN_CHUNK_SIZE = 1 << 20;
+
+  /**
+   * Maximum size of a range mapped in memory at once, since a {@link ByteBuffer} is indexed with
+   * int.
+   */
+  public static final long MAX_CHUNK_SIZE = 1 << 30;
+
+  /**
+   * Return the number of chunks a file of the given size should be split in to be parsed by all
+   * available processors, without any chunk exceeding {@link #MAX_CHUNK_SIZE}.
+   */
+  public static int chunkCount(long size) {
+    int cores = Runtime.getRuntime().availableProcessors();
+    long minChunks = (size + MAX_CHUNK_SIZE - 1) / MAX_CHUNK_SIZE;
+    return (int) Math.max(cores, minChunks);
+  }
+}
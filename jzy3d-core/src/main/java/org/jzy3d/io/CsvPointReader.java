@@ -0,0 +1,431 @@
+package org.jzy3d.io;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.log4j.Logger;
+import org.jzy3d.maths.Coord3ds;
+import org.jzy3d.maths.FloatArrayList;
+
+/**
+ * Read points out of a CSV, TSV or space separated text file in a {@link Coord3ds}.
+ *
+ * The file is memory mapped and split in ranges aligned on line starts that are parsed
+ * concurrently with an {@link AsciiScanner}, so that a file is read once, without building a
+ * {@link String} per line or per value, and without building a {@link org.jzy3d.maths.Coord3d}
+ * per point.
+ *
+ * <pre>
+ * <code>
+ * CsvPointReader reader = new CsvPointReader();
+ * reader.setColumns(2, 3, 4); // x, y, z
+ * reader.setValueColumn(5); // e.g. temperature
+ * Coord3ds points = reader.read("sensor.csv");
+ * </code>
+ * </pre>
+ *
+ * Parsing rules :
+ * <ul>
+ * <li>the separator is guessed from the first line among comma, semicolon, tabulation and space,
+ * unless given with {@link #setSeparator(char)}. With a space or tabulation separator, consecutive
+ * blanks count as one separator.
+ * <li>the first line is skipped if it is not made of numbers in the selected columns (header),
+ * unless disabled with {@link #setSkipHeader(boolean)}, in which case it fails with a
+ * {@link NumberFormatException} as any other line that is not made of numbers.
+ * <li>empty lines, lines starting with '#' and lines having less columns than required are
+ * skipped. The latter are counted in {@link #getSkippedLines()} and reported as a warning.
+ * <li>values may be enclosed in double quotes, and quoted fields that are not selected may hold
+ * separators.
+ * </ul>
+ *
+ * @author Martin Pernollet
+ */
+public class CsvPointReader {
+  static Logger logger = Logger.getLogger(CsvPointReader.class);
+
+  /** Let the reader guess the separator from the first line. */
+  public static final char AUTO = 0;
+
+  protected char separator = AUTO;
+  protected int xColumn = 0;
+  protected int yColumn = 1;
+  protected int zColumn = 2;
+  protected int valueColumn = -1;
+  protected int[] colorColumns = null;
+  protected float colorScale = 1;
+  protected int threads = Runtime.getRuntime().availableProcessors();
+  protected boolean skipHeader = true;
+  protected int skippedLines = 0;
+
+  public CsvPointReader() {}
+
+  public CsvPointReader(int xColumn, int yColumn, int zColumn) {
+    setColumns(xColumn, yColumn, zColumn);
+  }
+
+  /* ***************************************************************** */
+
+  public Coord3ds read(String filename) throws IOException {
+    return read(new File(filename));
+  }
+
+  public Coord3ds read(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      char sep = separator != AUTO ? separator : guessSeparator(channel);
+      Columns columns = new Columns(sep);
+
+      long[] ranges = AsciiScanner.splitOnLines(channel, 0, size,
+          Math.max(threads, AsciiScanner.chunkCount(size)));
+
+      List<Chunk> chunks = new ArrayList<>(ranges.length - 1);
+
+      if (threads == 1 || ranges.length <= 2) {
+        for (int i = 0; i < ranges.length - 1; i++) {
+          chunks.add(parse(map(channel, ranges[i], ranges[i + 1]), columns, i == 0));
+        }
+      } else {
+        ExecutorService executor =
+            Executors.newFixedThreadPool(Math.min(threads, ranges.length - 1));
+        try {
+          List<Future<Chunk>> futures = new ArrayList<>(ranges.length - 1);
+          for (int i = 0; i < ranges.length - 1; i++) {
+            final ByteBuffer range = map(channel, ranges[i], ranges[i + 1]);
+            final boolean first = i == 0;
+            futures.add(executor.submit(new Callable<Chunk>() {
+              @Override
+              public Chunk call() throws Exception {
+                return parse(range, columns, first);
+              }
+            }));
+          }
+          for (Future<Chunk> future : futures) {
+            chunks.add(future.get());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while parsing " + file, e);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof NumberFormatException)
+            throw (NumberFormatException) e.getCause();
+          throw new IOException("Failed parsing " + file, e.getCause());
+        } finally {
+          executor.shutdownNow();
+        }
+      }
+      return merge(chunks);
+    }
+  }
+
+  protected ByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+  }
+
+  /** Return the most frequent separator of the first line, or space if none. */
+  protected char guessSeparator(FileChannel channel) throws IOException {
+    ByteBuffer head = ByteBuffer.allocate((int) Math.min(channel.size(), 64 * 1024));
+    channel.read(head, 0);
+    head.flip();
+
+    char[] candidates = {',', ';', '\t'};
+    int[] counts = new int[candidates.length];
+
+    while (head.hasRemaining()) {
+      byte b = head.get();
+      if (b == '\n')
+        break;
+      for (int i = 0; i < candidates.length; i++)
+        if (b == candidates[i])
+          counts[i]++;
+    }
+
+    int best = -1;
+    for (int i = 0; i < candidates.length; i++)
+      if (counts[i] > 0 && (best == -1 || counts[i] > counts[best]))
+        best = i;
+    return best == -1 ? ' ' : candidates[best];
+  }
+
+  /* ***************************************************************** */
+
+  /** Map file columns to the output slots, x, y, z, value, r, g, b, a. */
+  protected class Columns {
+    char separator;
+    boolean blankSeparated;
+    int[] slots;
+    int slotCount;
+    boolean values;
+    boolean colors;
+
+    Columns(char separator) {
+      this.separator = separator;
+      this.blankSeparated = separator == ' ' || separator == '\t';
+      this.values = valueColumn >= 0;
+      this.colors = colorColumns != null;
+
+      List<Integer> columns = new ArrayList<>();
+      columns.add(xColumn);
+      columns.add(yColumn);
+      columns.add(zColumn);
+      if (values)
+        columns.add(valueColumn);
+      if (colors)
+        for (int c : colorColumns)
+          columns.add(c);
+
+      int max = 0;
+      for (int c : columns)
+        max = Math.max(max, c);
+
+      slots = new int[max + 1];
+      Arrays.fill(slots, -1);
+      for (int i = 0; i < columns.size(); i++) {
+        if (slots[columns.get(i)] != -1)
+          throw new IllegalArgumentException("Column " + columns.get(i) + " is selected twice");
+        slots[columns.get(i)] = i;
+      }
+      slotCount = columns.size();
+    }
+  }
+
+  /** Values read out of a range of the file, one list per output slot. */
+  protected static class Chunk {
+    FloatArrayList[] slots;
+    /** Lines having less columns than required. */
+    int skipped;
+
+    Chunk(int slotCount, int capacity) {
+      slots = new FloatArrayList[slotCount];
+      for (int i = 0; i < slotCount; i++)
+        slots[i] = new FloatArrayList(capacity);
+    }
+
+    int size() {
+      return slots[0].size();
+    }
+  }
+
+  protected Chunk parse(ByteBuffer range, Columns columns, boolean first) {
+    // guess a capacity assuming about 8 characters per selected value
+    int capacity = Math.max(16, range.limit() / (columns.slotCount * 8));
+    Chunk chunk = new Chunk(columns.slotCount, capacity);
+    AsciiScanner scanner = new AsciiScanner(range);
+    float[] row = new float[columns.slotCount];
+
+    if (first && skipHeader) {
+      int start = scanner.position();
+      try {
+        parseLine(scanner, columns, chunk, row);
+      } catch (NumberFormatException e) {
+        scanner.position(start);
+        logger.info("Skipping header : " + scanner.nextLineString());
+      }
+    }
+
+    while (scanner.hasMore())
+      parseLine(scanner, columns, chunk, row);
+
+    return chunk;
+  }
+
+  /** Parse a line and move to the next one. */
+  protected void parseLine(AsciiScanner scanner, Columns columns, Chunk chunk, float[] row) {
+    scanner.skipBlanks();
+    int b = scanner.peek();
+    if (b == '#' || scanner.isEndOfLine()) {
+      scanner.nextLine();
+      return;
+    }
+
+    int[] slots = columns.slots;
+    int filled = 0;
+
+    for (int column = 0; column < slots.length; column++) {
+      if (column > 0 && !nextField(scanner, columns))
+        break;
+
+      int slot = slots[column];
+      if (slot == -1) {
+        skipField(scanner, columns);
+      } else {
+        boolean quoted = scanner.skipIf('"');
+        row[slot] = scanner.nextFloat();
+        if (quoted)
+          scanner.skipIf('"');
+        filled++;
+      }
+    }
+
+    scanner.nextLine();
+
+    // ignore lines lacking columns
+    if (filled < row.length) {
+      chunk.skipped++;
+      return;
+    }
+
+    for (int i = 0; i < row.length; i++)
+      chunk.slots[i].add(row[i]);
+  }
+
+  /** Skip a field that is not selected, which may be quoted and hold separators. */
+  protected void skipField(AsciiScanner scanner, Columns columns) {
+    if (scanner.skipIf('"')) {
+      while (!scanner.isEndOfLine() && scanner.peek() != '"')
+        scanner.skip(1);
+      scanner.skip(1);
+    }
+    if (columns.blankSeparated)
+      scanner.skipToken(columns.separator);
+    else
+      scanner.skipUntil(columns.separator);
+  }
+
+  /** Move to the beginning of the next field, return false if the line ends. */
+  protected boolean nextField(AsciiScanner scanner, Columns columns) {
+    if (columns.blankSeparated) {
+      return scanner.hasNextOnLine();
+    } else {
+      scanner.skipUntil(columns.separator);
+      if (scanner.isEndOfLine())
+        return false;
+      scanner.skip(1);
+      return true;
+    }
+  }
+
+  protected Coord3ds merge(List<Chunk> chunks) {
+    int size = 0;
+    int skipped = 0;
+    for (Chunk chunk : chunks) {
+      size += chunk.size();
+      skipped += chunk.skipped;
+    }
+
+    skippedLines = skipped;
+    if (skipped > 0)
+      logger.warn("Skipped " + skipped + " lines having less columns than required");
+
+    boolean values = valueColumn >= 0;
+    boolean colors = colorColumns != null;
+    Coord3ds points = new Coord3ds(size, colors, values);
+
+    List<float[]> targets = new ArrayList<>();
+    targets.add(points.x);
+    targets.add(points.y);
+    targets.add(points.z);
+    if (values)
+      targets.add(points.values);
+    if (colors) {
+      targets.add(points.r);
+      targets.add(points.g);
+      targets.add(points.b);
+      if (colorColumns.length > 3)
+        targets.add(points.a);
+      else
+        Arrays.fill(points.a, 1);
+    }
+
+    int offset = 0;
+    for (Chunk chunk : chunks) {
+      for (int i = 0; i < targets.size(); i++)
+        System.arraycopy(chunk.slots[i].array(), 0, targets.get(i), offset, chunk.size());
+      offset += chunk.size();
+    }
+
+    if (colors && colorScale != 1) {
+      float scale = 1 / colorScale;
+      for (int i = 0; i < size; i++) {
+        points.r[i] *= scale;
+        points.g[i] *= scale;
+        points.b[i] *= scale;
+        if (colorColumns.length > 3)
+          points.a[i] *= scale;
+      }
+    }
+    return points;
+  }
+
+  /* ***************************************************************** */
+
+  public char getSeparator() {
+    return separator;
+  }
+
+  /** Set the separator, or {@link #AUTO} to guess it from the first line (default). */
+  public void setSeparator(char separator) {
+    this.separator = separator;
+  }
+
+  /** Set the columns holding coordinates, starting at 0. Default to 0, 1, 2. */
+  public void setColumns(int xColumn, int yColumn, int zColumn) {
+    this.xColumn = xColumn;
+    this.yColumn = yColumn;
+    this.zColumn = zColumn;
+  }
+
+  public int getValueColumn() {
+    return valueColumn;
+  }
+
+  /** Set the column holding a value to store in {@link Coord3ds#values}, or -1 for none. */
+  public void setValueColumn(int valueColumn) {
+    this.valueColumn = valueColumn;
+  }
+
+  public int[] getColorColumns() {
+    return colorColumns;
+  }
+
+  /**
+   * Set the columns holding red, green, blue and optionally alpha components, or null for none.
+   */
+  public void setColorColumns(int... colorColumns) {
+    if (colorColumns != null && colorColumns.length == 0)
+      colorColumns = null;
+    if (colorColumns != null && colorColumns.length != 3 && colorColumns.length != 4)
+      throw new IllegalArgumentException("Expect 3 or 4 color columns");
+    this.colorColumns = colorColumns;
+  }
+
+  public float getColorScale() {
+    return colorScale;
+  }
+
+  /** Set the maximum value of a color component in the file, e.g. 255. Default to 1. */
+  public void setColorScale(float colorScale) {
+    this.colorScale = colorScale;
+  }
+
+  public boolean isSkipHeader() {
+    return skipHeader;
+  }
+
+  /** Skip the first line if it is not made of numbers. Default to true. */
+  public void setSkipHeader(boolean skipHeader) {
+    this.skipHeader = skipHeader;
+  }
+
+  /** Number of lines having less columns than required during the last read. */
+  public int getSkippedLines() {
+    return skippedLines;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = Math.max(1, threads);
+  }
+}
@@ -2,34 +2,25 @@ package org.jzy3d.io;
 
 import java.io.FileReader;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
 import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Coord3ds;
 import au.com.bytecode.opencsv.CSVReader;
 
+/**
+ * Load points from CSV files, the three first columns being x, y, z by default.
+ * 
+ * Files are read once and parsed concurrently by a {@link CsvPointReader}, which can also be used
+ * directly to select value or color columns, or to read other separators.
+ * 
+ * As before, lines lacking one of the selected columns are skipped, and a line that is not made of
+ * numbers, including a header, fails with a {@link NumberFormatException}. Unlike before, empty
+ * lines and lines starting with '#' are ignored, and {@link #loadArray(String)} only holds the
+ * points that were read, instead of ending with null entries for skipped lines.
+ */
 public class FileDataset {
   public static Coord3d[] loadArray(String filename) throws IOException {
-    int size = readNLines(filename);
-    float x;
-    float y;
-    float z;
-
-    Coord3d[] coords = new Coord3d[size];
-
-    // Load file
-    CSVReader reader = new CSVReader(new FileReader(filename));
-    String[] nextLine;
-    int k = 0;
-    while ((nextLine = reader.readNext()) != null) {
-      if (nextLine.length < 3)
-        continue;
-      x = Float.parseFloat(nextLine[0]);
-      y = Float.parseFloat(nextLine[1]);
-      z = Float.parseFloat(nextLine[2]);
-      coords[k++] = new Coord3d(x, y, z);
-    }
-    reader.close();
-    return coords;
+    return loadCoord3ds(filename).coordsArray();
   }
 
   public static List<Coord3d> loadList(String filename) throws IOException {
@@ -38,25 +29,21 @@ public class FileDataset {
 
   public static List<Coord3d> loadList(String filename, int xColumn, int yColumn, int zColumn)
       throws IOException {
-    float x;
-    float y;
-    float z;
+    return loadCoord3ds(filename, xColumn, yColumn, zColumn).coords();
+  }
 
-    List<Coord3d> coords = new ArrayList<Coord3d>();
+  /** Load points in columns, avoiding one object per point. */
+  public static Coord3ds loadCoord3ds(String filename) throws IOException {
+    return loadCoord3ds(filename, 0, 1, 2);
+  }
 
-    // Load file
-    CSVReader reader = new CSVReader(new FileReader(filename));
-    String[] nextLine;
-    while ((nextLine = reader.readNext()) != null) {
-      if (nextLine.length < 3)
-        continue;
-      x = Float.parseFloat(nextLine[xColumn]);
-      y = Float.parseFloat(nextLine[yColumn]);
-      z = Float.parseFloat(nextLine[zColumn]);
-      coords.add(new Coord3d(x, y, z));
-    }
-    reader.close();
-    return coords;
+  /** Load points in columns, avoiding one object per point. */
+  public static Coord3ds loadCoord3ds(String filename, int xColumn, int yColumn, int zColumn)
+      throws IOException {
+    CsvPointReader reader = new CsvPointReader(xColumn, yColumn, zColumn);
+    reader.setSeparator(',');
+    reader.setSkipHeader(false);
+    return reader.read(filename);
   }
 
   /**********************************************/
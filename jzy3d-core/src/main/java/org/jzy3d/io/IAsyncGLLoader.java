@@ -0,0 +1,31 @@
+package org.jzy3d.io;
+
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.primitives.Drawable;
+
+/**
+ * A loader split in a CPU preparation, e.g. parsing a file and filling buffers, that can run on any
+ * thread, and a short upload of the prepared data that requires the GL context.
+ * 
+ * Drawables supporting asynchronous loading run {@link #prepare()} on an executor when mounted,
+ * keep rendering while it runs, and invoke {@link #upload(IPainter, Drawable, Object)} on the GL
+ * thread once the data is ready. Other drawables simply invoke {@link #load(IPainter, Drawable)}.
+ * 
+ * @param <T> the drawable to load.
+ * @param <D> the prepared data, e.g. {@link org.jzy3d.io.mesh.MeshBuffers}.
+ * 
+ * @author Martin Pernollet
+ */
+public interface IAsyncGLLoader<T extends Drawable, D> extends IGLLoader<T> {
+  /** Prepare data without any GL call. May be invoked from any thread. */
+  public D prepare() throws Exception;
+
+  /** Send prepared data to the GPU. Invoked on the GL thread. */
+  public void upload(IPainter painter, T drawable, D data) throws Exception;
+
+  /** Prepare and upload synchronously. */
+  @Override
+  public default void load(IPainter painter, T drawable) throws Exception {
+    upload(painter, drawable, prepare());
+  }
+}
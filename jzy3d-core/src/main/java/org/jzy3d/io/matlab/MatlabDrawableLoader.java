@@ -1,5 +1,6 @@
 package org.jzy3d.io.matlab;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.log4j.Logger;
@@ -10,7 +11,6 @@ import org.jzy3d.plot3d.primitives.Drawable;
 import org.jzy3d.plot3d.primitives.Point;
 import org.jzy3d.plot3d.primitives.enlightables.EnlightablePolygon;
 import com.jmatio.io.MatFileReader;
-import com.jmatio.types.MLNumericArray;
 
 /**
  * Load a Matlab (TM) .mat file, assuming it contains at least three arrays named "X", "Y" and "Z".
@@ -23,40 +23,37 @@ import com.jmatio.types.MLNumericArray;
  * @author Martin Pernollet
  */
 public class MatlabDrawableLoader implements ILoader {
-  protected static int C1 = 0;
-  protected static int C2 = 1;
-  protected static int C3 = 2;
-
   @Override
   public List<Drawable> load(String filename) throws Exception {
     return load(filename, -1);
   }
 
-  @SuppressWarnings("unchecked")
   public List<Drawable> load(String filename, int limit) throws Exception {
     TicToc t = new TicToc();
     t.tic();
-    MatFileReader mfr = new MatFileReader(filename);
+    MatFileReader mfr = MatlabMeshReader.open(filename);
     Logger.getLogger(MatlabDrawableLoader.class).info(t.toc() + " to read " + filename);
     Logger.getLogger(MatlabDrawableLoader.class)
         .info("Containing arrays: " + mfr.getContent().keySet());
 
-    MLNumericArray<Float> x = (MLNumericArray<Float>) mfr.getMLArray("X");
-    MLNumericArray<Float> y = (MLNumericArray<Float>) mfr.getMLArray("Y");
-    MLNumericArray<Float> z = (MLNumericArray<Float>) mfr.getMLArray("Z");
-
-    List<Drawable> polygons = new ArrayList<Drawable>();
+    // column major 3xN arrays : corners of triangle i are at 3i, 3i+1, 3i+2
+    FloatBuffer x = MatlabMeshReader.floats(mfr.getMLArray(MatlabMeshReader.X));
+    FloatBuffer y = MatlabMeshReader.floats(mfr.getMLArray(MatlabMeshReader.Y));
+    FloatBuffer z = MatlabMeshReader.floats(mfr.getMLArray(MatlabMeshReader.Z));
 
-    int n = x.getN();
+    int n = mfr.getMLArray(MatlabMeshReader.X).getN();
     if (limit > 0)
       n = Math.min(n, limit);
 
+    List<Drawable> polygons = new ArrayList<Drawable>(n);
+
     t.tic();
     for (int i = 0; i < n; i++) {
       try {
-        Coord3d coord1 = new Coord3d(x.getReal(C1, i), y.getReal(C1, i), z.getReal(C1, i));
-        Coord3d coord2 = new Coord3d(x.getReal(C2, i), y.getReal(C2, i), z.getReal(C2, i));
-        Coord3d coord3 = new Coord3d(x.getReal(C3, i), y.getReal(C3, i), z.getReal(C3, i));
+        int c = i * 3;
+        Coord3d coord1 = new Coord3d(x.get(c), y.get(c), z.get(c));
+        Coord3d coord2 = new Coord3d(x.get(c + 1), y.get(c + 1), z.get(c + 1));
+        Coord3d coord3 = new Coord3d(x.get(c + 2), y.get(c + 2), z.get(c + 2));
 
         Point point1 = new Point(coord1);
         Point point2 = new Point(coord2);
@@ -0,0 +1,213 @@
+package org.jzy3d.io.matlab;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.mesh.MeshBuffers;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.maths.BoundingBox3d;
+import com.jmatio.io.MatFileFilter;
+import com.jmatio.io.MatFileReader;
+import com.jmatio.types.MLArray;
+import com.jmatio.types.MLNumericArray;
+
+/**
+ * Read a Matlab (TM) .mat file containing three 3xN arrays named "X", "Y" and "Z", where each
+ * column holds the coordinates of the three corners of a triangle.
+ *
+ * Arrays are not read value by value (which boxes each value) but through a view on their
+ * underlying storage. Triangles and their normals are written concurrently in direct buffers,
+ * each thread handling a range of triangles, so that the only heap memory used is the content of
+ * the file held by the {@link MatFileReader}.
+ *
+ * @author Martin Pernollet
+ */
+public class MatlabMeshReader {
+  static Logger logger = Logger.getLogger(MatlabMeshReader.class);
+
+  public static final String X = "X";
+  public static final String Y = "Y";
+  public static final String Z = "Z";
+
+  /** Below this number of triangles, normals are computed by a single thread. */
+  protected static final int MIN_TRIANGLES_PER_THREAD = 100000;
+
+  protected int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Return the triangles, each vertex being made of coordinates followed by the normal of its
+   * triangle.
+   */
+  public MeshBuffers read(String filename) throws IOException {
+    return read(filename, -1);
+  }
+
+  /** Same as {@link #read(String)}, reading at most limit triangles if limit is positive. */
+  public MeshBuffers read(String filename, int limit) throws IOException {
+    MatFileReader mfr = open(filename);
+
+    FloatBuffer x = floats(mfr.getMLArray(X));
+    FloatBuffer y = floats(mfr.getMLArray(Y));
+    FloatBuffer z = floats(mfr.getMLArray(Z));
+
+    int n = mfr.getMLArray(X).getN();
+    if (limit > 0)
+      n = Math.min(n, limit);
+
+    return triangles(x, y, z, n);
+  }
+
+  /** Read only the X, Y, Z arrays of a file. */
+  public static MatFileReader open(String filename) throws IOException {
+    MatFileReader mfr = new MatFileReader(filename, new MatFileFilter(new String[] {X, Y, Z}));
+
+    for (String name : new String[] {X, Y, Z}) {
+      MLArray array = mfr.getMLArray(name);
+      if (array == null)
+        throw new IOException(filename + " has no array named " + name);
+      if (array.getM() != 3)
+        throw new IOException(name + " should have 3 rows, has " + array.getM());
+    }
+    return mfr;
+  }
+
+  /**
+   * Return the real values of a single or double array in column major order. Single arrays are
+   * given as a view on their storage, double arrays are converted to a direct buffer.
+   */
+  public static FloatBuffer floats(MLArray array) throws IOException {
+    if (!(array instanceof MLNumericArray))
+      throw new IOException(array.getName() + " is not a numeric array");
+
+    // jmatio stores values in big endian order
+    ByteBuffer real = ((MLNumericArray<?>) array).getRealByteBuffer().duplicate();
+    real.order(ByteOrder.BIG_ENDIAN);
+    real.rewind();
+
+    if (array.isSingle()) {
+      return real.asFloatBuffer();
+    } else if (array.isDouble()) {
+      DoubleBuffer doubles = real.asDoubleBuffer();
+      FloatBuffer floats = MeshBuffers.newFloatBuffer(doubles.capacity());
+      for (int i = 0; i < doubles.capacity(); i++)
+        floats.put(i, (float) doubles.get(i));
+      return floats;
+    } else {
+      throw new IOException(array.getName() + " should be single or double");
+    }
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Build n triangles out of three 3xN arrays in column major order, i.e. the corners of triangle
+   * i are at indices 3i, 3i+1, 3i+2.
+   */
+  public MeshBuffers triangles(FloatBuffer x, FloatBuffer y, FloatBuffer z, int n)
+      throws IOException {
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(n * 3 * 6);
+    IntBuffer indices = MeshBuffers.newIntBuffer(n * 3);
+    BoundingBox3d bounds = new BoundingBox3d();
+
+    int ranges = Math.max(1, Math.min(threads, n / MIN_TRIANGLES_PER_THREAD));
+
+    if (ranges == 1) {
+      bounds.add(fill(x, y, z, vertices, indices, 0, n));
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(ranges);
+      try {
+        List<Future<BoundingBox3d>> futures = new ArrayList<>(ranges);
+        for (int r = 0; r < ranges; r++) {
+          int from = (int) ((long) n * r / ranges);
+          int to = (int) ((long) n * (r + 1) / ranges);
+          futures.add(executor.submit(() -> fill(x, y, z, vertices, indices, from, to)));
+        }
+        for (Future<BoundingBox3d> future : futures)
+          bounds.add(future.get());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new IOException("Interrupted while building triangles", e);
+      } catch (ExecutionException e) {
+        throw new IOException("Failed building triangles", e.getCause());
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    logger.info(n + " triangles");
+    return new MeshBuffers(Primitive.TRIANGLES, vertices, 6, 3, -1, 0, indices, bounds);
+  }
+
+  /**
+   * Write triangles [from, to[ with their normals, using absolute puts so that threads can share
+   * the output buffers. Return the bounds of the written vertices.
+   */
+  protected BoundingBox3d fill(FloatBuffer x, FloatBuffer y, FloatBuffer z, FloatBuffer vertices,
+      IntBuffer indices, int from, int to) {
+    BoundingBox3d bounds = new BoundingBox3d();
+
+    for (int i = from; i < to; i++) {
+      int c = i * 3;
+      float x1 = x.get(c), y1 = y.get(c), z1 = z.get(c);
+      float x2 = x.get(c + 1), y2 = y.get(c + 1), z2 = z.get(c + 1);
+      float x3 = x.get(c + 2), y3 = y.get(c + 2), z3 = z.get(c + 2);
+
+      // same as Normal.compute(c1, c2, c3)
+      float ax = x2 - x1, ay = y2 - y1, az = z2 - z1;
+      float bx = x3 - x2, by = y3 - y2, bz = z3 - z2;
+      float nx = ay * bz - az * by;
+      float ny = az * bx - ax * bz;
+      float nz = ax * by - ay * bx;
+      float d = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+      if (d > 0) {
+        nx /= d;
+        ny /= d;
+        nz /= d;
+      }
+
+      int v = c * 6;
+      put(vertices, v, x1, y1, z1, nx, ny, nz);
+      put(vertices, v + 6, x2, y2, z2, nx, ny, nz);
+      put(vertices, v + 12, x3, y3, z3, nx, ny, nz);
+
+      indices.put(c, c);
+      indices.put(c + 1, c + 1);
+      indices.put(c + 2, c + 2);
+
+      bounds.add(x1, y1, z1);
+      bounds.add(x2, y2, z2);
+      bounds.add(x3, y3, z3);
+    }
+    return bounds;
+  }
+
+  protected void put(FloatBuffer vertices, int v, float x, float y, float z, float nx, float ny,
+      float nz) {
+    vertices.put(v, x);
+    vertices.put(v + 1, y);
+    vertices.put(v + 2, z);
+    vertices.put(v + 3, nx);
+    vertices.put(v + 4, ny);
+    vertices.put(v + 5, nz);
+  }
+
+  /* ***************************************************************** */
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = Math.max(1, threads);
+  }
+}
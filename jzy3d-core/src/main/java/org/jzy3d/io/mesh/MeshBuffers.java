@@ -0,0 +1,237 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.List;
+import org.jzy3d.io.obj.OBJFile;
+import org.jzy3d.io.ply.PlyData;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Coord3ds;
+
+/**
+ * Geometry ready to be sent to a GPU : an interleaved vertex buffer described by its layout, an
+ * optional index buffer, and the bounds of the vertices.
+ *
+ * Each vertex is made of <code>vertexSize</code> floats, starting with <code>x, y, z</code>,
+ * followed by an optional normal and an optional color at the given offsets (in floats).
+ *
+ * {@link MeshBuffers} are produced by loaders (see the static factories) and can be stored and
+ * reloaded without parsing with a {@link MeshCache}.
+ *
+ * @author Martin Pernollet
+ */
+public class MeshBuffers {
+  /** How vertices should be assembled when drawn. */
+  public enum Primitive {
+    POINTS, LINES, TRIANGLES
+  }
+
+  protected Primitive primitive;
+  protected FloatBuffer vertices;
+  protected int vertexCount;
+  protected int vertexSize;
+  protected int normalOffset = -1;
+  protected int colorOffset = -1;
+  protected int colorChannels = 0;
+  protected IntBuffer indices;
+  protected BoundingBox3d bounds;
+
+  /**
+   * @param primitive how vertices are assembled.
+   * @param vertices interleaved vertices.
+   * @param vertexSize number of floats per vertex.
+   * @param normalOffset offset of the normal in a vertex, in floats, or -1 if there is no normal.
+   * @param colorOffset offset of the color in a vertex, in floats, or -1 if there is no color.
+   * @param colorChannels 3 for RGB, 4 for RGBA, 0 if there is no color.
+   * @param indices vertex indices, or null if vertices should be drawn in order.
+   * @param bounds bounds of the vertices, computed if null.
+   */
+  public MeshBuffers(Primitive primitive, FloatBuffer vertices, int vertexSize, int normalOffset,
+      int colorOffset, int colorChannels, IntBuffer indices, BoundingBox3d bounds) {
+    this.primitive = primitive;
+    this.vertices = vertices;
+    this.vertexSize = vertexSize;
+    this.vertexCount = vertices.capacity() / vertexSize;
+    this.normalOffset = normalOffset;
+    this.colorOffset = colorOffset;
+    this.colorChannels = colorOffset == -1 ? 0 : colorChannels;
+    this.indices = indices;
+    this.bounds = bounds != null ? bounds : computeBounds();
+  }
+
+  /* ***************************************************************** */
+
+  /** Vertices of a PLY file, with its faces if it has some. */
+  public static MeshBuffers of(PlyData ply) {
+    Primitive primitive = ply.hasFaces() ? Primitive.TRIANGLES : Primitive.POINTS;
+    return new MeshBuffers(primitive, ply.getVertices(), ply.getVertexSize(),
+        ply.getNormalOffset(), ply.getColorOffset(), ply.getColorChannels(), ply.getTriangles(),
+        ply.getBounds());
+  }
+
+  /** Compiled model of an OBJ file, compiling it if it was not compiled yet. */
+  public static MeshBuffers of(OBJFile obj) {
+    if (obj.getCompiledVertices() == null)
+      obj.compileModel();
+
+    // The compiled vertex buffer may be larger than the actual content
+    int vertexSize = obj.getCompiledVertexSize();
+    IntBuffer indices = obj.getCompiledIndices();
+    int vertexCount = 0;
+    for (int i = 0; i < indices.capacity(); i++)
+      vertexCount = Math.max(vertexCount, indices.get(i) + 1);
+
+    FloatBuffer vertices = obj.getCompiledVertices().duplicate();
+    vertices.rewind();
+    vertices.limit(vertexCount * vertexSize);
+
+    return new MeshBuffers(Primitive.TRIANGLES, vertices.slice(), vertexSize,
+        obj.getCompiledNormalOffset(), -1, 0, indices, obj.computeBoundingBox());
+  }
+
+  /** A point cloud. */
+  public static MeshBuffers of(Coord3d[] coords) {
+    FloatBuffer vertices = newFloatBuffer(coords.length * 3);
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (Coord3d c : coords) {
+      vertices.put(c.x);
+      vertices.put(c.y);
+      vertices.put(c.z);
+      bounds.add(c);
+    }
+    vertices.rewind();
+    return new MeshBuffers(Primitive.POINTS, vertices, 3, -1, -1, 0, null, bounds);
+  }
+
+  /** A point cloud, with an RGBA color per vertex if the points have colors. */
+  public static MeshBuffers of(Coord3ds coords) {
+    int vertexSize = coords.hasColors() ? 7 : 3;
+    FloatBuffer vertices = newFloatBuffer(coords.size() * vertexSize);
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (int i = 0; i < coords.size(); i++) {
+      vertices.put(coords.x[i]);
+      vertices.put(coords.y[i]);
+      vertices.put(coords.z[i]);
+      if (coords.hasColors()) {
+        vertices.put(coords.r[i]);
+        vertices.put(coords.g[i]);
+        vertices.put(coords.b[i]);
+        vertices.put(coords.a[i]);
+      }
+      bounds.add(coords.x[i], coords.y[i], coords.z[i]);
+    }
+    vertices.rewind();
+    if (coords.hasColors())
+      return new MeshBuffers(Primitive.POINTS, vertices, 7, -1, 3, 4, null, bounds);
+    else
+      return new MeshBuffers(Primitive.POINTS, vertices, 3, -1, -1, 0, null, bounds);
+  }
+
+  /** A point cloud. */
+  public static MeshBuffers of(List<Coord3d> coords) {
+    return of(coords.toArray(new Coord3d[coords.size()]));
+  }
+
+  /** A direct buffer in native order, as expected by a GPU. */
+  public static FloatBuffer newFloatBuffer(int size) {
+    return allocateDirect(size, 4).asFloatBuffer();
+  }
+
+  /** A direct buffer in native order, as expected by a GPU. */
+  public static IntBuffer newIntBuffer(int size) {
+    return allocateDirect(size, 4).asIntBuffer();
+  }
+
+  /** A direct buffer in native order, as expected by a GPU. */
+  public static ShortBuffer newShortBuffer(int size) {
+    return allocateDirect(size, 2).asShortBuffer();
+  }
+
+  /**
+   * A direct buffer in native order holding size elements of the given byte size.
+   *
+   * @throws IllegalArgumentException if the buffer would exceed the 2 GB limit of direct buffers.
+   */
+  protected static ByteBuffer allocateDirect(int size, int elementBytes) {
+    long bytes = (long) size * elementBytes;
+    if (size < 0 || bytes > Integer.MAX_VALUE)
+      throw new IllegalArgumentException("Can not allocate " + size + " elements of "
+          + elementBytes + " bytes : a direct buffer is limited to 2 GB");
+    return ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+  }
+
+  protected BoundingBox3d computeBounds() {
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (int i = 0; i < vertexCount; i++) {
+      int v = i * vertexSize;
+      bounds.add(vertices.get(v), vertices.get(v + 1), vertices.get(v + 2));
+    }
+    return bounds;
+  }
+
+  /* ***************************************************************** */
+
+  public Primitive getPrimitive() {
+    return primitive;
+  }
+
+  public FloatBuffer getVertices() {
+    return vertices;
+  }
+
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  /** Number of floats per vertex. */
+  public int getVertexSize() {
+    return vertexSize;
+  }
+
+  public int getNormalOffset() {
+    return normalOffset;
+  }
+
+  public int getColorOffset() {
+    return colorOffset;
+  }
+
+  public int getColorChannels() {
+    return colorChannels;
+  }
+
+  public boolean hasNormals() {
+    return normalOffset != -1;
+  }
+
+  public boolean hasColors() {
+    return colorOffset != -1;
+  }
+
+  public boolean hasIndices() {
+    return indices != null;
+  }
+
+  public IntBuffer getIndices() {
+    return indices;
+  }
+
+  public int getIndexCount() {
+    return indices == null ? 0 : indices.capacity();
+  }
+
+  public BoundingBox3d getBounds() {
+    return bounds;
+  }
+
+  @Override
+  public String toString() {
+    return "MeshBuffers(" + primitive + ", vertices=" + vertexCount + ", vertexSize=" + vertexSize
+        + ", normalOffset=" + normalOffset + ", colorOffset=" + colorOffset + ", indices="
+        + getIndexCount() + ")";
+  }
+}
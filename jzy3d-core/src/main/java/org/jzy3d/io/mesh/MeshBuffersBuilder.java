@@ -0,0 +1,308 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.apache.log4j.Logger;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+
+/**
+ * Build {@link MeshBuffers} straight from a primitive array or a buffer of coordinates, without
+ * converting points to {@link Coord3d}.
+ *
+ * The source holds <code>stride</code> values per vertex, of which the first
+ * <code>dimensions</code> are the coordinates : <code>[x1, y1, z1, m1, x2, y2, z2, m2, ...]</code>
+ * has a stride of 4 and 3 dimensions. Vertices with 2 dimensions get z=0. The built vertex buffer
+ * is a direct buffer holding the coordinates, followed by an RGB(A) color if a {@link ColorMapper}
+ * is given, so that the only memory used besides the source is the final buffer. Large sources
+ * are copied by several threads, each filling a range of vertices.
+ *
+ * <pre>
+ * <code>
+ * MeshBuffers mesh = new MeshBuffersBuilder(points, 4, 3).setColorMapper(mapper).build();
+ * chart.add(new ScatterVBO(new MeshVBOLoader(mesh)));
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class MeshBuffersBuilder {
+  static Logger logger = Logger.getLogger(MeshBuffersBuilder.class);
+
+  /** Below this number of vertices, buffers are filled by a single thread. */
+  public static final int MIN_VERTICES_PER_THREAD = 100000;
+
+  /** Values of a source array, read by index. */
+  public interface VertexSource {
+    public float get(int index);
+
+    public int length();
+
+    public static VertexSource of(float[] values) {
+      return new VertexSource() {
+        @Override
+        public float get(int index) {
+          return values[index];
+        }
+
+        @Override
+        public int length() {
+          return values.length;
+        }
+      };
+    }
+
+    public static VertexSource of(double[] values) {
+      return new VertexSource() {
+        @Override
+        public float get(int index) {
+          return (float) values[index];
+        }
+
+        @Override
+        public int length() {
+          return values.length;
+        }
+      };
+    }
+
+    /** Read the buffer with absolute gets, from index 0 to its limit. */
+    public static VertexSource of(FloatBuffer values) {
+      return new VertexSource() {
+        @Override
+        public float get(int index) {
+          return values.get(index);
+        }
+
+        @Override
+        public int length() {
+          return values.limit();
+        }
+      };
+    }
+  }
+
+  /** A task processing elements [from, to[. */
+  public interface RangeTask<T> {
+    public T run(int from, int to);
+  }
+
+  protected VertexSource source;
+  protected int stride;
+  protected int dimensions;
+  protected ColorMapper mapper;
+  protected int colorChannels = 3;
+  protected int[] elements;
+  protected Primitive primitive = Primitive.TRIANGLES;
+  protected int threads = Runtime.getRuntime().availableProcessors();
+
+  public MeshBuffersBuilder(float[] points, int stride, int dimensions) {
+    this(VertexSource.of(points), stride, dimensions);
+  }
+
+  public MeshBuffersBuilder(double[] points, int stride, int dimensions) {
+    this(VertexSource.of(points), stride, dimensions);
+  }
+
+  public MeshBuffersBuilder(FloatBuffer points, int stride, int dimensions) {
+    this(VertexSource.of(points), stride, dimensions);
+  }
+
+  /**
+   * @param source the vertex values.
+   * @param stride number of values per vertex in the source.
+   * @param dimensions number of coordinates per vertex, 2 or 3, at the beginning of each vertex.
+   */
+  public MeshBuffersBuilder(VertexSource source, int stride, int dimensions) {
+    if (dimensions < 2 || dimensions > 3 || stride < dimensions)
+      throw new IllegalArgumentException(
+          "Invalid stride " + stride + " for " + dimensions + " dimensions");
+    this.source = source;
+    this.stride = stride;
+    this.dimensions = dimensions;
+  }
+
+  /* ***************************************************************** */
+
+  public MeshBuffers build() {
+    int n = source.length() / stride;
+    boolean colors = mapper != null;
+    int vertexSize = colors ? 3 + colorChannels : 3;
+
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(n * vertexSize);
+    BoundingBox3d bounds = copy(source, stride, dimensions, vertices, vertexSize, n, threads);
+
+    if (colors)
+      colorize(vertices, vertexSize, n, mapper, vertices, vertexSize, 3, colorChannels, threads);
+
+    IntBuffer indices = null;
+    if (elements != null) {
+      indices = MeshBuffers.newIntBuffer(elements.length);
+      indices.put(elements);
+      indices.rewind();
+    }
+
+    if (logger.isDebugEnabled())
+      logger.debug(n + " vertices built with " + Math.min(threads, ranges(n)) + " threads");
+
+    return new MeshBuffers(elements != null ? primitive : Primitive.POINTS, vertices, vertexSize,
+        -1, colors ? 3 : -1, colorChannels, indices, bounds);
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Copy the coordinates of n vertices of the source in the first 3 floats of each vertex of the
+   * destination, with absolute puts, and return their bounds.
+   *
+   * @param dstStride number of floats per vertex in the destination.
+   */
+  public static BoundingBox3d copy(VertexSource src, int srcStride, int dimensions,
+      FloatBuffer dst, int dstStride, int n, int threads) {
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (BoundingBox3d b : forRanges(n, threads, (from, to) -> {
+      BoundingBox3d rangeBounds = new BoundingBox3d();
+      for (int i = from; i < to; i++) {
+        int s = i * srcStride;
+        float x = src.get(s);
+        float y = src.get(s + 1);
+        float z = dimensions > 2 ? src.get(s + 2) : 0;
+
+        int d = i * dstStride;
+        dst.put(d, x);
+        dst.put(d + 1, y);
+        dst.put(d + 2, z);
+        rangeBounds.add(x, y, z);
+      }
+      return rangeBounds;
+    })) {
+      bounds.add(b);
+    }
+    return bounds;
+  }
+
+  /**
+   * Write the color of n vertices given by the mapper in the colors buffer, which may be the
+   * vertices buffer.
+   *
+   * @param vertexSize number of floats per vertex in vertices.
+   * @param colorSize number of floats per vertex in colors.
+   * @param colorOffset position of the color in a vertex of colors.
+   * @param channels 3 for RGB, 4 for RGBA.
+   */
+  public static void colorize(FloatBuffer vertices, int vertexSize, int n, ColorMapper mapper,
+      FloatBuffer colors, int colorSize, int colorOffset, int channels, int threads) {
+    forRanges(n, threads, (from, to) -> {
+      Coord3d c = new Coord3d();
+      for (int i = from; i < to; i++) {
+        int v = i * vertexSize;
+        c.set(vertices.get(v), vertices.get(v + 1), vertices.get(v + 2));
+        Color color = mapper.getColor(c);
+
+        int o = i * colorSize + colorOffset;
+        colors.put(o, color.r);
+        colors.put(o + 1, color.g);
+        colors.put(o + 2, color.b);
+        if (channels > 3)
+          colors.put(o + 3, color.a);
+      }
+      return null;
+    });
+  }
+
+  /**
+   * Split [0, n[ in contiguous ranges processed in parallel, one range per thread if n is large
+   * enough, and return the result of each range in order.
+   *
+   * Ranges are run by the common {@link ForkJoinPool}, the last one by the calling thread, so that
+   * no thread is created per call.
+   */
+  public static <T> List<T> forRanges(int n, int threads, RangeTask<T> task) {
+    int ranges = Math.max(1, Math.min(threads, ranges(n)));
+    List<T> results = new ArrayList<>(ranges);
+
+    if (ranges == 1) {
+      results.add(task.run(0, n));
+      return results;
+    }
+
+    ForkJoinPool pool = ForkJoinPool.commonPool();
+    List<Future<T>> futures = new ArrayList<>(ranges - 1);
+    try {
+      for (int r = 0; r < ranges - 1; r++) {
+        int from = (int) ((long) n * r / ranges);
+        int to = (int) ((long) n * (r + 1) / ranges);
+        futures.add(pool.submit(() -> task.run(from, to)));
+      }
+      T last = task.run((int) ((long) n * (ranges - 1) / ranges), n);
+      for (Future<T> future : futures)
+        results.add(future.get());
+      results.add(last);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while filling buffers", e);
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Failed filling buffers", e.getCause());
+    } finally {
+      for (Future<T> future : futures)
+        future.cancel(true);
+    }
+    return results;
+  }
+
+  protected static int ranges(int n) {
+    return Math.max(1, n / MIN_VERTICES_PER_THREAD);
+  }
+
+  /* ***************************************************************** */
+
+  public ColorMapper getColorMapper() {
+    return mapper;
+  }
+
+  /** Color each vertex with the mapper, which makes vertices hold a color after coordinates. */
+  public MeshBuffersBuilder setColorMapper(ColorMapper mapper) {
+    this.mapper = mapper;
+    return this;
+  }
+
+  public int getColorChannels() {
+    return colorChannels;
+  }
+
+  /** 3 for RGB colors (default), 4 for RGBA colors. */
+  public MeshBuffersBuilder setColorChannels(int colorChannels) {
+    this.colorChannels = colorChannels;
+    return this;
+  }
+
+  public int[] getElements() {
+    return elements;
+  }
+
+  /**
+   * Indices of vertices assembled as the given primitive. Without elements, vertices are points.
+   */
+  public MeshBuffersBuilder setElements(int[] elements, Primitive primitive) {
+    this.elements = elements;
+    this.primitive = primitive;
+    return this;
+  }
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public MeshBuffersBuilder setThreads(int threads) {
+    this.threads = Math.max(1, threads);
+    return this;
+  }
+}
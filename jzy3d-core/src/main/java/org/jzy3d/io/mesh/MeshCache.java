@@ -0,0 +1,373 @@
+package org.jzy3d.io.mesh;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.maths.BoundingBox3d;
+
+/**
+ * Store {@link MeshBuffers} in a binary file that can be opened again without any parsing, by
+ * memory mapping the vertex and index blocks.
+ *
+ * Parsing a large OBJ, PLY or CSV file only has to be done once :
+ *
+ * <pre>
+ * <code>
+ * MeshBuffers mesh = MeshCache.cached(new File("bunny.ply"), new File("bunny.jzy3d"),
+ *     () -&gt; MeshBuffers.of(new PlyReader().read("bunny.ply")));
+ * </code>
+ * </pre>
+ *
+ * The file is made of a fixed size header, followed by the interleaved vertex block and the index
+ * block, both aligned on 8 bytes :
+ *
+ * <pre>
+ * 0   magic "JZY3DMSH"
+ * 8   int   version
+ * 12  byte  byte order, 0 for little endian, 1 for big endian
+ * 16  int   primitive
+ * 20  int   vertex count
+ * 24  int   vertex size, in floats
+ * 28  int   normal offset, in floats, -1 if none
+ * 32  int   color offset, in floats, -1 if none
+ * 36  int   color channels
+ * 40  int   index count, -1 if none
+ * 44  float xmin, xmax, ymin, ymax, zmin, zmax
+ * 68  long  vertex block offset
+ * 76  long  index block offset
+ * 84  long  size of the source file, -1 if unknown
+ * </pre>
+ *
+ * Blocks are written in the byte order of the machine writing the cache, so that the mapped
+ * buffers can be given as is to the GPU. A cache written on a machine with a different byte order
+ * remains readable but is copied at opening. A block larger than a single mapping (2GB) is copied
+ * to a heap buffer through several mapped windows.
+ *
+ * @author Martin Pernollet
+ */
+public class MeshCache {
+  static Logger logger = Logger.getLogger(MeshCache.class);
+
+  public static final byte[] MAGIC = "JZY3DMSH".getBytes(StandardCharsets.US_ASCII);
+  public static final int VERSION = 2;
+  public static final int HEADER_SIZE = 128;
+  protected static final int SOURCE_SIZE_POSITION = 84;
+
+  protected static final int WRITE_BUFFER_SIZE = 1024 * 1024;
+  /** Largest block mapped at once, a multiple of 8 bytes. */
+  protected static long mappingWindow = Integer.MAX_VALUE & ~7L;
+
+  /**
+   * Return the mesh stored in the cache file if it is newer than the source file and was built from
+   * a source of the same size. Otherwise, or if the cache is invalid, invoke the loader, write its
+   * result to the cache file and return it.
+   */
+  public static MeshBuffers cached(File source, File cache, Callable<MeshBuffers> loader)
+      throws IOException {
+    if (isUpToDate(source, cache)) {
+      try {
+        return open(cache);
+      } catch (IOException | RuntimeException e) {
+        logger.warn("Ignoring invalid cache " + cache + " : " + e.getMessage());
+      }
+    }
+
+    MeshBuffers mesh;
+    try {
+      mesh = loader.call();
+    } catch (IOException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new IOException("Could not load " + source, e);
+    }
+    write(mesh, cache, source.length());
+    return mesh;
+  }
+
+  /**
+   * Return true if the cache exists, is not older than the source and was built from a source of
+   * the same size.
+   */
+  public static boolean isUpToDate(File source, File cache) {
+    if (!cache.exists() || cache.length() < HEADER_SIZE
+        || cache.lastModified() < source.lastModified())
+      return false;
+
+    try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer header = readHeader(channel, cache);
+      return header.getLong(SOURCE_SIZE_POSITION) == source.length();
+    } catch (IOException e) {
+      return false;
+    }
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Write the mesh to a file. The file is first written next to the target and then renamed, so
+   * that a reader never sees a partial cache.
+   */
+  public static void write(MeshBuffers mesh, File file) throws IOException {
+    write(mesh, file, -1);
+  }
+
+  /** Write the mesh to a file, remembering the size of the source it was built from. */
+  public static void write(MeshBuffers mesh, File file, long sourceSize) throws IOException {
+    File parent = file.getAbsoluteFile().getParentFile();
+    if (parent != null && !parent.exists())
+      parent.mkdirs();
+
+    File tmp = new File(parent, file.getName() + ".tmp");
+    ByteOrder order = ByteOrder.nativeOrder();
+
+    long vertexOffset = HEADER_SIZE;
+    long vertexBytes = (long) mesh.getVertexCount() * mesh.getVertexSize() * 4;
+    long indexOffset = align(vertexOffset + vertexBytes);
+
+    try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      ByteBuffer header = header(mesh, order, vertexOffset, indexOffset, sourceSize);
+      writeFully(channel, header, 0);
+
+      ByteBuffer staging = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(order);
+
+      FloatBuffer vertices = mesh.getVertices().duplicate();
+      vertices.rewind();
+      vertices.limit(mesh.getVertexCount() * mesh.getVertexSize());
+      writeFloats(channel, staging, vertices, vertexOffset);
+
+      if (mesh.hasIndices()) {
+        IntBuffer indices = mesh.getIndices().duplicate();
+        indices.rewind();
+        writeInts(channel, staging, indices, indexOffset);
+      }
+    }
+    Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+    logger.info("Wrote " + mesh + " to " + file);
+  }
+
+  protected static ByteBuffer header(MeshBuffers mesh, ByteOrder order, long vertexOffset,
+      long indexOffset, long sourceSize) {
+    BoundingBox3d b = mesh.getBounds() != null ? mesh.getBounds() : mesh.computeBounds();
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(order);
+    header.put(MAGIC);
+    header.putInt(VERSION);
+    header.put((byte) (order == ByteOrder.LITTLE_ENDIAN ? 0 : 1));
+    header.position(16);
+    header.putInt(mesh.getPrimitive().ordinal());
+    header.putInt(mesh.getVertexCount());
+    header.putInt(mesh.getVertexSize());
+    header.putInt(mesh.getNormalOffset());
+    header.putInt(mesh.getColorOffset());
+    header.putInt(mesh.getColorChannels());
+    header.putInt(mesh.hasIndices() ? mesh.getIndexCount() : -1);
+    header.putFloat(b.getXmin());
+    header.putFloat(b.getXmax());
+    header.putFloat(b.getYmin());
+    header.putFloat(b.getYmax());
+    header.putFloat(b.getZmin());
+    header.putFloat(b.getZmax());
+    header.putLong(vertexOffset);
+    header.putLong(indexOffset);
+    header.putLong(sourceSize);
+    header.clear();
+    return header;
+  }
+
+  protected static void writeFloats(FileChannel channel, ByteBuffer staging, FloatBuffer src,
+      long position) throws IOException {
+    while (src.hasRemaining()) {
+      staging.clear();
+      FloatBuffer dst = staging.asFloatBuffer();
+      int n = Math.min(dst.capacity(), src.remaining());
+
+      FloatBuffer part = src.slice();
+      part.limit(n);
+      dst.put(part);
+      src.position(src.position() + n);
+
+      staging.limit(n * 4);
+      position += writeFully(channel, staging, position);
+    }
+  }
+
+  protected static void writeInts(FileChannel channel, ByteBuffer staging, IntBuffer src,
+      long position) throws IOException {
+    while (src.hasRemaining()) {
+      staging.clear();
+      IntBuffer dst = staging.asIntBuffer();
+      int n = Math.min(dst.capacity(), src.remaining());
+
+      IntBuffer part = src.slice();
+      part.limit(n);
+      dst.put(part);
+      src.position(src.position() + n);
+
+      staging.limit(n * 4);
+      position += writeFully(channel, staging, position);
+    }
+  }
+
+  protected static int writeFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    int written = 0;
+    while (buffer.hasRemaining())
+      written += channel.write(buffer, position + written);
+    return written;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Open a cache file by mapping its blocks in memory. Nothing is parsed or copied, unless the
+   * file was written with a byte order that differs from the current machine, or a block is too
+   * large to be mapped at once.
+   *
+   * The returned buffers are read only when mapped.
+   *
+   * @throws IOException if the file is not a valid cache, e.g. has a corrupted or truncated header.
+   */
+  public static MeshBuffers open(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() < HEADER_SIZE)
+        throw new IOException(file + " is not a mesh cache : too small");
+
+      ByteBuffer header = readHeader(channel, file);
+      ByteOrder order = header.order();
+
+      header.position(16);
+      int primitiveOrdinal = header.getInt();
+      int vertexCount = header.getInt();
+      int vertexSize = header.getInt();
+      int normalOffset = header.getInt();
+      int colorOffset = header.getInt();
+      int colorChannels = header.getInt();
+      int indexCount = header.getInt();
+      BoundingBox3d bounds = new BoundingBox3d(header.getFloat(), header.getFloat(),
+          header.getFloat(), header.getFloat(), header.getFloat(), header.getFloat());
+      long vertexOffset = header.getLong();
+      long indexOffset = header.getLong();
+
+      if (primitiveOrdinal < 0 || primitiveOrdinal >= Primitive.values().length)
+        throw new IOException(file + " has an invalid primitive " + primitiveOrdinal);
+      Primitive primitive = Primitive.values()[primitiveOrdinal];
+
+      if (vertexCount < 0 || vertexSize < 3 || indexCount < -1)
+        throw new IOException(file + " has invalid sizes");
+      if (normalOffset != -1 && (normalOffset < 0 || normalOffset + 3 > vertexSize))
+        throw new IOException(file + " has an invalid normal offset " + normalOffset);
+      if (colorOffset != -1
+          && (colorOffset < 0 || colorChannels < 1 || colorOffset + colorChannels > vertexSize))
+        throw new IOException(file + " has an invalid color offset " + colorOffset);
+
+      long vertexFloats = (long) vertexCount * vertexSize;
+      if (vertexFloats > Integer.MAX_VALUE)
+        throw new IOException(file + " has too many vertices : " + vertexCount);
+
+      long vertexBytes = vertexFloats * 4;
+      long indexBytes = indexCount == -1 ? 0 : (long) indexCount * 4;
+
+      if (vertexOffset < HEADER_SIZE || indexOffset < HEADER_SIZE
+          || vertexOffset + vertexBytes > channel.size()
+          || indexOffset + indexBytes > channel.size())
+        throw new IOException(file + " is truncated");
+
+      FloatBuffer vertices = floats(channel, vertexOffset, (int) vertexFloats, order);
+      IntBuffer indices = null;
+      if (indexCount != -1)
+        indices = ints(channel, indexOffset, indexCount, order);
+
+      // a mapping remains valid once the channel is closed
+      return new MeshBuffers(primitive, vertices, vertexSize, normalOffset, colorOffset,
+          colorChannels, indices, bounds);
+    }
+  }
+
+  /** Read the header, check its magic and version, and set its byte order. */
+  protected static ByteBuffer readHeader(FileChannel channel, File file) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining())
+      if (channel.read(header, header.position()) < 0)
+        throw new IOException(file + " is not a mesh cache : too small");
+    header.flip();
+
+    byte[] magic = new byte[MAGIC.length];
+    header.get(magic);
+    if (!Arrays.equals(MAGIC, magic))
+      throw new IOException(file + " is not a mesh cache : bad magic");
+
+    header.order(header.get(12) == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN);
+
+    int version = header.getInt(8);
+    if (version != VERSION)
+      throw new IOException(file + " has unsupported version " + version);
+    return header;
+  }
+
+  /** Map a block of floats, or copy it through several windows if it can not be mapped at once. */
+  protected static FloatBuffer floats(FileChannel channel, long offset, int count, ByteOrder order)
+      throws IOException {
+    long bytes = (long) count * 4;
+    if (bytes <= mappingWindow)
+      return map(channel, offset, bytes, order).asFloatBuffer();
+
+    FloatBuffer out = FloatBuffer.allocate(count);
+    for (long done = 0; done < bytes; done += mappingWindow) {
+      long window = Math.min(mappingWindow, bytes - done);
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset + done, window);
+      out.put(mapped.order(order).asFloatBuffer());
+    }
+    out.rewind();
+    return out;
+  }
+
+  /** Map a block of ints, or copy it through several windows if it can not be mapped at once. */
+  protected static IntBuffer ints(FileChannel channel, long offset, int count, ByteOrder order)
+      throws IOException {
+    long bytes = (long) count * 4;
+    if (bytes <= mappingWindow)
+      return map(channel, offset, bytes, order).asIntBuffer();
+
+    IntBuffer out = IntBuffer.allocate(count);
+    for (long done = 0; done < bytes; done += mappingWindow) {
+      long window = Math.min(mappingWindow, bytes - done);
+      MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset + done, window);
+      out.put(mapped.order(order).asIntBuffer());
+    }
+    out.rewind();
+    return out;
+  }
+
+  protected static ByteBuffer map(FileChannel channel, long offset, long bytes, ByteOrder order)
+      throws IOException {
+    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes);
+    mapped.order(order);
+
+    if (order == ByteOrder.nativeOrder())
+      return mapped;
+
+    // Swap to native order once so that the GPU can read buffers as is
+    ByteBuffer swapped = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    swapped.asIntBuffer().put(mapped.asIntBuffer());
+    return swapped;
+  }
+
+  protected static long align(long position) {
+    return (position + 7) & ~7L;
+  }
+}
@@ -0,0 +1,235 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.maths.BoundingBox3d;
+
+/**
+ * Partition a mesh too large for a single vertex buffer in spatially coherent chunks, each having
+ * its own vertices, indices and bounds, so that chunks can be loaded in distinct buffers and culled
+ * individually.
+ *
+ * Triangles (or points for meshes without indices) are recursively split in two halves along the
+ * longest axis of their centers, as a k-d tree would, so that chunks are compact boxes that can be
+ * culled efficiently. Chunks reference at most {@link #getMaxVertices()} vertices. The default
+ * maximum allows each chunk to be indexed with 16 bits indices.
+ *
+ * The input {@link MeshBuffers} is backed by a single direct vertex buffer and a single direct index
+ * buffer, each limited to 2 GB, i.e. 2^29 floats or indices (about 180M vertices with x, y, z
+ * only). Larger meshes must be read in several {@link MeshBuffers} and chunked separately.
+ *
+ * <pre>
+ * <code>
+ * List&lt;MeshBuffers&gt; chunks = new MeshChunker().chunk(terrain);
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class MeshChunker {
+  static Logger logger = Logger.getLogger(MeshChunker.class);
+
+  protected int maxVertices = MeshOptimizer.MAX_SHORT_VERTICES;
+  protected boolean optimize = false;
+
+  public List<MeshBuffers> chunk(MeshBuffers mesh) {
+    List<MeshBuffers> chunks;
+    if (mesh.getPrimitive() == Primitive.TRIANGLES && mesh.hasIndices())
+      chunks = chunkTriangles(mesh);
+    else if (mesh.getPrimitive() == Primitive.POINTS || !mesh.hasIndices())
+      chunks = chunkPoints(mesh);
+    else
+      throw new IllegalArgumentException("Can not chunk " + mesh.getPrimitive());
+
+    logger.info(mesh.getVertexCount() + " vertices split in " + chunks.size() + " chunks");
+    return chunks;
+  }
+
+  protected List<MeshBuffers> chunkTriangles(MeshBuffers mesh) {
+    IntBuffer indices = mesh.getIndices();
+    FloatBuffer vertices = mesh.getVertices();
+    int vertexSize = mesh.getVertexSize();
+    int t = indices.limit() / 3;
+
+    float[] centers = new float[t * 3];
+    for (int i = 0; i < t; i++) {
+      for (int c = 0; c < 3; c++) {
+        int v = indices.get(i * 3 + c) * vertexSize;
+        centers[i * 3] += vertices.get(v) / 3;
+        centers[i * 3 + 1] += vertices.get(v + 1) / 3;
+        centers[i * 3 + 2] += vertices.get(v + 2) / 3;
+      }
+    }
+
+    // a leaf of maxVertices triangles has about maxVertices/2 vertices in a regular mesh, and is
+    // split further if its triangles share few vertices
+    int[] order = sequence(t);
+    List<int[]> leaves = new ArrayList<>();
+    partition(order, centers, 0, t, maxVertices, leaves);
+
+    List<MeshBuffers> chunks = new ArrayList<>();
+    MeshOptimizer optimizer = new MeshOptimizer();
+    // shared by leaves, so that each leaf is split in the time of its own triangles
+    MeshOptimizer.Splitter splitter = new MeshOptimizer.Splitter(mesh.getVertexCount());
+
+    for (int[] leaf : leaves) {
+      IntBuffer leafIndices = MeshBuffers.newIntBuffer((leaf[1] - leaf[0]) * 3);
+      for (int i = leaf[0]; i < leaf[1]; i++)
+        for (int c = 0; c < 3; c++)
+          leafIndices.put((i - leaf[0]) * 3 + c, indices.get(order[i] * 3 + c));
+
+      MeshBuffers leafMesh = new MeshBuffers(Primitive.TRIANGLES, vertices, vertexSize,
+          mesh.getNormalOffset(), mesh.getColorOffset(), mesh.getColorChannels(), leafIndices,
+          mesh.getBounds());
+
+      for (MeshBuffers chunk : splitter.split(leafMesh, maxVertices))
+        chunks.add(optimize ? optimizer.optimize(chunk).getMesh() : chunk);
+    }
+    return chunks;
+  }
+
+  protected List<MeshBuffers> chunkPoints(MeshBuffers mesh) {
+    FloatBuffer vertices = mesh.getVertices();
+    int vertexSize = mesh.getVertexSize();
+    int n = mesh.getVertexCount();
+
+    float[] centers = new float[n * 3];
+    for (int i = 0; i < n; i++)
+      for (int k = 0; k < 3; k++)
+        centers[i * 3 + k] = vertices.get(i * vertexSize + k);
+
+    int[] order = sequence(n);
+    List<int[]> leaves = new ArrayList<>();
+    partition(order, centers, 0, n, maxVertices, leaves);
+
+    List<MeshBuffers> chunks = new ArrayList<>();
+    for (int[] leaf : leaves) {
+      int size = leaf[1] - leaf[0];
+      FloatBuffer chunk = MeshBuffers.newFloatBuffer(size * vertexSize);
+      BoundingBox3d chunkBounds = new BoundingBox3d();
+      for (int i = 0; i < size; i++) {
+        int v = order[leaf[0] + i] * vertexSize;
+        for (int k = 0; k < vertexSize; k++)
+          chunk.put(i * vertexSize + k, vertices.get(v + k));
+        chunkBounds.add(vertices.get(v), vertices.get(v + 1), vertices.get(v + 2));
+      }
+      chunks.add(new MeshBuffers(Primitive.POINTS, chunk, vertexSize, mesh.getNormalOffset(),
+          mesh.getColorOffset(), mesh.getColorChannels(), null, chunkBounds));
+    }
+    return chunks;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Split items [from, to[ of order in two halves along the longest axis of their centers,
+   * recursively, until leaves have at most leafSize items. Leaves are appended as [from, to[.
+   */
+  protected void partition(int[] order, float[] centers, int from, int to, int leafSize,
+      List<int[]> leaves) {
+    if (to - from <= leafSize) {
+      leaves.add(new int[] {from, to});
+      return;
+    }
+
+    float[] min = {Float.MAX_VALUE, Float.MAX_VALUE, Float.MAX_VALUE};
+    float[] max = {-Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+    for (int i = from; i < to; i++) {
+      for (int k = 0; k < 3; k++) {
+        float c = centers[order[i] * 3 + k];
+        min[k] = Math.min(min[k], c);
+        max[k] = Math.max(max[k], c);
+      }
+    }
+    int axis = 0;
+    for (int k = 1; k < 3; k++)
+      if (max[k] - min[k] > max[axis] - min[axis])
+        axis = k;
+
+    int mid = (from + to) >>> 1;
+    select(order, centers, axis, from, to - 1, mid);
+
+    partition(order, centers, from, mid, leafSize, leaves);
+    partition(order, centers, mid, to, leafSize, leaves);
+  }
+
+  /**
+   * Reorder items [left, right] so that the item at k has its final rank along axis, lower items
+   * before it and greater items after it (quickselect). Centers are given as x, y, z triplets,
+   * order holding indices of items.
+   */
+  public static void select(int[] order, float[] centers, int axis, int left, int right,
+      int k) {
+    while (right > left) {
+      // median of three as pivot
+      int mid = (left + right) >>> 1;
+      if (key(order, centers, axis, mid) < key(order, centers, axis, left))
+        swap(order, mid, left);
+      if (key(order, centers, axis, right) < key(order, centers, axis, left))
+        swap(order, right, left);
+      if (key(order, centers, axis, right) < key(order, centers, axis, mid))
+        swap(order, right, mid);
+      float pivot = key(order, centers, axis, mid);
+
+      int i = left;
+      int j = right;
+      while (i <= j) {
+        while (key(order, centers, axis, i) < pivot)
+          i++;
+        while (key(order, centers, axis, j) > pivot)
+          j--;
+        if (i <= j)
+          swap(order, i++, j--);
+      }
+      if (k <= j)
+        right = j;
+      else if (k >= i)
+        left = i;
+      else
+        return;
+    }
+  }
+
+  protected static float key(int[] order, float[] centers, int axis, int i) {
+    return centers[order[i] * 3 + axis];
+  }
+
+  protected static void swap(int[] order, int i, int j) {
+    int o = order[i];
+    order[i] = order[j];
+    order[j] = o;
+  }
+
+  protected static int[] sequence(int n) {
+    int[] order = new int[n];
+    for (int i = 0; i < n; i++)
+      order[i] = i;
+    return order;
+  }
+
+  /* ***************************************************************** */
+
+  public int getMaxVertices() {
+    return maxVertices;
+  }
+
+  /** Maximum number of vertices of a chunk, 65536 by default. */
+  public MeshChunker setMaxVertices(int maxVertices) {
+    this.maxVertices = maxVertices;
+    return this;
+  }
+
+  public boolean isOptimize() {
+    return optimize;
+  }
+
+  /** Reorder the triangles of each chunk for the vertex cache (see {@link MeshOptimizer}). */
+  public MeshChunker setOptimize(boolean optimize) {
+    this.optimize = optimize;
+    return this;
+  }
+}
@@ -0,0 +1,290 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+
+/**
+ * Compute smooth vertex normals of an indexed triangle mesh, each vertex normal being the mean of
+ * the normals of the triangles sharing the vertex.
+ *
+ * Everything is stored in primitive arrays : triangle normals are computed in parallel, the
+ * triangles of each vertex are listed in a compressed adjacency (CSR) built by counting sort, and
+ * vertex normals are then averaged in parallel, each thread handling a range of vertices, so that
+ * no synchronization is needed.
+ *
+ * Meshes that repeat vertices for each triangle instead of indexing them, such as meshes read from
+ * a Matlab file, are first welded : vertices having the same coordinates are considered shared.
+ *
+ * <pre>
+ * <code>
+ * MeshBuffers smooth = new MeshNormals().withSharedNormals(mesh);
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class MeshNormals {
+  static Logger logger = Logger.getLogger(MeshNormals.class);
+
+  protected int threads = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Triangles sharing each vertex : triangles of vertex v are
+   * <code>triangles[offsets[v]]</code> to <code>triangles[offsets[v+1]-1]</code>.
+   */
+  public static class Adjacency {
+    public int[] offsets;
+    public int[] triangles;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Return the normal of each vertex as <code>[nx1, ny1, nz1, nx2, ...]</code>.
+   *
+   * @param vertices interleaved vertices starting with x, y, z.
+   * @param vertexSize number of floats per vertex.
+   * @param triangles indices of the 3 vertices of each triangle.
+   * @param vertexCount number of vertices.
+   */
+  public float[] compute(FloatBuffer vertices, int vertexSize, IntBuffer triangles,
+      int vertexCount) {
+    float[] faceNormals = faceNormals(vertices, vertexSize, triangles);
+    Adjacency adjacency = adjacency(triangles, vertexCount);
+    return vertexNormals(faceNormals, adjacency, vertexCount);
+  }
+
+  /** Return the unit normal of each triangle, or a null vector for degenerated triangles. */
+  public float[] faceNormals(FloatBuffer vertices, int vertexSize, IntBuffer triangles) {
+    int t = triangles.limit() / 3;
+    float[] normals = new float[t * 3];
+
+    MeshBuffersBuilder.forRanges(t, threads, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        int p0 = triangles.get(i * 3) * vertexSize;
+        int p1 = triangles.get(i * 3 + 1) * vertexSize;
+        int p2 = triangles.get(i * 3 + 2) * vertexSize;
+
+        // same as Normal.compute(c0, c1, c2)
+        float ax = vertices.get(p1) - vertices.get(p0);
+        float ay = vertices.get(p1 + 1) - vertices.get(p0 + 1);
+        float az = vertices.get(p1 + 2) - vertices.get(p0 + 2);
+        float bx = vertices.get(p2) - vertices.get(p1);
+        float by = vertices.get(p2 + 1) - vertices.get(p1 + 1);
+        float bz = vertices.get(p2 + 2) - vertices.get(p1 + 2);
+        float nx = ay * bz - az * by;
+        float ny = az * bx - ax * bz;
+        float nz = ax * by - ay * bx;
+        float d = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (d > 0) {
+          normals[i * 3] = nx / d;
+          normals[i * 3 + 1] = ny / d;
+          normals[i * 3 + 2] = nz / d;
+        }
+      }
+      return null;
+    });
+    return normals;
+  }
+
+  /** List triangles of each vertex with a counting sort of triangle corners by vertex. */
+  public Adjacency adjacency(IntBuffer triangles, int vertexCount) {
+    int corners = (triangles.limit() / 3) * 3;
+
+    Adjacency adjacency = new Adjacency();
+    adjacency.offsets = new int[vertexCount + 1];
+    adjacency.triangles = new int[corners];
+
+    int[] offsets = adjacency.offsets;
+    for (int c = 0; c < corners; c++)
+      offsets[triangles.get(c) + 1]++;
+    for (int v = 0; v < vertexCount; v++)
+      offsets[v + 1] += offsets[v];
+
+    int[] cursor = new int[vertexCount];
+    System.arraycopy(offsets, 0, cursor, 0, vertexCount);
+    for (int c = 0; c < corners; c++)
+      adjacency.triangles[cursor[triangles.get(c)]++] = c / 3;
+
+    return adjacency;
+  }
+
+  /** Average the normals of the triangles of each vertex. Unused vertices get a null normal. */
+  public float[] vertexNormals(float[] faceNormals, Adjacency adjacency, int vertexCount) {
+    float[] normals = new float[vertexCount * 3];
+
+    MeshBuffersBuilder.forRanges(vertexCount, threads, (from, to) -> {
+      for (int v = from; v < to; v++) {
+        int first = adjacency.offsets[v];
+        int last = adjacency.offsets[v + 1];
+        if (first == last)
+          continue;
+
+        float nx = 0, ny = 0, nz = 0;
+        for (int k = first; k < last; k++) {
+          int f = adjacency.triangles[k] * 3;
+          nx += faceNormals[f];
+          ny += faceNormals[f + 1];
+          nz += faceNormals[f + 2];
+        }
+        int count = last - first;
+        normals[v * 3] = nx / count;
+        normals[v * 3 + 1] = ny / count;
+        normals[v * 3 + 2] = nz / count;
+      }
+      return null;
+    });
+    return normals;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Return the index of the first vertex having the same coordinates as each vertex, so that
+   * triangles that do not share vertex indices can be given shared normals.
+   */
+  public int[] weld(FloatBuffer vertices, int vertexSize, int vertexCount) {
+    int[] welded = new int[vertexCount];
+
+    // open addressing hash table of vertex index + 1, 0 being empty
+    int capacity = Integer.highestOneBit(Math.max(2, vertexCount) * 2 - 1) << 1;
+    int[] table = new int[capacity];
+    int mask = capacity - 1;
+
+    for (int i = 0; i < vertexCount; i++) {
+      int v = i * vertexSize;
+      int x = bits(vertices.get(v));
+      int y = bits(vertices.get(v + 1));
+      int z = bits(vertices.get(v + 2));
+
+      int slot = mix(x * 31 * 31 + y * 31 + z) & mask;
+      while (true) {
+        int j = table[slot] - 1;
+        if (j < 0) {
+          table[slot] = i + 1;
+          welded[i] = i;
+          break;
+        }
+        int w = j * vertexSize;
+        if (bits(vertices.get(w)) == x && bits(vertices.get(w + 1)) == y
+            && bits(vertices.get(w + 2)) == z) {
+          welded[i] = j;
+          break;
+        }
+        slot = (slot + 1) & mask;
+      }
+    }
+    return welded;
+  }
+
+  /** Float bits, 0 and -0 being equal. */
+  protected static int bits(float value) {
+    return value == 0 ? 0 : Float.floatToIntBits(value);
+  }
+
+  protected static int mix(int h) {
+    h ^= (h >>> 16);
+    h *= 0x85ebca6b;
+    h ^= (h >>> 13);
+    return h;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Return a triangle mesh having shared normals. If the mesh already has normals in a writable
+   * buffer, they are overwritten. Otherwise a vertex buffer is built with normals appended to each
+   * vertex. A mesh without indices is considered as a sequence of triangles, and welded.
+   */
+  public MeshBuffers withSharedNormals(MeshBuffers mesh) {
+    return withSharedNormals(mesh, !mesh.hasIndices());
+  }
+
+  /**
+   * Same as {@link #withSharedNormals(MeshBuffers)}, welding vertices having the same coordinates
+   * if weld is true, e.g. for meshes that index a distinct vertex for each triangle corner.
+   */
+  public MeshBuffers withSharedNormals(MeshBuffers mesh, boolean weld) {
+    if (mesh.getPrimitive() != Primitive.TRIANGLES)
+      throw new IllegalArgumentException("Can only compute normals of triangles");
+
+    int n = mesh.getVertexCount();
+    FloatBuffer vertices = mesh.getVertices();
+    int vertexSize = mesh.getVertexSize();
+
+    IntBuffer triangles = mesh.getIndices();
+    int[] welded = null;
+
+    if (weld) {
+      welded = weld(vertices, vertexSize, n);
+      int[] weldedTriangles = new int[triangles != null ? triangles.limit() : n];
+      for (int c = 0; c < weldedTriangles.length; c++)
+        weldedTriangles[c] = welded[triangles != null ? triangles.get(c) : c];
+      triangles = IntBuffer.wrap(weldedTriangles);
+    } else if (triangles == null) {
+      throw new IllegalArgumentException("Triangles without indices must be welded");
+    }
+
+    float[] normals = compute(vertices, vertexSize, triangles, n);
+
+    // welded vertices share the normal of their first occurrence
+    if (welded != null) {
+      for (int i = 0; i < n; i++) {
+        int w = welded[i];
+        if (w != i) {
+          normals[i * 3] = normals[w * 3];
+          normals[i * 3 + 1] = normals[w * 3 + 1];
+          normals[i * 3 + 2] = normals[w * 3 + 2];
+        }
+      }
+    }
+
+    if (mesh.hasNormals() && !vertices.isReadOnly()) {
+      write(normals, vertices, vertexSize, mesh.getNormalOffset());
+      return mesh;
+    }
+
+    int newSize = mesh.hasNormals() ? vertexSize : vertexSize + 3;
+    int normalOffset = mesh.hasNormals() ? mesh.getNormalOffset() : vertexSize;
+
+    FloatBuffer copy = MeshBuffers.newFloatBuffer(n * newSize);
+    MeshBuffersBuilder.forRanges(n, threads, (from, to) -> {
+      for (int i = from; i < to; i++)
+        for (int k = 0; k < vertexSize; k++)
+          copy.put(i * newSize + k, vertices.get(i * vertexSize + k));
+      return null;
+    });
+    write(normals, copy, newSize, normalOffset);
+
+    logger.info("Computed shared normals of " + n + " vertices");
+
+    return new MeshBuffers(Primitive.TRIANGLES, copy, newSize, normalOffset,
+        mesh.getColorOffset(), mesh.getColorChannels(), mesh.getIndices(), mesh.getBounds());
+  }
+
+  /** Write normals in the buffer at the given offset of each vertex. */
+  public void write(float[] normals, FloatBuffer vertices, int vertexSize, int normalOffset) {
+    int n = normals.length / 3;
+    MeshBuffersBuilder.forRanges(n, threads, (from, to) -> {
+      for (int i = from; i < to; i++) {
+        int v = i * vertexSize + normalOffset;
+        vertices.put(v, normals[i * 3]);
+        vertices.put(v + 1, normals[i * 3 + 1]);
+        vertices.put(v + 2, normals[i * 3 + 2]);
+      }
+      return null;
+    });
+  }
+
+  /* ***************************************************************** */
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = Math.max(1, threads);
+  }
+}
@@ -0,0 +1,424 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.io.mesh.MeshNormals.Adjacency;
+import org.jzy3d.maths.BoundingBox3d;
+
+/**
+ * Reorder an indexed triangle mesh so that the GPU processes it faster, without changing what is
+ * drawn.
+ *
+ * <ul>
+ * <li>Triangles are reordered to reuse vertices still in the GPU post-transform vertex cache,
+ * following Tom Forsyth's "Linear-Speed Vertex Cache Optimisation" : the next triangle is the one
+ * whose vertices are the most recently used and have the fewest remaining triangles. When no
+ * vertex of the cache has a triangle left, the next triangle is taken from the most recently
+ * emitted vertices having triangles left, or else is the first remaining one in input order, so
+ * that disconnected triangles are reordered in linear time.
+ * <li>Vertices are then reordered by first use, so that the GPU reads the vertex buffer
+ * sequentially.
+ * </ul>
+ *
+ * The efficiency of the vertex cache is measured by the average cache miss ratio (ACMR), i.e. the
+ * number of vertices transformed per triangle, simulating a FIFO cache. It ranges from 3 (no
+ * vertex reuse) to about 0.5 for a regular grid.
+ *
+ * Meshes having at most {@link #MAX_SHORT_VERTICES} vertices can be indexed with 16 bits indices
+ * (see {@link #toShortIndices(IntBuffer)}), and larger meshes can be split in such meshes (see
+ * {@link #split(MeshBuffers, int)}).
+ *
+ * @author Martin Pernollet
+ */
+public class MeshOptimizer {
+  static Logger logger = Logger.getLogger(MeshOptimizer.class);
+
+  /** Number of vertices that can be indexed with unsigned short indices. */
+  public static final int MAX_SHORT_VERTICES = 65536;
+
+  public static final int DEFAULT_CACHE_SIZE = 32;
+
+  protected static final float CACHE_DECAY_POWER = 1.5f;
+  protected static final float LAST_TRIANGLE_SCORE = 0.75f;
+  protected static final float VALENCE_BOOST_SCALE = 2.0f;
+  protected static final float VALENCE_BOOST_POWER = 0.5f;
+
+  protected int cacheSize = DEFAULT_CACHE_SIZE;
+
+  /** An optimized mesh and the ACMR before and after optimization. */
+  public static class Result {
+    protected MeshBuffers mesh;
+    protected double acmrBefore;
+    protected double acmrAfter;
+
+    public MeshBuffers getMesh() {
+      return mesh;
+    }
+
+    public double getAcmrBefore() {
+      return acmrBefore;
+    }
+
+    public double getAcmrAfter() {
+      return acmrAfter;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("ACMR %.3f -> %.3f", acmrBefore, acmrAfter);
+    }
+  }
+
+  /* ***************************************************************** */
+
+  /** Reorder triangles for the vertex cache, then vertices by first use. */
+  public Result optimize(MeshBuffers mesh) {
+    if (mesh.getPrimitive() != Primitive.TRIANGLES || !mesh.hasIndices())
+      throw new IllegalArgumentException("Can only optimize indexed triangles");
+
+    int[] triangles = toArray(mesh.getIndices());
+    int vertexCount = mesh.getVertexCount();
+
+    Result result = new Result();
+    result.acmrBefore = acmr(triangles, cacheSize);
+
+    int[] reordered = reorderTriangles(triangles, vertexCount);
+    int[] remap = reorderVertices(reordered, vertexCount);
+
+    FloatBuffer vertices = remapVertices(mesh.getVertices(), mesh.getVertexSize(), remap);
+    IntBuffer indices = MeshBuffers.newIntBuffer(reordered.length);
+    for (int c = 0; c < reordered.length; c++)
+      indices.put(c, remap[reordered[c]]);
+
+    result.mesh = new MeshBuffers(Primitive.TRIANGLES, vertices, mesh.getVertexSize(),
+        mesh.getNormalOffset(), mesh.getColorOffset(), mesh.getColorChannels(), indices,
+        mesh.getBounds());
+    result.acmrAfter = acmr(toArray(indices), cacheSize);
+
+    logger.info(triangles.length / 3 + " triangles optimized : " + result);
+    return result;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Average number of vertices transformed per triangle with a FIFO post-transform cache of the
+   * given size.
+   */
+  public static double acmr(int[] triangles, int cacheSize) {
+    int t = triangles.length / 3;
+    if (t == 0)
+      return 0;
+
+    int vertexCount = 0;
+    for (int v : triangles)
+      vertexCount = Math.max(vertexCount, v + 1);
+
+    // time at which each vertex entered the cache
+    int[] entered = new int[vertexCount];
+    Arrays.fill(entered, Integer.MIN_VALUE / 2);
+    int misses = 0;
+
+    for (int c = 0; c < t * 3; c++) {
+      int v = triangles[c];
+      if (misses - entered[v] >= cacheSize) {
+        entered[v] = misses;
+        misses++;
+      }
+    }
+    return (double) misses / t;
+  }
+
+  /** Return the triangles reordered for the vertex cache, with Forsyth's algorithm. */
+  public int[] reorderTriangles(int[] triangles, int vertexCount) {
+    int t = triangles.length / 3;
+
+    // triangles of each vertex, the first remaining[v] ones not being emitted yet
+    Adjacency adjacency = new MeshNormals().adjacency(IntBuffer.wrap(triangles), vertexCount);
+    int[] remaining = new int[vertexCount];
+    for (int v = 0; v < vertexCount; v++)
+      remaining[v] = adjacency.offsets[v + 1] - adjacency.offsets[v];
+
+    int[] cachePosition = new int[vertexCount];
+    Arrays.fill(cachePosition, -1);
+    float[] vertexScore = new float[vertexCount];
+    for (int v = 0; v < vertexCount; v++)
+      vertexScore[v] = score(-1, remaining[v]);
+
+    boolean[] emitted = new boolean[t];
+
+    int[] cache = new int[cacheSize + 3];
+    int cacheUsed = 0;
+    int[] newCache = new int[cacheSize + 3];
+
+    // emitted vertices, to restart from when the cache has no triangle left
+    int[] deadEnd = new int[t * 3];
+    int deadEndSize = 0;
+
+    int[] output = new int[t * 3];
+    int best = -1;
+    int scan = 0; // triangles before scan are all emitted
+
+    for (int k = 0; k < t; k++) {
+      // no vertex of the cache has a triangle left : restart from the last emitted vertex having
+      // one, or else from the first remaining triangle, each vertex and triangle being visited once
+      while (best < 0 && deadEndSize > 0) {
+        int v = deadEnd[--deadEndSize];
+        if (remaining[v] > 0)
+          best = adjacency.triangles[adjacency.offsets[v]];
+      }
+      if (best < 0) {
+        while (emitted[scan])
+          scan++;
+        best = scan;
+      }
+
+      emitted[best] = true;
+      int used = 0;
+      for (int c = 0; c < 3; c++) {
+        int v = triangles[best * 3 + c];
+        output[k * 3 + c] = v;
+        removeTriangle(adjacency, remaining, v, best);
+        newCache[used++] = v;
+        deadEnd[deadEndSize++] = v;
+      }
+
+      // emitted vertices move to the front of the cache
+      for (int i = 0; i < cacheUsed; i++) {
+        int v = cache[i];
+        if (v != newCache[0] && v != newCache[1] && v != newCache[2])
+          newCache[used++] = v;
+      }
+      int[] swap = cache;
+      cache = newCache;
+      newCache = swap;
+      cacheUsed = used;
+
+      // update scores of vertices in cache, and of their triangles
+      for (int i = 0; i < cacheUsed; i++) {
+        int v = cache[i];
+        cachePosition[v] = i < cacheSize ? i : -1;
+        vertexScore[v] = score(cachePosition[v], remaining[v]);
+      }
+      best = -1;
+      float bestScore = -1;
+      for (int i = 0; i < cacheUsed; i++) {
+        int v = cache[i];
+        int first = adjacency.offsets[v];
+        for (int j = first; j < first + remaining[v]; j++) {
+          int tri = adjacency.triangles[j];
+          float s = vertexScore[triangles[tri * 3]] + vertexScore[triangles[tri * 3 + 1]]
+              + vertexScore[triangles[tri * 3 + 2]];
+          if (s > bestScore) {
+            bestScore = s;
+            best = tri;
+          }
+        }
+      }
+      cacheUsed = Math.min(cacheUsed, cacheSize);
+    }
+    return output;
+  }
+
+  protected void removeTriangle(Adjacency adjacency, int[] remaining, int v, int triangle) {
+    int first = adjacency.offsets[v];
+    int last = first + remaining[v] - 1;
+    for (int j = first; j <= last; j++) {
+      if (adjacency.triangles[j] == triangle) {
+        adjacency.triangles[j] = adjacency.triangles[last];
+        adjacency.triangles[last] = triangle;
+        remaining[v]--;
+        return;
+      }
+    }
+  }
+
+  protected float score(int cachePosition, int remainingTriangles) {
+    if (remainingTriangles == 0)
+      return -1;
+
+    float score = 0;
+    if (cachePosition >= 0) {
+      if (cachePosition < 3) {
+        // vertices of the last triangle have a fixed score, to avoid favoring them too much
+        score = LAST_TRIANGLE_SCORE;
+      } else {
+        float scaler = 1.0f / (cacheSize - 3);
+        score = (float) Math.pow(1.0f - (cachePosition - 3) * scaler, CACHE_DECAY_POWER);
+      }
+    }
+    // favor vertices with few remaining triangles, to avoid leaving isolated triangles
+    score += VALENCE_BOOST_SCALE * (float) Math.pow(remainingTriangles, -VALENCE_BOOST_POWER);
+    return score;
+  }
+
+  /**
+   * Return the new index of each vertex, vertices being numbered by first use in the triangles.
+   * Unused vertices are moved at the end.
+   */
+  public int[] reorderVertices(int[] triangles, int vertexCount) {
+    int[] remap = new int[vertexCount];
+    Arrays.fill(remap, -1);
+    int next = 0;
+    for (int v : triangles)
+      if (remap[v] < 0)
+        remap[v] = next++;
+    for (int v = 0; v < vertexCount; v++)
+      if (remap[v] < 0)
+        remap[v] = next++;
+    return remap;
+  }
+
+  /** Move vertex v at index remap[v] in a new buffer. */
+  public static FloatBuffer remapVertices(FloatBuffer vertices, int vertexSize, int[] remap) {
+    FloatBuffer remapped = MeshBuffers.newFloatBuffer(remap.length * vertexSize);
+    for (int v = 0; v < remap.length; v++) {
+      int from = v * vertexSize;
+      int to = remap[v] * vertexSize;
+      for (int k = 0; k < vertexSize; k++)
+        remapped.put(to + k, vertices.get(from + k));
+    }
+    return remapped;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Return indices as unsigned shorts, to halve the index buffer size.
+   *
+   * @throws IllegalArgumentException if an index is greater than 65535.
+   */
+  public static ShortBuffer toShortIndices(IntBuffer indices) {
+    ShortBuffer shorts = MeshBuffers.newShortBuffer(indices.limit());
+    for (int i = 0; i < indices.limit(); i++) {
+      int v = indices.get(i);
+      if (v >= MAX_SHORT_VERTICES || v < 0)
+        throw new IllegalArgumentException("Index " + v + " can not be stored as unsigned short");
+      shorts.put(i, (short) v);
+    }
+    return shorts;
+  }
+
+  /**
+   * Split an indexed triangle mesh in consecutive groups of triangles referencing at most
+   * maxVertices vertices each, e.g. {@link #MAX_SHORT_VERTICES} to use 16 bits indices. Each part
+   * holds its own vertices and bounds. Triangles should be ordered for the vertex cache first, so
+   * that parts are spatially coherent and share few vertices.
+   *
+   * To split several meshes sharing a vertex buffer, use a single {@link Splitter}.
+   */
+  public static List<MeshBuffers> split(MeshBuffers mesh, int maxVertices) {
+    return new Splitter(mesh.getVertexCount()).split(mesh, maxVertices);
+  }
+
+  /**
+   * Split meshes sharing a vertex buffer, e.g. the chunks of a large mesh, with tables allocated
+   * once for all vertices, so that splitting each mesh only costs its own triangles.
+   */
+  public static class Splitter {
+    /** Local index of each vertex in the current part, valid if part[v] is the current part. */
+    protected int[] local;
+    protected int[] part;
+    /** Parts are numbered across calls so that tables never need to be reset. */
+    protected int nextPart = 0;
+
+    public Splitter(int vertexCount) {
+      local = new int[vertexCount];
+      part = new int[vertexCount];
+      Arrays.fill(part, -1);
+    }
+
+    public List<MeshBuffers> split(MeshBuffers mesh, int maxVertices) {
+      if (mesh.getPrimitive() != Primitive.TRIANGLES || !mesh.hasIndices())
+        throw new IllegalArgumentException("Can only split indexed triangles");
+      if (maxVertices < 3)
+        throw new IllegalArgumentException("A part must hold at least a triangle");
+      if (mesh.getVertexCount() > part.length)
+        throw new IllegalArgumentException("Mesh has more than " + part.length + " vertices");
+
+      IntBuffer indices = mesh.getIndices();
+      FloatBuffer vertices = mesh.getVertices();
+      int vertexSize = mesh.getVertexSize();
+      int t = indices.limit() / 3;
+
+      List<MeshBuffers> parts = new ArrayList<>();
+
+      int first = 0;
+      while (first < t) {
+        int id = nextPart++;
+        int used = 0;
+        int last = first;
+
+        // take triangles while their vertices fit in the part
+        while (last < t) {
+          int added = 0;
+          for (int c = 0; c < 3; c++) {
+            int v = indices.get(last * 3 + c);
+            if (part[v] != id) {
+              part[v] = id;
+              local[v] = used + added++;
+            }
+          }
+          if (used + added > maxVertices) {
+            // undo the triangle
+            for (int c = 0; c < 3; c++) {
+              int v = indices.get(last * 3 + c);
+              if (local[v] >= used)
+                part[v] = -1;
+            }
+            break;
+          }
+          used += added;
+          last++;
+        }
+
+        FloatBuffer partVertices = MeshBuffers.newFloatBuffer(used * vertexSize);
+        IntBuffer partIndices = MeshBuffers.newIntBuffer((last - first) * 3);
+        BoundingBox3d bounds = new BoundingBox3d();
+        for (int c = first * 3; c < last * 3; c++) {
+          int v = indices.get(c);
+          int l = local[v];
+          partIndices.put(c - first * 3, l);
+          for (int k = 0; k < vertexSize; k++)
+            partVertices.put(l * vertexSize + k, vertices.get(v * vertexSize + k));
+        }
+        for (int l = 0; l < used; l++)
+          bounds.add(partVertices.get(l * vertexSize), partVertices.get(l * vertexSize + 1),
+              partVertices.get(l * vertexSize + 2));
+
+        parts.add(new MeshBuffers(Primitive.TRIANGLES, partVertices, vertexSize,
+            mesh.getNormalOffset(), mesh.getColorOffset(), mesh.getColorChannels(), partIndices,
+            bounds));
+        first = last;
+      }
+      return parts;
+    }
+
+  }
+
+  protected static int[] toArray(IntBuffer indices) {
+    int[] array = new int[indices.limit()];
+    for (int i = 0; i < array.length; i++)
+      array[i] = indices.get(i);
+    return array;
+  }
+
+  /* ***************************************************************** */
+
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  /** Size of the simulated vertex cache, 32 by default. */
+  public void setCacheSize(int cacheSize) {
+    if (cacheSize < 4)
+      throw new IllegalArgumentException("Cache size must be at least 4");
+    this.cacheSize = cacheSize;
+  }
+}
@@ -0,0 +1,521 @@
+package org.jzy3d.io.obj;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.AsciiScanner;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.FloatArrayList;
+import org.jzy3d.maths.IntArrayList;
+
+/**
+ * An {@link OBJFile} reader able to load large files efficiently :
+ * <ul>
+ * <li>files are memory mapped and split in ranges aligned on line starts, that are parsed
+ * concurrently,
+ * <li>numbers are parsed directly out of the bytes with an {@link AsciiScanner}, without building
+ * intermediate strings,
+ * <li>positions, normals and indices are stored in primitive arrays rather than lists of boxed
+ * values.
+ * </ul>
+ *
+ * Faces having more than three vertices are triangulated as fans. Texture coordinates are ignored.
+ *
+ * The compiled model follows the {@link OBJFile} contract : {@link #getCompiledVertices()} provides
+ * interleaved position and normal (if any) for each compiled vertex, and
+ * {@link #getCompiledIndices()} provides the triangles made of compiled vertices. Unlike
+ * {@link OBJFile}, a compiled vertex is shared by all triangles referencing the same
+ * position/normal pair, so that {@link #getCompiledVertexCount()} is the exact number of floats
+ * held by the compiled vertex buffer.
+ *
+ * @author Martin Pernollet
+ */
+public class OBJFileParallel extends OBJFile {
+  static Logger logger = Logger.getLogger(OBJFileParallel.class);
+
+  /** Largest power of two capacity of the table of distinct vertices. */
+  protected static final int MAX_TABLE_CAPACITY = 1 << 30;
+
+  protected FloatArrayList positions = new FloatArrayList(0);
+  protected FloatArrayList normals = new FloatArrayList(0);
+  protected IntArrayList positionIndices = new IntArrayList(0);
+  protected IntArrayList normalIndices = new IntArrayList(0);
+  protected BoundingBox3d bounds = null;
+
+  protected int threads;
+
+  /** Parse with as many threads as available processors. */
+  public OBJFileParallel() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public OBJFileParallel(int threads) {
+    super();
+    this.threads = Math.max(1, threads);
+    this.posSize_ = 3;
+  }
+
+  /* ***************************************************************** */
+  /* ***************************** LOAD ****************************** */
+  /* ***************************************************************** */
+
+  /**
+   * Load the model. Files (URL with protocol <code>file:</code>) are memory mapped and parsed
+   * concurrently, other URL are read sequentially.
+   */
+  @Override
+  public boolean loadModelFromURL(URL fileURL) {
+    if (fileURL == null) {
+      logger.error("URL was null");
+      return false;
+    }
+
+    try {
+      if ("file".equals(fileURL.getProtocol())) {
+        return loadModelFromFile(new File(fileURL.toURI()));
+      } else {
+        try (InputStream input = fileURL.openStream()) {
+          load(Arrays.asList(parse(ByteBuffer.wrap(readFully(input)))));
+          return true;
+        }
+      }
+    } catch (URISyntaxException | IOException | NumberFormatException e) {
+      logger.error("Problem reading the OBJ file " + fileURL + " : " + e.getClass().getSimpleName()
+          + " : " + e.getMessage());
+    }
+    return false;
+  }
+
+  public boolean loadModelFromFile(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long size = channel.size();
+      long[] ranges = AsciiScanner.splitOnLines(channel, 0, size,
+          Math.max(threads, AsciiScanner.chunkCount(size)));
+
+      List<Chunk> chunks = new ArrayList<>(ranges.length - 1);
+
+      if (threads == 1 || ranges.length == 2) {
+        for (int i = 0; i < ranges.length - 1; i++) {
+          chunks.add(parse(map(channel, ranges[i], ranges[i + 1])));
+        }
+      } else {
+        ExecutorService executor =
+            Executors.newFixedThreadPool(Math.min(threads, ranges.length - 1));
+        try {
+          List<Future<Chunk>> futures = new ArrayList<>(ranges.length - 1);
+          for (int i = 0; i < ranges.length - 1; i++) {
+            final ByteBuffer range = map(channel, ranges[i], ranges[i + 1]);
+            futures.add(executor.submit(new Callable<Chunk>() {
+              @Override
+              public Chunk call() throws Exception {
+                return parse(range);
+              }
+            }));
+          }
+          for (Future<Chunk> future : futures) {
+            chunks.add(future.get());
+          }
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException("Interrupted while parsing " + file, e);
+        } catch (ExecutionException e) {
+          if (e.getCause() instanceof NumberFormatException)
+            throw (NumberFormatException) e.getCause();
+          throw new IOException("Failed parsing " + file, e.getCause());
+        } finally {
+          executor.shutdownNow();
+        }
+      }
+      load(chunks);
+      return true;
+    }
+  }
+
+  protected ByteBuffer map(FileChannel channel, long start, long end) throws IOException {
+    return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+  }
+
+  /** Merge parsed chunks, resolving indices relative to the end of the preceding vertices. */
+  protected void load(List<Chunk> chunks) {
+    int nPositions = 0;
+    int nNormals = 0;
+    int nIndices = 0;
+    boolean hasNormals = false;
+
+    for (Chunk chunk : chunks) {
+      nPositions += chunk.positions.size();
+      nNormals += chunk.normals.size();
+      nIndices += chunk.positionIndices.size();
+      hasNormals |= chunk.hasNormalIndices;
+    }
+    hasNormals &= nNormals > 0;
+
+    positions = new FloatArrayList(nPositions);
+    normals = new FloatArrayList(hasNormals ? nNormals : 0);
+    positionIndices = new IntArrayList(nIndices);
+    normalIndices = new IntArrayList(hasNormals ? nIndices : 0);
+    bounds = null;
+
+    int positionOffset = 0;
+    int normalOffset = 0;
+
+    for (Chunk chunk : chunks) {
+      int indexStart = positionIndices.size();
+
+      positions.addAll(chunk.positions);
+      positionIndices.addAll(chunk.positionIndices);
+      offset(positionIndices, indexStart, chunk.relativePositionIndices, positionOffset / 3);
+
+      if (hasNormals) {
+        normals.addAll(chunk.normals);
+        normalIndices.addAll(chunk.normalIndices);
+        offset(normalIndices, indexStart, chunk.relativeNormalIndices, normalOffset / 3);
+      }
+
+      positionOffset += chunk.positions.size();
+      normalOffset += chunk.normals.size();
+
+      if (chunk.bounds.valid()) {
+        if (bounds == null)
+          bounds = chunk.bounds.clone();
+        else
+          bounds.add(chunk.bounds);
+      }
+    }
+
+    vertices_ = null;
+    indices_ = null;
+  }
+
+  protected void offset(IntArrayList indices, int start, IntArrayList slots, int offset) {
+    for (int i = 0; i < slots.size(); i++) {
+      int slot = start + slots.get(i);
+      indices.set(slot, indices.get(slot) + offset);
+    }
+  }
+
+  /* ***************************************************************** */
+  /* ***************************** PARSE ***************************** */
+  /* ***************************************************************** */
+
+  /** Data read from a range of the file. */
+  protected static class Chunk {
+    FloatArrayList positions = new FloatArrayList(1024);
+    FloatArrayList normals = new FloatArrayList(16);
+    IntArrayList positionIndices = new IntArrayList(1024);
+    IntArrayList normalIndices = new IntArrayList(1024);
+
+    /** Slots of indices given relatively to the vertices read before, as allowed by OBJ. */
+    IntArrayList relativePositionIndices = new IntArrayList(0);
+    IntArrayList relativeNormalIndices = new IntArrayList(0);
+
+    boolean hasNormalIndices = false;
+    BoundingBox3d bounds = new BoundingBox3d();
+  }
+
+  /** Parse a range of an OBJ file made of complete lines. */
+  protected Chunk parse(ByteBuffer range) {
+    Chunk chunk = new Chunk();
+    AsciiScanner scanner = new AsciiScanner(range);
+
+    // first and previous corners of the face being read
+    int[] p = new int[2];
+    int[] n = new int[2];
+    int[] corner = new int[2];
+
+    while (scanner.hasMore()) {
+      scanner.skipBlanks();
+      int c0 = scanner.peek();
+      int c1 = scanner.peek(1);
+
+      if (c0 == 'v' && (c1 == ' ' || c1 == '\t')) {
+        scanner.skip(1);
+        float x = scanner.nextFloat();
+        float y = scanner.nextFloat();
+        float z = scanner.nextFloat();
+        chunk.positions.add(x, y, z);
+        chunk.bounds.add(x, y, z);
+      } else if (c0 == 'v' && c1 == 'n') {
+        scanner.skip(2);
+        chunk.normals.add(scanner.nextFloat(), scanner.nextFloat(), scanner.nextFloat());
+      } else if (c0 == 'f' && (c1 == ' ' || c1 == '\t')) {
+        scanner.skip(1);
+
+        // triangulate as a fan : (first, previous, current)
+        int k = 0;
+        while (scanner.hasNextOnLine()) {
+          parseCorner(scanner, chunk, corner);
+
+          if (k < 2) {
+            p[k] = corner[0];
+            n[k] = corner[1];
+            k++;
+          } else {
+            addCorner(chunk, p[0], n[0]);
+            addCorner(chunk, p[1], n[1]);
+            addCorner(chunk, corner[0], corner[1]);
+            p[1] = corner[0];
+            n[1] = corner[1];
+          }
+        }
+      }
+      scanner.nextLine();
+    }
+
+    return chunk;
+  }
+
+  protected void addCorner(Chunk chunk, int p, int n) {
+    if (p < 0) {
+      chunk.relativePositionIndices.add(chunk.positionIndices.size());
+      p = chunk.positions.size() / 3 + p;
+    } else {
+      p = p - 1;
+    }
+
+    if (n == 0) {
+      n = -1; // no normal
+    } else if (n < 0) {
+      chunk.relativeNormalIndices.add(chunk.normalIndices.size());
+      n = chunk.normals.size() / 3 + n;
+    } else {
+      n = n - 1;
+    }
+
+    chunk.positionIndices.add(p);
+    chunk.normalIndices.add(n);
+  }
+
+  /**
+   * Read a face corner with format <code>v</code>, <code>v/vt</code>, <code>v//vn</code> or
+   * <code>v/vt/vn</code>, and store the raw position and normal index (0 if undefined) in the
+   * given array.
+   */
+  protected void parseCorner(AsciiScanner scanner, Chunk chunk, int[] corner) {
+    corner[0] = scanner.nextInt();
+    corner[1] = 0;
+
+    if (scanner.peek() == '/') {
+      scanner.skip(1);
+      if (scanner.peek() != '/') {
+        scanner.nextInt(); // texture, ignored
+      }
+      if (scanner.peek() == '/') {
+        scanner.skip(1);
+        corner[1] = scanner.nextInt();
+        chunk.hasNormalIndices = true;
+      }
+    }
+  }
+
+  protected byte[] readFully(InputStream input) throws IOException {
+    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] buffer = new byte[1 << 16];
+    int read;
+    while ((read = input.read(buffer)) != -1) {
+      output.write(buffer, 0, read);
+    }
+    return output.toByteArray();
+  }
+
+  /* ***************************************************************** */
+  /* **************************** COMPILE **************************** */
+  /* ***************************************************************** */
+
+  /**
+   * Build the interleaved vertex buffer and the index buffer.
+   *
+   * If the model has no normals, the compiled vertices are the positions and the compiled indices
+   * are the position indices, hence no data is duplicated. If each position has the same index as
+   * its normal, positions and normals are simply interleaved. Otherwise, a compiled vertex is made
+   * for each distinct position/normal pair.
+   */
+  @Override
+  public void compileModel() {
+    pOffset_ = 0;
+    vtxSize_ = posSize_;
+
+    int n = positionIndices.size();
+
+    if (!hasNormals()) {
+      nOffset_ = -1;
+      vertices_ = FloatBuffer.wrap(positions.toArray());
+      indices_ = IntBuffer.wrap(positionIndices.toArray());
+      return;
+    }
+
+    nOffset_ = vtxSize_;
+    vtxSize_ += 3;
+
+    if (normalIndicesMatchPositions()) {
+      int nVertices = positions.size() / 3;
+      float[] v = new float[nVertices * 6];
+      for (int i = 0; i < nVertices; i++) {
+        System.arraycopy(positions.array(), i * 3, v, i * 6, 3);
+        System.arraycopy(normals.array(), i * 3, v, i * 6 + 3, 3);
+      }
+      vertices_ = FloatBuffer.wrap(v);
+      indices_ = IntBuffer.wrap(positionIndices.toArray());
+      return;
+    }
+
+    // one compiled vertex per distinct (position, normal) pair
+    int capacity = tableCapacity(n);
+    int mask = capacity - 1;
+    long[] keys = new long[capacity];
+    int[] values = new int[capacity];
+    Arrays.fill(values, -1);
+
+    FloatArrayList v = new FloatArrayList(Math.min(n, positions.size() * 2) * 2);
+    int[] idx = new int[n];
+    int count = 0;
+
+    for (int i = 0; i < n; i++) {
+      int p = positionIndices.get(i);
+      int q = normalIndices.get(i);
+      long key = ((long) p << 32) | (q & 0xffffffffL);
+
+      int slot = (int) mix(key) & mask;
+      while (values[slot] != -1 && keys[slot] != key)
+        slot = (slot + 1) & mask;
+
+      if (values[slot] == -1) {
+        if (count == mask)
+          throw new IllegalStateException("Can not compile more than " + mask + " vertices");
+        keys[slot] = key;
+        values[slot] = count++;
+
+        v.add(positions.get(p * 3), positions.get(p * 3 + 1), positions.get(p * 3 + 2));
+        if (q >= 0)
+          v.add(normals.get(q * 3), normals.get(q * 3 + 1), normals.get(q * 3 + 2));
+        else
+          v.add(0, 0, 0);
+      }
+      idx[i] = values[slot];
+    }
+
+    vertices_ = FloatBuffer.wrap(v.toArray());
+    indices_ = IntBuffer.wrap(idx);
+  }
+
+  protected boolean normalIndicesMatchPositions() {
+    if (normals.size() != positions.size())
+      return false;
+    for (int i = 0; i < positionIndices.size(); i++) {
+      if (positionIndices.get(i) != normalIndices.get(i))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Return a power of two at least twice as large as the given count of keys, computed on longs to
+   * not overflow for large meshes, and clamped to {@link #MAX_TABLE_CAPACITY}.
+   */
+  protected static int tableCapacity(int keys) {
+    long capacity = Long.highestOneBit(Math.max(keys, 1) * 2L - 1) << 1;
+    return (int) Math.min(capacity, MAX_TABLE_CAPACITY);
+  }
+
+  protected static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return key;
+  }
+
+  /* ***************************************************************** */
+  /* ************************** ACCESSORS **************************** */
+  /* ***************************************************************** */
+
+  @Override
+  public BoundingBox3d computeBoundingBox() {
+    return bounds == null ? null : bounds.clone();
+  }
+
+  @Override
+  public void clearNormals() {
+    normals.clear();
+    normalIndices.clear();
+  }
+
+  @Override
+  public boolean hasNormals() {
+    return normals.size() > 0;
+  }
+
+  @Override
+  public List<Float> getPositions() {
+    return positions.isEmpty() ? null : positions.asList();
+  }
+
+  @Override
+  public List<Float> getNormals() {
+    return normals.isEmpty() ? null : normals.asList();
+  }
+
+  @Override
+  public List<Integer> getPositionIndices() {
+    return positionIndices.isEmpty() ? null : positionIndices.asList();
+  }
+
+  @Override
+  public List<Integer> getNormalIndices() {
+    return normalIndices.isEmpty() ? null : normalIndices.asList();
+  }
+
+  @Override
+  public int getPositionCount() {
+    return positions.size() / posSize_;
+  }
+
+  @Override
+  public int getNormalCount() {
+    return normals.size() / 3;
+  }
+
+  @Override
+  public int getIndexCount() {
+    return positionIndices.size();
+  }
+
+  /** Number of floats in the compiled vertex buffer, or 0 if the model is not compiled yet. */
+  @Override
+  public int getCompiledVertexCount() {
+    return vertices_ == null ? 0 : vertices_.capacity();
+  }
+
+  /** Positions as a primitive array, that may be longer than the number of positions values. */
+  public FloatArrayList getPositionArray() {
+    return positions;
+  }
+
+  public FloatArrayList getNormalArray() {
+    return normals;
+  }
+
+  public IntArrayList getPositionIndexArray() {
+    return positionIndices;
+  }
+
+  public IntArrayList getNormalIndexArray() {
+    return normalIndices;
+  }
+}
@@ -0,0 +1,212 @@
+package org.jzy3d.io.octree;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.octree.PointOctree.Node;
+
+/**
+ * Keep the points of some nodes of a {@link PointOctree} in memory, loading them on a background
+ * thread and evicting the least recently used ones when the memory budget is exceeded.
+ *
+ * A renderer invokes {@link #request(List)} with the nodes it would like to draw, by decreasing
+ * priority, and {@link #get(Node)} to retrieve the nodes that are resident. Each request replaces
+ * the previous one, so that nodes that are not wanted anymore (e.g. because the camera moved) are
+ * not loaded.
+ *
+ * @author Martin Pernollet
+ */
+public class OctreeNodeCache {
+  static Logger logger = Logger.getLogger(OctreeNodeCache.class);
+
+  public static final long DEFAULT_BUDGET = 256L * 1024 * 1024;
+
+  protected PointOctree octree;
+  protected long budget;
+  protected long residentBytes = 0;
+
+  /** Nodes in access order, the least recently used first. */
+  protected LinkedHashMap<Integer, FloatBuffer> resident = new LinkedHashMap<>(16, 0.75f, true);
+  protected Deque<Node> queue = new ArrayDeque<>();
+  protected boolean loading = false;
+  protected ExecutorService executor;
+  protected Listener listener;
+  protected Processor processor;
+  /** Incremented by {@link #clear()} to drop nodes that were being loaded. */
+  protected long generation = 0;
+
+  /** Notified on the loading thread once a node is resident. */
+  public interface Listener {
+    public void nodeLoaded(Node node);
+  }
+
+  /** Process the points of a node on the loading thread, before they become resident. */
+  public interface Processor {
+    public FloatBuffer process(Node node, FloatBuffer points);
+  }
+
+  public OctreeNodeCache(PointOctree octree) {
+    this(octree, DEFAULT_BUDGET);
+  }
+
+  /**
+   * @param octree the octree to read.
+   * @param budget maximum number of bytes of resident nodes.
+   */
+  public OctreeNodeCache(PointOctree octree, long budget) {
+    this.octree = octree;
+    this.budget = budget;
+    this.executor = Executors.newSingleThreadExecutor(r -> {
+      Thread t = new Thread(r, "OctreeNodeCache " + octree.getFile().getName());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /** Return the points of the node if it is resident, or null. */
+  public synchronized FloatBuffer get(Node node) {
+    return resident.get(node.getId());
+  }
+
+  public synchronized boolean isResident(Node node) {
+    return resident.containsKey(node.getId());
+  }
+
+  /**
+   * Ask for loading the given nodes, by decreasing priority. Pending nodes of a previous request
+   * that are not part of this request are forgotten.
+   */
+  public synchronized void request(List<Node> nodes) {
+    queue.clear();
+    for (Node node : nodes)
+      if (!resident.containsKey(node.getId()))
+        queue.add(node);
+
+    if (!queue.isEmpty() && !loading) {
+      loading = true;
+      executor.execute(this::loadQueue);
+    }
+  }
+
+  protected void loadQueue() {
+    Node node;
+    while ((node = next()) != null) {
+      try {
+        long loadGeneration = getGeneration();
+        FloatBuffer points = octree.read(node);
+        if (processor != null)
+          points = processor.process(node, points);
+        if (store(node, points, loadGeneration) && listener != null)
+          listener.nodeLoaded(node);
+      } catch (IOException e) {
+        logger.error("Could not load " + node + " of " + octree, e);
+      }
+    }
+  }
+
+  protected synchronized Node next() {
+    Node node = queue.poll();
+    if (node == null)
+      loading = false;
+    return node;
+  }
+
+  protected synchronized long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Make the node resident unless the cache was cleared since its loading started.
+   *
+   * @return true if the node was stored.
+   */
+  protected synchronized boolean store(Node node, FloatBuffer points, long loadGeneration) {
+    if (loadGeneration != generation)
+      return false;
+    FloatBuffer previous = resident.put(node.getId(), points);
+    if (previous != null)
+      residentBytes -= bytes(previous);
+    residentBytes += bytes(points);
+    evict(node);
+    return true;
+  }
+
+  /** Remove the least recently used nodes until the budget is met, except the given node. */
+  protected void evict(Node keep) {
+    Iterator<Map.Entry<Integer, FloatBuffer>> it = resident.entrySet().iterator();
+    while (residentBytes > budget && it.hasNext()) {
+      Map.Entry<Integer, FloatBuffer> e = it.next();
+      if (e.getKey() == keep.getId())
+        continue;
+      residentBytes -= bytes(e.getValue());
+      it.remove();
+    }
+  }
+
+  protected long bytes(FloatBuffer points) {
+    return (long) points.capacity() * 4;
+  }
+
+  /** Drop all resident and pending nodes, e.g. after the processor changed. */
+  public synchronized void clear() {
+    generation++;
+    queue.clear();
+    resident.clear();
+    residentBytes = 0;
+  }
+
+  /** Drop all resident nodes and stop the loading thread. */
+  public void dispose() {
+    executor.shutdownNow();
+    clear();
+  }
+
+  /* ***************************************************************** */
+
+  public synchronized long getResidentBytes() {
+    return residentBytes;
+  }
+
+  public synchronized Set<Integer> getResidentNodes() {
+    return new HashSet<>(resident.keySet());
+  }
+
+  public synchronized boolean isLoading() {
+    return loading;
+  }
+
+  public long getBudget() {
+    return budget;
+  }
+
+  public synchronized void setBudget(long budget) {
+    this.budget = budget;
+  }
+
+  public PointOctree getOctree() {
+    return octree;
+  }
+
+  public void setListener(Listener listener) {
+    this.listener = listener;
+  }
+
+  public Processor getProcessor() {
+    return processor;
+  }
+
+  /** Set a processor applied to the points of each node once read, e.g. to transform them. */
+  public void setProcessor(Processor processor) {
+    this.processor = processor;
+  }
+}
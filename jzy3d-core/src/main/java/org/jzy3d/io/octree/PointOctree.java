@@ -0,0 +1,259 @@
+package org.jzy3d.io.octree;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jzy3d.maths.BoundingBox3d;
+
+/**
+ * A point cloud stored on disk as an octree, as written by a {@link PointOctreeBuilder}.
+ *
+ * Opening an octree only reads its node index. Node points are read on demand with
+ * {@link #read(Node)}, which maps the node block in memory.
+ *
+ * Each point is made of <code>x, y, z</code> floats, optionally followed by <code>r, g, b, a</code>
+ * floats (see {@link #hasColors()}).
+ *
+ * The file is made of a header, the point blocks of all nodes, and the node index :
+ *
+ * <pre>
+ * 0   magic "JZY3DOCT"
+ * 8   int   version
+ * 12  byte  byte order, 0 for little endian, 1 for big endian
+ * 16  int   vertex size, in floats
+ * 20  int   node count
+ * 24  long  point count
+ * 32  long  index offset
+ * 40  float xmin, xmax, ymin, ymax, zmin, zmax
+ * </pre>
+ *
+ * Each node of the index is made of its depth, bounds, point block offset, point count and the
+ * index of its eight children (-1 if missing). The root node is the first node of the index.
+ *
+ * @author Martin Pernollet
+ */
+public class PointOctree implements Closeable {
+  public static final byte[] MAGIC = "JZY3DOCT".getBytes(StandardCharsets.US_ASCII);
+  public static final int VERSION = 1;
+  public static final int HEADER_SIZE = 128;
+  static final int NODE_SIZE = 4 + 6 * 4 + 8 + 4 + 8 * 4;
+
+  protected File file;
+  protected FileChannel channel;
+  protected ByteOrder order;
+  protected int vertexSize;
+  protected long pointCount;
+  protected BoundingBox3d bounds;
+  protected List<Node> nodes;
+
+  protected PointOctree(File file) {
+    this.file = file;
+  }
+
+  public static PointOctree open(File file) throws IOException {
+    PointOctree octree = new PointOctree(file);
+    octree.channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    try {
+      octree.readIndex();
+    } catch (IOException | RuntimeException e) {
+      octree.close();
+      throw e;
+    }
+    return octree;
+  }
+
+  protected void readIndex() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    readFully(header, 0);
+
+    byte[] magic = new byte[MAGIC.length];
+    header.get(magic);
+    if (!Arrays.equals(MAGIC, magic))
+      throw new IOException(file + " is not a point octree : bad magic");
+
+    order = header.get(12) == 0 ? ByteOrder.LITTLE_ENDIAN : ByteOrder.BIG_ENDIAN;
+    header.order(order);
+
+    int version = header.getInt(8);
+    if (version != VERSION)
+      throw new IOException(file + " has unsupported version " + version);
+
+    header.position(16);
+    vertexSize = header.getInt();
+    int nodeCount = header.getInt();
+    pointCount = header.getLong();
+    long indexOffset = header.getLong();
+    bounds = new BoundingBox3d(header.getFloat(), header.getFloat(), header.getFloat(),
+        header.getFloat(), header.getFloat(), header.getFloat());
+
+    ByteBuffer index = ByteBuffer.allocate(nodeCount * NODE_SIZE).order(order);
+    readFully(index, indexOffset);
+
+    nodes = new ArrayList<>(nodeCount);
+    for (int i = 0; i < nodeCount; i++)
+      nodes.add(Node.read(i, index));
+  }
+
+  protected void readFully(ByteBuffer buffer, long position) throws IOException {
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0)
+        throw new IOException(file + " is truncated");
+    }
+    buffer.flip();
+  }
+
+  /**
+   * Map the points of a node in memory and return them. The pages of the mapping are loaded before
+   * returning, so that reading the buffer does not block on disk.
+   */
+  public FloatBuffer read(Node node) throws IOException {
+    long bytes = (long) node.count * vertexSize * 4;
+    MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, node.offset, bytes);
+    mapped.load();
+    mapped.order(order);
+
+    if (order == ByteOrder.nativeOrder())
+      return mapped.asFloatBuffer();
+
+    ByteBuffer swapped = ByteBuffer.allocateDirect((int) bytes).order(ByteOrder.nativeOrder());
+    swapped.asIntBuffer().put(mapped.asIntBuffer());
+    return swapped.asFloatBuffer();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /* ***************************************************************** */
+
+  public Node getRoot() {
+    return nodes.get(0);
+  }
+
+  public Node getNode(int id) {
+    return nodes.get(id);
+  }
+
+  public List<Node> getNodes() {
+    return nodes;
+  }
+
+  public List<Node> getChildren(Node node) {
+    List<Node> children = new ArrayList<>(8);
+    for (int c : node.children)
+      if (c != -1)
+        children.add(nodes.get(c));
+    return children;
+  }
+
+  /** Number of floats per point, 3 or 7 if points have colors. */
+  public int getVertexSize() {
+    return vertexSize;
+  }
+
+  public boolean hasColors() {
+    return vertexSize == 7;
+  }
+
+  public long getPointCount() {
+    return pointCount;
+  }
+
+  /** The bounds of the points, which may be smaller than the root node cube. */
+  public BoundingBox3d getBounds() {
+    return bounds;
+  }
+
+  public File getFile() {
+    return file;
+  }
+
+  @Override
+  public String toString() {
+    return "PointOctree(" + file + ", points=" + pointCount + ", nodes=" + nodes.size() + ")";
+  }
+
+  /* ***************************************************************** */
+
+  /** A node of the octree, holding a subsample of the points in its bounds, or all if a leaf. */
+  public static class Node {
+    protected int id;
+    protected int depth;
+    protected BoundingBox3d bounds;
+    protected long offset;
+    protected int count;
+    protected int[] children = {-1, -1, -1, -1, -1, -1, -1, -1};
+
+    protected Node(int id, int depth, BoundingBox3d bounds) {
+      this.id = id;
+      this.depth = depth;
+      this.bounds = bounds;
+    }
+
+    protected void write(ByteBuffer index) {
+      index.putInt(depth);
+      index.putFloat(bounds.getXmin());
+      index.putFloat(bounds.getXmax());
+      index.putFloat(bounds.getYmin());
+      index.putFloat(bounds.getYmax());
+      index.putFloat(bounds.getZmin());
+      index.putFloat(bounds.getZmax());
+      index.putLong(offset);
+      index.putInt(count);
+      for (int c : children)
+        index.putInt(c);
+    }
+
+    protected static Node read(int id, ByteBuffer index) {
+      int depth = index.getInt();
+      BoundingBox3d bounds = new BoundingBox3d(index.getFloat(), index.getFloat(),
+          index.getFloat(), index.getFloat(), index.getFloat(), index.getFloat());
+      Node node = new Node(id, depth, bounds);
+      node.offset = index.getLong();
+      node.count = index.getInt();
+      for (int i = 0; i < 8; i++)
+        node.children[i] = index.getInt();
+      return node;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public int getDepth() {
+      return depth;
+    }
+
+    public BoundingBox3d getBounds() {
+      return bounds;
+    }
+
+    public int getPointCount() {
+      return count;
+    }
+
+    public boolean isLeaf() {
+      for (int c : children)
+        if (c != -1)
+          return false;
+      return true;
+    }
+
+    @Override
+    public String toString() {
+      return "Node(" + id + ", depth=" + depth + ", points=" + count + ")";
+    }
+  }
+}
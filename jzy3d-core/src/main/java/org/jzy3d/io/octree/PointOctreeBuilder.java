@@ -0,0 +1,395 @@
+package org.jzy3d.io.octree;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.apache.log4j.Logger;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Coord3ds;
+import org.jzy3d.maths.FloatArrayList;
+
+/**
+ * Build a {@link PointOctree} file out of a point cloud that may not fit in memory.
+ *
+ * Points are appended by batches with {@link #add(Coord3ds)}, which only writes them to a
+ * temporary file. {@link #build()} then partitions them recursively : each node keeps a subsample
+ * made of the first point found in each cell of a regular grid covering the node, and the other
+ * points are dispatched to the eight children through temporary files. A node having less than
+ * {@link #getMaxPointsPerNode()} points becomes a leaf.
+ *
+ * Each point is hence stored exactly once, either in a node sample or in a leaf, and drawing a node
+ * with all its ancestors gives a spatially uniform view of the cloud, which density increases with
+ * the depth of the loaded nodes.
+ *
+ * <pre>
+ * <code>
+ * PointOctreeBuilder builder = new PointOctreeBuilder(new File("cloud.oct"));
+ * for (Coord3ds batch : batches)
+ *   builder.add(batch);
+ * builder.build();
+ * </code>
+ * </pre>
+ *
+ * Only one node sample and a few write buffers are held in memory at once.
+ *
+ * @author Martin Pernollet
+ */
+public class PointOctreeBuilder {
+  static Logger logger = Logger.getLogger(PointOctreeBuilder.class);
+
+  protected File output;
+  protected File workDir;
+
+  protected int maxPointsPerNode = 50000;
+  protected int gridSize = 32;
+  protected int maxDepth = 16;
+
+  protected int vertexSize = -1;
+  protected long pointCount = 0;
+  protected BoundingBox3d bounds = new BoundingBox3d();
+  protected PointFile input;
+
+  protected List<PointOctree.Node> nodes;
+  protected FileChannel out;
+  protected int tmpCounter = 0;
+
+  public PointOctreeBuilder(File output) {
+    this(output, output.getAbsoluteFile().getParentFile());
+  }
+
+  /**
+   * @param output the octree file to write.
+   * @param workDir the folder where temporary files are written, which should be able to hold
+   *        about twice the size of the input points.
+   */
+  public PointOctreeBuilder(File output, File workDir) {
+    this.output = output;
+    this.workDir = workDir;
+  }
+
+  /**
+   * Append points. Points have colors if the first batch has colors, in which case all batches
+   * should have colors.
+   */
+  public void add(Coord3ds points) throws IOException {
+    if (input == null) {
+      vertexSize = points.hasColors() ? 7 : 3;
+      input = new PointFile(newTmpFile(), vertexSize);
+    } else if (points.hasColors() != (vertexSize == 7)) {
+      throw new IllegalArgumentException("All batches should have colors, or none");
+    }
+
+    float[] row = new float[vertexSize];
+    for (int i = 0; i < points.size(); i++) {
+      row[0] = points.x[i];
+      row[1] = points.y[i];
+      row[2] = points.z[i];
+      if (vertexSize == 7) {
+        row[3] = points.r[i];
+        row[4] = points.g[i];
+        row[5] = points.b[i];
+        row[6] = points.a[i];
+      }
+      input.put(row);
+      bounds.add(row[0], row[1], row[2]);
+    }
+    pointCount += points.size();
+  }
+
+  /** Partition all points added so far and write the octree file. */
+  public void build() throws IOException {
+    if (input == null)
+      throw new IllegalStateException("No point was added");
+    input.close();
+
+    nodes = new ArrayList<>();
+    File tmp = new File(workDir, output.getName() + ".tmp");
+
+    try (FileChannel channel = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+      out = channel;
+      out.position(PointOctree.HEADER_SIZE);
+
+      split(input, cube(bounds), 0);
+
+      long indexOffset = out.position();
+      writeIndex();
+      writeHeader(indexOffset);
+    } finally {
+      out = null;
+      input = null;
+    }
+    Files.move(tmp.toPath(), output.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+    logger.info("Wrote " + pointCount + " points in " + nodes.size() + " nodes to " + output);
+  }
+
+  /* ***************************************************************** */
+
+  /** Write a node and its descendants, return the node. */
+  protected PointOctree.Node split(PointFile points, BoundingBox3d box, int depth)
+      throws IOException {
+    PointOctree.Node node = new PointOctree.Node(nodes.size(), depth, box);
+    nodes.add(node);
+    node.offset = out.position();
+
+    if (points.count <= maxPointsPerNode || depth >= maxDepth) {
+      node.count = (int) points.count;
+      points.transferTo(out);
+      points.delete();
+      return node;
+    }
+
+    // Keep the first point of each grid cell, dispatch others to children
+    boolean[] occupied = new boolean[gridSize * gridSize * gridSize];
+    FloatArrayList sample = new FloatArrayList(occupied.length * vertexSize / 4);
+    PointFile[] children = new PointFile[8];
+
+    Coord3d center = box.getCenter();
+    float[] row = new float[vertexSize];
+
+    PointFile.Reader reader = points.reader();
+    while (reader.next(row)) {
+      int cell = cell(row, box);
+      if (!occupied[cell]) {
+        occupied[cell] = true;
+        sample.addAll(row, 0, vertexSize);
+      } else {
+        int octant = (row[0] >= center.x ? 1 : 0) | (row[1] >= center.y ? 2 : 0)
+            | (row[2] >= center.z ? 4 : 0);
+        if (children[octant] == null)
+          children[octant] = new PointFile(newTmpFile(), vertexSize);
+        children[octant].put(row);
+      }
+    }
+    reader.close();
+    points.delete();
+
+    node.count = sample.size() / vertexSize;
+    writeFully(sample);
+
+    for (int i = 0; i < 8; i++) {
+      if (children[i] != null)
+        children[i].close();
+    }
+    for (int i = 0; i < 8; i++) {
+      if (children[i] != null)
+        node.children[i] = split(children[i], octant(box, i), depth + 1).id;
+    }
+    return node;
+  }
+
+  protected int cell(float[] row, BoundingBox3d box) {
+    int i = gridIndex(row[0], box.getXmin(), box.getXmax());
+    int j = gridIndex(row[1], box.getYmin(), box.getYmax());
+    int k = gridIndex(row[2], box.getZmin(), box.getZmax());
+    return (k * gridSize + j) * gridSize + i;
+  }
+
+  protected int gridIndex(float v, float min, float max) {
+    if (max <= min)
+      return 0;
+    int i = (int) ((v - min) / (max - min) * gridSize);
+    return Math.max(0, Math.min(gridSize - 1, i));
+  }
+
+  /** Return the bounds of a child, where bit 0, 1, 2 of the octant select the upper x, y, z. */
+  protected BoundingBox3d octant(BoundingBox3d box, int octant) {
+    float cx = (box.getXmin() + box.getXmax()) / 2;
+    float cy = (box.getYmin() + box.getYmax()) / 2;
+    float cz = (box.getZmin() + box.getZmax()) / 2;
+    return new BoundingBox3d( //
+        (octant & 1) == 0 ? box.getXmin() : cx, (octant & 1) == 0 ? cx : box.getXmax(), //
+        (octant & 2) == 0 ? box.getYmin() : cy, (octant & 2) == 0 ? cy : box.getYmax(), //
+        (octant & 4) == 0 ? box.getZmin() : cz, (octant & 4) == 0 ? cz : box.getZmax());
+  }
+
+  /** A cube containing the bounds, so that nodes are cubes as well. */
+  protected BoundingBox3d cube(BoundingBox3d b) {
+    float size = Math.max(b.getXmax() - b.getXmin(),
+        Math.max(b.getYmax() - b.getYmin(), b.getZmax() - b.getZmin()));
+    return new BoundingBox3d(b.getXmin(), b.getXmin() + size, b.getYmin(), b.getYmin() + size,
+        b.getZmin(), b.getZmin() + size);
+  }
+
+  protected void writeFully(FloatArrayList values) throws IOException {
+    ByteBuffer bytes =
+        ByteBuffer.allocateDirect(values.size() * 4).order(ByteOrder.nativeOrder());
+    FloatBuffer floats = bytes.asFloatBuffer();
+    values.putTo(floats);
+    while (bytes.hasRemaining())
+      out.write(bytes);
+  }
+
+  protected void writeIndex() throws IOException {
+    ByteBuffer index = ByteBuffer.allocate(nodes.size() * PointOctree.NODE_SIZE)
+        .order(ByteOrder.nativeOrder());
+    for (PointOctree.Node node : nodes)
+      node.write(index);
+    index.flip();
+    while (index.hasRemaining())
+      out.write(index);
+  }
+
+  protected void writeHeader(long indexOffset) throws IOException {
+    ByteOrder order = ByteOrder.nativeOrder();
+    ByteBuffer header = ByteBuffer.allocate(PointOctree.HEADER_SIZE).order(order);
+    header.put(PointOctree.MAGIC);
+    header.putInt(PointOctree.VERSION);
+    header.put((byte) (order == ByteOrder.LITTLE_ENDIAN ? 0 : 1));
+    header.position(16);
+    header.putInt(vertexSize);
+    header.putInt(nodes.size());
+    header.putLong(pointCount);
+    header.putLong(indexOffset);
+    header.putFloat(bounds.getXmin());
+    header.putFloat(bounds.getXmax());
+    header.putFloat(bounds.getYmin());
+    header.putFloat(bounds.getYmax());
+    header.putFloat(bounds.getZmin());
+    header.putFloat(bounds.getZmax());
+    header.clear();
+    long position = 0;
+    while (header.hasRemaining())
+      position += out.write(header, position);
+  }
+
+  protected File newTmpFile() {
+    return new File(workDir, output.getName() + ".part" + (tmpCounter++));
+  }
+
+  /* ***************************************************************** */
+
+  public int getMaxPointsPerNode() {
+    return maxPointsPerNode;
+  }
+
+  /** Nodes having less points than this are not split. Default to 50000. */
+  public void setMaxPointsPerNode(int maxPointsPerNode) {
+    this.maxPointsPerNode = maxPointsPerNode;
+  }
+
+  public int getGridSize() {
+    return gridSize;
+  }
+
+  /**
+   * Number of subsampling cells along each axis of a node. A node keeps at most gridSize^3 points.
+   * Default to 32.
+   */
+  public void setGridSize(int gridSize) {
+    this.gridSize = gridSize;
+  }
+
+  public int getMaxDepth() {
+    return maxDepth;
+  }
+
+  /** Nodes at this depth are not split, whatever their number of points. Default to 16. */
+  public void setMaxDepth(int maxDepth) {
+    this.maxDepth = maxDepth;
+  }
+
+  /* ***************************************************************** */
+
+  /** A temporary file of points, written and read sequentially through a buffer. */
+  protected static class PointFile {
+    protected static final int BUFFER_SIZE = 1 << 20;
+
+    File file;
+    int vertexSize;
+    long count;
+    FileChannel channel;
+    ByteBuffer buffer;
+
+    PointFile(File file, int vertexSize) throws IOException {
+      this.file = file;
+      this.vertexSize = vertexSize;
+      this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+          StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+      this.buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.nativeOrder());
+    }
+
+    void put(float[] row) throws IOException {
+      if (buffer.remaining() < vertexSize * 4)
+        flush();
+      for (int i = 0; i < vertexSize; i++)
+        buffer.putFloat(row[i]);
+      count++;
+    }
+
+    void flush() throws IOException {
+      buffer.flip();
+      while (buffer.hasRemaining())
+        channel.write(buffer);
+      buffer.clear();
+    }
+
+    void close() throws IOException {
+      if (channel != null) {
+        flush();
+        channel.close();
+        channel = null;
+        buffer = null;
+      }
+    }
+
+    void transferTo(FileChannel target) throws IOException {
+      try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+        long size = in.size();
+        long done = 0;
+        while (done < size)
+          done += in.transferTo(done, size - done, target);
+      }
+    }
+
+    void delete() throws IOException {
+      Files.deleteIfExists(file.toPath());
+    }
+
+    Reader reader() throws IOException {
+      return new Reader();
+    }
+
+    class Reader {
+      FileChannel in;
+      ByteBuffer buffer;
+
+      Reader() throws IOException {
+        in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        int recordBytes = vertexSize * 4;
+        buffer = ByteBuffer.allocateDirect(BUFFER_SIZE / recordBytes * recordBytes)
+            .order(ByteOrder.nativeOrder());
+        buffer.limit(0);
+      }
+
+      boolean next(float[] row) throws IOException {
+        if (!buffer.hasRemaining()) {
+          buffer.clear();
+          while (buffer.hasRemaining())
+            if (in.read(buffer) <= 0)
+              break;
+          buffer.flip();
+          if (!buffer.hasRemaining())
+            return false;
+        }
+        for (int i = 0; i < vertexSize; i++)
+          row[i] = buffer.getFloat();
+        return true;
+      }
+
+      void close() throws IOException {
+        in.close();
+      }
+    }
+  }
+}
@@ -11,6 +11,12 @@ import org.smurn.jply.Element;
 import org.smurn.jply.ElementReader;
 import org.smurn.jply.PlyReaderFile;
 
+/**
+ * Read the vertices of a PLY file as a list of {@link Coord3d}, using jPLY.
+ * 
+ * Faces and colors are ignored. Prefer {@link PlyReader} to read faces and colors, or large files,
+ * in primitive buffers.
+ */
 public class Ply {
   static Logger LOGGER = Logger.getLogger(Ply.class);
 
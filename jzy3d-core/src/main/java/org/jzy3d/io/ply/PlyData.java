@@ -0,0 +1,121 @@
+package org.jzy3d.io.ply;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3ds;
+
+/**
+ * The content of a PLY file, as read by a {@link PlyReader}.
+ *
+ * Vertices are stored in a single interleaved buffer, each vertex made of
+ * <code>[x, y, z, (r, g, b, (a)), (nx, ny, nz)]</code> floats, where colors and normals are only
+ * present if the file defined them. This is the layout expected by a VBO with a color buffer, which
+ * allows sending the buffer to the GPU without copying it.
+ *
+ * Faces are triangulated and stored as triplets of vertex indices.
+ *
+ * @author Martin Pernollet
+ */
+public class PlyData {
+  protected PlyHeader header;
+
+  protected FloatBuffer vertices;
+  protected int vertexCount;
+  protected int vertexSize;
+  protected int colorOffset = -1;
+  protected int colorChannels = 0;
+  protected int normalOffset = -1;
+
+  protected IntBuffer triangles;
+
+  protected BoundingBox3d bounds = new BoundingBox3d();
+
+  public PlyHeader getHeader() {
+    return header;
+  }
+
+  /** Interleaved vertex buffer. */
+  public FloatBuffer getVertices() {
+    return vertices;
+  }
+
+  public int getVertexCount() {
+    return vertexCount;
+  }
+
+  /** Number of floats per vertex in the vertex buffer. */
+  public int getVertexSize() {
+    return vertexSize;
+  }
+
+  /** Offset of the first color component of a vertex, in floats, or -1 if there is no color. */
+  public int getColorOffset() {
+    return colorOffset;
+  }
+
+  /** 3 for RGB colors, 4 for RGBA colors, 0 if there is no color. */
+  public int getColorChannels() {
+    return colorChannels;
+  }
+
+  /** Offset of the first normal component of a vertex, in floats, or -1 if there is no normal. */
+  public int getNormalOffset() {
+    return normalOffset;
+  }
+
+  public boolean hasColors() {
+    return colorOffset != -1;
+  }
+
+  public boolean hasNormals() {
+    return normalOffset != -1;
+  }
+
+  public boolean hasFaces() {
+    return triangles != null;
+  }
+
+  /** Triangle vertex indices, or null if the file has no face or faces were not read. */
+  public IntBuffer getTriangles() {
+    return triangles;
+  }
+
+  public int getTriangleCount() {
+    return triangles == null ? 0 : triangles.capacity() / 3;
+  }
+
+  public BoundingBox3d getBounds() {
+    return bounds;
+  }
+
+  /**
+   * Copy the vertices to a {@link Coord3ds}, e.g. to build a
+   * {@link org.jzy3d.plot3d.primitives.Scatter} on a chart not supporting VBO.
+   *
+   * Vertices without color are black.
+   */
+  public Coord3ds toCoord3ds() {
+    Coord3ds coords = new Coord3ds(vertexCount);
+
+    for (int i = 0; i < vertexCount; i++) {
+      int v = i * vertexSize;
+
+      if (hasColors()) {
+        int c = v + colorOffset;
+        float a = colorChannels > 3 ? vertices.get(c + 3) : 1;
+        coords.set(i, vertices.get(v), vertices.get(v + 1), vertices.get(v + 2), vertices.get(c),
+            vertices.get(c + 1), vertices.get(c + 2), a);
+      } else {
+        coords.set(i, vertices.get(v), vertices.get(v + 1), vertices.get(v + 2), 0, 0, 0, 1);
+      }
+    }
+    return coords;
+  }
+
+  @Override
+  public String toString() {
+    return "PlyData(vertices=" + vertexCount + ", triangles=" + getTriangleCount() + ", colors="
+        + colorChannels + ", normals=" + hasNormals() + ")";
+  }
+}
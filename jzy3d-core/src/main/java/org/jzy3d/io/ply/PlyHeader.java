@@ -0,0 +1,291 @@
+package org.jzy3d.io.ply;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The header of a PLY file, describing the encoding of the file and the elements it contains.
+ *
+ * <pre>
+ * ply
+ * format binary_little_endian 1.0
+ * element vertex 8
+ * property float x
+ * property float y
+ * property float z
+ * property uchar red
+ * element face 6
+ * property list uchar int vertex_indices
+ * end_header
+ * </pre>
+ *
+ * @see http://paulbourke.net/dataformats/ply/
+ * @author Martin Pernollet
+ */
+public class PlyHeader {
+  public enum Format {
+    ASCII, BINARY_LITTLE_ENDIAN, BINARY_BIG_ENDIAN;
+
+    public ByteOrder order() {
+      return this == BINARY_BIG_ENDIAN ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+    }
+  }
+
+  /** Scalar types of PLY properties, with their size in bytes in binary files. */
+  public enum Type {
+    INT8(1, 127), //
+    UINT8(1, 255), //
+    INT16(2, 32767), //
+    UINT16(2, 65535), //
+    INT32(4, Integer.MAX_VALUE), //
+    UINT32(4, 4294967295d), //
+    FLOAT32(4, 1), //
+    FLOAT64(8, 1);
+
+    Type(int size, double max) {
+      this.size = size;
+      this.max = max;
+    }
+
+    public final int size;
+    /** Maximum value, used to normalize integer colors. */
+    public final double max;
+
+    public boolean isInteger() {
+      return this != FLOAT32 && this != FLOAT64;
+    }
+
+    /** Read a value at the given absolute position of a buffer. */
+    public double get(ByteBuffer buffer, int position) {
+      switch (this) {
+        case INT8:
+          return buffer.get(position);
+        case UINT8:
+          return buffer.get(position) & 0xff;
+        case INT16:
+          return buffer.getShort(position);
+        case UINT16:
+          return buffer.getShort(position) & 0xffff;
+        case INT32:
+          return buffer.getInt(position);
+        case UINT32:
+          return buffer.getInt(position) & 0xffffffffL;
+        case FLOAT32:
+          return buffer.getFloat(position);
+        default:
+          return buffer.getDouble(position);
+      }
+    }
+
+    public static Type parse(String name) throws IOException {
+      switch (name) {
+        case "char":
+        case "int8":
+          return INT8;
+        case "uchar":
+        case "uint8":
+          return UINT8;
+        case "short":
+        case "int16":
+          return INT16;
+        case "ushort":
+        case "uint16":
+          return UINT16;
+        case "int":
+        case "int32":
+          return INT32;
+        case "uint":
+        case "uint32":
+          return UINT32;
+        case "float":
+        case "float32":
+          return FLOAT32;
+        case "double":
+        case "float64":
+          return FLOAT64;
+        default:
+          throw new IOException("Unknown PLY type : " + name);
+      }
+    }
+  }
+
+  public static class Property {
+    public final String name;
+    public final Type type;
+    /** Type of the item count if this property is a list, null otherwise. */
+    public final Type countType;
+
+    public Property(String name, Type type, Type countType) {
+      this.name = name;
+      this.type = type;
+      this.countType = countType;
+    }
+
+    public boolean isList() {
+      return countType != null;
+    }
+
+    @Override
+    public String toString() {
+      return isList() ? "list " + countType + " " + type + " " + name : type + " " + name;
+    }
+  }
+
+  public static class Element {
+    public final String name;
+    public final long count;
+    public final List<Property> properties = new ArrayList<>();
+
+    public Element(String name, long count) {
+      this.name = name;
+      this.count = count;
+    }
+
+    /** Return the index of the property with the first of the given names, or -1. */
+    public int indexOf(String... names) {
+      for (String n : names) {
+        for (int i = 0; i < properties.size(); i++) {
+          if (properties.get(i).name.equals(n))
+            return i;
+        }
+      }
+      return -1;
+    }
+
+    /** Return the size of a record in bytes if it has no list property, -1 otherwise. */
+    public int fixedSize() {
+      int size = 0;
+      for (Property p : properties) {
+        if (p.isList())
+          return -1;
+        size += p.type.size;
+      }
+      return size;
+    }
+
+    @Override
+    public String toString() {
+      return "element " + name + " " + count + " " + properties;
+    }
+  }
+
+  protected Format format;
+  protected List<Element> elements = new ArrayList<>();
+  protected List<String> comments = new ArrayList<>();
+  protected long bodyOffset;
+
+  public Format getFormat() {
+    return format;
+  }
+
+  public List<Element> getElements() {
+    return elements;
+  }
+
+  public Element getElement(String name) {
+    for (Element e : elements) {
+      if (e.name.equals(name))
+        return e;
+    }
+    return null;
+  }
+
+  public List<String> getComments() {
+    return comments;
+  }
+
+  /** Offset of the first byte following the header in the file. */
+  public long getBodyOffset() {
+    return bodyOffset;
+  }
+
+  /* ***************************************************************** */
+
+  /** Read the header at the beginning of a file. */
+  public static PlyHeader read(FileChannel channel) throws IOException {
+    PlyHeader header = new PlyHeader();
+
+    ByteBuffer buffer = ByteBuffer.allocate(4096);
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    long position = 0;
+    int lineNumber = 0;
+
+    while (true) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0)
+        throw new IOException("PLY header is not terminated by end_header");
+
+      for (int i = 0; i < read; i++) {
+        byte b = buffer.get(i);
+        if (b != '\n') {
+          line.write(b);
+          continue;
+        }
+
+        String text = new String(line.toByteArray(), StandardCharsets.US_ASCII).trim();
+        line.reset();
+
+        if (lineNumber++ == 0 && !"ply".equals(text))
+          throw new IOException("Not a PLY file, starts with '" + text + "'");
+
+        if ("end_header".equals(text)) {
+          header.bodyOffset = position + i + 1;
+          if (header.format == null)
+            throw new IOException("PLY header does not define a format");
+          return header;
+        }
+        header.parseLine(text);
+      }
+      position += read;
+    }
+  }
+
+  protected void parseLine(String line) throws IOException {
+    String[] tokens = line.split("\\s+");
+
+    switch (tokens[0]) {
+      case "format":
+        if ("ascii".equals(tokens[1]))
+          format = Format.ASCII;
+        else if ("binary_little_endian".equals(tokens[1]))
+          format = Format.BINARY_LITTLE_ENDIAN;
+        else if ("binary_big_endian".equals(tokens[1]))
+          format = Format.BINARY_BIG_ENDIAN;
+        else
+          throw new IOException("Unknown PLY format : " + line);
+        break;
+      case "element":
+        elements.add(new Element(tokens[1], Long.parseLong(tokens[2])));
+        break;
+      case "property":
+        if (elements.isEmpty())
+          throw new IOException("PLY property defined before any element : " + line);
+        Element element = elements.get(elements.size() - 1);
+        if ("list".equals(tokens[1])) {
+          element.properties
+              .add(new Property(tokens[4], Type.parse(tokens[3]), Type.parse(tokens[2])));
+        } else {
+          element.properties.add(new Property(tokens[2], Type.parse(tokens[1]), null));
+        }
+        break;
+      case "comment":
+      case "obj_info":
+        comments.add(line);
+        break;
+      default:
+        break;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "PlyHeader(" + format + ", " + elements + ")";
+  }
+}
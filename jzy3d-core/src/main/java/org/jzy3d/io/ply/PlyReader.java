@@ -0,0 +1,529 @@
+package org.jzy3d.io.ply;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.AsciiScanner;
+import org.jzy3d.io.ply.PlyHeader.Element;
+import org.jzy3d.io.ply.PlyHeader.Format;
+import org.jzy3d.io.ply.PlyHeader.Property;
+import org.jzy3d.io.ply.PlyHeader.Type;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.IntArrayList;
+
+/**
+ * Read ASCII, binary little endian and binary big endian PLY files into primitive buffers, without
+ * creating any object per vertex or per face.
+ *
+ * <ul>
+ * <li>Binary files are streamed through a fixed size buffer filled by bulk {@link FileChannel}
+ * reads. Vertex records having no list property are decoded block by block.
+ * <li>ASCII files are memory mapped by ranges and parsed with an {@link AsciiScanner}.
+ * </ul>
+ *
+ * The <code>vertex</code> element is read for its <code>x, y, z</code> properties, and optionally
+ * its <code>red, green, blue, (alpha)</code> (or <code>r, g, b, (a)</code>) and
+ * <code>nx, ny, nz</code> properties. Integer colors are normalized to [0;1]. The
+ * <code>face</code> element is read for its <code>vertex_indices</code> (or
+ * <code>vertex_index</code>) list, and polygons are triangulated as fans. Other elements and
+ * properties are skipped.
+ *
+ * <pre>
+ * <code>
+ * PlyData data = new PlyReader().read("cloud.ply");
+ * </code>
+ * </pre>
+ *
+ * @see PlyData for the resulting buffer layout.
+ * @author Martin Pernollet
+ */
+public class PlyReader {
+  static Logger LOGGER = Logger.getLogger(PlyReader.class);
+
+  public static final String VERTEX = "vertex";
+  public static final String FACE = "face";
+
+  protected boolean readColors = true;
+  protected boolean readNormals = true;
+  protected boolean readFaces = true;
+  protected boolean direct = true;
+  protected int bufferSize = 1 << 22;
+
+  public PlyData read(String filename) throws IOException {
+    return read(new File(filename));
+  }
+
+  public PlyData read(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      PlyHeader header = PlyHeader.read(channel);
+
+      ValueSource source;
+      if (header.getFormat() == Format.ASCII)
+        source = new AsciiSource(channel, header.getBodyOffset());
+      else
+        source = new BinarySource(channel, header.getBodyOffset(), header.getFormat().order(),
+            bufferSize);
+
+      PlyData data = new PlyData();
+      data.header = header;
+
+      for (Element element : header.getElements()) {
+        LOGGER.debug("Will load " + element);
+
+        if (VERTEX.equals(element.name)) {
+          readVertices(element, source, data);
+        } else if (FACE.equals(element.name) && readFaces) {
+          readFaces(element, source, data);
+        } else {
+          skip(element, source);
+        }
+      }
+      return data;
+    }
+  }
+
+  /* ***************************************************************** */
+  /* **************************** VERTEX ***************************** */
+  /* ***************************************************************** */
+
+  protected void readVertices(Element element, ValueSource source, PlyData data)
+      throws IOException {
+    int x = element.indexOf("x");
+    int y = element.indexOf("y");
+    int z = element.indexOf("z");
+
+    if (x == -1 || y == -1 || z == -1)
+      throw new IOException("PLY vertex element has no x, y, z properties : " + element);
+
+    int r = element.indexOf("red", "r", "diffuse_red");
+    int g = element.indexOf("green", "g", "diffuse_green");
+    int b = element.indexOf("blue", "b", "diffuse_blue");
+    int a = element.indexOf("alpha", "a", "diffuse_alpha");
+    boolean hasColor = readColors && r != -1 && g != -1 && b != -1;
+    boolean hasAlpha = hasColor && a != -1;
+
+    int nx = element.indexOf("nx");
+    int ny = element.indexOf("ny");
+    int nz = element.indexOf("nz");
+    boolean hasNormal = readNormals && nx != -1 && ny != -1 && nz != -1;
+
+    // Layout of a vertex in the interleaved buffer
+    int size = 3;
+    if (hasColor) {
+      data.colorOffset = size;
+      data.colorChannels = hasAlpha ? 4 : 3;
+      size += data.colorChannels;
+    }
+    if (hasNormal) {
+      data.normalOffset = size;
+      size += 3;
+    }
+    data.vertexSize = size;
+
+    if (element.count * size > Integer.MAX_VALUE)
+      throw new IOException(element.count + " vertices can not be held in a single buffer");
+
+    data.vertexCount = (int) element.count;
+    data.vertices = newFloatBuffer(data.vertexCount * size);
+
+    // Target of each property in a vertex, and scale applied to the value
+    int nProperties = element.properties.size();
+    int[] slots = new int[nProperties];
+    float[] scales = new float[nProperties];
+    Arrays.fill(slots, -1);
+    Arrays.fill(scales, 1);
+
+    slots[x] = 0;
+    slots[y] = 1;
+    slots[z] = 2;
+    if (hasColor) {
+      setColorSlot(element, r, data.colorOffset, slots, scales);
+      setColorSlot(element, g, data.colorOffset + 1, slots, scales);
+      setColorSlot(element, b, data.colorOffset + 2, slots, scales);
+      if (hasAlpha)
+        setColorSlot(element, a, data.colorOffset + 3, slots, scales);
+    }
+    if (hasNormal) {
+      slots[nx] = data.normalOffset;
+      slots[ny] = data.normalOffset + 1;
+      slots[nz] = data.normalOffset + 2;
+    }
+
+    if (source instanceof BinarySource && element.fixedSize() > 0) {
+      readVerticesBlocks(element, (BinarySource) source, data, slots, scales);
+    } else {
+      readVerticesValues(element, source, data, slots, scales);
+    }
+  }
+
+  protected void setColorSlot(Element element, int property, int slot, int[] slots,
+      float[] scales) {
+    Type type = element.properties.get(property).type;
+    slots[property] = slot;
+    scales[property] = type.isInteger() ? (float) (1 / type.max) : 1;
+  }
+
+  /** Decode vertices by blocks of records having a fixed size. */
+  protected void readVerticesBlocks(Element element, BinarySource source, PlyData data,
+      int[] slots, float[] scales) throws IOException {
+    int recordSize = element.fixedSize();
+    int nProperties = element.properties.size();
+
+    // byte offset of each property in a record
+    int[] offsets = new int[nProperties];
+    Type[] types = new Type[nProperties];
+    int offset = 0;
+    for (int i = 0; i < nProperties; i++) {
+      types[i] = element.properties.get(i).type;
+      offsets[i] = offset;
+      offset += types[i].size;
+    }
+
+    FloatBuffer vertices = data.vertices;
+    BoundingBox3d bounds = data.bounds;
+    int vertexSize = data.vertexSize;
+    int count = data.vertexCount;
+
+    int v = 0;
+    while (v < count) {
+      int n = source.ensureRecords(recordSize, count - v);
+      ByteBuffer buffer = source.buffer;
+      int position = buffer.position();
+
+      for (int k = 0; k < n; k++, v++, position += recordSize) {
+        int base = v * vertexSize;
+        for (int p = 0; p < nProperties; p++) {
+          if (slots[p] != -1) {
+            vertices.put(base + slots[p],
+                (float) types[p].get(buffer, position + offsets[p]) * scales[p]);
+          }
+        }
+        bounds.add(vertices.get(base), vertices.get(base + 1), vertices.get(base + 2));
+      }
+      buffer.position(position);
+    }
+  }
+
+  /** Decode vertices value by value, supporting list properties and ASCII files. */
+  protected void readVerticesValues(Element element, ValueSource source, PlyData data,
+      int[] slots, float[] scales) throws IOException {
+    FloatBuffer vertices = data.vertices;
+    int nProperties = element.properties.size();
+
+    for (int v = 0; v < data.vertexCount; v++) {
+      int base = v * data.vertexSize;
+      for (int p = 0; p < nProperties; p++) {
+        Property property = element.properties.get(p);
+        if (property.isList()) {
+          skipList(element, v, property, source);
+        } else {
+          double value = source.next(property.type);
+          if (slots[p] != -1)
+            vertices.put(base + slots[p], (float) value * scales[p]);
+        }
+      }
+      data.bounds.add(vertices.get(base), vertices.get(base + 1), vertices.get(base + 2));
+    }
+  }
+
+  /* ***************************************************************** */
+  /* ***************************** FACE ****************************** */
+  /* ***************************************************************** */
+
+  protected void readFaces(Element element, ValueSource source, PlyData data) throws IOException {
+    int indices = element.indexOf("vertex_indices", "vertex_index");
+
+    if (indices == -1 || !element.properties.get(indices).isList()) {
+      LOGGER.warn("PLY face element has no vertex_indices list, skipping it : " + element);
+      skip(element, source);
+      return;
+    }
+
+    IntArrayList triangles =
+        new IntArrayList((int) Math.min(element.count * 3, Integer.MAX_VALUE - 8));
+    int[] polygon = new int[16];
+    int nProperties = element.properties.size();
+    // faces may only be checked if the vertex element came first
+    int vertexCount = data.vertices != null ? data.vertexCount : Integer.MAX_VALUE;
+
+    for (long f = 0; f < element.count; f++) {
+      for (int p = 0; p < nProperties; p++) {
+        Property property = element.properties.get(p);
+
+        if (p != indices) {
+          if (property.isList())
+            skipList(element, f, property, source);
+          else
+            source.next(property.type);
+          continue;
+        }
+
+        long n = (long) source.next(property.countType);
+        if (n < 0 || n > Integer.MAX_VALUE - 8)
+          throw new IOException("PLY face " + f + " has an invalid vertex count : " + n);
+        if (n > polygon.length)
+          polygon = new int[(int) n];
+        for (int i = 0; i < n; i++) {
+          long index = (long) source.next(property.type);
+          if (index < 0 || index >= vertexCount)
+            throw new IOException("PLY face " + f + " references vertex " + index
+                + " out of [0;" + data.vertexCount + "[");
+          polygon[i] = (int) index;
+        }
+
+        // triangulate as a fan : (first, previous, current)
+        for (int i = 2; i < n; i++)
+          triangles.add(polygon[0], polygon[i - 1], polygon[i]);
+      }
+    }
+
+    data.triangles = newIntBuffer(triangles);
+  }
+
+  /* ***************************************************************** */
+  /* ***************************** SKIP ****************************** */
+  /* ***************************************************************** */
+
+  protected void skip(Element element, ValueSource source) throws IOException {
+    int recordSize = element.fixedSize();
+
+    if (source instanceof BinarySource && recordSize > 0) {
+      ((BinarySource) source).skip(element.count * recordSize);
+      return;
+    }
+
+    for (long i = 0; i < element.count; i++) {
+      for (Property property : element.properties) {
+        if (property.isList())
+          skipList(element, i, property, source);
+        else
+          source.next(property.type);
+      }
+    }
+  }
+
+  /**
+   * Skip the values of a list property of the given record, failing if its count is negative or
+   * exceeds the remaining data of a binary file.
+   */
+  protected void skipList(Element element, long record, Property property, ValueSource source)
+      throws IOException {
+    long n = (long) source.next(property.countType);
+    if (n < 0)
+      throw invalidCount(element, record, property, n);
+
+    if (source instanceof BinarySource) {
+      BinarySource binary = (BinarySource) source;
+      if (n > binary.remaining() / property.type.size)
+        throw invalidCount(element, record, property, n);
+      binary.skip(n * property.type.size);
+      return;
+    }
+    for (long i = 0; i < n; i++)
+      source.next(property.type);
+  }
+
+  protected IOException invalidCount(Element element, long record, Property property, long n) {
+    return new IOException("PLY " + element.name + " " + record + " has an invalid "
+        + property.name + " count : " + n);
+  }
+
+  /* ***************************************************************** */
+  /* **************************** BUFFERS **************************** */
+  /* ***************************************************************** */
+
+  protected FloatBuffer newFloatBuffer(int size) {
+    if (direct)
+      return ByteBuffer.allocateDirect(size * 4).order(ByteOrder.nativeOrder()).asFloatBuffer();
+    else
+      return FloatBuffer.allocate(size);
+  }
+
+  protected IntBuffer newIntBuffer(IntArrayList values) {
+    if (direct) {
+      IntBuffer buffer =
+          ByteBuffer.allocateDirect(values.size() * 4).order(ByteOrder.nativeOrder()).asIntBuffer();
+      values.putTo(buffer);
+      buffer.rewind();
+      return buffer;
+    } else {
+      return IntBuffer.wrap(values.toArray());
+    }
+  }
+
+  /* ***************************************************************** */
+  /* **************************** SOURCES **************************** */
+  /* ***************************************************************** */
+
+  /** Provides the successive values of the file body. */
+  protected interface ValueSource {
+    double next(Type type) throws IOException;
+  }
+
+  /** Stream a binary body through a fixed size buffer. */
+  protected static class BinarySource implements ValueSource {
+    protected FileChannel channel;
+    protected long filePosition;
+    protected ByteBuffer buffer;
+
+    public BinarySource(FileChannel channel, long start, ByteOrder order, int bufferSize) {
+      this.channel = channel;
+      this.filePosition = start;
+      this.buffer = ByteBuffer.allocateDirect(bufferSize).order(order);
+      this.buffer.limit(0);
+    }
+
+    @Override
+    public double next(Type type) throws IOException {
+      ensure(type.size);
+      int position = buffer.position();
+      double value = type.get(buffer, position);
+      buffer.position(position + type.size);
+      return value;
+    }
+
+    /**
+     * Ensure the buffer has at least n bytes remaining, reading the file if needed. The buffer
+     * grows if n exceeds its capacity, e.g. for records larger than the configured buffer size.
+     */
+    public void ensure(int n) throws IOException {
+      if (buffer.remaining() >= n)
+        return;
+
+      if (n > buffer.capacity()) {
+        ByteBuffer grown = ByteBuffer
+            .allocateDirect((int) Math.min(Math.max(n, 2L * buffer.capacity()), Integer.MAX_VALUE))
+            .order(buffer.order());
+        grown.put(buffer);
+        buffer = grown;
+      } else {
+        buffer.compact();
+      }
+      while (buffer.position() < n) {
+        int read = channel.read(buffer, filePosition);
+        if (read < 0)
+          throw new EOFException("Unexpected end of PLY file at byte " + filePosition);
+        filePosition += read;
+      }
+      buffer.flip();
+    }
+
+    /**
+     * Ensure the buffer holds at least one complete record, and return the number of complete
+     * records it holds, up to max.
+     */
+    public int ensureRecords(int recordSize, int max) throws IOException {
+      ensure(recordSize);
+      return Math.min(max, buffer.remaining() / recordSize);
+    }
+
+    /** The number of bytes left to read, in the buffer and in the file. */
+    public long remaining() throws IOException {
+      return buffer.remaining() + channel.size() - filePosition;
+    }
+
+    public void skip(long bytes) throws IOException {
+      int remaining = buffer.remaining();
+      if (bytes <= remaining) {
+        buffer.position(buffer.position() + (int) bytes);
+      } else {
+        filePosition += bytes - remaining;
+        buffer.clear();
+        buffer.limit(0);
+        if (filePosition > channel.size())
+          throw new EOFException("Unexpected end of PLY file at byte " + channel.size());
+      }
+    }
+  }
+
+  /** Parse an ASCII body, memory mapped by ranges aligned on line starts. */
+  protected static class AsciiSource implements ValueSource {
+    protected FileChannel channel;
+    protected long[] ranges;
+    protected int range = 0;
+    protected AsciiScanner scanner;
+
+    public AsciiSource(FileChannel channel, long start) throws IOException {
+      this.channel = channel;
+      long size = channel.size();
+      int chunks = (int) Math.max(1, (size - start) / (AsciiScanner.MAX_CHUNK_SIZE / 4) + 1);
+      this.ranges = AsciiScanner.splitOnLines(channel, start, size, chunks);
+    }
+
+    @Override
+    public double next(Type type) throws IOException {
+      while (true) {
+        if (scanner != null) {
+          scanner.skipWhitespaces();
+          if (scanner.hasMore())
+            break;
+        }
+        if (range >= ranges.length - 1)
+          throw new EOFException("Unexpected end of PLY file");
+        scanner = new AsciiScanner(channel.map(FileChannel.MapMode.READ_ONLY, ranges[range],
+            ranges[range + 1] - ranges[range]));
+        range++;
+      }
+      return type.isInteger() ? scanner.nextLong() : scanner.nextDouble();
+    }
+  }
+
+  /* ***************************************************************** */
+  /* *************************** SETTINGS **************************** */
+  /* ***************************************************************** */
+
+  public boolean isReadColors() {
+    return readColors;
+  }
+
+  /** Read vertex colors if the file defines them (default true). */
+  public void setReadColors(boolean readColors) {
+    this.readColors = readColors;
+  }
+
+  public boolean isReadNormals() {
+    return readNormals;
+  }
+
+  /** Read vertex normals if the file defines them (default true). */
+  public void setReadNormals(boolean readNormals) {
+    this.readNormals = readNormals;
+  }
+
+  public boolean isReadFaces() {
+    return readFaces;
+  }
+
+  /** Read faces if the file defines them (default true). */
+  public void setReadFaces(boolean readFaces) {
+    this.readFaces = readFaces;
+  }
+
+  public boolean isDirect() {
+    return direct;
+  }
+
+  /**
+   * Store data in direct buffers (default true), which can be given to a GPU without being copied.
+   */
+  public void setDirect(boolean direct) {
+    this.direct = direct;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /** Size of the buffer used to stream binary files (default 4MB). */
+  public void setBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+}
@@ -5,7 +5,9 @@ import java.util.List;
 import org.jzy3d.colors.Color;
 
 /**
- * A set of points.
+ * A set of points, stored as one array per component.
+ * 
+ * Colors and values are optional : their arrays are null if the set was built without them.
  * 
  * @author Martin Pernollet
  */
@@ -19,15 +21,39 @@ public class Coord3ds {
   public float b[];
   public float a[];
 
+  /** A scalar value per point, e.g. a measure to be colored by a colormap. */
+  public float values[];
+
   public Coord3ds(int size) {
+    this(size, true, false);
+  }
+
+  public Coord3ds(int size, boolean colors, boolean values) {
     x = new float[size];
     y = new float[size];
     z = new float[size];
 
-    r = new float[size];
-    g = new float[size];
-    b = new float[size];
-    a = new float[size];
+    if (colors) {
+      r = new float[size];
+      g = new float[size];
+      b = new float[size];
+      a = new float[size];
+    }
+
+    if (values)
+      this.values = new float[size];
+  }
+
+  public int size() {
+    return x.length;
+  }
+
+  public boolean hasColors() {
+    return r != null;
+  }
+
+  public boolean hasValues() {
+    return values != null;
   }
 
   public void set(int id, float x, float y, float z, float r, float g, float b, float a) {
@@ -42,7 +68,7 @@ public class Coord3ds {
   }
 
   public List<Coord3d> coords() {
-    List<Coord3d> coords = new ArrayList<>();
+    List<Coord3d> coords = new ArrayList<>(x.length);
     for (int i = 0; i < x.length; i++) {
       coords.add(new Coord3d(x[i], y[i], z[i]));
     }
@@ -57,7 +83,10 @@ public class Coord3ds {
     return coords;
   }
 
+  /** Return the colors of the points, or null if this set has no color. */
   public Color[] colorsArray() {
+    if (!hasColors())
+      return null;
     Color[] colors = new Color[r.length];
     for (int i = 0; i < r.length; i++) {
       colors[i] = new Color(r[i], g[i], b[i], a[i]);
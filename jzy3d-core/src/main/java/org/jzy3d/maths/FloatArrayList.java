@@ -0,0 +1,87 @@
+package org.jzy3d.maths;
+
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.List;
+import com.google.common.primitives.Floats;
+
+/**
+ * A growable array of primitive floats, allowing to accumulate values of unknown count without
+ * boxing each of them in a {@link Float} as a {@link List} would do.
+ *
+ * @author Martin Pernollet
+ */
+public class FloatArrayList extends PrimitiveArrayList {
+  protected float[] values;
+
+  public FloatArrayList() {
+    this(16);
+  }
+
+  public FloatArrayList(int initialCapacity) {
+    values = new float[Math.max(initialCapacity, 1)];
+    size = 0;
+  }
+
+  public void add(float value) {
+    if (size == values.length)
+      grow(size + 1);
+    values[size++] = value;
+  }
+
+  public void add(float x, float y, float z) {
+    if (size + 3 > values.length)
+      grow(size + 3);
+    values[size++] = x;
+    values[size++] = y;
+    values[size++] = z;
+  }
+
+  public void addAll(FloatArrayList other) {
+    addAll(other.values, 0, other.size);
+  }
+
+  public void addAll(float[] source, int offset, int length) {
+    if (size + length > values.length)
+      grow(size + length);
+    System.arraycopy(source, offset, values, size, length);
+    size += length;
+  }
+
+  public float get(int index) {
+    return values[index];
+  }
+
+  public void set(int index, float value) {
+    values[index] = value;
+  }
+
+  /** Return the backing array, that may be larger than {@link #size()}. */
+  public float[] array() {
+    return values;
+  }
+
+  public float[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /** Return a {@link List} view on the content, boxing values only when read. */
+  public List<Float> asList() {
+    return Floats.asList(values).subList(0, size);
+  }
+
+  /** Put the content in the given buffer, starting at its current position. */
+  public void putTo(FloatBuffer buffer) {
+    buffer.put(values, 0, size);
+  }
+
+  @Override
+  protected int capacity() {
+    return values.length;
+  }
+
+  @Override
+  protected void resize(int capacity) {
+    values = Arrays.copyOf(values, capacity);
+  }
+}
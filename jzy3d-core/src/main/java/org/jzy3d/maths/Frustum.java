@@ -0,0 +1,100 @@
+package org.jzy3d.maths;
+
+/**
+ * The view frustum defined by a projection and a modelview matrix, used to skip drawing parts of
+ * a scene that are out of the viewport.
+ *
+ * The 6 clipping planes are extracted from the product of the matrices, as described by Gribb and
+ * Hartmann in "Fast Extraction of Viewing Frustum Planes from the World-View-Projection Matrix".
+ * Matrices are given in OpenGL column-major order, as returned by
+ * {@link org.jzy3d.painters.IPainter#getProjectionAsFloat()} and
+ * {@link org.jzy3d.painters.IPainter#getModelViewAsFloat()}, so that planes are expressed in the
+ * model coordinates of the drawables.
+ *
+ * @author Martin Pernollet
+ */
+public class Frustum {
+  /** 6 planes (a, b, c, d) such that a*x + b*y + c*z + d >= 0 inside the frustum. */
+  protected float[] planes = new float[24];
+
+  public Frustum(float[] projection, float[] modelView) {
+    set(projection, modelView);
+  }
+
+  public void set(float[] projection, float[] modelView) {
+    float[] m = multiply(projection, modelView);
+
+    // left, right, bottom, top, near, far
+    for (int axis = 0; axis < 3; axis++) {
+      for (int side = 0; side < 2; side++) {
+        int p = (axis * 2 + side) * 4;
+        float sign = side == 0 ? 1 : -1;
+        for (int col = 0; col < 4; col++)
+          planes[p + col] = m[col * 4 + 3] + sign * m[col * 4 + axis];
+
+        // unit normals, so that plane equations give distances
+        float norm = (float) Math.sqrt(planes[p] * planes[p] + planes[p + 1] * planes[p + 1]
+            + planes[p + 2] * planes[p + 2]);
+        if (norm > 0)
+          for (int col = 0; col < 4; col++)
+            planes[p + col] /= norm;
+      }
+    }
+  }
+
+  /**
+   * Return false if the box is entirely out of the frustum. May return true for boxes lying close
+   * to a corner of the frustum without intersecting it, which is conservative for culling.
+   */
+  public boolean intersects(BoundingBox3d box) {
+    if (box == null || !box.valid())
+      return false;
+    return intersects(box.getXmin(), box.getXmax(), box.getYmin(), box.getYmax(), box.getZmin(),
+        box.getZmax());
+  }
+
+  /** Same as {@link #intersects(BoundingBox3d)}, for a valid box given by its bounds. */
+  public boolean intersects(float xmin, float xmax, float ymin, float ymax, float zmin,
+      float zmax) {
+    for (int p = 0; p < 24; p += 4) {
+      float a = planes[p];
+      float b = planes[p + 1];
+      float c = planes[p + 2];
+
+      // the corner of the box the most inside the plane
+      float x = a >= 0 ? xmax : xmin;
+      float y = b >= 0 ? ymax : ymin;
+      float z = c >= 0 ? zmax : zmin;
+
+      if (a * x + b * y + c * z + planes[p + 3] < 0)
+        return false;
+    }
+    return true;
+  }
+
+  public boolean contains(Coord3d c) {
+    return intersects(c.x, c.y, c.z, 0);
+  }
+
+  /** Return false if the sphere is entirely out of the frustum. */
+  public boolean intersects(float x, float y, float z, float radius) {
+    for (int p = 0; p < 24; p += 4)
+      if (planes[p] * x + planes[p + 1] * y + planes[p + 2] * z + planes[p + 3] < -radius)
+        return false;
+    return true;
+  }
+
+  public float[] getPlanes() {
+    return planes;
+  }
+
+  /** Product a x b of two 4x4 matrices given in column-major order. */
+  public static float[] multiply(float[] a, float[] b) {
+    float[] m = new float[16];
+    for (int col = 0; col < 4; col++)
+      for (int row = 0; row < 4; row++)
+        for (int k = 0; k < 4; k++)
+          m[col * 4 + row] += a[k * 4 + row] * b[col * 4 + k];
+    return m;
+  }
+}
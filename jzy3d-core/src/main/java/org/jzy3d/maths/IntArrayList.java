@@ -0,0 +1,87 @@
+package org.jzy3d.maths;
+
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.List;
+import com.google.common.primitives.Ints;
+
+/**
+ * A growable array of primitive ints, allowing to accumulate values of unknown count without
+ * boxing each of them in an {@link Integer} as a {@link List} would do.
+ *
+ * @author Martin Pernollet
+ */
+public class IntArrayList extends PrimitiveArrayList {
+  protected int[] values;
+
+  public IntArrayList() {
+    this(16);
+  }
+
+  public IntArrayList(int initialCapacity) {
+    values = new int[Math.max(initialCapacity, 1)];
+    size = 0;
+  }
+
+  public void add(int value) {
+    if (size == values.length)
+      grow(size + 1);
+    values[size++] = value;
+  }
+
+  public void add(int a, int b, int c) {
+    if (size + 3 > values.length)
+      grow(size + 3);
+    values[size++] = a;
+    values[size++] = b;
+    values[size++] = c;
+  }
+
+  public void addAll(IntArrayList other) {
+    addAll(other.values, 0, other.size);
+  }
+
+  public void addAll(int[] source, int offset, int length) {
+    if (size + length > values.length)
+      grow(size + length);
+    System.arraycopy(source, offset, values, size, length);
+    size += length;
+  }
+
+  public int get(int index) {
+    return values[index];
+  }
+
+  public void set(int index, int value) {
+    values[index] = value;
+  }
+
+  /** Return the backing array, that may be larger than {@link #size()}. */
+  public int[] array() {
+    return values;
+  }
+
+  public int[] toArray() {
+    return Arrays.copyOf(values, size);
+  }
+
+  /** Return a {@link List} view on the content, boxing values only when read. */
+  public List<Integer> asList() {
+    return Ints.asList(values).subList(0, size);
+  }
+
+  /** Put the content in the given buffer, starting at its current position. */
+  public void putTo(IntBuffer buffer) {
+    buffer.put(values, 0, size);
+  }
+
+  @Override
+  protected int capacity() {
+    return values.length;
+  }
+
+  @Override
+  protected void resize(int capacity) {
+    values = Arrays.copyOf(values, capacity);
+  }
+}
@@ -0,0 +1,59 @@
+package org.jzy3d.maths;
+
+/**
+ * Size and growth policy shared by the growable arrays of primitives, such as
+ * {@link FloatArrayList} and {@link IntArrayList}, which only hold their typed backing array.
+ */
+public abstract class PrimitiveArrayList {
+  /** Largest array size that is safe to allocate on most virtual machines. */
+  protected static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+  protected int size;
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    size = 0;
+  }
+
+  /** Ensure the array can hold at least the given number of values without growing. */
+  public void ensureCapacity(int capacity) {
+    if (capacity > capacity())
+      grow(capacity);
+  }
+
+  /** Release the unused tail of the backing array. */
+  public void trim() {
+    if (size < capacity())
+      resize(size);
+  }
+
+  /** Length of the backing array. */
+  protected abstract int capacity();
+
+  /** Replace the backing array by a copy of the given length. */
+  protected abstract void resize(int capacity);
+
+  /** Grow the backing array by half, or more if required, up to {@link #MAX_CAPACITY}. */
+  protected void grow(int minCapacity) {
+    int length = capacity();
+    long capacity = Math.max((long) length + (length >> 1), minCapacity);
+    if (capacity > MAX_CAPACITY)
+      capacity = MAX_CAPACITY;
+    // minCapacity is negative if the required size overflowed an int
+    if (minCapacity < 0 || capacity < minCapacity)
+      throw new IllegalStateException("Can not hold more than " + MAX_CAPACITY + " values");
+    resize((int) capacity);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "(size=" + size + ")";
+  }
+}
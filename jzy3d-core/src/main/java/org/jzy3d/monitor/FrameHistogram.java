@@ -0,0 +1,114 @@
+package org.jzy3d.monitor;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of positive values, e.g. durations in nanoseconds, having a constant memory footprint
+ * and constant recording time, from which percentiles can be read.
+ *
+ * As in HDR histograms, values are counted in buckets whose width grows with the value : each
+ * power of two range is divided in {@link #SUB_BUCKETS} buckets, so that percentiles are given
+ * with a relative error below 1/{@link #SUB_BUCKETS}. Values below {@link #SUB_BUCKETS} are exact
+ * and values above {@link #HIGHEST_TRACKABLE_VALUE} are counted as this value. Minimum, maximum and
+ * mean are exact.
+ *
+ * @author Martin Pernollet
+ */
+public class FrameHistogram {
+  protected static final int SUB_BUCKETS_BITS = 5;
+  public static final int SUB_BUCKETS = 1 << SUB_BUCKETS_BITS;
+  /** About 18 minutes when recording nanoseconds. */
+  public static final long HIGHEST_TRACKABLE_VALUE = (1L << 40) - 1;
+
+  protected long[] counts = new long[index(HIGHEST_TRACKABLE_VALUE) + 1];
+  protected long count;
+  protected long min = Long.MAX_VALUE;
+  protected long max;
+  protected double sum;
+
+  public synchronized void record(long value) {
+    if (value < 0)
+      value = 0;
+    else if (value > HIGHEST_TRACKABLE_VALUE)
+      value = HIGHEST_TRACKABLE_VALUE;
+
+    counts[index(value)]++;
+    count++;
+    sum += value;
+    if (value < min)
+      min = value;
+    if (value > max)
+      max = value;
+  }
+
+  public synchronized void reset() {
+    Arrays.fill(counts, 0);
+    count = 0;
+    min = Long.MAX_VALUE;
+    max = 0;
+    sum = 0;
+  }
+
+  /**
+   * Return the smallest value such that the given percentage of recorded values are lower or equal
+   * to it, up to the bucket precision, or 0 if nothing was recorded.
+   *
+   * @param percentile in [0;100]
+   */
+  public synchronized long getValueAtPercentile(double percentile) {
+    if (count == 0)
+      return 0;
+
+    long target = (long) Math.ceil(Math.min(Math.max(percentile, 0), 100) / 100 * count);
+    if (target < 1)
+      target = 1;
+
+    long cumulated = 0;
+    for (int i = 0; i < counts.length; i++) {
+      cumulated += counts[i];
+      if (cumulated >= target)
+        return Math.max(Math.min(highestEquivalentValue(i), max), min);
+    }
+    return max;
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /** Return the lowest recorded value, or 0 if nothing was recorded. */
+  public synchronized long getMin() {
+    return count == 0 ? 0 : min;
+  }
+
+  public synchronized long getMax() {
+    return max;
+  }
+
+  public synchronized double getMean() {
+    return count == 0 ? 0 : sum / count;
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Values below 2*{@link #SUB_BUCKETS} have their own bucket. Larger values of exponent e (the
+   * position of their highest bit) are shifted by e-{@link #SUB_BUCKETS_BITS} to keep their
+   * {@link #SUB_BUCKETS_BITS}+1 highest bits.
+   */
+  protected static int index(long value) {
+    if (value < 2 * SUB_BUCKETS)
+      return (int) value;
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKETS_BITS;
+    return (shift << SUB_BUCKETS_BITS) + (int) (value >>> shift);
+  }
+
+  /** The highest value counted in the bucket at the given index. */
+  protected static long highestEquivalentValue(int index) {
+    if (index < 2 * SUB_BUCKETS)
+      return index;
+    int shift = (index >> SUB_BUCKETS_BITS) - 1;
+    long mantissa = index - (shift << SUB_BUCKETS_BITS);
+    return ((mantissa + 1) << shift) - 1;
+  }
+}
@@ -0,0 +1,206 @@
+package org.jzy3d.monitor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.jzy3d.plot3d.rendering.view.View;
+
+/**
+ * Collect the duration of the phases of each rendered frame, and a few counters, and keep the
+ * distribution of these durations in {@link FrameHistogram}s to read percentiles.
+ *
+ * A canvas rendering a {@link View} calls {@link #beginFrame()} and {@link #endFrame()}, while the
+ * view and its graph time their phases as below. Phases occurring several times in a frame, e.g.
+ * drawing the scene graph and the annotation graph, are summed.
+ *
+ * <pre>
+ * <code>
+ * long start = telemetry.start();
+ * strategy.sort(monotypes, camera);
+ * telemetry.stop(Phase.SORT, start);
+ * </code>
+ * </pre>
+ *
+ * Telemetry is disabled by default, in which case all these methods return immediately. Once
+ * enabled, each frame is added as a {@link Measure.FrameTelemetryMeasure} to the {@link Monitor}s
+ * registered with {@link #add(Monitor)}.
+ *
+ * <pre>
+ * <code>
+ * FrameTelemetry telemetry = chart.getView().getTelemetry();
+ * telemetry.setEnabled(true);
+ * ...
+ * double p95 = telemetry.getFrameHistogram().getValueAtPercentile(95) / 1e6; // ms
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class FrameTelemetry implements IMonitorable {
+  /** The phases of a frame, timed in nanoseconds. */
+  public enum Phase {
+    CLEAR, CAMERA, DECOMPOSITION, SORT, GRAPH, AXIS, OVERLAY, FLUSH
+  }
+
+  /** The counters of a frame. */
+  public enum Counter {
+    /** Drawables of the scene graph that were drawn. */
+    DRAWABLES,
+    /** Vertices sent through the painter in immediate mode. */
+    VERTICES,
+    /** Calls to glBegin. */
+    GL_BEGIN,
+    /** Objects or parts of objects skipped because out of the view. */
+    CULLED
+  }
+
+  protected static final Phase[] PHASES = Phase.values();
+  protected static final Counter[] COUNTERS = Counter.values();
+
+  protected boolean enabled = false;
+
+  protected long frameStart;
+  protected long frameNanos;
+  protected long[] phaseNanos = new long[PHASES.length];
+  protected long[] counts = new long[COUNTERS.length];
+  protected long frames;
+
+  protected FrameHistogram frameHistogram = new FrameHistogram();
+  protected FrameHistogram[] phaseHistograms = new FrameHistogram[PHASES.length];
+
+  protected List<Monitor> monitors = new ArrayList<>();
+
+  public FrameTelemetry() {
+    for (int i = 0; i < phaseHistograms.length; i++)
+      phaseHistograms[i] = new FrameHistogram();
+  }
+
+  /* ***************************************************************** */
+
+  public void beginFrame() {
+    if (!enabled)
+      return;
+    Arrays.fill(phaseNanos, 0);
+    Arrays.fill(counts, 0);
+    frameStart = System.nanoTime();
+  }
+
+  /**
+   * Record the frame duration and its phases in histograms, and add the frame to the monitors.
+   * Ignored if the frame did not begin while telemetry was enabled.
+   */
+  public void endFrame() {
+    if (!enabled || frameStart == 0)
+      return;
+
+    frameNanos = System.nanoTime() - frameStart;
+    frameStart = 0;
+    frames++;
+
+    frameHistogram.record(frameNanos);
+    for (int i = 0; i < PHASES.length; i++)
+      phaseHistograms[i].record(phaseNanos[i]);
+
+    if (!monitors.isEmpty()) {
+      Measure measure = new Measure.FrameTelemetryMeasure(this);
+      for (Monitor monitor : monitors)
+        monitor.add(this, measure);
+    }
+  }
+
+  /** Return the current time to give to {@link #stop(Phase, long)}, or 0 if disabled. */
+  public long start() {
+    return enabled ? System.nanoTime() : 0;
+  }
+
+  /** Add the time elapsed since start to the phase of the current frame. */
+  public void stop(Phase phase, long start) {
+    if (enabled && start != 0)
+      phaseNanos[phase.ordinal()] += System.nanoTime() - start;
+  }
+
+  /** Add n to the counter of the current frame. */
+  public void count(Counter counter, long n) {
+    if (enabled)
+      counts[counter.ordinal()] += n;
+  }
+
+  /** Clear histograms and frame count. */
+  public void reset() {
+    frames = 0;
+    frameHistogram.reset();
+    for (FrameHistogram histogram : phaseHistograms)
+      histogram.reset();
+  }
+
+  /* ***************************************************************** */
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    if (!enabled)
+      frameStart = 0;
+  }
+
+  /** Number of frames recorded since creation or last {@link #reset()}. */
+  public long getFrames() {
+    return frames;
+  }
+
+  /** Duration of the last frame in nanoseconds. */
+  public long getLastFrameNanos() {
+    return frameNanos;
+  }
+
+  /** Duration of the phase during the last frame in nanoseconds. */
+  public long getLastNanos(Phase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+
+  /** Value of the counter for the last frame. */
+  public long getLastCount(Counter counter) {
+    return counts[counter.ordinal()];
+  }
+
+  /** Distribution of frame durations in nanoseconds. */
+  public FrameHistogram getFrameHistogram() {
+    return frameHistogram;
+  }
+
+  /** Distribution of the phase durations in nanoseconds. */
+  public FrameHistogram getHistogram(Phase phase) {
+    return phaseHistograms[phase.ordinal()];
+  }
+
+  /* ***************************************************************** */
+
+  @Override
+  public String getFullname() {
+    return super.toString();
+  }
+
+  @Override
+  public String getLabel() {
+    return this.getClass().getSimpleName();
+  }
+
+  @Override
+  public void add(Monitor monitor) {
+    monitors.add(monitor);
+  }
+
+  public void remove(Monitor monitor) {
+    monitors.remove(monitor);
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s frames:%d p50:%.2fms p95:%.2fms p99:%.2fms", getLabel(), frames,
+        frameHistogram.getValueAtPercentile(50) / 1e6,
+        frameHistogram.getValueAtPercentile(95) / 1e6,
+        frameHistogram.getValueAtPercentile(99) / 1e6);
+  }
+}
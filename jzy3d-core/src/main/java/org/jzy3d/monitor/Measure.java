@@ -58,5 +58,31 @@ public class Measure {
       return (int)observations.get("pixels");
     }
   }
+
+  /**
+   * The last frame of a {@link FrameTelemetry} : duration of the frame and its phases in
+   * milliseconds, counters, and 50th, 95th and 99th percentiles of frame durations.
+   */
+  public static class FrameTelemetryMeasure extends Measure {
+    public FrameTelemetryMeasure(FrameTelemetry telemetry) {
+      super();
+      FrameHistogram frames = telemetry.getFrameHistogram();
+      observations.put("frame", telemetry.getLastFrameNanos() / 1e6);
+      observations.put("frame.p50", frames.getValueAtPercentile(50) / 1e6);
+      observations.put("frame.p95", frames.getValueAtPercentile(95) / 1e6);
+      observations.put("frame.p99", frames.getValueAtPercentile(99) / 1e6);
+
+      for (FrameTelemetry.Phase phase : FrameTelemetry.Phase.values())
+        observations.put("phase." + phase.name().toLowerCase(),
+            telemetry.getLastNanos(phase) / 1e6);
+      for (FrameTelemetry.Counter counter : FrameTelemetry.Counter.values())
+        observations.put("count." + counter.name().toLowerCase(),
+            telemetry.getLastCount(counter));
+    }
+
+    public double getFrameMili() {
+      return (double) observations.get("frame");
+    }
+  }
   
 }
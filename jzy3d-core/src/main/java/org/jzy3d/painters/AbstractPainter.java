@@ -17,10 +17,30 @@ public abstract class AbstractPainter implements IPainter {
   protected View view;
   protected ICanvas canvas;
 
+  /**
+   * Calls to glBegin and glVertex since the last {@link #resetCounts()}, see FrameTelemetry.
+   * Painters whose GL already counts glBegin override {@link #getCountGLBegin()} instead.
+   */
+  protected long countGLBegin;
+  protected long countVertices;
+
   public AbstractPainter() {
     super();
   }
 
+  public long getCountGLBegin() {
+    return countGLBegin;
+  }
+
+  public long getCountVertices() {
+    return countVertices;
+  }
+
+  public void resetCounts() {
+    countGLBegin = 0;
+    countVertices = 0;
+  }
+
   @Override
   public View getView() {
     return view;
@@ -0,0 +1,20 @@
+package org.jzy3d.plot3d.primitives;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A {@link IGLBindedResource} whose mounting only starts loading resources in background, the
+ * resource being ready for rendering later.
+ * 
+ * @author Martin Pernollet
+ */
+public interface IAsyncGLBindedResource extends IGLBindedResource {
+  /** Return true once resources are loaded in the GL context. */
+  public boolean isReady();
+
+  /**
+   * A future completed once resources are loaded in the GL context, or completed exceptionally if
+   * loading failed.
+   */
+  public CompletableFuture<Void> whenReady();
+}
@@ -0,0 +1,362 @@
+package org.jzy3d.plot3d.primitives;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.log4j.Logger;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ISingleColorable;
+import org.jzy3d.io.octree.OctreeNodeCache;
+import org.jzy3d.io.octree.PointOctree;
+import org.jzy3d.io.octree.PointOctree.Node;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.rendering.canvas.IScreenCanvas;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
+import org.jzy3d.plot3d.rendering.view.View;
+import org.jzy3d.plot3d.transform.Transform;
+
+/**
+ * A scatter able to display a point cloud that does not fit in memory, stored in a
+ * {@link PointOctree} built offline with a {@link org.jzy3d.io.octree.PointOctreeBuilder}.
+ *
+ * At each rendering, the octree is traversed from the root and a node is refined, i.e. its children
+ * are selected, if its projected size on screen is larger than {@link #getRefinePixels()}. Nodes
+ * out of the viewport are ignored. Selected nodes are loaded on a background thread by an
+ * {@link OctreeNodeCache} which holds at most {@link OctreeNodeCache#getBudget()} bytes of points.
+ * Unless the chart is animated, a repaint is posted each time nodes become available, from a
+ * dedicated thread so that the loading thread never renders.
+ *
+ * This drawable sends points in immediate mode, which any painter supports. Native charts should
+ * rather use OctreeScatterVBO, which keeps resident nodes in vertex buffers.
+ *
+ * <pre>
+ * <code>
+ * OctreeScatter scatter = new OctreeScatter(new File("cloud.oct"));
+ * scatter.setColor(Color.BLUE); // used if points have no color
+ * chart.add(scatter);
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class OctreeScatter extends Drawable implements ISingleColorable {
+  static Logger logger = Logger.getLogger(OctreeScatter.class);
+
+  protected PointOctree octree;
+  protected OctreeNodeCache cache;
+  protected Color color = Color.BLACK;
+  protected float width = 1;
+  protected float refinePixels = 200;
+
+  protected Transform geometryTransform;
+
+  protected View view;
+  protected List<Node> drawnNodes = new ArrayList<>();
+  protected ExecutorService repaintExecutor;
+  protected AtomicBoolean repaintPending = new AtomicBoolean(false);
+
+  public OctreeScatter(File file) throws IOException {
+    this(PointOctree.open(file));
+  }
+
+  public OctreeScatter(PointOctree octree) {
+    this(new OctreeNodeCache(octree));
+  }
+
+  public OctreeScatter(OctreeNodeCache cache) {
+    this.cache = cache;
+    this.octree = cache.getOctree();
+    this.cache.setListener(node -> requestRepaint());
+    this.cache.setProcessor(this::transform);
+    this.repaintExecutor = Executors.newSingleThreadExecutor(r -> {
+      Thread t = new Thread(r, "OctreeScatter repaint");
+      t.setDaemon(true);
+      return t;
+    });
+    updateBounds();
+  }
+
+  @Override
+  public void draw(IPainter painter) {
+    view = painter.getView();
+
+    doTransform(painter);
+
+    List<Node> nodes = select(painter);
+    cache.request(nodes);
+    doDrawPoints(painter, nodes);
+
+    doDrawBoundsIfDisplayed(painter);
+  }
+
+  /**
+   * Post a repaint of the view, unless one is already pending or an animator repaints the view
+   * continuously. Invoked on the loading thread when a node becomes resident.
+   */
+  protected void requestRepaint() {
+    View v = view;
+    if (v == null || isAnimated(v))
+      return;
+    if (repaintPending.compareAndSet(false, true)) {
+      repaintExecutor.execute(() -> {
+        repaintPending.set(false);
+        v.shoot();
+      });
+    }
+  }
+
+  protected boolean isAnimated(View v) {
+    return v.getCanvas() instanceof IScreenCanvas && v.getChart() != null
+        && v.getChart().getQuality().isAnimated();
+  }
+
+  protected void doDrawPoints(IPainter painter, List<Node> nodes) {
+    int vertexSize = octree.getVertexSize();
+    boolean colors = octree.hasColors();
+
+    drawnNodes.clear();
+
+    painter.glPointSize(width);
+    painter.glBegin_Point();
+
+    if (!colors)
+      painter.color(color);
+
+    for (Node node : nodes) {
+      FloatBuffer points = cache.get(node);
+      if (points == null)
+        continue;
+      drawnNodes.add(node);
+
+      for (int i = 0; i < node.getPointCount(); i++) {
+        int v = i * vertexSize;
+        if (colors)
+          painter.glColor4f(points.get(v + 3), points.get(v + 4), points.get(v + 5),
+              points.get(v + 6));
+        painter.vertex(points.get(v), points.get(v + 1), points.get(v + 2), spaceTransformer);
+      }
+    }
+    painter.glEnd();
+  }
+
+  /**
+   * Return the nodes to draw by decreasing projected size, starting from the root, refining nodes
+   * larger than {@link #getRefinePixels()} and stopping when the cache budget is reached.
+   */
+  protected List<Node> select(IPainter painter) {
+    ScreenProjection projection = ScreenProjection.of(painter);
+    float[] screen = new float[3];
+
+    List<Node> selected = new ArrayList<>();
+    PriorityQueue<Candidate> queue = new PriorityQueue<>();
+    queue.add(new Candidate(octree.getRoot(), Float.MAX_VALUE));
+
+    long bytes = 0;
+    long pointBytes = octree.getVertexSize() * 4;
+
+    while (!queue.isEmpty()) {
+      Candidate candidate = queue.poll();
+      Node node = candidate.node;
+
+      bytes += node.getPointCount() * pointBytes;
+      if (bytes > cache.getBudget() && !selected.isEmpty())
+        break;
+      selected.add(node);
+
+      if (candidate.size > refinePixels) {
+        for (Node child : octree.getChildren(node)) {
+          float size = projectedSize(projection, bounds(child), screen);
+          if (size >= 0)
+            queue.add(new Candidate(child, size));
+        }
+      }
+    }
+    return selected;
+  }
+
+  /**
+   * Return the size in pixels of the screen rectangle covered by the bounds, -1 if the bounds are
+   * out of the viewport, or {@link Float#MAX_VALUE} if the bounds cross the camera plane. Corners
+   * are projected in screen, a scratch array of at least 3 floats.
+   */
+  protected float projectedSize(ScreenProjection projection, BoundingBox3d b, float[] screen) {
+    int[] viewport = projection.getViewport();
+    float xmin = Float.MAX_VALUE;
+    float xmax = -Float.MAX_VALUE;
+    float ymin = Float.MAX_VALUE;
+    float ymax = -Float.MAX_VALUE;
+
+    for (int i = 0; i < 8; i++) {
+      float x = (i & 1) == 0 ? b.getXmin() : b.getXmax();
+      float y = (i & 2) == 0 ? b.getYmin() : b.getYmax();
+      float z = (i & 4) == 0 ? b.getZmin() : b.getZmax();
+
+      if (!projection.project(x, y, z, screen, 0))
+        return Float.MAX_VALUE;
+      if (screen[2] < 0 || screen[2] > 1)
+        return Float.MAX_VALUE;
+
+      xmin = Math.min(xmin, screen[0]);
+      xmax = Math.max(xmax, screen[0]);
+      ymin = Math.min(ymin, screen[1]);
+      ymax = Math.max(ymax, screen[1]);
+    }
+
+    if (xmax < viewport[0] || xmin > viewport[0] + viewport[2] || ymax < viewport[1]
+        || ymin > viewport[1] + viewport[3])
+      return -1;
+
+    return Math.max(xmax - xmin, ymax - ymin);
+  }
+
+  /** Bounds of the node once the geometry transform applied. */
+  protected BoundingBox3d bounds(Node node) {
+    return transform(node.getBounds());
+  }
+
+  protected BoundingBox3d transform(BoundingBox3d b) {
+    if (geometryTransform == null)
+      return b;
+
+    BoundingBox3d transformed = new BoundingBox3d();
+    for (int i = 0; i < 8; i++) {
+      float x = (i & 1) == 0 ? b.getXmin() : b.getXmax();
+      float y = (i & 2) == 0 ? b.getYmin() : b.getYmax();
+      float z = (i & 4) == 0 ? b.getZmin() : b.getZmax();
+      transformed.add(geometryTransform.compute(new Coord3d(x, y, z)));
+    }
+    return transformed;
+  }
+
+  /**
+   * Apply the geometry transform to the points of a node read by the cache, copying them since
+   * they are mapped read only.
+   */
+  protected FloatBuffer transform(Node node, FloatBuffer points) {
+    Transform t = geometryTransform;
+    if (t == null)
+      return points;
+
+    int vertexSize = octree.getVertexSize();
+    FloatBuffer transformed = ByteBuffer.allocateDirect(points.capacity() * 4)
+        .order(ByteOrder.nativeOrder()).asFloatBuffer();
+    transformed.put(points);
+    for (int i = 0; i < node.getPointCount(); i++) {
+      int v = i * vertexSize;
+      Coord3d c = t.compute(
+          new Coord3d(transformed.get(v), transformed.get(v + 1), transformed.get(v + 2)));
+      transformed.put(v, c.x);
+      transformed.put(v + 1, c.y);
+      transformed.put(v + 2, c.z);
+    }
+    transformed.rewind();
+    return transformed;
+  }
+
+  protected static class Candidate implements Comparable<Candidate> {
+    Node node;
+    float size;
+
+    Candidate(Node node, float size) {
+      this.node = node;
+      this.size = size;
+    }
+
+    @Override
+    public int compareTo(Candidate other) {
+      return Float.compare(other.size, size);
+    }
+  }
+
+  /** Stop the loading thread, release resident nodes and close the octree file. */
+  @Override
+  public void dispose() {
+    super.dispose();
+    cache.dispose();
+    repaintExecutor.shutdownNow();
+    try {
+      octree.close();
+    } catch (IOException e) {
+      logger.error("Could not close " + octree, e);
+    }
+  }
+
+  /**
+   * Transform the points, which are read from a file and thus transformed when loaded : resident
+   * nodes are dropped and reloaded. Successive transforms are composed.
+   */
+  @Override
+  public void applyGeometryTransform(Transform transform) {
+    Transform composed = new Transform();
+    if (geometryTransform != null)
+      composed.add(geometryTransform);
+    composed.add(transform);
+    geometryTransform = composed;
+
+    cache.clear();
+    updateBounds();
+  }
+
+  @Override
+  public void updateBounds() {
+    bbox = transform(octree.getBounds()).clone();
+  }
+
+  /* ***************************************************************** */
+
+  public PointOctree getOctree() {
+    return octree;
+  }
+
+  public OctreeNodeCache getCache() {
+    return cache;
+  }
+
+  /** The composition of the transforms given to {@link #applyGeometryTransform(Transform)}. */
+  public Transform getGeometryTransform() {
+    return geometryTransform;
+  }
+
+  /** The nodes that were drawn at the last rendering. */
+  public List<Node> getDrawnNodes() {
+    return drawnNodes;
+  }
+
+  public float getRefinePixels() {
+    return refinePixels;
+  }
+
+  /** Nodes covering more pixels than this on screen are refined with their children. */
+  public void setRefinePixels(float refinePixels) {
+    this.refinePixels = refinePixels;
+  }
+
+  public float getWidth() {
+    return width;
+  }
+
+  public void setWidth(float width) {
+    this.width = width;
+  }
+
+  /** The color of the points if the octree has no color. */
+  @Override
+  public void setColor(Color color) {
+    this.color = color;
+  }
+
+  @Override
+  public Color getColor() {
+    return color;
+  }
+}
@@ -39,8 +39,11 @@ public class Scatter extends Drawable implements ISingleColorable {
     setColor(rgb);
   }
 
+  /** Draw points with their colors, or in black if the set has no color. */
   public Scatter(Coord3ds coords) {
     this(coords.coordsArray(), coords.colorsArray());
+    if (!coords.hasColors())
+      setColor(Color.BLACK);
   }
 
   public Scatter(Coord3d[] coordinates, Color[] colors) {
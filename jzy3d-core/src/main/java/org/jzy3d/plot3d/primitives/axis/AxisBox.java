@@ -853,6 +853,11 @@ public class AxisBox implements IAxis {
     return layout;
   }
 
+  /** The processor drawing ticks, which holds the tick layout cache. */
+  public AxisTickProcessor getTickProcessor() {
+    return ticks;
+  }
+
   @Override
   public SpaceTransformer getSpaceTransformer() {
     return spaceTransformer;
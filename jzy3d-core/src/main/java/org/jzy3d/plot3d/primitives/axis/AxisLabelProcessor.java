@@ -67,7 +67,7 @@ public class AxisLabelProcessor {
     for (int i = 0; i < info.tickValues.length; i++) {
       
       Coord3d t2d = painter.modelToScreen(info.tickLabelPositions[i]);
-      int tickLabelWidth = (int)(painter.getTextLengthInPixels(layout.getFont(), info.tickLabels[i]));//* pixelScale.x
+      int tickLabelWidth = info.getTickLabelWidth(painter, layout.getFont(), i);//* pixelScale.x
       
       //System.out.println(pixelScale);
       if(ZAxisSide.LEFT.equals(layout.getZAxisSide())) {
@@ -116,7 +116,7 @@ public class AxisLabelProcessor {
     // Compute longest tick label in pixels
     int maxTickLabelWidth = 0;
     for (int i = 0; i < info.tickValues.length; i++) {
-      int tickLabelWidth = painter.getTextLengthInPixels(layout.getFont(), info.tickLabels[i]);
+      int tickLabelWidth = info.getTickLabelWidth(painter, layout.getFont(), i);
       if(tickLabelWidth>maxTickLabelWidth) {
         maxTickLabelWidth = tickLabelWidth;
       }
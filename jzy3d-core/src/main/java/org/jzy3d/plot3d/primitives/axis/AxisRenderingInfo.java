@@ -1,6 +1,8 @@
 package org.jzy3d.plot3d.primitives.axis;
 
 import org.jzy3d.maths.Coord3d;
+import org.jzy3d.painters.Font;
+import org.jzy3d.painters.IPainter;
 
 public class AxisRenderingInfo {
   public Coord3d[] axisSegment;
@@ -8,5 +10,20 @@ public class AxisRenderingInfo {
   public String[] tickLabels;
   public double[] tickValues;
   public Coord3d[] tickLabelPositions;
+  public Coord3d[] tickPositions;
   // BoundingBox3d
+
+  protected Font tickLabelWidthsFont;
+  protected int[] tickLabelWidths;
+
+  /** Width of a tick label in pixels, measured once per font. */
+  public int getTickLabelWidth(IPainter painter, Font font, int tick) {
+    if (tickLabelWidths == null || !font.equals(tickLabelWidthsFont)) {
+      tickLabelWidths = new int[tickLabels.length];
+      for (int t = 0; t < tickLabels.length; t++)
+        tickLabelWidths[t] = painter.getTextLengthInPixels(font, tickLabels[t]);
+      tickLabelWidthsFont = font.clone();
+    }
+    return tickLabelWidths[tick];
+  }
 }
@@ -1,5 +1,8 @@
 package org.jzy3d.plot3d.primitives.axis;
 
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.jzy3d.colors.Color;
 import org.jzy3d.maths.BoundingBox3d;
 import org.jzy3d.maths.Coord2d;
@@ -7,9 +10,12 @@ import org.jzy3d.maths.Coord3d;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.plot3d.primitives.axis.layout.IAxisLayout;
 import org.jzy3d.plot3d.primitives.axis.layout.LabelOrientation;
+import org.jzy3d.plot3d.primitives.axis.layout.renderers.ITickRenderer;
 import org.jzy3d.plot3d.rendering.view.Camera;
+import org.jzy3d.plot3d.text.TextBatch;
 import org.jzy3d.plot3d.text.align.Horizontal;
 import org.jzy3d.plot3d.text.align.Vertical;
+import org.jzy3d.plot3d.transform.space.SpaceTransformer;
 
 /**
  * A helper class to process and draw axis ticks. Processing requires calling there the
@@ -22,6 +28,27 @@ public class AxisTickProcessor {
   protected IAxisLayout layout;
   protected AxisLabelProcessor labels;
 
+  /** Layouts of the last axis positions, as the drawn axis changes with the viewpoint. */
+  protected static final int CACHE_SIZE = 16;
+
+  protected boolean caching = true;
+  protected Map<TicksLayoutKey, AxisRenderingInfo> cache =
+      new LinkedHashMap<TicksLayoutKey, AxisRenderingInfo>(CACHE_SIZE, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<TicksLayoutKey, AxisRenderingInfo> eldest) {
+          return size() > CACHE_SIZE;
+        }
+      };
+  protected long cacheHits = 0;
+  protected long cacheMisses = 0;
+  /** Key filled at each rendering to look up the cache, only copied when a layout is stored. */
+  protected TicksLayoutKey probe = new TicksLayoutKey();
+
+  /** Labels of the ticks of the axis being drawn, reused between axes and renderings. */
+  protected TextBatch tickLabels = new TextBatch();
+
   public AxisTickProcessor(AxisBox axis) {
     this.axis = axis;
     this.layout = axis.getLayout();
@@ -123,11 +150,65 @@ public class AxisTickProcessor {
   /**
    * Draw an array of ticks on the given axis indicated by direction field.
    * 
+   * Tick positions and labels are computed once for a given set of ticks and axis position, and
+   * then kept in a cache (see {@link #setCaching(boolean)} and {@link #clearCache()}).
+   * 
    * Return the segment of the axis.
    */
   public AxisRenderingInfo drawAxisTicks(IPainter painter, int dimension, Color color,
       Horizontal hal, Vertical val, float tickLength, BoundingBox3d ticksTxtBounds, double xpos,
       double ypos, double zpos, float xdir, float ydir, float zdir, double[] ticks) {
+
+    AxisRenderingInfo info = getAxisTicksLayout(dimension, tickLength, xpos, ypos, zpos, xdir,
+        ydir, zdir, ticks);
+
+    TextBatch labels = tickLabels;
+    labels.clear();
+
+    for (int t = 0; t < ticks.length; t++) {
+      Coord3d tickLabelPosition = info.tickLabelPositions[t];
+
+      // Select the alignement of the tick label
+      Horizontal hAlign = align(hal, dimension, painter.getCamera(), tickLabelPosition);
+      Vertical vAlign = align(val, dimension, zdir);
+
+      // Keep the text label of the current tick to draw all labels at once
+      labels.add(info.tickLabels[t], tickLabelPosition, hAlign, vAlign, color);
+
+      // Draw the tick line
+      if (layout.isTickLineDisplayed()) {
+        drawTickLine(painter, color, info.tickPositions[t], tickLabelPosition);
+      }
+    }
+
+    drawAxisTickNumericLabels(painter, ticksTxtBounds, labels);
+
+    return info;
+  }
+
+  /** Return the cached layout of the ticks, or compute it if the axis or the ticks changed. */
+  protected AxisRenderingInfo getAxisTicksLayout(int dimension, float tickLength, double xpos,
+      double ypos, double zpos, float xdir, float ydir, float zdir, double[] ticks) {
+    if (!caching)
+      return layoutAxisTicks(dimension, tickLength, xpos, ypos, zpos, xdir, ydir, zdir, ticks);
+
+    probe.set(dimension, tickLength, xpos, ypos, zpos, xdir, ydir, zdir, ticks,
+        tickRenderer(dimension));
+
+    AxisRenderingInfo info = cache.get(probe);
+    if (info == null) {
+      cacheMisses++;
+      info = layoutAxisTicks(dimension, tickLength, xpos, ypos, zpos, xdir, ydir, zdir, ticks);
+      cache.put(probe.copy(), info);
+    } else {
+      cacheHits++;
+    }
+    return info;
+  }
+
+  /** Compute the positions and labels of ticks, without drawing. */
+  protected AxisRenderingInfo layoutAxisTicks(int dimension, float tickLength, double xpos,
+      double ypos, double zpos, float xdir, float ydir, float zdir, double[] ticks) {
     double xlab;
     double ylab;
     double zlab;
@@ -138,6 +219,7 @@ public class AxisTickProcessor {
     info.tickValues = ticks;
     info.tickLabels = new String[ticks.length];
     info.tickLabelPositions = new Coord3d[ticks.length];
+    info.tickPositions = new Coord3d[ticks.length];
 
     // Coord3d[] axisSegment = new Coord3d[2];
 
@@ -215,20 +297,6 @@ public class AxisTickProcessor {
       Coord3d tickLabelPosition = new Coord3d(xlab, ylab, zlab);
       Coord3d tickStartPosition = new Coord3d(xpos, ypos, zpos);
 
-      // Select the alignement of the tick label
-      Horizontal hAlign = align(hal, dimension, painter.getCamera(), tickLabelPosition);
-      Vertical vAlign = align(val, dimension, zdir);
-
-      // Draw the text label of the current tick
-      drawAxisTickNumericLabel(painter, dimension, color, hAlign, vAlign, ticksTxtBounds, tickLabel,
-          tickLabelPosition);
-
-      // Draw the tick line
-      if (layout.isTickLineDisplayed()) {
-        drawTickLine(painter, color, tickStartPosition, tickLabelPosition);
-      }
-
-
       // ------------------------
       // Remember the axis info
       if (t == 0) {
@@ -238,11 +306,32 @@ public class AxisTickProcessor {
       }
       info.tickLabels[t] = tickLabel;
       info.tickLabelPositions[t] = tickLabelPosition;
+      info.tickPositions[t] = tickStartPosition;
     }
 
     return info;
   }
 
+  protected ITickRenderer tickRenderer(int dimension) {
+    if (axis.isX(dimension))
+      return layout.getXTickRenderer();
+    else if (axis.isY(dimension))
+      return layout.getYTickRenderer();
+    else
+      return layout.getZTickRenderer();
+  }
+
+  /** Draw the labels of all ticks of an axis with a single call to the text renderer. */
+  public void drawAxisTickNumericLabels(IPainter painter, BoundingBox3d ticksTxtBounds,
+      TextBatch labels) {
+    painter.glLoadIdentity();
+    painter.glScalef(axis.scale.x, axis.scale.y, axis.scale.z);
+
+    BoundingBox3d tickBounds = axis.textRenderer.drawTexts(painter, layout.getFont(), labels);
+    if (tickBounds != null && !tickBounds.isReset())
+      ticksTxtBounds.add(tickBounds);
+  }
+
   public void drawAxisTickNumericLabel(IPainter painter, int direction, Color color,
       Horizontal hAlign, Vertical vAlign, BoundingBox3d ticksTxtBounds, String tickLabel,
       Coord3d tickPosition) {
@@ -301,6 +390,113 @@ public class AxisTickProcessor {
     painter.glEnd();
   }
 
+  // ********************* CACHE *********************** //
+
+  /**
+   * Forget all cached tick layouts. Must be called after editing a tick renderer in place, e.g.
+   * registering a label in a {@link org.jzy3d.plot3d.primitives.axis.layout.renderers.TickLabelMap}
+   * or changing the format of a renderer, since renderers are compared by identity. Replacing a
+   * tick renderer in the layout or changing the ticks does not require it.
+   */
+  public void clearCache() {
+    cache.clear();
+  }
+
+  public boolean isCaching() {
+    return caching;
+  }
+
+  /** Keep tick positions and labels between renderings, true by default. */
+  public void setCaching(boolean caching) {
+    this.caching = caching;
+    if (!caching)
+      clearCache();
+  }
+
+  /** Number of renderings of an axis that used a cached layout. */
+  public long getCacheHits() {
+    return cacheHits;
+  }
+
+  /** Number of renderings of an axis that had to compute its layout. */
+  public long getCacheMisses() {
+    return cacheMisses;
+  }
+
+  /**
+   * Inputs of a tick layout. The tick renderer and the space transformer are compared by identity,
+   * the latter being read from the axis when setting the key. Arrays are filled in place so that
+   * looking up the cache does not allocate.
+   */
+  protected class TicksLayoutKey {
+    protected int dimension;
+    protected float tickLength;
+    protected final double[] position = new double[3];
+    protected final float[] direction = new float[3];
+    protected double[] ticks;
+    protected final float[] ranges = new float[3];
+    protected ITickRenderer renderer;
+    protected final Object[] transforms = new Object[4];
+
+    protected void set(int dimension, float tickLength, double xpos, double ypos, double zpos,
+        float xdir, float ydir, float zdir, double[] ticks, ITickRenderer renderer) {
+      this.dimension = dimension;
+      this.tickLength = tickLength;
+      position[0] = xpos;
+      position[1] = ypos;
+      position[2] = zpos;
+      direction[0] = xdir;
+      direction[1] = ydir;
+      direction[2] = zdir;
+      this.ticks = ticks;
+      ranges[0] = axis.xrange;
+      ranges[1] = axis.yrange;
+      ranges[2] = axis.zrange;
+      this.renderer = renderer;
+      SpaceTransformer st = axis.spaceTransformer;
+      transforms[0] = st;
+      transforms[1] = st == null ? null : st.getX();
+      transforms[2] = st == null ? null : st.getY();
+      transforms[3] = st == null ? null : st.getZ();
+    }
+
+    /** Return a key holding its own copy of the ticks, to be stored in the cache. */
+    protected TicksLayoutKey copy() {
+      TicksLayoutKey copy = new TicksLayoutKey();
+      copy.set(dimension, tickLength, position[0], position[1], position[2], direction[0],
+          direction[1], direction[2], ticks.clone(), renderer);
+      System.arraycopy(transforms, 0, copy.transforms, 0, transforms.length);
+      return copy;
+    }
+
+    @Override
+    public int hashCode() {
+      int h = dimension;
+      h = 31 * h + Float.floatToIntBits(tickLength);
+      h = 31 * h + Arrays.hashCode(position);
+      h = 31 * h + Arrays.hashCode(direction);
+      h = 31 * h + Arrays.hashCode(ticks);
+      h = 31 * h + Arrays.hashCode(ranges);
+      h = 31 * h + System.identityHashCode(renderer);
+      return h;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof TicksLayoutKey))
+        return false;
+      TicksLayoutKey other = (TicksLayoutKey) obj;
+      if (dimension != other.dimension || tickLength != other.tickLength
+          || renderer != other.renderer)
+        return false;
+      for (int i = 0; i < transforms.length; i++)
+        if (transforms[i] != other.transforms[i])
+          return false;
+      return Arrays.equals(position, other.position) && Arrays.equals(direction, other.direction)
+          && Arrays.equals(ticks, other.ticks) && Arrays.equals(ranges, other.ranges);
+    }
+  }
+
   // ********************* INTERNAL *********************** //
 
   protected Coord3d tickPosition(int quad_0, int quad_1) {
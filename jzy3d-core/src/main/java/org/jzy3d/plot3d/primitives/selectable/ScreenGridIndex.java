@@ -0,0 +1,191 @@
+package org.jzy3d.plot3d.primitives.selectable;
+
+import java.util.BitSet;
+
+/**
+ * A uniform grid bucketing points projected on screen, so that rectangle and polygon (lasso)
+ * selections only test points of the cells they overlap.
+ *
+ * Points are given as x, y, z screen coordinates, as produced by
+ * {@link org.jzy3d.plot3d.rendering.view.ScreenProjection}. Points with NaN coordinates are not
+ * indexed. The index is immutable and should be built again when the projection changes.
+ *
+ * Selections are returned as a {@link BitSet} holding the index of selected points.
+ *
+ * @author Martin Pernollet
+ */
+public class ScreenGridIndex {
+  /** Default cell width and height, in pixels. */
+  public static final float DEFAULT_CELL_SIZE = 8;
+
+  /** Maximum number of columns and rows, to bound memory for points projected far away. */
+  public static final int MAX_CELLS_PER_AXIS = 1024;
+
+  protected float[] screen;
+  protected int size;
+
+  protected float xmin;
+  protected float ymin;
+  protected float cellWidth;
+  protected float cellHeight;
+  protected int cols;
+  protected int rows;
+
+  /** Points of cell c are cellPoints[cellStart[c]] to cellPoints[cellStart[c + 1] - 1]. */
+  protected int[] cellStart;
+  protected int[] cellPoints;
+
+  public ScreenGridIndex(float[] screen, int size) {
+    this(screen, size, DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * @param screen x, y, z screen coordinates of each point
+   * @param size number of points
+   * @param cellSize width and height of cells, in pixels
+   */
+  public ScreenGridIndex(float[] screen, int size, float cellSize) {
+    this.screen = screen;
+    this.size = size;
+
+    float xmax = -Float.MAX_VALUE;
+    float ymax = -Float.MAX_VALUE;
+    xmin = Float.MAX_VALUE;
+    ymin = Float.MAX_VALUE;
+    for (int i = 0; i < size; i++) {
+      float x = screen[i * 3];
+      float y = screen[i * 3 + 1];
+      if (Float.isNaN(x) || Float.isNaN(y))
+        continue;
+      xmin = Math.min(xmin, x);
+      xmax = Math.max(xmax, x);
+      ymin = Math.min(ymin, y);
+      ymax = Math.max(ymax, y);
+    }
+    if (xmax < xmin) {
+      // no point
+      xmin = xmax = ymin = ymax = 0;
+    }
+
+    cols = Math.min(MAX_CELLS_PER_AXIS, (int) ((xmax - xmin) / cellSize) + 1);
+    rows = Math.min(MAX_CELLS_PER_AXIS, (int) ((ymax - ymin) / cellSize) + 1);
+    cellWidth = Math.max(cellSize, (xmax - xmin) / cols * 1.0001f);
+    cellHeight = Math.max(cellSize, (ymax - ymin) / rows * 1.0001f);
+
+    // counting sort of points by cell
+    int[] cells = new int[size];
+    cellStart = new int[cols * rows + 1];
+    for (int i = 0; i < size; i++) {
+      cells[i] = cell(screen[i * 3], screen[i * 3 + 1]);
+      if (cells[i] >= 0)
+        cellStart[cells[i] + 1]++;
+    }
+    for (int c = 0; c < cols * rows; c++)
+      cellStart[c + 1] += cellStart[c];
+
+    int[] next = new int[cols * rows];
+    System.arraycopy(cellStart, 0, next, 0, next.length);
+    cellPoints = new int[cellStart[cols * rows]];
+    for (int i = 0; i < size; i++)
+      if (cells[i] >= 0)
+        cellPoints[next[cells[i]]++] = i;
+  }
+
+  protected int cell(float x, float y) {
+    if (Float.isNaN(x) || Float.isNaN(y))
+      return -1;
+    return row(y) * cols + col(x);
+  }
+
+  protected int col(float x) {
+    return Math.max(0, Math.min(cols - 1, (int) ((x - xmin) / cellWidth)));
+  }
+
+  protected int row(float y) {
+    return Math.max(0, Math.min(rows - 1, (int) ((y - ymin) / cellHeight)));
+  }
+
+  /* ***************************************************************** */
+
+  /** Select points lying in the rectangle, bounds included. */
+  public BitSet selectRectangle(float x0, float y0, float x1, float y1) {
+    BitSet selected = new BitSet(size);
+    if (x1 < x0 || y1 < y0 || cellPoints.length == 0)
+      return selected;
+
+    int c0 = col(x0), c1 = col(x1);
+    int r0 = row(y0), r1 = row(y1);
+
+    for (int r = r0; r <= r1; r++) {
+      for (int c = c0; c <= c1; c++) {
+        int cell = r * cols + c;
+
+        // cells entirely covered by the rectangle need no point test
+        float cx = xmin + c * cellWidth;
+        float cy = ymin + r * cellHeight;
+        boolean covered = x0 <= cx && cx + cellWidth <= x1 && y0 <= cy && cy + cellHeight <= y1;
+
+        for (int p = cellStart[cell]; p < cellStart[cell + 1]; p++) {
+          int i = cellPoints[p];
+          if (covered) {
+            selected.set(i);
+          } else {
+            float x = screen[i * 3];
+            float y = screen[i * 3 + 1];
+            if (x0 <= x && x <= x1 && y0 <= y && y <= y1)
+              selected.set(i);
+          }
+        }
+      }
+    }
+    return selected;
+  }
+
+  /** Select points lying in the polygon given by its vertices, with the even-odd rule. */
+  public BitSet selectPolygon(float[] xs, float[] ys) {
+    BitSet selected = new BitSet(size);
+    int n = Math.min(xs.length, ys.length);
+    if (n < 3 || cellPoints.length == 0)
+      return selected;
+
+    float x0 = Float.MAX_VALUE, x1 = -Float.MAX_VALUE;
+    float y0 = Float.MAX_VALUE, y1 = -Float.MAX_VALUE;
+    for (int v = 0; v < n; v++) {
+      x0 = Math.min(x0, xs[v]);
+      x1 = Math.max(x1, xs[v]);
+      y0 = Math.min(y0, ys[v]);
+      y1 = Math.max(y1, ys[v]);
+    }
+
+    BitSet candidates = selectRectangle(x0, y0, x1, y1);
+    for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1))
+      if (contains(xs, ys, n, screen[i * 3], screen[i * 3 + 1]))
+        selected.set(i);
+    return selected;
+  }
+
+  protected static boolean contains(float[] xs, float[] ys, int n, float x, float y) {
+    boolean inside = false;
+    for (int v = 0, u = n - 1; v < n; u = v++) {
+      if ((ys[v] > y) != (ys[u] > y)
+          && x < (xs[u] - xs[v]) * (y - ys[v]) / (ys[u] - ys[v]) + xs[v])
+        inside = !inside;
+    }
+    return inside;
+  }
+
+  /* ***************************************************************** */
+
+  /** Number of points, indexed or not. */
+  public int size() {
+    return size;
+  }
+
+  public int getColumns() {
+    return cols;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+}
@@ -6,6 +6,7 @@ import org.jzy3d.maths.Polygon2d;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.plot3d.rendering.scene.Graph;
 import org.jzy3d.plot3d.rendering.view.Camera;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
 import org.jzy3d.plot3d.rendering.view.View;
 
 
@@ -29,6 +30,14 @@ import org.jzy3d.plot3d.rendering.view.View;
 public interface Selectable {
   public void project(IPainter painter, Camera cam);
 
+  /**
+   * Project with matrices already captured for all selectables of a graph. Implementations may skip
+   * the projection if it equals the previous one and their data did not change.
+   */
+  public default void project(IPainter painter, Camera cam, ScreenProjection projection) {
+    project(painter, cam);
+  }
+
   public Polygon2d getHull2d();
 
   public List<Coord3d> getLastProjection();
@@ -1,5 +1,6 @@
 package org.jzy3d.plot3d.primitives.selectable;
 
+import java.util.BitSet;
 import java.util.List;
 import org.jzy3d.colors.Color;
 import org.jzy3d.colors.ISingleColorable;
@@ -8,6 +9,7 @@ import org.jzy3d.maths.Polygon2d;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.plot3d.primitives.Scatter;
 import org.jzy3d.plot3d.rendering.view.Camera;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
 
 /**
  * A Scatter that supports an "highlighted status" to change selected point color
@@ -34,7 +36,7 @@ public class SelectableScatter extends Scatter implements ISingleColorable, Sele
       int k = 0;
       for (Coord3d c : coordinates) {
         if (colors != null) {
-          if (isHighlighted[k]) // Selection coloring goes here
+          if (highlighted.get(k)) // Selection coloring goes here
             painter.color(highlightColor);
           else
             painter.color(colors[k]);
@@ -50,10 +52,67 @@ public class SelectableScatter extends Scatter implements ISingleColorable, Sele
 
   @Override
   public void project(IPainter painter, Camera cam) {
-    projection = cam.modelToScreen(painter, getData());
+    project(painter, cam, ScreenProjection.of(painter));
   }
 
+  /**
+   * Project coordinates in a reused array of screen coordinates. Skipped if neither the projection
+   * nor the coordinates changed since the last call.
+   */
+  @Override
+  public void project(IPainter painter, Camera cam, ScreenProjection projection) {
+    boolean changed = copyCoordinates();
+    if (!changed && projection.equals(lastProjection))
+      return;
+
+    screen = projection.project(xyz, screen);
+    lastProjection = projection;
+    this.projection = null;
+    this.screenIndex = null;
+  }
+
+  /** Copy coordinates in the reused xyz array and return true if they changed. */
+  protected boolean copyCoordinates() {
+    int n = coordinates.length;
+    boolean changed = false;
+    if (xyz == null || xyz.length != n * 3) {
+      xyz = new float[n * 3];
+      changed = true;
+    }
+    for (int i = 0; i < n; i++) {
+      Coord3d c = coordinates[i];
+      int k = i * 3;
+      if (changed || xyz[k] != c.x || xyz[k + 1] != c.y || xyz[k + 2] != c.z) {
+        xyz[k] = c.x;
+        xyz[k + 1] = c.y;
+        xyz[k + 2] = c.z;
+        changed = true;
+      }
+    }
+    return changed;
+  }
+
+  /** The last projection as x, y, z screen coordinates of each point. */
+  public float[] getScreenCoordinates() {
+    return screen;
+  }
+
+  /**
+   * A grid index of the last projection, built on demand and kept until the projection changes.
+   */
+  public ScreenGridIndex getScreenIndex() {
+    if (screenIndex == null && screen != null)
+      screenIndex = new ScreenGridIndex(screen, coordinates.length);
+    return screenIndex;
+  }
+
+  /** The last projection, as coordinates built from {@link #getScreenCoordinates()} on demand. */
   public Coord3d[] getProjection() {
+    if (projection == null && screen != null) {
+      projection = new Coord3d[coordinates.length];
+      for (int i = 0; i < projection.length; i++)
+        projection[i] = new Coord3d(screen[i * 3], screen[i * 3 + 1], screen[i * 3 + 2]);
+    }
     return projection;
   }
 
@@ -66,15 +125,53 @@ public class SelectableScatter extends Scatter implements ISingleColorable, Sele
   }
 
   public void setHighlighted(int id, boolean value) {
-    isHighlighted[id] = value;
+    highlighted.set(id, value);
   }
 
   public boolean getHighlighted(int id) {
-    return isHighlighted[id];
+    return highlighted.get(id);
+  }
+
+  /** The index of highlighted points. */
+  public BitSet getHighlighted() {
+    return highlighted;
+  }
+
+  /**
+   * A copy of the highlighting status of each point, as held before highlighting moved to a
+   * {@link BitSet}.
+   * 
+   * @deprecated use {@link #getHighlighted()} or {@link #getHighlighted(int)}.
+   */
+  @Deprecated
+  protected boolean[] getIsHighlighted() {
+    boolean[] values = new boolean[coordinates.length];
+    for (int i = highlighted.nextSetBit(0); i >= 0 && i < values.length;
+        i = highlighted.nextSetBit(i + 1))
+      values[i] = true;
+    return values;
+  }
+
+  /**
+   * Set the highlighting status of each point.
+   * 
+   * @deprecated use {@link #setHighlighted(int, boolean)} or {@link #highlight(BitSet)}.
+   */
+  @Deprecated
+  protected void setIsHighlighted(boolean[] values) {
+    highlighted.clear();
+    for (int i = 0; i < values.length; i++)
+      if (values[i])
+        highlighted.set(i);
+  }
+
+  /** Highlight the given points, in addition to already highlighted ones. */
+  public void highlight(BitSet points) {
+    highlighted.or(points);
   }
 
   public void resetHighlighting() {
-    this.isHighlighted = new boolean[coordinates.length];
+    this.highlighted = new BitSet(coordinates.length);
   }
 
   /* */
@@ -87,7 +184,7 @@ public class SelectableScatter extends Scatter implements ISingleColorable, Sele
   @Override
   public void setData(Coord3d[] coordinates) {
     this.coordinates = coordinates;
-    this.isHighlighted = new boolean[coordinates.length];
+    this.highlighted = new BitSet(coordinates.length);
 
     bbox.reset();
     for (Coord3d c : coordinates)
@@ -111,9 +208,13 @@ public class SelectableScatter extends Scatter implements ISingleColorable, Sele
 
   /**********************************************************************/
 
-  protected boolean[] isHighlighted;
+  protected BitSet highlighted;
   protected Color highlightColor = Color.RED.clone();
 
   protected Coord3d[] projection;
+  protected float[] xyz;
+  protected float[] screen;
+  protected ScreenProjection lastProjection;
+  protected ScreenGridIndex screenIndex;
 
 }
@@ -1,18 +1,25 @@
 package org.jzy3d.plot3d.rendering.scene;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.WeakHashMap;
 import org.jzy3d.maths.BoundingBox3d;
-import org.jzy3d.maths.TicToc;
+import org.jzy3d.monitor.FrameTelemetry;
+import org.jzy3d.monitor.FrameTelemetry.Counter;
+import org.jzy3d.monitor.FrameTelemetry.Phase;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.plot3d.primitives.Composite;
 import org.jzy3d.plot3d.primitives.Drawable;
+import org.jzy3d.plot3d.primitives.IAsyncGLBindedResource;
 import org.jzy3d.plot3d.primitives.IGLBindedResource;
 import org.jzy3d.plot3d.primitives.selectable.Selectable;
 import org.jzy3d.plot3d.rendering.legends.ILegend;
 import org.jzy3d.plot3d.rendering.ordering.AbstractOrderingStrategy;
 import org.jzy3d.plot3d.rendering.ordering.DefaultOrderingStrategy;
 import org.jzy3d.plot3d.rendering.view.Camera;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
 import org.jzy3d.plot3d.rendering.view.View;
 import org.jzy3d.plot3d.transform.Transform;
 
@@ -143,16 +150,43 @@ public class Graph {
     return out;
   }
 
+  /**
+   * Mount all resources. Listeners are notified when each resource is ready, which happens during
+   * this call for synchronous resources, and later for {@link IAsyncGLBindedResource}s. Mounting
+   * again a resource that is not ready yet does not notify it twice.
+   */
   public void mountAllGLBindedResources(IPainter painter) {
     final List<IGLBindedResource> all = getAllGLBindedResources();
-    for (IGLBindedResource r : all)
-      if (!r.hasMountedOnce())
+    for (IGLBindedResource r : all) {
+      if (!r.hasMountedOnce()) {
         r.mount(painter);
+
+        if (r instanceof IAsyncGLBindedResource && !r.hasMountedOnce()) {
+          if (awaitedResources.add(r))
+            ((IAsyncGLBindedResource) r).whenReady().whenComplete((v, e) -> {
+              if (e == null)
+                fireResourceReady(r);
+              else
+                fireResourceFailed(r, e);
+            });
+        } else
+          fireResourceReady(r);
+      }
+    }
     fireMountAll();
   }
 
   public interface GraphListener {
     public void onMountAll();
+
+    /**
+     * Invoked once a resource is loaded in the GL context, possibly after {@link #onMountAll()}
+     * and from the rendering thread for an {@link IAsyncGLBindedResource}.
+     */
+    public default void onResourceReady(IGLBindedResource resource) {}
+
+    /** Invoked if an {@link IAsyncGLBindedResource} failed loading. */
+    public default void onResourceFailed(IGLBindedResource resource, Throwable error) {}
   }
 
   protected void fireMountAll() {
@@ -161,6 +195,18 @@ public class Graph {
     }
   }
 
+  protected void fireResourceReady(IGLBindedResource resource) {
+    for (GraphListener listener : graphListener) {
+      listener.onResourceReady(resource);
+    }
+  }
+
+  protected void fireResourceFailed(IGLBindedResource resource, Throwable error) {
+    for (GraphListener listener : graphListener) {
+      listener.onResourceFailed(resource, error);
+    }
+  }
+
   /* */
 
   public List<GraphListener> getGraphListener() {
@@ -181,8 +227,6 @@ public class Graph {
     draw(painter, components, sort);
   }
 
-  protected TicToc t = new TicToc();
-
   public synchronized void draw(IPainter painter, List<Drawable> components, boolean sort) {
     painter.glMatrixMode_ModelView();
     if (!sort) {
@@ -194,22 +238,54 @@ public class Graph {
 
   /** render all items of the graph */
   public void drawSimple(IPainter painter, List<Drawable> components) {
+    FrameTelemetry telemetry = getTelemetry(painter);
+    long start = telemetry.start();
+
+    int drawn = 0;
     for (Drawable d : components)
-      if (d.isDisplayed())
+      if (d.isDisplayed()) {
         d.draw(painter);
+        drawn++;
+      }
+
+    telemetry.stop(Phase.GRAPH, start);
+    telemetry.count(Counter.DRAWABLES, drawn);
   }
 
   /** render all items of the graph after decomposing all composite item into primitive drawables */
   public void drawDecomposition(IPainter painter) {
+    FrameTelemetry telemetry = getTelemetry(painter);
+
+    long start = telemetry.start();
     List<Drawable> monotypes = getDecomposition();
+    telemetry.stop(Phase.DECOMPOSITION, start);
+
+    start = telemetry.start();
     strategy.sort(monotypes, painter.getCamera());
+    telemetry.stop(Phase.SORT, start);
 
+    start = telemetry.start();
+    int drawn = 0;
     for (Drawable d : monotypes) {
-      if (d.isDisplayed())
+      if (d.isDisplayed()) {
         d.draw(painter);
+        drawn++;
+      }
     }
+    telemetry.stop(Phase.GRAPH, start);
+    telemetry.count(Counter.DRAWABLES, drawn);
+  }
+
+  /** The telemetry of the view being rendered, or a disabled one if painter has no view. */
+  protected FrameTelemetry getTelemetry(IPainter painter) {
+    View view = painter.getView();
+    if (view == null || view.getTelemetry() == null)
+      return NO_TELEMETRY;
+    return view.getTelemetry();
   }
 
+  protected static final FrameTelemetry NO_TELEMETRY = new FrameTelemetry();
+
   /**
    * Expand all {@link AbstractComposites} instance into a list of atomic {@link Drawable} types and
    * return all the current Graph primitives decomposition.
@@ -224,9 +300,14 @@ public class Graph {
 
   /** Update all interactive {@link Drawable} projections */
   public synchronized void project(IPainter painter, Camera camera) {
+    ScreenProjection projection = null;
     for (Drawable d : components) {
-      if (d instanceof Selectable)
-        ((Selectable) d).project(painter, camera);
+      if (d instanceof Selectable) {
+        // matrices are read once for all selectables
+        if (projection == null)
+          projection = ScreenProjection.of(painter);
+        ((Selectable) d).project(painter, camera, projection);
+      }
     }
   }
 
@@ -371,5 +452,8 @@ public class Graph {
   protected boolean sort = true;
 
   protected List<GraphListener> graphListener;
+  /** Asynchronous resources already having a listener on their readiness. */
+  protected Set<IGLBindedResource> awaitedResources =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
 }
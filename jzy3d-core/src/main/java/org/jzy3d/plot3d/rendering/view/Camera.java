@@ -329,26 +329,24 @@ public class Camera extends AbstractViewportManager {
    *         {@link #failOnException} is false, a DEBUG log is sent to the {@link #LOGGER}.
    */
   public Coord3d modelToScreen(IPainter painter, Coord3d point) {
-    int viewport[] = painter.getViewPortAsInt();
+    ScreenProjection screen = ScreenProjection.of(painter);
 
     float screenCoord[] = new float[3];// wx, wy, wz;// returned xyz coords
 
-    if (!painter.gluProject(point.x, point.y, point.z, painter.getModelViewAsFloat(), 0,
-        painter.getProjectionAsFloat(), 0, viewport, 0, screenCoord, 0))
+    if (!screen.project(point.x, point.y, point.z, screenCoord, 0))
       failedProjection("Could not retrieve model coordinates in screen for " + point);
     return new Coord3d(screenCoord[0], screenCoord[1], screenCoord[2]);
   }
 
   public Coord3d[] modelToScreen(IPainter painter, Coord3d[] points) {
-    int viewport[] = painter.getViewPortAsInt();
+    ScreenProjection screen = ScreenProjection.of(painter);
 
     float screenCoord[] = new float[3];
 
     Coord3d[] projection = new Coord3d[points.length];
 
     for (int i = 0; i < points.length; i++) {
-      if (!painter.gluProject(points[i].x, points[i].y, points[i].z, painter.getModelViewAsFloat(),
-          0, painter.getProjectionAsFloat(), 0, viewport, 0, screenCoord, 0))
+      if (!screen.project(points[i].x, points[i].y, points[i].z, screenCoord, 0))
         failedProjection("Could not retrieve model coordinates in screen for " + points[i]);
       projection[i] = new Coord3d(screenCoord[0], screenCoord[1], screenCoord[2]);
     }
@@ -356,7 +354,7 @@ public class Camera extends AbstractViewportManager {
   }
 
   public Coord3d[][] modelToScreen(IPainter painter, Coord3d[][] points) {
-    int viewport[] = painter.getViewPortAsInt();
+    ScreenProjection screen = ScreenProjection.of(painter);
 
     float screenCoord[] = new float[3];
 
@@ -364,9 +362,7 @@ public class Camera extends AbstractViewportManager {
 
     for (int i = 0; i < points.length; i++) {
       for (int j = 0; j < points[i].length; j++) {
-        if (!painter.gluProject(points[i][j].x, points[i][j].y, points[i][j].z,
-            painter.getModelViewAsFloat(), 0, painter.getProjectionAsFloat(), 0, viewport, 0,
-            screenCoord, 0))
+        if (!screen.project(points[i][j].x, points[i][j].y, points[i][j].z, screenCoord, 0))
           failedProjection("Could not retrieve model coordinates in screen for " + points[i][j]);
         projection[i][j] = new Coord3d(screenCoord[0], screenCoord[1], screenCoord[2]);
       }
@@ -375,15 +371,14 @@ public class Camera extends AbstractViewportManager {
   }
 
   public List<Coord3d> modelToScreen(IPainter painter, List<Coord3d> points) {
-    int viewport[] = painter.getViewPortAsInt();
+    ScreenProjection screen = ScreenProjection.of(painter);
 
     float screenCoord[] = new float[3];
 
     List<Coord3d> projection = new Vector<Coord3d>();
 
     for (Coord3d point : points) {
-      if (!painter.gluProject(point.x, point.y, point.z, painter.getModelViewAsFloat(), 0,
-          painter.getProjectionAsFloat(), 0, viewport, 0, screenCoord, 0))
+      if (!screen.project(point.x, point.y, point.z, screenCoord, 0))
         failedProjection("Could not retrieve model coordinates in screen for " + point);
       projection.add(new Coord3d(screenCoord[0], screenCoord[1], screenCoord[2]));
     }
@@ -392,7 +387,7 @@ public class Camera extends AbstractViewportManager {
 
   public ArrayList<ArrayList<Coord3d>> modelToScreen(IPainter painter,
       ArrayList<ArrayList<Coord3d>> polygons) {
-    int viewport[] = painter.getViewPortAsInt();
+    ScreenProjection screen = ScreenProjection.of(painter);
 
     float screenCoord[] = new float[3];
 
@@ -401,8 +396,7 @@ public class Camera extends AbstractViewportManager {
     for (ArrayList<Coord3d> polygon : polygons) {
       ArrayList<Coord3d> projection = new ArrayList<Coord3d>(polygon.size());
       for (Coord3d point : polygon) {
-        if (!painter.gluProject(point.x, point.y, point.z, painter.getModelViewAsFloat(), 0,
-            painter.getProjectionAsFloat(), 0, viewport, 0, screenCoord, 0))
+        if (!screen.project(point.x, point.y, point.z, screenCoord, 0))
           failedProjection("Could not retrieve model coordinates in screen for " + point);
         projection.add(new Coord3d(screenCoord[0], screenCoord[1], screenCoord[2]));
       }
@@ -412,7 +406,7 @@ public class Camera extends AbstractViewportManager {
   }
 
   public PolygonArray modelToScreen(IPainter painter, PolygonArray polygon) {
-    int viewport[] = painter.getViewPortAsInt();
+    ScreenProjection screen = ScreenProjection.of(painter);
 
     float screenCoord[] = new float[3];
 
@@ -423,9 +417,7 @@ public class Camera extends AbstractViewportManager {
     float[] z = new float[len];
 
     for (int i = 0; i < len; i++) {
-      if (!painter.gluProject(polygon.x[i], polygon.y[i], polygon.z[i],
-          painter.getModelViewAsFloat(), 0, painter.getProjectionAsFloat(), 0, viewport, 0,
-          screenCoord, 0))
+      if (!screen.project(polygon.x[i], polygon.y[i], polygon.z[i], screenCoord, 0))
         failedProjection("Could not retrieve model coordinates in screen for point " + i);
       x[i] = screenCoord[0];
       y[i] = screenCoord[1];
@@ -435,7 +427,7 @@ public class Camera extends AbstractViewportManager {
   }
 
   public PolygonArray[][] modelToScreen(IPainter painter, PolygonArray[][] polygons) {
-    int viewport[] = painter.getViewPortAsInt();
+    ScreenProjection screen = ScreenProjection.of(painter);
     float screencoord[] = new float[3];
 
     PolygonArray[][] projections = new PolygonArray[polygons.length][polygons[0].length];
@@ -448,9 +440,7 @@ public class Camera extends AbstractViewportManager {
         float[] z = new float[len];
 
         for (int k = 0; k < len; k++) {
-          if (!painter.gluProject(polygon.x[k], polygon.y[k], polygon.z[k],
-              painter.getModelViewAsFloat(), 0, painter.getProjectionAsFloat(), 0, viewport, 0,
-              screencoord, 0))
+          if (!screen.project(polygon.x[k], polygon.y[k], polygon.z[k], screencoord, 0))
             failedProjection("Could not retrieve model coordinates in screen for point " + k);
           x[k] = screencoord[0];
           y[k] = screencoord[1];
@@ -462,6 +452,14 @@ public class Camera extends AbstractViewportManager {
     return projections;
   }
 
+  /**
+   * Project points given as x, y, z triplets, matrices being read once. The result is written in
+   * screen if it is large enough, and returned (see {@link ScreenProjection}).
+   */
+  public float[] modelToScreen(IPainter painter, float[] xyz, float[] screen) {
+    return ScreenProjection.of(painter).project(xyz, screen);
+  }
+
   protected void failedProjection(String message) {
     if (failOnException)
       throw new RuntimeException(message);
@@ -0,0 +1,96 @@
+package org.jzy3d.plot3d.rendering.view;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jzy3d.maths.Coord3d;
+
+/**
+ * A path of the camera made of viewpoints given at key times, used to animate a {@link View}.
+ *
+ * Viewpoints are polar coordinates as expected by {@link View#setViewPoint(Coord3d)}, i.e.
+ * azimuth on X and elevation on Y, and are linearly interpolated between keyframes. Azimuth is
+ * not wrapped, so that going from 0 to 4*PI makes the camera turn twice around the scene.
+ *
+ * <pre>
+ * <code>
+ * CameraPath path = new CameraPath();
+ * path.add(0, new Coord3d(0, 0.5, 0));
+ * path.add(10, new Coord3d(2 * Math.PI, 0.1, 0)); // turn around in 10 seconds
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class CameraPath {
+  protected List<Keyframe> keyframes = new ArrayList<>();
+
+  public static class Keyframe {
+    protected double time;
+    protected Coord3d viewpoint;
+
+    public Keyframe(double time, Coord3d viewpoint) {
+      this.time = time;
+      this.viewpoint = viewpoint;
+    }
+
+    public double getTime() {
+      return time;
+    }
+
+    public Coord3d getViewPoint() {
+      return viewpoint;
+    }
+  }
+
+  /**
+   * Add a keyframe at the given time in seconds. Keyframes can be added in any order.
+   */
+  public CameraPath add(double time, Coord3d viewpoint) {
+    int i = keyframes.size();
+    while (i > 0 && keyframes.get(i - 1).time > time)
+      i--;
+    keyframes.add(i, new Keyframe(time, viewpoint.clone()));
+    return this;
+  }
+
+  /**
+   * Return a new viewpoint at the given time, interpolated between the surrounding keyframes, or
+   * the first (last) keyframe viewpoint if time is before (after) all keyframes.
+   */
+  public Coord3d getViewPoint(double time) {
+    if (keyframes.isEmpty())
+      throw new IllegalStateException("no keyframe");
+
+    Keyframe first = keyframes.get(0);
+    if (time <= first.time)
+      return first.viewpoint.clone();
+
+    for (int i = 1; i < keyframes.size(); i++) {
+      Keyframe k2 = keyframes.get(i);
+      if (time <= k2.time) {
+        Keyframe k1 = keyframes.get(i - 1);
+        float ratio = (float) ((time - k1.time) / (k2.time - k1.time));
+        return k1.viewpoint.interpolateTo(k2.viewpoint, ratio);
+      }
+    }
+    return keyframes.get(keyframes.size() - 1).viewpoint.clone();
+  }
+
+  /** Time of the first keyframe. */
+  public double getStart() {
+    return keyframes.isEmpty() ? 0 : keyframes.get(0).time;
+  }
+
+  /** Time of the last keyframe. */
+  public double getEnd() {
+    return keyframes.isEmpty() ? 0 : keyframes.get(keyframes.size() - 1).time;
+  }
+
+  public double getDuration() {
+    return getEnd() - getStart();
+  }
+
+  public List<Keyframe> getKeyframes() {
+    return keyframes;
+  }
+}
@@ -0,0 +1,217 @@
+package org.jzy3d.plot3d.rendering.view;
+
+import java.util.Arrays;
+import org.jzy3d.io.mesh.MeshBuffersBuilder;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Frustum;
+import org.jzy3d.painters.IPainter;
+
+/**
+ * The projection of model coordinates to screen coordinates, as performed by gluProject, with
+ * matrices and viewport captured once so that many points can be projected without querying the
+ * painter for each point.
+ *
+ * Two projections are equal if they have the same matrices and viewport, which allows skipping a
+ * projection when the camera did not change.
+ *
+ * <pre>
+ * <code>
+ * ScreenProjection projection = ScreenProjection.of(painter);
+ * screen = projection.project(xyz, screen); // x, y, z of each point in window coordinates
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class ScreenProjection {
+  /** Number of points below which a projection is not parallelized. */
+  public static int PARALLEL_THRESHOLD = 100000;
+
+  protected static int THREADS = Runtime.getRuntime().availableProcessors();
+
+  protected final float[] projection;
+  protected final float[] modelView;
+  protected final int[] viewport;
+  /** projection x model view, in column-major order. */
+  protected final float[] matrix;
+  /** inverse of matrix, computed on first unprojection. */
+  protected float[] inverse;
+
+  public ScreenProjection(float[] projection, float[] modelView, int[] viewport) {
+    this.projection = projection.clone();
+    this.modelView = modelView.clone();
+    this.viewport = viewport.clone();
+    this.matrix = Frustum.multiply(projection, modelView);
+  }
+
+  /** Capture the current matrices and viewport of the painter, which should hold the GL context. */
+  public static ScreenProjection of(IPainter painter) {
+    return new ScreenProjection(painter.getProjectionAsFloat(), painter.getModelViewAsFloat(),
+        painter.getViewPortAsInt());
+  }
+
+  /* ***************************************************************** */
+
+  /**
+   * Project a point and write its window coordinates in out at offset. Return false and leave out
+   * unchanged if the point can not be projected.
+   */
+  public boolean project(float x, float y, float z, float[] out, int offset) {
+    float[] m = matrix;
+    float cx = m[0] * x + m[4] * y + m[8] * z + m[12];
+    float cy = m[1] * x + m[5] * y + m[9] * z + m[13];
+    float cz = m[2] * x + m[6] * y + m[10] * z + m[14];
+    float cw = m[3] * x + m[7] * y + m[11] * z + m[15];
+    if (cw == 0)
+      return false;
+
+    out[offset] = viewport[0] + viewport[2] * (cx / cw + 1) / 2;
+    out[offset + 1] = viewport[1] + viewport[3] * (cy / cw + 1) / 2;
+    out[offset + 2] = (cz / cw + 1) / 2;
+    return true;
+  }
+
+  public Coord3d project(Coord3d point) {
+    float[] out = new float[3];
+    if (!project(point.x, point.y, point.z, out, 0))
+      return null;
+    return new Coord3d(out[0], out[1], out[2]);
+  }
+
+  /**
+   * Project points given as x, y, z triplets. The result is written in screen if it is large
+   * enough, in a new array otherwise, and returned. Points that can not be projected get NaN
+   * coordinates.
+   *
+   * Projection is parallel for more than {@link #PARALLEL_THRESHOLD} points.
+   */
+  public float[] project(float[] xyz, float[] screen) {
+    int n = xyz.length / 3;
+    float[] out = screen != null && screen.length >= n * 3 ? screen : new float[n * 3];
+
+    if (n < PARALLEL_THRESHOLD)
+      project(xyz, out, 0, n);
+    else
+      MeshBuffersBuilder.forRanges(n, THREADS, (from, to) -> {
+        project(xyz, out, from, to);
+        return null;
+      });
+    return out;
+  }
+
+  protected void project(float[] xyz, float[] out, int from, int to) {
+    for (int i = from; i < to; i++) {
+      int c = i * 3;
+      if (!project(xyz[c], xyz[c + 1], xyz[c + 2], out, c))
+        out[c] = out[c + 1] = out[c + 2] = Float.NaN;
+    }
+  }
+
+  /**
+   * Unproject window coordinates, z being the depth in [0, 1], and write model coordinates in out
+   * at offset, as gluUnProject. Return false and leave out unchanged if the point can not be
+   * unprojected.
+   */
+  public boolean unproject(float x, float y, float z, float[] out, int offset) {
+    if (inverse == null) {
+      inverse = invert(matrix);
+      if (inverse == null)
+        return false;
+    }
+    float[] m = inverse;
+    float nx = 2 * (x - viewport[0]) / viewport[2] - 1;
+    float ny = 2 * (y - viewport[1]) / viewport[3] - 1;
+    float nz = 2 * z - 1;
+
+    float w = m[3] * nx + m[7] * ny + m[11] * nz + m[15];
+    if (w == 0)
+      return false;
+    out[offset] = (m[0] * nx + m[4] * ny + m[8] * nz + m[12]) / w;
+    out[offset + 1] = (m[1] * nx + m[5] * ny + m[9] * nz + m[13]) / w;
+    out[offset + 2] = (m[2] * nx + m[6] * ny + m[10] * nz + m[14]) / w;
+    return true;
+  }
+
+  public Coord3d unproject(Coord3d screen) {
+    float[] out = new float[3];
+    if (!unproject(screen.x, screen.y, screen.z, out, 0))
+      return null;
+    return new Coord3d(out[0], out[1], out[2]);
+  }
+
+  /** Inverse of a 4x4 matrix, or null if it is singular. */
+  public static float[] invert(float[] m) {
+    double[] inv = new double[16];
+    inv[0] = m[5] * m[10] * m[15] - m[5] * m[11] * m[14] - m[9] * m[6] * m[15]
+        + m[9] * m[7] * m[14] + m[13] * m[6] * m[11] - m[13] * m[7] * m[10];
+    inv[4] = -m[4] * m[10] * m[15] + m[4] * m[11] * m[14] + m[8] * m[6] * m[15]
+        - m[8] * m[7] * m[14] - m[12] * m[6] * m[11] + m[12] * m[7] * m[10];
+    inv[8] = m[4] * m[9] * m[15] - m[4] * m[11] * m[13] - m[8] * m[5] * m[15]
+        + m[8] * m[7] * m[13] + m[12] * m[5] * m[11] - m[12] * m[7] * m[9];
+    inv[12] = -m[4] * m[9] * m[14] + m[4] * m[10] * m[13] + m[8] * m[5] * m[14]
+        - m[8] * m[6] * m[13] - m[12] * m[5] * m[10] + m[12] * m[6] * m[9];
+    inv[1] = -m[1] * m[10] * m[15] + m[1] * m[11] * m[14] + m[9] * m[2] * m[15]
+        - m[9] * m[3] * m[14] - m[13] * m[2] * m[11] + m[13] * m[3] * m[10];
+    inv[5] = m[0] * m[10] * m[15] - m[0] * m[11] * m[14] - m[8] * m[2] * m[15]
+        + m[8] * m[3] * m[14] + m[12] * m[2] * m[11] - m[12] * m[3] * m[10];
+    inv[9] = -m[0] * m[9] * m[15] + m[0] * m[11] * m[13] + m[8] * m[1] * m[15]
+        - m[8] * m[3] * m[13] - m[12] * m[1] * m[11] + m[12] * m[3] * m[9];
+    inv[13] = m[0] * m[9] * m[14] - m[0] * m[10] * m[13] - m[8] * m[1] * m[14]
+        + m[8] * m[2] * m[13] + m[12] * m[1] * m[10] - m[12] * m[2] * m[9];
+    inv[2] = m[1] * m[6] * m[15] - m[1] * m[7] * m[14] - m[5] * m[2] * m[15]
+        + m[5] * m[3] * m[14] + m[13] * m[2] * m[7] - m[13] * m[3] * m[6];
+    inv[6] = -m[0] * m[6] * m[15] + m[0] * m[7] * m[14] + m[4] * m[2] * m[15]
+        - m[4] * m[3] * m[14] - m[12] * m[2] * m[7] + m[12] * m[3] * m[6];
+    inv[10] = m[0] * m[5] * m[15] - m[0] * m[7] * m[13] - m[4] * m[1] * m[15]
+        + m[4] * m[3] * m[13] + m[12] * m[1] * m[7] - m[12] * m[3] * m[5];
+    inv[14] = -m[0] * m[5] * m[14] + m[0] * m[6] * m[13] + m[4] * m[1] * m[14]
+        - m[4] * m[2] * m[13] - m[12] * m[1] * m[6] + m[12] * m[2] * m[5];
+    inv[3] = -m[1] * m[6] * m[11] + m[1] * m[7] * m[10] + m[5] * m[2] * m[11]
+        - m[5] * m[3] * m[10] - m[9] * m[2] * m[7] + m[9] * m[3] * m[6];
+    inv[7] = m[0] * m[6] * m[11] - m[0] * m[7] * m[10] - m[4] * m[2] * m[11]
+        + m[4] * m[3] * m[10] + m[8] * m[2] * m[7] - m[8] * m[3] * m[6];
+    inv[11] = -m[0] * m[5] * m[11] + m[0] * m[7] * m[9] + m[4] * m[1] * m[11]
+        - m[4] * m[3] * m[9] - m[8] * m[1] * m[7] + m[8] * m[3] * m[5];
+    inv[15] = m[0] * m[5] * m[10] - m[0] * m[6] * m[9] - m[4] * m[1] * m[10]
+        + m[4] * m[2] * m[9] + m[8] * m[1] * m[6] - m[8] * m[2] * m[5];
+
+    double det = m[0] * inv[0] + m[1] * inv[4] + m[2] * inv[8] + m[3] * inv[12];
+    if (det == 0)
+      return null;
+
+    float[] out = new float[16];
+    for (int i = 0; i < 16; i++)
+      out[i] = (float) (inv[i] / det);
+    return out;
+  }
+
+  /* ***************************************************************** */
+
+  public float[] getProjection() {
+    return projection;
+  }
+
+  public float[] getModelView() {
+    return modelView;
+  }
+
+  public int[] getViewport() {
+    return viewport;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(matrix) + Arrays.hashCode(viewport);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj)
+      return true;
+    if (!(obj instanceof ScreenProjection))
+      return false;
+    ScreenProjection other = (ScreenProjection) obj;
+    return Arrays.equals(projection, other.projection) && Arrays.equals(modelView, other.modelView)
+        && Arrays.equals(viewport, other.viewport);
+  }
+}
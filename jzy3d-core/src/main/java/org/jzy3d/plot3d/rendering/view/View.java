@@ -16,6 +16,8 @@ import org.jzy3d.maths.BoundingBox3d;
 import org.jzy3d.maths.Coord2d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.maths.Rectangle;
+import org.jzy3d.monitor.FrameTelemetry;
+import org.jzy3d.monitor.FrameTelemetry.Phase;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.plot3d.primitives.Parallelepiped;
 import org.jzy3d.plot3d.primitives.axis.AxisBox;
@@ -139,6 +141,9 @@ public class View {
 
   protected IViewOverlay viewOverlay;
 
+  /** Phase timings of the frames rendered by the canvas, disabled by default. */
+  protected FrameTelemetry telemetry = new FrameTelemetry();
+
   /**
    * Create a view attached to a Scene, with its own Camera and Axe. The initial view point is set
    * at {@link View.DEFAULT_VIEW}.
@@ -908,12 +913,16 @@ public class View {
 
   /** Clear the color and depth buffer. */
   public void clear() {
+    long start = telemetry.start();
+
     painter.clearColor(backgroundColor);
     painter.glClearDepth(1);
 
     if (!slave) {
       painter.glClearColorAndDepthBuffers();
     }
+
+    telemetry.stop(Phase.CLEAR, start);
   }
 
   /* RENDERING */
@@ -958,8 +967,11 @@ public class View {
     }
     // }
 
+    long start = telemetry.start();
     BoundingBox3d scaling = computeScaledViewBounds();
     updateCamera(viewport, scaling);
+    telemetry.stop(Phase.CAMERA, start);
+
     renderAxeBox();
     renderSceneGraph();
     renderAnnotations(cam);
@@ -1257,6 +1269,7 @@ public class View {
   protected void renderAxeBox(IAxis axe, Scene scene, Camera camera, Coord3d scaling,
       boolean axeBoxDisplayed) {
     if (axeBoxDisplayed) {
+      long start = telemetry.start();
       painter.glMatrixMode_ModelView();
 
       scene.getLightSet().disable(painter);
@@ -1274,6 +1287,7 @@ public class View {
       }
       
       scene.getLightSet().enableLightIfThereAreLights(painter);
+      telemetry.stop(Phase.AXIS, start);
     }
   }
 
@@ -1304,7 +1318,9 @@ public class View {
   }
 
   public void renderOverlay(ViewportConfiguration viewportConfiguration) {
+    long start = telemetry.start();
     viewOverlay.render(this, viewportConfiguration, painter);
+    telemetry.stop(Phase.OVERLAY, start);
   }
 
   public void renderAnnotations(Camera camera) {
@@ -1330,4 +1346,16 @@ public class View {
   public ISquarifier getSquarifier() {
     return squarifier;
   }
+
+  /**
+   * Return the telemetry collecting phase timings of the frames of this view. Enable it with
+   * {@link FrameTelemetry#setEnabled(boolean)}.
+   */
+  public FrameTelemetry getTelemetry() {
+    return telemetry;
+  }
+
+  public void setTelemetry(FrameTelemetry telemetry) {
+    this.telemetry = telemetry;
+  }
 }
@@ -6,6 +6,7 @@ import org.jzy3d.maths.Coord2d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.painters.Font;
 import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
 import org.jzy3d.plot3d.text.align.Horizontal;
 import org.jzy3d.plot3d.text.align.Vertical;
 import org.jzy3d.plot3d.transform.space.SpaceTransformer;
@@ -17,6 +18,9 @@ public abstract class AbstractTextRenderer implements ITextRenderer {
 
   protected SpaceTransformer spaceTransformer;
 
+  /** The projection captured for the batch being drawn, null out of {@link #drawTexts}. */
+  protected ScreenProjection batchProjection;
+
   @Override
   public SpaceTransformer getSpaceTransformer() {
     return spaceTransformer;
@@ -59,4 +63,40 @@ public abstract class AbstractTextRenderer implements ITextRenderer {
       Horizontal halign, Vertical valign, Color color, Coord3d sceneOffset) {
     return drawText(painter, font, s, position, NO_ROTATION, halign, valign, color, NO_SCREEN_OFFSET, sceneOffset);
   }
+
+  /**
+   * Capture the camera matrices once and draw each label with the main drawText method, which
+   * gets the captured projection with {@link #getProjection(IPainter)}.
+   */
+  @Override
+  public BoundingBox3d drawTexts(IPainter painter, Font font, TextBatch batch) {
+    BoundingBox3d bounds = new BoundingBox3d();
+    batchProjection = ScreenProjection.of(painter);
+    try {
+      for (TextBatch.Label label : batch.getLabels()) {
+        BoundingBox3d labelBounds = drawText(painter, font, label.getText(), label.getPosition(),
+            label.getRotation(), label.getHalign(), label.getValign(), label.getColor(),
+            label.getScreenOffset(), label.getSceneOffset());
+        label.setBounds(labelBounds);
+        if (labelBounds != null)
+          bounds.add(labelBounds);
+      }
+    } finally {
+      batchProjection = null;
+    }
+    return bounds;
+  }
+
+  /** Return true while drawing a batch. */
+  protected boolean isBatching() {
+    return batchProjection != null;
+  }
+
+  /**
+   * Return the projection captured for the current batch, or capture the current matrices of the
+   * painter when drawing a single text.
+   */
+  protected ScreenProjection getProjection(IPainter painter) {
+    return batchProjection != null ? batchProjection : ScreenProjection.of(painter);
+  }
 }
@@ -24,6 +24,26 @@ public interface ITextRenderer {
   public BoundingBox3d drawText(IPainter painter, Font font, String s, Coord3d position, Horizontal halign, Vertical valign, Color color, Coord2d screenOffset);
   public BoundingBox3d drawText(IPainter painter, Font font, String s, Coord3d position, Horizontal halign, Vertical valign, Color color, Coord3d sceneOffset);
 
+  /**
+   * Draw all labels of a batch with the given font and return the 3d volume occupied by all of
+   * them. The volume of each label is stored in the batch.
+   * 
+   * The default implementation draws each label with the main drawText method, so that existing
+   * renderers need not implement it.
+   */
+  public default BoundingBox3d drawTexts(IPainter painter, Font font, TextBatch batch) {
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (TextBatch.Label label : batch.getLabels()) {
+      BoundingBox3d labelBounds = drawText(painter, font, label.getText(), label.getPosition(),
+          label.getRotation(), label.getHalign(), label.getValign(), label.getColor(),
+          label.getScreenOffset(), label.getSceneOffset());
+      label.setBounds(labelBounds);
+      if (labelBounds != null)
+        bounds.add(labelBounds);
+    }
+    return bounds;
+  }
+
   public SpaceTransformer getSpaceTransformer();
   public void setSpaceTransformer(SpaceTransformer transformer);
 }
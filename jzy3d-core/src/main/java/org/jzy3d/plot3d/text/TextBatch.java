@@ -0,0 +1,133 @@
+package org.jzy3d.plot3d.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.jzy3d.colors.Color;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord2d;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.plot3d.text.align.Horizontal;
+import org.jzy3d.plot3d.text.align.Vertical;
+
+/**
+ * A set of labels drawn at once by {@link ITextRenderer#drawTexts(org.jzy3d.painters.IPainter,
+ * org.jzy3d.painters.Font, TextBatch)}, which lets a renderer capture the camera matrices once for
+ * all labels instead of once per label.
+ *
+ * <pre>
+ * <code>
+ * TextBatch batch = new TextBatch();
+ * for (int t = 0; t < ticks.length; t++)
+ *   batch.add(labels[t], positions[t], Horizontal.LEFT, Vertical.CENTER, Color.BLACK);
+ * BoundingBox3d bounds = renderer.drawTexts(painter, font, batch);
+ * </code>
+ * </pre>
+ *
+ * After drawing, the bounds of each label are available with {@link Label#getBounds()}.
+ *
+ * @author Martin Pernollet
+ */
+public class TextBatch {
+  protected static final Coord2d NO_SCREEN_OFFSET = new Coord2d();
+  protected static final Coord3d NO_SCENE_OFFSET = new Coord3d();
+
+  protected List<Label> labels = new ArrayList<>();
+
+  public Label add(String text, Coord3d position, Horizontal halign, Vertical valign,
+      Color color) {
+    return add(text, position, 0, halign, valign, color, NO_SCREEN_OFFSET, NO_SCENE_OFFSET);
+  }
+
+  public Label add(String text, Coord3d position, float rotation, Horizontal halign,
+      Vertical valign, Color color, Coord2d screenOffset, Coord3d sceneOffset) {
+    Label label =
+        new Label(text, position, rotation, halign, valign, color, screenOffset, sceneOffset);
+    labels.add(label);
+    return label;
+  }
+
+  public List<Label> getLabels() {
+    return labels;
+  }
+
+  public int size() {
+    return labels.size();
+  }
+
+  public boolean isEmpty() {
+    return labels.isEmpty();
+  }
+
+  public void clear() {
+    labels.clear();
+  }
+
+  /* ***************************************************************** */
+
+  /** A label of a batch, with the arguments of a single drawText call. */
+  public static class Label {
+    protected String text;
+    protected Coord3d position;
+    protected float rotation;
+    protected Horizontal halign;
+    protected Vertical valign;
+    protected Color color;
+    protected Coord2d screenOffset;
+    protected Coord3d sceneOffset;
+
+    protected BoundingBox3d bounds;
+
+    public Label(String text, Coord3d position, float rotation, Horizontal halign,
+        Vertical valign, Color color, Coord2d screenOffset, Coord3d sceneOffset) {
+      this.text = text;
+      this.position = position;
+      this.rotation = rotation;
+      this.halign = halign;
+      this.valign = valign;
+      this.color = color;
+      this.screenOffset = screenOffset;
+      this.sceneOffset = sceneOffset;
+    }
+
+    public String getText() {
+      return text;
+    }
+
+    public Coord3d getPosition() {
+      return position;
+    }
+
+    public float getRotation() {
+      return rotation;
+    }
+
+    public Horizontal getHalign() {
+      return halign;
+    }
+
+    public Vertical getValign() {
+      return valign;
+    }
+
+    public Color getColor() {
+      return color;
+    }
+
+    public Coord2d getScreenOffset() {
+      return screenOffset;
+    }
+
+    public Coord3d getSceneOffset() {
+      return sceneOffset;
+    }
+
+    /** The 3d volume occupied by the label when it was last drawn, or null. */
+    public BoundingBox3d getBounds() {
+      return bounds;
+    }
+
+    public void setBounds(BoundingBox3d bounds) {
+      this.bounds = bounds;
+    }
+  }
+}
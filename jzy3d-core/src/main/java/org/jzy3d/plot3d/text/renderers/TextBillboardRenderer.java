@@ -7,8 +7,10 @@ import org.jzy3d.maths.Coord3d;
 import org.jzy3d.painters.Font;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.painters.PixelStore;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
 import org.jzy3d.plot3d.text.AbstractTextRenderer;
 import org.jzy3d.plot3d.text.ITextRenderer;
+import org.jzy3d.plot3d.text.TextBatch;
 import org.jzy3d.plot3d.text.align.Horizontal;
 import org.jzy3d.plot3d.text.align.Vertical;
 
@@ -61,6 +63,16 @@ public class TextBillboardRenderer extends AbstractTextRenderer implements IText
     return txtBounds;
   }
   
+  /**
+   * Set the pixel store once for all labels, then draw them with the projection captured once by
+   * {@link AbstractTextRenderer#drawTexts(IPainter, Font, TextBatch)}.
+   */
+  @Override
+  public BoundingBox3d drawTexts(IPainter painter, Font font, TextBatch batch) {
+    painter.glPixelStore(PixelStore.UNPACK_ALIGNMENT, 1);
+    return super.drawTexts(painter, font, batch);
+  }
+
   protected void glRaster(IPainter painter, Coord3d position, Color color) {
     painter.glColor3f(color.r, color.g, color.b);
     painter.raster(position, spaceTransformer);
@@ -70,20 +82,20 @@ public class TextBillboardRenderer extends AbstractTextRenderer implements IText
 
   protected BoundingBox3d computeTextBounds(IPainter painter, Coord3d position,
       BillBoardSize dims) {
-    Coord3d posScreen = painter.getCamera().modelToScreen(painter, position);
-    Coord3d botLeft = new Coord3d();
-    Coord3d topRight = new Coord3d();
+    ScreenProjection projection = getProjection(painter);
+    float[] screen = new float[3];
+    if (!projection.project(position.x, position.y, position.z, screen, 0))
+      return null;
 
-    botLeft.x = posScreen.x + dims.xoffset;
-    botLeft.y = posScreen.y + dims.yoffset;
-    botLeft.z = posScreen.z;
-    topRight.x = botLeft.x + dims.width;
-    topRight.y = botLeft.y + dims.height;
-    topRight.z = botLeft.z;
+    float left = screen[0] + dims.xoffset;
+    float bottom = screen[1] + dims.yoffset;
+    float[] corner = new float[3];
 
     BoundingBox3d txtBounds = new BoundingBox3d();
-    txtBounds.add(painter.getCamera().screenToModel(painter, botLeft));
-    txtBounds.add(painter.getCamera().screenToModel(painter, topRight));
+    if (projection.unproject(left, bottom, screen[2], corner, 0))
+      txtBounds.add(corner[0], corner[1], corner[2]);
+    if (projection.unproject(left + dims.width, bottom + dims.height, screen[2], corner, 0))
+      txtBounds.add(corner[0], corner[1], corner[2]);
     return txtBounds;
   }
 
@@ -130,8 +142,9 @@ public class TextBillboardRenderer extends AbstractTextRenderer implements IText
     else
       throw new IllegalArgumentException("Vertical alignement constant unknown: " + valign);
 
-    // Draw the bitmaps
-    painter.glPixelStore(PixelStore.UNPACK_ALIGNMENT, 1);
+    // Draw the bitmaps, pixel store being set once by drawTexts for a batch
+    if (!isBatching())
+      painter.glPixelStore(PixelStore.UNPACK_ALIGNMENT, 1);
     int idx;
     for (int c = 0; c < acodes.length; c++) {
       idx = acodes[c] - 32;
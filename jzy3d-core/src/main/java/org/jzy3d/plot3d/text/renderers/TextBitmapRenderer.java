@@ -8,6 +8,7 @@ import org.jzy3d.maths.Coord2d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.painters.Font;
 import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.rendering.view.ScreenProjection;
 import org.jzy3d.plot3d.text.AbstractTextRenderer;
 import org.jzy3d.plot3d.text.ITextRenderer;
 import org.jzy3d.plot3d.text.align.Horizontal;
@@ -50,7 +51,11 @@ public class TextBitmapRenderer extends AbstractTextRenderer implements ITextRen
     float textHeight = font.getHeight();
     float textWidth = painter.getTextLengthInPixels(font, text);
 
-    Coord3d screen = painter.getCamera().modelToScreen(painter, position);
+    Coord3d screen = getProjection(painter).project(position);
+    if (screen == null) {
+      LOGGER.error("could not process text position: " + position);
+      return null;
+    }
     Coord3d screenAligned =
         layout.align(textWidth, textHeight, halign, valign, screenOffset, screen);
 
@@ -84,31 +89,31 @@ public class TextBitmapRenderer extends AbstractTextRenderer implements ITextRen
 
   /** Convert a 2D screen position to 3D world coordinate */
   protected Coord3d to3D(IPainter painter, Coord3d screen) {
-    Coord3d model;
-    try {
-      model = painter.getCamera().screenToModel(painter, screen);
-    } catch (RuntimeException e) {
+    Coord3d model = getProjection(painter).unproject(screen);
+    if (model == null) {
       // TODO: solve this bug due to a Camera.PERSPECTIVE mode.
-      LOGGER.error("could not process text position: " + screen + e.getMessage());
+      LOGGER.error("could not process text position: " + screen);
       return new Coord3d();
     }
     return model;
   }
 
+  /**
+   * Compute the 3d volume of a text from its screen rectangle, by unprojecting its bottom left and
+   * top right corners with the projection of the current text or batch.
+   */
   protected BoundingBox3d computeTextBounds(IPainter painter, Font font,
       Coord3d posScreenShifted, float strlen) {
-    Coord3d botLeft = new Coord3d();
-    Coord3d topRight = new Coord3d();
-    botLeft.x = posScreenShifted.x;
-    botLeft.y = posScreenShifted.y;
-    botLeft.z = posScreenShifted.z;
-    topRight.x = botLeft.x + strlen;
-    topRight.y = botLeft.y + font.getHeight();
-    topRight.z = botLeft.z;
+    ScreenProjection projection = getProjection(painter);
+    float[] corner = new float[3];
 
     BoundingBox3d txtBounds = new BoundingBox3d();
-    txtBounds.add(painter.getCamera().screenToModel(painter, botLeft));
-    txtBounds.add(painter.getCamera().screenToModel(painter, topRight));
+    if (projection.unproject(posScreenShifted.x, posScreenShifted.y, posScreenShifted.z, corner,
+        0))
+      txtBounds.add(corner[0], corner[1], corner[2]);
+    if (projection.unproject(posScreenShifted.x + strlen, posScreenShifted.y + font.getHeight(),
+        posScreenShifted.z, corner, 0))
+      txtBounds.add(corner[0], corner[1], corner[2]);
     return txtBounds;
   }
 
@@ -0,0 +1,68 @@
+package org.jzy3d.chart.controllers.mouse.picking;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.colors.Color;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.plot3d.primitives.Point;
+import org.jzy3d.plot3d.primitives.pickable.Pickable;
+import org.jzy3d.plot3d.primitives.pickable.PickablePoint;
+import org.jzy3d.plot3d.primitives.pickable.PickablePolygon;
+import org.jzy3d.plot3d.primitives.pickable.PickableSphere;
+
+public class TestPickingIndex {
+  // identity matrices : model coordinates in [-1;1] map to the 100x100 viewport, the pick ray
+  // goes toward +z
+  static float[] IDENTITY = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+  static int[] VIEWPORT = {0, 0, 100, 100};
+
+  @Test
+  public void pickShapesSortedByDepth() {
+    PickablePoint far = new PickablePoint(new Coord3d(0, 0, 0.5));
+    PickablePoint near = new PickablePoint(new Coord3d(0, 0, -0.5));
+    PickablePoint aside = new PickablePoint(new Coord3d(0.5, 0.5, 0));
+    PickableSphere sphere = new PickableSphere(new Coord3d(0.5, -0.5, 0), 0.1f, 10, Color.RED);
+
+    // a square without vertex under the mouse
+    PickablePolygon square = new PickablePolygon();
+    square.add(new Point(new Coord3d(-0.9, -0.9, 0.9)));
+    square.add(new Point(new Coord3d(-0.1, -0.9, 0.9)));
+    square.add(new Point(new Coord3d(-0.1, -0.1, 0.9)));
+    square.add(new Point(new Coord3d(-0.9, -0.1, 0.9)));
+
+    PickingIndex index = new PickingIndex(Arrays.asList(far, aside, sphere, square, near));
+
+    Assert.assertEquals(Arrays.asList(near, far), pick(index, 50, 50, 4));
+    Assert.assertEquals(Arrays.asList(aside), pick(index, 75, 75, 4));
+    Assert.assertEquals(Arrays.asList(sphere), pick(index, 75, 31, 4));
+    Assert.assertEquals(Arrays.asList(), pick(index, 75, 35, 4));
+    Assert.assertEquals(Arrays.asList(square), pick(index, 25, 25, 4));
+  }
+
+  @Test
+  public void pickInLargeGrid() {
+    int n = 300;
+    List<PickablePoint> points = new ArrayList<>();
+    for (int i = 0; i < n; i++)
+      for (int j = 0; j < n; j++)
+        points.add(new PickablePoint(new Coord3d(2f * i / n - 1, 2f * j / n - 1, 0)));
+
+    PickingIndex index = new PickingIndex(points);
+    Assert.assertEquals(n * n, index.size());
+
+    // 3 points per pixel : a 2x2 brush covers 6x6 points
+    List<Pickable> picked = pick(index, 50, 50, 2);
+    Assert.assertTrue(picked.size() + " picked", picked.size() >= 25 && picked.size() <= 49);
+    for (Pickable p : picked) {
+      Coord3d c = ((PickablePoint) p).getCoord();
+      Assert.assertTrue(c.toString(), Math.abs(c.x) <= 0.021 && Math.abs(c.y) <= 0.021);
+    }
+  }
+
+  protected List<Pickable> pick(PickingIndex index, double x, double y, int brush) {
+    return index.pick(IDENTITY, IDENTITY, VIEWPORT, x, y, brush, brush);
+  }
+}
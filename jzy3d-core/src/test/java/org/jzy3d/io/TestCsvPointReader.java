@@ -0,0 +1,97 @@
+package org.jzy3d.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Coord3ds;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestCsvPointReader {
+  @Test
+  public void readSelectedColumns() throws IOException {
+    File file = write("id,label,x,y,z,temperature,r,g,b\n" //
+        + "0,first point,1.5,2,3,20.5,255,0,0\n" //
+        + "# a comment\n" //
+        + "\n" //
+        + "1,\"second, quoted\",\"-1\",-2e1,.5,21,0,255,0\r\n" //
+        + "2,incomplete,1,2\n" //
+        + "3,last,7,8,9,22,0,0,255"); // no line end
+
+    CsvPointReader reader = new CsvPointReader(2, 3, 4);
+    reader.setValueColumn(5);
+    reader.setColorColumns(6, 7, 8);
+    reader.setColorScale(255);
+    Coord3ds points = reader.read(file);
+
+    Assert.assertEquals(3, points.size());
+    Assert.assertEquals(1, reader.getSkippedLines());
+    Assert.assertEquals(new Coord3d(-1, -20, .5),
+        new Coord3d(points.x[1], points.y[1], points.z[1]));
+    Assert.assertArrayEquals(new float[] {1.5f, 7}, new float[] {points.x[0], points.x[2]}, 0);
+    Assert.assertEquals(3, points.z[0], 0);
+    Assert.assertEquals(22, points.values[2], 0);
+    Assert.assertEquals(1, points.r[0], 0);
+    Assert.assertEquals(1, points.b[2], 0);
+    Assert.assertEquals(1, points.a[2], 0);
+  }
+
+  @Test
+  public void readBlankSeparatedWithoutHeader() throws IOException {
+    File file = write("1 2 3\n" + "  4\t5   6  \n" + "7 8 9\n");
+
+    Coord3ds points = new CsvPointReader().read(file);
+
+    Assert.assertFalse(points.hasColors());
+    Assert.assertFalse(points.hasValues());
+    Assert.assertEquals(3, points.size());
+    Assert.assertEquals(new Coord3d(4, 5, 6), new Coord3d(points.x[1], points.y[1], points.z[1]));
+  }
+
+  @Test
+  public void readParallelSameAsSequential() throws IOException {
+    File file = File.createTempFile("test", ".csv");
+    file.deleteOnExit();
+    int n = 200000;
+    try (Writer w =
+        new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII)) {
+      w.write("x,y,z\n");
+      for (int i = 0; i < n; i++)
+        w.write(i + "," + (i * 0.25) + "," + (-i / 3.0) + "\n");
+    }
+
+    CsvPointReader reader = new CsvPointReader();
+    reader.setThreads(1);
+    Coord3ds sequential = reader.read(file);
+    reader.setThreads(4);
+    Coord3ds parallel = reader.read(file);
+
+    Assert.assertEquals(n, sequential.size());
+    Assert.assertArrayEquals(sequential.x, parallel.x, 0);
+    Assert.assertArrayEquals(sequential.y, parallel.y, 0);
+    Assert.assertArrayEquals(sequential.z, parallel.z, 0);
+    Assert.assertEquals(n - 1, parallel.x[n - 1], 0);
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void headerFailsWhenNotSkipped() throws IOException {
+    File file = write("x,y,z\n1,2,3\n");
+
+    CsvPointReader reader = new CsvPointReader();
+    reader.setSkipHeader(false);
+    reader.read(file);
+  }
+
+  protected File write(String content) throws IOException {
+    File file = File.createTempFile("test", ".csv");
+    file.deleteOnExit();
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(content.getBytes(StandardCharsets.US_ASCII));
+    }
+    return file;
+  }
+}
@@ -0,0 +1,75 @@
+package org.jzy3d.io;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.jzy3d.colors.Color;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Coord3ds;
+import org.jzy3d.plot3d.primitives.Scatter;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFileDataset {
+  @Test
+  public void loadSkipsLinesLackingColumns() throws IOException {
+    File file = write("1,2,3\n" + "4,5\n" + "7,8,9\n");
+
+    Coord3d[] array = FileDataset.loadArray(file.getPath());
+    List<Coord3d> list = FileDataset.loadList(file.getPath());
+
+    Assert.assertEquals(2, array.length);
+    Assert.assertEquals(new Coord3d(7, 8, 9), array[1]);
+    Assert.assertEquals(2, list.size());
+    Assert.assertEquals(new Coord3d(1, 2, 3), list.get(0));
+  }
+
+  @Test(expected = NumberFormatException.class)
+  public void loadFailsOnHeader() throws IOException {
+    File file = write("x,y,z\n" + "1,2,3\n");
+
+    FileDataset.loadList(file.getPath());
+  }
+
+  @Test
+  public void loadLargeFile() throws IOException {
+    File file = File.createTempFile("test", ".csv");
+    file.deleteOnExit();
+    int n = 200000;
+    try (Writer w =
+        new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.US_ASCII)) {
+      for (int i = 0; i < n; i++)
+        w.write(i + "," + (i * 0.25) + "," + (-i / 3.0) + "\n");
+    }
+
+    List<Coord3d> list = FileDataset.loadList(file.getPath());
+    Assert.assertEquals(n, list.size());
+    Assert.assertEquals(-1 / 3.0f, list.get(1).z, 0);
+    Assert.assertEquals(n - 1, list.get(n - 1).x, 0);
+  }
+
+  @Test
+  public void scatterOfPointsWithoutColors() throws IOException {
+    Coord3ds points = FileDataset.loadCoord3ds(write("1,2,3\n4,5,6\n").getPath());
+
+    Scatter scatter = new Scatter(points);
+
+    Assert.assertFalse(points.hasColors());
+    Assert.assertNull(scatter.getColors());
+    Assert.assertEquals(Color.BLACK, scatter.getColor());
+    Assert.assertEquals(2, scatter.getData().length);
+  }
+
+  protected File write(String content) throws IOException {
+    File file = File.createTempFile("test", ".csv");
+    file.deleteOnExit();
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(content.getBytes(StandardCharsets.US_ASCII));
+    }
+    return file;
+  }
+}
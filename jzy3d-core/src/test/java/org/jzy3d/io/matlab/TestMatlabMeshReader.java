@@ -0,0 +1,98 @@
+package org.jzy3d.io.matlab;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.jzy3d.io.mesh.MeshBuffers;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Normal;
+import org.junit.Assert;
+import org.junit.Test;
+import com.jmatio.io.MatFileReader;
+import com.jmatio.io.MatFileWriter;
+import com.jmatio.types.MLArray;
+import com.jmatio.types.MLDouble;
+import com.jmatio.types.MLNumericArray;
+import com.jmatio.types.MLSingle;
+
+public class TestMatlabMeshReader {
+  @Test
+  public void readSingleInParallel() throws Exception {
+    int n = 200001;
+    Random r = new Random(0);
+    Float[][] xyz = new Float[3][n * 3];
+    for (Float[] values : xyz)
+      for (int i = 0; i < values.length; i++)
+        values[i] = r.nextFloat();
+
+    List<MLArray> arrays = new ArrayList<>();
+    arrays.add(new MLSingle("X", xyz[0], 3));
+    arrays.add(new MLSingle("Y", xyz[1], 3));
+    arrays.add(new MLSingle("Z", xyz[2], 3));
+    assertReadAsGetReal(arrays, n);
+  }
+
+  @Test
+  public void readDouble() throws Exception {
+    int n = 100;
+    Random r = new Random(1);
+    double[][] xyz = new double[3][n * 3];
+    for (double[] values : xyz)
+      for (int i = 0; i < values.length; i++)
+        values[i] = r.nextGaussian();
+
+    List<MLArray> arrays = new ArrayList<>();
+    arrays.add(new MLDouble("X", xyz[0], 3));
+    arrays.add(new MLDouble("Y", xyz[1], 3));
+    arrays.add(new MLDouble("Z", xyz[2], 3));
+    assertReadAsGetReal(arrays, n);
+  }
+
+  protected void assertReadAsGetReal(List<MLArray> arrays, int n) throws Exception {
+    File file = File.createTempFile("mesh", ".mat");
+    try {
+      new MatFileWriter(file, arrays);
+
+      MatlabMeshReader reader = new MatlabMeshReader();
+      reader.setThreads(2);
+      MeshBuffers mesh = reader.read(file.getAbsolutePath());
+
+      Assert.assertEquals(n * 3, mesh.getVertexCount());
+      Assert.assertEquals(n * 3, mesh.getIndexCount());
+      Assert.assertEquals(3, mesh.getNormalOffset());
+
+      MatFileReader mfr = new MatFileReader(file);
+      MLNumericArray<?> x = (MLNumericArray<?>) mfr.getMLArray("X");
+      MLNumericArray<?> y = (MLNumericArray<?>) mfr.getMLArray("Y");
+      MLNumericArray<?> z = (MLNumericArray<?>) mfr.getMLArray("Z");
+
+      FloatBuffer v = mesh.getVertices();
+      for (int i = 0; i < n; i += Math.max(1, n / 1000)) {
+        Coord3d[] corners = new Coord3d[3];
+        for (int c = 0; c < 3; c++)
+          corners[c] = new Coord3d(x.getReal(c, i).floatValue(), y.getReal(c, i).floatValue(),
+              z.getReal(c, i).floatValue());
+        Coord3d normal = Normal.compute(corners[0], corners[1], corners[2]);
+
+        for (int c = 0; c < 3; c++) {
+          int o = (i * 3 + c) * 6;
+          Assert.assertEquals(corners[c].x, v.get(o), 0);
+          Assert.assertEquals(corners[c].y, v.get(o + 1), 0);
+          Assert.assertEquals(corners[c].z, v.get(o + 2), 0);
+          Assert.assertEquals(normal.x, v.get(o + 3), 1e-5);
+          Assert.assertEquals(normal.y, v.get(o + 4), 1e-5);
+          Assert.assertEquals(normal.z, v.get(o + 5), 1e-5);
+          Assert.assertEquals(i * 3 + c, mesh.getIndices().get(i * 3 + c));
+          Assert.assertTrue(mesh.getBounds().contains(corners[c]));
+        }
+      }
+
+      Assert.assertEquals(Math.min(n, 10), new MatlabDrawableLoader()
+          .load(file.getAbsolutePath(), 10).size());
+    } finally {
+      file.delete();
+    }
+  }
+}
@@ -0,0 +1,82 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.colors.colormaps.ColorMapRainbow;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMeshBuffersBuilder {
+  @Test
+  public void buildFromDoubleArrayWithExtraDimensionInParallel() {
+    // x, y, z, m with vertex i at (i, 2i, 3i)
+    int n = 4 * MeshBuffersBuilder.MIN_VERTICES_PER_THREAD + 3;
+    double[] points = new double[n * 4];
+    for (int i = 0; i < n; i++) {
+      points[i * 4] = i;
+      points[i * 4 + 1] = 2 * i;
+      points[i * 4 + 2] = 3 * i;
+      points[i * 4 + 3] = -1;
+    }
+
+    ColorMapper mapper = new ColorMapper(new ColorMapRainbow(), 0, 3 * n);
+    MeshBuffers mesh =
+        new MeshBuffersBuilder(points, 4, 3).setColorMapper(mapper).setThreads(4).build();
+
+    Assert.assertEquals(Primitive.POINTS, mesh.getPrimitive());
+    Assert.assertEquals(n, mesh.getVertexCount());
+    Assert.assertEquals(6, mesh.getVertexSize());
+    Assert.assertEquals(3, mesh.getColorOffset());
+    Assert.assertTrue(mesh.getVertices().isDirect());
+
+    FloatBuffer v = mesh.getVertices();
+    for (int i : new int[] {0, 1, n / 2, n - 1}) {
+      Assert.assertEquals(i, v.get(i * 6), 0);
+      Assert.assertEquals(2 * i, v.get(i * 6 + 1), 0);
+      Assert.assertEquals(3 * i, v.get(i * 6 + 2), 0);
+
+      Color c = mapper.getColor(3.0 * i);
+      Assert.assertEquals(c.r, v.get(i * 6 + 3), 1e-6);
+      Assert.assertEquals(c.g, v.get(i * 6 + 4), 1e-6);
+      Assert.assertEquals(c.b, v.get(i * 6 + 5), 1e-6);
+    }
+
+    Assert.assertEquals(0, mesh.getBounds().getXmin(), 0);
+    Assert.assertEquals(n - 1, mesh.getBounds().getXmax(), 0);
+    Assert.assertEquals(3 * (n - 1), mesh.getBounds().getZmax(), 0);
+  }
+
+  @Test
+  public void buildFromFloatArrayWithTwoDimensionsAndTriangles() {
+    float[] points = {0, 0, 1, 0, 1, 1, 0, 1};
+    int[] triangles = {0, 1, 2, 0, 2, 3};
+
+    MeshBuffers mesh = new MeshBuffersBuilder(points, 2, 2)
+        .setElements(triangles, Primitive.TRIANGLES).build();
+
+    Assert.assertEquals(Primitive.TRIANGLES, mesh.getPrimitive());
+    Assert.assertEquals(4, mesh.getVertexCount());
+    Assert.assertEquals(3, mesh.getVertexSize());
+    Assert.assertFalse(mesh.hasColors());
+    Assert.assertEquals(6, mesh.getIndexCount());
+    Assert.assertEquals(3, mesh.getIndices().get(5));
+
+    // z is 0
+    Assert.assertEquals(1, mesh.getVertices().get(2 * 3 + 1), 0);
+    Assert.assertEquals(0, mesh.getVertices().get(2 * 3 + 2), 0);
+  }
+
+  @Test
+  public void buildFromFloatBuffer() {
+    FloatBuffer points = FloatBuffer.wrap(new float[] {1, 2, 3, 4, 5, 6});
+
+    MeshBuffers mesh = new MeshBuffersBuilder(points, 3, 3).build();
+
+    Assert.assertEquals(2, mesh.getVertexCount());
+    Assert.assertEquals(6, mesh.getVertices().get(5), 0);
+    Assert.assertEquals(1, mesh.getBounds().getXmin(), 0);
+    Assert.assertEquals(6, mesh.getBounds().getZmax(), 0);
+  }
+}
@@ -0,0 +1,173 @@
+package org.jzy3d.io.mesh;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMeshCache {
+  @Test
+  public void writeThenOpen() throws IOException {
+    // two triangles, each vertex being x, y, z, r, g, b, nx, ny, nz
+    int vertexSize = 9;
+    int vertexCount = 4;
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(vertexCount * vertexSize);
+    for (int i = 0; i < vertexCount * vertexSize; i++)
+      vertices.put(i);
+    vertices.rewind();
+
+    IntBuffer indices = MeshBuffers.newIntBuffer(6);
+    indices.put(new int[] {0, 1, 2, 0, 2, 3});
+    indices.rewind();
+
+    MeshBuffers mesh =
+        new MeshBuffers(Primitive.TRIANGLES, vertices, vertexSize, 6, 3, 3, indices, null);
+
+    File file = File.createTempFile("test", ".jzy3d");
+    file.deleteOnExit();
+    MeshCache.write(mesh, file);
+
+    MeshBuffers read = MeshCache.open(file);
+
+    Assert.assertEquals(Primitive.TRIANGLES, read.getPrimitive());
+    Assert.assertEquals(vertexCount, read.getVertexCount());
+    Assert.assertEquals(vertexSize, read.getVertexSize());
+    Assert.assertEquals(6, read.getNormalOffset());
+    Assert.assertEquals(3, read.getColorOffset());
+    Assert.assertEquals(3, read.getColorChannels());
+    Assert.assertEquals(mesh.getBounds(), read.getBounds());
+
+    for (int i = 0; i < vertexCount * vertexSize; i++)
+      Assert.assertEquals(i, read.getVertices().get(i), 0);
+
+    Assert.assertEquals(6, read.getIndexCount());
+    for (int i = 0; i < 6; i++)
+      Assert.assertEquals(indices.get(i), read.getIndices().get(i));
+  }
+
+  @Test
+  public void writeMeshWithoutBounds() throws IOException {
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(6);
+    vertices.put(new float[] {1, 2, 3, 4, 5, 6}).rewind();
+    MeshBuffers mesh = new MeshBuffers(Primitive.POINTS, vertices, 3, -1, -1, 0, null, null) {
+      @Override
+      public BoundingBox3d getBounds() {
+        return null;
+      }
+    };
+
+    File file = File.createTempFile("test", ".jzy3d");
+    file.deleteOnExit();
+    MeshCache.write(mesh, file);
+
+    Assert.assertEquals(new BoundingBox3d(1, 4, 2, 5, 3, 6), MeshCache.open(file).getBounds());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void directBufferLargerThan2GBIsRejected() {
+    MeshBuffers.newFloatBuffer(1 << 29);
+  }
+
+  @Test
+  public void cachedOnlyLoadsOnce() throws IOException {
+    File source = File.createTempFile("test", ".csv");
+    source.deleteOnExit();
+    File cache = new File(source.getPath() + ".jzy3d");
+    cache.deleteOnExit();
+
+    Coord3d[] points = {new Coord3d(0, 0, 0), new Coord3d(1, 2, 3)};
+    int[] calls = {0};
+
+    for (int i = 0; i < 2; i++) {
+      MeshBuffers mesh = MeshCache.cached(source, cache, () -> {
+        calls[0]++;
+        return MeshBuffers.of(points);
+      });
+      Assert.assertEquals(Primitive.POINTS, mesh.getPrimitive());
+      Assert.assertFalse(mesh.hasIndices());
+      Assert.assertEquals(2, mesh.getVertexCount());
+      Assert.assertEquals(new BoundingBox3d(0, 1, 0, 2, 0, 3), mesh.getBounds());
+    }
+    Assert.assertEquals(1, calls[0]);
+  }
+
+  @Test
+  public void openBlocksLargerThanAMappingWindow() throws IOException {
+    Coord3d[] points = new Coord3d[100];
+    for (int i = 0; i < points.length; i++)
+      points[i] = new Coord3d(i, 2 * i, 3 * i);
+    MeshBuffers mesh = MeshBuffers.of(points);
+
+    File file = File.createTempFile("test", ".jzy3d");
+    file.deleteOnExit();
+    MeshCache.write(mesh, file);
+
+    long window = MeshCache.mappingWindow;
+    MeshCache.mappingWindow = 64;
+    try {
+      MeshBuffers read = MeshCache.open(file);
+      Assert.assertEquals(100, read.getVertexCount());
+      for (int i = 0; i < points.length; i++) {
+        Assert.assertEquals(i, read.getVertices().get(i * 3), 0);
+        Assert.assertEquals(3 * i, read.getVertices().get(i * 3 + 2), 0);
+      }
+    } finally {
+      MeshCache.mappingWindow = window;
+    }
+  }
+
+  @Test
+  public void corruptedHeaderIsACacheMiss() throws IOException {
+    File source = File.createTempFile("test", ".csv");
+    source.deleteOnExit();
+    File cache = new File(source.getPath() + ".jzy3d");
+    cache.deleteOnExit();
+    int[] calls = {0};
+
+    MeshCache.cached(source, cache, () -> {
+      calls[0]++;
+      return MeshBuffers.of(new Coord3d[] {new Coord3d(0, 0, 0)});
+    });
+
+    // invalid primitive
+    try (RandomAccessFile raf = new RandomAccessFile(cache, "rw")) {
+      raf.seek(16);
+      raf.writeInt(99);
+    }
+    try {
+      MeshCache.open(cache);
+      Assert.fail();
+    } catch (IOException e) {
+      // expected
+    }
+
+    MeshBuffers mesh = MeshCache.cached(source, cache, () -> {
+      calls[0]++;
+      return MeshBuffers.of(new Coord3d[] {new Coord3d(0, 0, 0)});
+    });
+    Assert.assertEquals(2, calls[0]);
+    Assert.assertEquals(1, mesh.getVertexCount());
+  }
+
+  @Test
+  public void whenSourceSizeChanges_thenCacheIsNotUpToDate() throws IOException {
+    File source = File.createTempFile("test", ".csv");
+    source.deleteOnExit();
+    File cache = new File(source.getPath() + ".jzy3d");
+    cache.deleteOnExit();
+
+    MeshCache.cached(source, cache, () -> MeshBuffers.of(new Coord3d[] {new Coord3d(0, 0, 0)}));
+    Assert.assertTrue(MeshCache.isUpToDate(source, cache));
+
+    Files.write(source.toPath(), "1,2,3\n".getBytes());
+    cache.setLastModified(source.lastModified() + 10000);
+    Assert.assertFalse(MeshCache.isUpToDate(source, cache));
+  }
+}
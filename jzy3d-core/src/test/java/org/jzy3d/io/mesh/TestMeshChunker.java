@@ -0,0 +1,79 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.List;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.maths.BoundingBox3d;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMeshChunker {
+  @Test
+  public void chunkTrianglesInSpatiallyCoherentParts() {
+    int n = 200;
+    MeshBuffers grid = grid(n);
+
+    List<MeshBuffers> chunks = new MeshChunker().setMaxVertices(5000).chunk(grid);
+
+    int triangles = 0;
+    float area = 0;
+    for (MeshBuffers chunk : chunks) {
+      Assert.assertTrue(chunk.getVertexCount() <= 5000);
+      Assert.assertTrue(grid.getBounds().contains(chunk.getBounds()));
+      triangles += chunk.getIndexCount() / 3;
+
+      BoundingBox3d b = chunk.getBounds();
+      area += (b.getXmax() - b.getXmin()) * (b.getYmax() - b.getYmin());
+    }
+    Assert.assertEquals((n - 1) * (n - 1) * 2, triangles);
+
+    // chunks cover the grid without overlapping much, as rows of the grid would
+    float gridArea = (n - 1) * (n - 1);
+    Assert.assertTrue(area + " > " + gridArea, area < gridArea * 1.5);
+  }
+
+  @Test
+  public void chunkPoints() {
+    int n = 10000;
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(n * 3);
+    for (int i = 0; i < n; i++) {
+      vertices.put(i * 3, i % 100);
+      vertices.put(i * 3 + 1, i / 100);
+    }
+    MeshBuffers points = new MeshBuffers(Primitive.POINTS, vertices, 3, -1, -1, 0, null, null);
+
+    List<MeshBuffers> chunks = new MeshChunker().setMaxVertices(1024).chunk(points);
+
+    // halves of halves of the 100x100 grid : 16 squares of 25x25 points
+    Assert.assertEquals(16, chunks.size());
+    int count = 0;
+    for (MeshBuffers chunk : chunks) {
+      Assert.assertEquals(Primitive.POINTS, chunk.getPrimitive());
+      Assert.assertEquals(625, chunk.getVertexCount());
+      BoundingBox3d b = chunk.getBounds();
+      Assert.assertEquals(b.toString(), 24, b.getXmax() - b.getXmin(), 0);
+      Assert.assertEquals(b.toString(), 24, b.getYmax() - b.getYmin(), 0);
+      count += chunk.getVertexCount();
+    }
+    Assert.assertEquals(n, count);
+  }
+
+  protected MeshBuffers grid(int n) {
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(n * n * 3);
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        vertices.put((i * n + j) * 3, i);
+        vertices.put((i * n + j) * 3 + 1, j);
+      }
+    }
+    IntBuffer indices = MeshBuffers.newIntBuffer((n - 1) * (n - 1) * 6);
+    for (int i = 0; i < n - 1; i++)
+      for (int j = 0; j < n - 1; j++) {
+        int v = i * n + j;
+        indices.put(new int[] {v, v + 1, v + n, v + 1, v + n + 1, v + n});
+      }
+    indices.rewind();
+    return new MeshBuffers(Primitive.TRIANGLES, vertices, 3, -1, -1, 0, indices, null);
+  }
+}
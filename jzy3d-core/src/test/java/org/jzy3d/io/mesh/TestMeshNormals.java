@@ -0,0 +1,137 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Random;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Normal;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMeshNormals {
+  @Test
+  public void averageNormalsOfTrianglesSharingVertices() {
+    // a tent : two triangles sharing edge 0-1 and forming a right angle
+    float[] vertices = {0, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 1};
+    int[] triangles = {0, 1, 2, 1, 0, 3};
+
+    float[] normals =
+        new MeshNormals().compute(FloatBuffer.wrap(vertices), 3, IntBuffer.wrap(triangles), 4);
+
+    Coord3d n1 = Normal.compute(new Coord3d(0, 0, 0), new Coord3d(1, 0, 0), new Coord3d(0, 1, 0));
+    Coord3d n2 = Normal.compute(new Coord3d(1, 0, 0), new Coord3d(0, 0, 0), new Coord3d(0, 0, 1));
+
+    // shared vertices get the mean, others the triangle normal
+    assertNormal(n1.add(n2).div(2), normals, 0);
+    assertNormal(n1.add(n2).div(2), normals, 1);
+    assertNormal(n1, normals, 2);
+    assertNormal(n2, normals, 3);
+  }
+
+  @Test
+  public void parallelComputationMatchesObjectBasedComputation() {
+    // a random mesh large enough to use several threads
+    Random random = new Random(0);
+    int n = 50000;
+    int t = 3 * MeshBuffersBuilder.MIN_VERTICES_PER_THREAD;
+
+    float[] vertices = new float[n * 3];
+    for (int i = 0; i < vertices.length; i++)
+      vertices[i] = random.nextFloat();
+    int[] triangles = new int[t * 3];
+    for (int i = 0; i < triangles.length; i++)
+      triangles[i] = random.nextInt(n);
+
+    MeshNormals meshNormals = new MeshNormals();
+    meshNormals.setThreads(4);
+    float[] normals =
+        meshNormals.compute(FloatBuffer.wrap(vertices), 3, IntBuffer.wrap(triangles), n);
+
+    // reference : accumulate Normal.compute in triangle order
+    double[] sum = new double[n * 3];
+    int[] count = new int[n];
+    for (int i = 0; i < t; i++) {
+      Coord3d c0 = vertex(vertices, triangles[i * 3]);
+      Coord3d c1 = vertex(vertices, triangles[i * 3 + 1]);
+      Coord3d c2 = vertex(vertices, triangles[i * 3 + 2]);
+      Coord3d normal = Normal.compute(c0, c1, c2);
+      if (Float.isNaN(normal.x))
+        normal = new Coord3d(); // degenerated triangle
+      for (int c = 0; c < 3; c++) {
+        int v = triangles[i * 3 + c];
+        sum[v * 3] += normal.x;
+        sum[v * 3 + 1] += normal.y;
+        sum[v * 3 + 2] += normal.z;
+        count[v]++;
+      }
+    }
+    for (int v = 0; v < n; v++) {
+      if (count[v] == 0)
+        continue;
+      for (int k = 0; k < 3; k++)
+        Assert.assertEquals(sum[v * 3 + k] / count[v], normals[v * 3 + k], 1e-4);
+    }
+  }
+
+  @Test
+  public void weldTrianglesThatDoNotShareIndices() {
+    // the tent, each triangle having its own vertices, with flat normals to replace
+    float[] xyz = {0, 0, 0, 1, 0, 0, 0, 1, 0, 1, 0, 0, 0, 0, 0, 0, 0, 1};
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(6 * 6);
+    for (int i = 0; i < 6; i++) {
+      vertices.put(i * 6, xyz[i * 3]);
+      vertices.put(i * 6 + 1, xyz[i * 3 + 1]);
+      vertices.put(i * 6 + 2, xyz[i * 3 + 2]);
+    }
+    IntBuffer indices = MeshBuffers.newIntBuffer(6);
+    indices.put(new int[] {0, 1, 2, 3, 4, 5});
+    indices.rewind();
+    MeshBuffers mesh = new MeshBuffers(Primitive.TRIANGLES, vertices, 6, 3, -1, 0, indices, null);
+
+    int[] welded = new MeshNormals().weld(vertices, 6, 6);
+    Assert.assertArrayEquals(new int[] {0, 1, 2, 1, 0, 5}, welded);
+
+    MeshBuffers smooth = new MeshNormals().withSharedNormals(mesh, true);
+    Assert.assertSame(mesh, smooth);
+
+    // vertex 0 and 4 are the same point, hence have the same normal
+    for (int k = 0; k < 3; k++) {
+      Assert.assertEquals(vertices.get(0 * 6 + 3 + k), vertices.get(4 * 6 + 3 + k), 0);
+      Assert.assertEquals(vertices.get(1 * 6 + 3 + k), vertices.get(3 * 6 + 3 + k), 0);
+    }
+    Assert.assertEquals(Math.sqrt(2) / 2, length(vertices, 0), 1e-6);
+  }
+
+  @Test
+  public void appendNormalsToMeshWithoutNormals() {
+    FloatBuffer vertices = FloatBuffer.wrap(new float[] {0, 0, 0, 1, 0, 0, 0, 1, 0});
+    IntBuffer indices = IntBuffer.wrap(new int[] {0, 1, 2});
+    MeshBuffers mesh = new MeshBuffers(Primitive.TRIANGLES, vertices, 3, -1, -1, 0, indices, null);
+
+    MeshBuffers smooth = new MeshNormals().withSharedNormals(mesh);
+
+    Assert.assertEquals(6, smooth.getVertexSize());
+    Assert.assertEquals(3, smooth.getNormalOffset());
+    Assert.assertEquals(3, smooth.getVertexCount());
+    for (int i = 0; i < 3; i++) {
+      Assert.assertEquals(vertices.get(i * 3), smooth.getVertices().get(i * 6), 0);
+      Assert.assertEquals(1, Math.abs(smooth.getVertices().get(i * 6 + 5)), 0);
+    }
+  }
+
+  protected void assertNormal(Coord3d expected, float[] normals, int v) {
+    Assert.assertEquals(expected.x, normals[v * 3], 1e-6);
+    Assert.assertEquals(expected.y, normals[v * 3 + 1], 1e-6);
+    Assert.assertEquals(expected.z, normals[v * 3 + 2], 1e-6);
+  }
+
+  protected Coord3d vertex(float[] vertices, int v) {
+    return new Coord3d(vertices[v * 3], vertices[v * 3 + 1], vertices[v * 3 + 2]);
+  }
+
+  protected double length(FloatBuffer vertices, int v) {
+    float x = vertices.get(v * 6 + 3), y = vertices.get(v * 6 + 4), z = vertices.get(v * 6 + 5);
+    return Math.sqrt(x * x + y * y + z * z);
+  }
+}
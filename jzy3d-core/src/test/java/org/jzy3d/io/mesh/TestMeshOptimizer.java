@@ -0,0 +1,179 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMeshOptimizer {
+  @Test
+  public void acmrOfIsolatedAndSharedTriangles() {
+    // no vertex shared : 3 misses per triangle
+    Assert.assertEquals(3, MeshOptimizer.acmr(new int[] {0, 1, 2, 3, 4, 5}, 32), 0);
+
+    // a fan of 4 triangles around vertex 0 : 6 vertices for 4 triangles
+    Assert.assertEquals(1.5, MeshOptimizer.acmr(new int[] {0, 1, 2, 0, 2, 3, 0, 3, 4, 0, 4, 5}, 32),
+        0);
+  }
+
+  @Test
+  public void optimizeShuffledGridLowersAcmrAndKeepsTriangles() {
+    MeshBuffers grid = shuffle(grid(100), new Random(0));
+
+    MeshOptimizer.Result result = new MeshOptimizer().optimize(grid);
+    MeshBuffers optimized = result.getMesh();
+
+    // a regular grid tends to 0.5, a shuffled one to 3
+    Assert.assertTrue(result.toString(), result.getAcmrBefore() > 2.5);
+    Assert.assertTrue(result.toString(), result.getAcmrAfter() < 1);
+
+    // same triangles, with the same vertices
+    Assert.assertEquals(triangles(grid), triangles(optimized));
+
+    // vertices are ordered by first use
+    IntBuffer indices = optimized.getIndices();
+    int next = 0;
+    for (int c = 0; c < indices.limit(); c++) {
+      Assert.assertTrue(indices.get(c) <= next);
+      if (indices.get(c) == next)
+        next++;
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void reorderTriangleSoupInLinearTime() {
+    // flat shaded meshes have no shared vertex, which makes each triangle a dead end
+    int t = 400000;
+    int[] soup = new int[t * 3];
+    for (int c = 0; c < soup.length; c++)
+      soup[c] = c;
+
+    int[] reordered = new MeshOptimizer().reorderTriangles(soup, soup.length);
+
+    int[] sorted = reordered.clone();
+    Arrays.sort(sorted);
+    Assert.assertArrayEquals(soup, sorted);
+  }
+
+  @Test
+  public void splitInPartsIndexableWithShorts() {
+    MeshBuffers grid = new MeshOptimizer().optimize(grid(300)).getMesh();
+    Assert.assertTrue(grid.getVertexCount() > MeshOptimizer.MAX_SHORT_VERTICES);
+
+    List<MeshBuffers> parts = MeshOptimizer.split(grid, MeshOptimizer.MAX_SHORT_VERTICES);
+    Assert.assertTrue(parts.size() > 1);
+
+    Set<String> triangles = new HashSet<>();
+    for (MeshBuffers part : parts) {
+      Assert.assertTrue(part.getVertexCount() <= MeshOptimizer.MAX_SHORT_VERTICES);
+      Assert.assertEquals(part.getIndexCount(),
+          MeshOptimizer.toShortIndices(part.getIndices()).capacity());
+      Assert.assertTrue(grid.getBounds().contains(part.getBounds()));
+      triangles.addAll(triangles(part));
+    }
+    Assert.assertEquals(triangles(grid), triangles);
+  }
+
+  @Test
+  public void splitterSharedByMeshesOfSameVertices() {
+    MeshBuffers grid = grid(50);
+    IntBuffer indices = grid.getIndices();
+    int half = indices.limit() / 6 * 3;
+    MeshBuffers first = part(grid, 0, half);
+    MeshBuffers second = part(grid, half, indices.limit());
+
+    MeshOptimizer.Splitter splitter = new MeshOptimizer.Splitter(grid.getVertexCount());
+    List<MeshBuffers> firstParts = splitter.split(first, 300);
+    List<MeshBuffers> secondParts = splitter.split(second, 300);
+
+    // same parts as splitting each mesh with its own tables
+    Assert.assertEquals(MeshOptimizer.split(second, 300).size(), secondParts.size());
+    Set<String> triangles = new HashSet<>();
+    for (MeshBuffers part : firstParts)
+      triangles.addAll(triangles(part));
+    for (MeshBuffers part : secondParts) {
+      Assert.assertTrue(part.getVertexCount() <= 300);
+      triangles.addAll(triangles(part));
+    }
+    Assert.assertEquals(triangles(grid), triangles);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shortIndicesRejectLargeIndex() {
+    MeshOptimizer.toShortIndices(IntBuffer.wrap(new int[] {0, 1, MeshOptimizer.MAX_SHORT_VERTICES}));
+  }
+
+  /* ***************************************************************** */
+
+  /** A grid of n x n vertices, made of triangles indexed row by row. */
+  protected MeshBuffers grid(int n) {
+    FloatBuffer vertices = MeshBuffers.newFloatBuffer(n * n * 3);
+    for (int i = 0; i < n; i++) {
+      for (int j = 0; j < n; j++) {
+        int v = (i * n + j) * 3;
+        vertices.put(v, i);
+        vertices.put(v + 1, j);
+        vertices.put(v + 2, (i * j) % 7);
+      }
+    }
+    IntBuffer indices = MeshBuffers.newIntBuffer((n - 1) * (n - 1) * 6);
+    for (int i = 0; i < n - 1; i++) {
+      for (int j = 0; j < n - 1; j++) {
+        int v = i * n + j;
+        indices.put(new int[] {v, v + 1, v + n, v + 1, v + n + 1, v + n});
+      }
+    }
+    indices.rewind();
+    return new MeshBuffers(Primitive.TRIANGLES, vertices, 3, -1, -1, 0, indices, null);
+  }
+
+  /** A mesh of the indices [from, to[ of the given mesh, sharing its vertices. */
+  protected MeshBuffers part(MeshBuffers mesh, int from, int to) {
+    IntBuffer indices = MeshBuffers.newIntBuffer(to - from);
+    for (int c = from; c < to; c++)
+      indices.put(c - from, mesh.getIndices().get(c));
+    return new MeshBuffers(Primitive.TRIANGLES, mesh.getVertices(), 3, -1, -1, 0, indices,
+        mesh.getBounds());
+  }
+
+  protected MeshBuffers shuffle(MeshBuffers mesh, Random random) {
+    IntBuffer indices = mesh.getIndices();
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < indices.limit() / 3; i++)
+      order.add(i);
+    Collections.shuffle(order, random);
+
+    IntBuffer shuffled = MeshBuffers.newIntBuffer(indices.limit());
+    for (int i = 0; i < order.size(); i++)
+      for (int c = 0; c < 3; c++)
+        shuffled.put(i * 3 + c, indices.get(order.get(i) * 3 + c));
+    return new MeshBuffers(Primitive.TRIANGLES, mesh.getVertices(), 3, -1, -1, 0, shuffled,
+        mesh.getBounds());
+  }
+
+  /** Triangles as strings of their coordinates, independently of vertex indices. */
+  protected Set<String> triangles(MeshBuffers mesh) {
+    Set<String> triangles = new HashSet<>();
+    IntBuffer indices = mesh.getIndices();
+    FloatBuffer vertices = mesh.getVertices();
+    int size = mesh.getVertexSize();
+    for (int c = 0; c < indices.limit(); c += 3) {
+      StringBuilder sb = new StringBuilder();
+      for (int k = 0; k < 3; k++) {
+        int v = indices.get(c + k) * size;
+        sb.append(vertices.get(v)).append(',').append(vertices.get(v + 1)).append(',')
+            .append(vertices.get(v + 2)).append(';');
+      }
+      triangles.add(sb.toString());
+    }
+    return triangles;
+  }
+}
@@ -1,6 +1,11 @@
 package org.jzy3d.io.obj;
 
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -62,5 +67,105 @@ public class TestObjFile {
     Assert.assertEquals(3, dimensions);
   }
 
+  @Test
+  public void loadParallelWithNormalsAndQuads() throws IOException {
+    File file = File.createTempFile("quads", ".obj");
+    file.deleteOnExit();
+
+    try (PrintWriter w = new PrintWriter(new FileWriter(file))) {
+      w.println("# a quad made of two triangles");
+      w.println("v 0 0 0");
+      w.println("v 1.0 0 0");
+      w.println("v  1.0 1e0 0");
+      w.println("v 0 1 -0.5");
+      w.println("vn 0 0 1");
+      w.println("vt 0.5 0.5");
+      w.println("f 1/1/1 2/1/1 3/1/1 -1/1/-1");
+    }
+
+    OBJFileParallel obj = new OBJFileParallel();
+    Assert.assertTrue(obj.loadModelFromFilename("file://" + file.getAbsolutePath()));
+
+    Assert.assertTrue(obj.hasNormals());
+    Assert.assertEquals(4, obj.getPositionCount());
+    Assert.assertEquals(1, obj.getNormalCount());
+    Assert.assertEquals(6, obj.getIndexCount());
+    Assert.assertEquals(-0.5f, obj.computeBoundingBox().getZmin(), 0);
+
+    obj.compileModel();
+
+    Assert.assertEquals(6, obj.getCompiledVertexSize());
+    Assert.assertEquals(3, obj.getCompiledNormalOffset());
+    Assert.assertEquals(4 * 6, obj.getCompiledVertexCount());
+
+    IntBuffer indices = obj.getCompiledIndices();
+    Assert.assertArrayEquals(new int[] {0, 1, 2, 0, 2, 3}, toArray(indices));
+
+    FloatBuffer vertices = obj.getCompiledVertices();
+    Assert.assertEquals(1f, vertices.get(3 * 6 + 1), 0); // y of 4th vertex
+    Assert.assertEquals(1f, vertices.get(3 * 6 + 5), 0); // z of 4th normal
+  }
+
+  @Test
+  public void loadParallelSameAsSequential() throws IOException {
+    File file = File.createTempFile("grid", ".obj");
+    file.deleteOnExit();
+
+    int n = 300;
+
+    try (PrintWriter w = new PrintWriter(new FileWriter(file))) {
+      for (int i = 0; i < n; i++) {
+        for (int j = 0; j < n; j++) {
+          w.println("v " + i + " " + j + " " + (Math.sin(i * 0.1) * Math.cos(j * 0.1)));
+        }
+      }
+      for (int i = 0; i < n - 1; i++) {
+        for (int j = 0; j < n - 1; j++) {
+          int a = i * n + j + 1;
+          w.println("f " + a + " " + (a + n) + " " + (a + 1));
+          w.println("f " + (a + 1) + " " + (a + n) + " " + (a + n + 1));
+        }
+      }
+    }
+
+    OBJFile reference = new OBJFile();
+    reference.loadModelFromFilename("file://" + file.getAbsolutePath());
+
+    OBJFileParallel sequential = new OBJFileParallel(1);
+    sequential.loadModelFromFilename("file://" + file.getAbsolutePath());
+    sequential.compileModel();
+
+    OBJFileParallel parallel = new OBJFileParallel(4);
+    parallel.loadModelFromFilename("file://" + file.getAbsolutePath());
+    parallel.compileModel();
+
+    Assert.assertEquals(reference.getPositionCount(), parallel.getPositionCount());
+    Assert.assertEquals(reference.getIndexCount(), parallel.getIndexCount());
+    Assert.assertEquals(reference.getPositionIndices(), parallel.getPositionIndices());
+    Assert.assertEquals(reference.getPositions(), parallel.getPositions());
+    Assert.assertEquals(reference.computeBoundingBox(), parallel.computeBoundingBox());
+
+    Assert.assertEquals(n * n * 3, parallel.getCompiledVertexCount());
+    Assert.assertEquals(sequential.getCompiledVertices(), parallel.getCompiledVertices());
+    Assert.assertEquals(sequential.getCompiledIndices(), parallel.getCompiledIndices());
+  }
 
+  @Test
+  public void tableCapacityDoesNotOverflow() {
+    Assert.assertEquals(2, OBJFileParallel.tableCapacity(0));
+    Assert.assertEquals(2, OBJFileParallel.tableCapacity(1));
+    Assert.assertEquals(8, OBJFileParallel.tableCapacity(3));
+    Assert.assertEquals(1 << 20, OBJFileParallel.tableCapacity(1 << 19));
+    Assert.assertEquals(OBJFileParallel.MAX_TABLE_CAPACITY,
+        OBJFileParallel.tableCapacity(600000000));
+    Assert.assertEquals(OBJFileParallel.MAX_TABLE_CAPACITY,
+        OBJFileParallel.tableCapacity(Integer.MAX_VALUE));
+  }
+
+  protected int[] toArray(IntBuffer buffer) {
+    int[] array = new int[buffer.capacity()];
+    buffer.get(array);
+    buffer.rewind();
+    return array;
+  }
 }
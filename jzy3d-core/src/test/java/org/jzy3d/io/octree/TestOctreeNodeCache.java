@@ -0,0 +1,56 @@
+package org.jzy3d.io.octree;
+
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+import java.util.HashSet;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.io.octree.PointOctree.Node;
+import org.jzy3d.maths.BoundingBox3d;
+
+public class TestOctreeNodeCache {
+  @Test
+  public void evictLeastRecentlyUsedNodes() throws IOException {
+    try (PointOctree octree = TestPointOctree.build(100)) {
+      OctreeNodeCache cache = new OctreeNodeCache(octree, 2 * 10 * 4); // two nodes of 10 floats
+      Node a = node(1);
+      Node b = node(2);
+      Node c = node(3);
+
+      cache.store(a, FloatBuffer.allocate(10), 0);
+      cache.store(b, FloatBuffer.allocate(10), 0);
+      cache.get(a); // a is now more recent than b
+      cache.store(c, FloatBuffer.allocate(10), 0);
+      Assert.assertEquals(new HashSet<>(Arrays.asList(1, 3)), cache.getResidentNodes());
+
+      cache.get(c);
+      cache.store(b, FloatBuffer.allocate(10), 0);
+      Assert.assertEquals(new HashSet<>(Arrays.asList(2, 3)), cache.getResidentNodes());
+      Assert.assertEquals(80, cache.getResidentBytes());
+
+      // a node larger than the budget stays resident, alone
+      cache.store(a, FloatBuffer.allocate(30), 0);
+      Assert.assertEquals(new HashSet<>(Arrays.asList(1)), cache.getResidentNodes());
+      cache.dispose();
+    }
+  }
+
+  @Test
+  public void nodesLoadedBeforeClearAreDropped() throws IOException {
+    try (PointOctree octree = TestPointOctree.build(100)) {
+      OctreeNodeCache cache = new OctreeNodeCache(octree);
+      long generation = cache.getGeneration();
+      cache.clear();
+
+      Assert.assertFalse(cache.store(node(1), FloatBuffer.allocate(10), generation));
+      Assert.assertTrue(cache.getResidentNodes().isEmpty());
+      Assert.assertTrue(cache.store(node(1), FloatBuffer.allocate(10), cache.getGeneration()));
+      cache.dispose();
+    }
+  }
+
+  protected Node node(int id) {
+    return new Node(id, 1, new BoundingBox3d(0, 1, 0, 1, 0, 1));
+  }
+}
@@ -0,0 +1,93 @@
+package org.jzy3d.io.octree;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.nio.file.Files;
+import java.util.Random;
+import org.jzy3d.io.octree.PointOctree.Node;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Coord3ds;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPointOctree {
+  @Test
+  public void buildThenReadAllPoints() throws IOException, InterruptedException {
+    File dir = Files.createTempDirectory("octree").toFile();
+    File file = new File(dir, "cloud.oct");
+
+    PointOctreeBuilder builder = new PointOctreeBuilder(file);
+    builder.setMaxPointsPerNode(2000);
+    builder.setGridSize(8);
+
+    Random r = new Random(0);
+    int batches = 5;
+    int batchSize = 10000;
+    for (int b = 0; b < batches; b++) {
+      Coord3ds points = new Coord3ds(batchSize);
+      for (int i = 0; i < batchSize; i++)
+        points.set(i, r.nextFloat() * 10, r.nextFloat() * 5, (float) r.nextGaussian(), 1, 0, 0, 1);
+      builder.add(points);
+    }
+    builder.build();
+
+    // temporary files are removed
+    Assert.assertArrayEquals(new String[] {"cloud.oct"}, dir.list());
+
+    try (PointOctree octree = PointOctree.open(file)) {
+      Assert.assertTrue(octree.hasColors());
+      Assert.assertEquals(batches * batchSize, octree.getPointCount());
+      Assert.assertTrue(octree.getNodes().size() > 1);
+      Assert.assertEquals(0, octree.getRoot().getDepth());
+
+      // each point is stored once, in the bounds of its node
+      long total = 0;
+      for (Node node : octree.getNodes()) {
+        FloatBuffer points = octree.read(node);
+        BoundingBox3d b = node.getBounds();
+        Assert.assertEquals(node.getPointCount() * 7, points.capacity());
+        for (int i = 0; i < node.getPointCount(); i++) {
+          int v = i * 7;
+          Coord3d c = new Coord3d(points.get(v), points.get(v + 1), points.get(v + 2));
+          Assert.assertTrue(b.contains(c));
+          Assert.assertEquals(1, points.get(v + 3), 0);
+        }
+        total += node.getPointCount();
+      }
+      Assert.assertEquals(octree.getPointCount(), total);
+
+      // the cache loads requested nodes in the background and respects its budget
+      long budget = 3 * 2000 * 7 * 4; // three leaves at most
+      Assert.assertTrue(budget < octree.getPointCount() * 7 * 4);
+      OctreeNodeCache cache = new OctreeNodeCache(octree, budget);
+      cache.request(octree.getNodes());
+      while (cache.isLoading())
+        Thread.sleep(10);
+      Assert.assertTrue(cache.getResidentBytes() <= budget);
+      Assert.assertFalse(cache.getResidentNodes().isEmpty());
+      cache.dispose();
+    }
+    file.delete();
+    dir.delete();
+  }
+
+  /** Build an octree of random points in [0;10]x[0;10]x[0;1], deleted on exit. */
+  public static PointOctree build(int points) throws IOException {
+    File file = File.createTempFile("cloud", ".oct");
+    file.deleteOnExit();
+
+    PointOctreeBuilder builder = new PointOctreeBuilder(file);
+    builder.setMaxPointsPerNode(1000);
+    builder.setGridSize(8);
+
+    Random r = new Random(0);
+    Coord3ds batch = new Coord3ds(points);
+    for (int i = 0; i < points; i++)
+      batch.set(i, r.nextFloat() * 10, r.nextFloat() * 10, r.nextFloat(), 1, 0, 0, 1);
+    builder.add(batch);
+    builder.build();
+    return PointOctree.open(file);
+  }
+}
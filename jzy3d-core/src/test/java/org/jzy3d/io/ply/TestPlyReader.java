@@ -0,0 +1,197 @@
+package org.jzy3d.io.ply;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPlyReader {
+  static final float[][] VERTICES = {{0, 0, 0}, {1, 0, 0}, {1, 1, 0}, {0, 1, 2}};
+  static final int[][] COLORS = {{255, 0, 0}, {0, 255, 0}, {0, 0, 255}, {255, 255, 255}};
+
+  @Test
+  public void readAscii() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    sb.append(header("ascii"));
+    for (int i = 0; i < VERTICES.length; i++) {
+      sb.append(VERTICES[i][0] + " " + VERTICES[i][1] + " " + VERTICES[i][2] + " ");
+      sb.append(COLORS[i][0] + " " + COLORS[i][1] + " " + COLORS[i][2] + "\n");
+    }
+    sb.append("4 0 1 2 3\n");
+    sb.append("2 1 2\n");
+
+    PlyData data = new PlyReader().read(write(sb.toString().getBytes(StandardCharsets.US_ASCII)));
+    assertContent(data);
+  }
+
+  @Test
+  public void readBinaryLittleEndian() throws IOException {
+    PlyData data = new PlyReader().read(writeBinary(ByteOrder.LITTLE_ENDIAN));
+    assertContent(data);
+  }
+
+  @Test
+  public void readBinaryBigEndianWithSmallBuffer() throws IOException {
+    PlyReader reader = new PlyReader();
+    reader.setBufferSize(20); // force multiple reads, with records overlapping reads
+    reader.setDirect(false);
+
+    PlyData data = reader.read(writeBinary(ByteOrder.BIG_ENDIAN));
+    assertContent(data);
+  }
+
+  @Test
+  public void readBinaryWithBufferSmallerThanRecords() throws IOException {
+    PlyReader reader = new PlyReader();
+    reader.setBufferSize(4); // a vertex is 15 bytes, the quad 17 bytes
+
+    PlyData data = reader.read(writeBinary(ByteOrder.LITTLE_ENDIAN));
+    assertContent(data);
+  }
+
+  @Test
+  public void faceReferencingMissingVertexFails() throws IOException {
+    StringBuilder sb = new StringBuilder();
+    sb.append(header("ascii"));
+    for (int i = 0; i < VERTICES.length; i++)
+      sb.append("0 0 0 0 0 0\n");
+    sb.append("3 0 1 2\n");
+    sb.append("3 1 2 4\n");
+
+    try {
+      new PlyReader().read(write(sb.toString().getBytes(StandardCharsets.US_ASCII)));
+      Assert.fail("Expected an IOException");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("face 1"));
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("vertex 4"));
+    }
+  }
+
+  @Test
+  public void listCountOutOfRemainingDataFails() throws IOException {
+    assertInvalidListCount("char", (byte) -1);
+    assertInvalidListCount("uchar", (byte) 100);
+  }
+
+  @Test
+  public void readWithoutColorsAndFaces() throws IOException {
+    PlyReader reader = new PlyReader();
+    reader.setReadColors(false);
+    reader.setReadFaces(false);
+
+    PlyData data = reader.read(writeBinary(ByteOrder.LITTLE_ENDIAN));
+
+    Assert.assertFalse(data.hasColors());
+    Assert.assertFalse(data.hasFaces());
+    Assert.assertEquals(3, data.getVertexSize());
+    Assert.assertEquals(2f, data.getVertices().get(3 * 3 + 2), 0);
+  }
+
+  protected void assertContent(PlyData data) {
+    Assert.assertEquals(4, data.getVertexCount());
+    Assert.assertEquals(6, data.getVertexSize());
+    Assert.assertEquals(3, data.getColorOffset());
+    Assert.assertEquals(3, data.getColorChannels());
+    Assert.assertFalse(data.hasNormals());
+
+    FloatBuffer vertices = data.getVertices();
+    for (int i = 0; i < VERTICES.length; i++) {
+      for (int j = 0; j < 3; j++) {
+        Assert.assertEquals(VERTICES[i][j], vertices.get(i * 6 + j), 0);
+        Assert.assertEquals(COLORS[i][j] / 255f, vertices.get(i * 6 + 3 + j), 0.0001);
+      }
+    }
+
+    Assert.assertEquals(0, data.getBounds().getXmin(), 0);
+    Assert.assertEquals(2, data.getBounds().getZmax(), 0);
+
+    // the quad is triangulated, the 2-vertex face is ignored
+    Assert.assertEquals(2, data.getTriangleCount());
+    IntBuffer triangles = data.getTriangles();
+    int[] expected = {0, 1, 2, 0, 2, 3};
+    for (int i = 0; i < expected.length; i++)
+      Assert.assertEquals(expected[i], triangles.get(i));
+  }
+
+  protected void assertInvalidListCount(String countType, byte count) throws IOException {
+    String header = "ply\n" //
+        + "format binary_little_endian 1.0\n" //
+        + "element vertex 1\n" //
+        + "property float x\n" //
+        + "property float y\n" //
+        + "property float z\n" //
+        + "element edge 1\n" //
+        + "property list " + countType + " int ids\n" //
+        + "end_header\n";
+    ByteBuffer body = ByteBuffer.allocate(17).order(ByteOrder.LITTLE_ENDIAN);
+    body.putFloat(1).putFloat(2).putFloat(3);
+    body.put(count).putInt(0);
+
+    byte[] content = new byte[header.length() + body.capacity()];
+    System.arraycopy(header.getBytes(StandardCharsets.US_ASCII), 0, content, 0, header.length());
+    System.arraycopy(body.array(), 0, content, header.length(), body.capacity());
+
+    try {
+      new PlyReader().read(write(content));
+      Assert.fail("Expected an IOException");
+    } catch (IOException e) {
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("edge 0"));
+      Assert.assertTrue(e.getMessage(), e.getMessage().contains("ids count : " + count));
+    }
+  }
+
+  protected String header(String format) {
+    return "ply\n" //
+        + "format " + format + " 1.0\n" //
+        + "comment made by a test\n" //
+        + "element vertex " + VERTICES.length + "\n" //
+        + "property float x\n" //
+        + "property float y\n" //
+        + "property float z\n" //
+        + "property uchar red\n" //
+        + "property uchar green\n" //
+        + "property uchar blue\n" //
+        + "element face 2\n" //
+        + "property list uchar int vertex_indices\n" //
+        + "end_header\n";
+  }
+
+  protected File writeBinary(ByteOrder order) throws IOException {
+    String format =
+        order == ByteOrder.LITTLE_ENDIAN ? "binary_little_endian" : "binary_big_endian";
+    byte[] header = header(format).getBytes(StandardCharsets.US_ASCII);
+
+    ByteBuffer body = ByteBuffer.allocate(1024).order(order);
+    for (int i = 0; i < VERTICES.length; i++) {
+      body.putFloat(VERTICES[i][0]);
+      body.putFloat(VERTICES[i][1]);
+      body.putFloat(VERTICES[i][2]);
+      body.put((byte) COLORS[i][0]);
+      body.put((byte) COLORS[i][1]);
+      body.put((byte) COLORS[i][2]);
+    }
+    body.put((byte) 4).putInt(0).putInt(1).putInt(2).putInt(3);
+    body.put((byte) 2).putInt(1).putInt(2);
+    body.flip();
+
+    byte[] content = new byte[header.length + body.remaining()];
+    System.arraycopy(header, 0, content, 0, header.length);
+    body.get(content, header.length, body.remaining());
+    return write(content);
+  }
+
+  protected File write(byte[] content) throws IOException {
+    File file = File.createTempFile("test", ".ply");
+    file.deleteOnExit();
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(content);
+    }
+    return file;
+  }
+}
@@ -0,0 +1,44 @@
+package org.jzy3d.maths;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFrustum {
+  @Test
+  public void orthographicFrustumCullsOutsideBoxes() {
+    // glOrtho(-1, 1, -1, 1, -1, 1) and an identity modelview
+    float[] projection = identity();
+    projection[10] = -1;
+
+    Frustum frustum = new Frustum(projection, identity());
+
+    Assert.assertTrue(frustum.intersects(new BoundingBox3d(-0.5f, 0.5f, -0.5f, 0.5f, 0, 0)));
+    Assert.assertTrue(frustum.intersects(new BoundingBox3d(0.5f, 3, 0.5f, 3, -5, 5)));
+    Assert.assertFalse(frustum.intersects(new BoundingBox3d(2, 3, -1, 1, -1, 1)));
+    Assert.assertFalse(frustum.intersects(new BoundingBox3d(-1, 1, -3, -2, -1, 1)));
+    Assert.assertFalse(frustum.intersects(new BoundingBox3d(-1, 1, -1, 1, 2, 3)));
+    Assert.assertFalse(frustum.intersects(new BoundingBox3d()));
+  }
+
+  @Test
+  public void modelViewMovesTheFrustum() {
+    float[] projection = identity();
+    projection[10] = -1;
+
+    // glTranslatef(10, 0, 0) : the visible region is now around x = -10
+    float[] modelView = identity();
+    modelView[12] = 10;
+
+    Frustum frustum = new Frustum(projection, modelView);
+
+    Assert.assertTrue(frustum.contains(new Coord3d(-10, 0, 0)));
+    Assert.assertFalse(frustum.contains(new Coord3d(0, 0, 0)));
+    Assert.assertFalse(frustum.intersects(new BoundingBox3d(-1, 1, -1, 1, -1, 1)));
+  }
+
+  protected float[] identity() {
+    float[] m = new float[16];
+    m[0] = m[5] = m[10] = m[15] = 1;
+    return m;
+  }
+}
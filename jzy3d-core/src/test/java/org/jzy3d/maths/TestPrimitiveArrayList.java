@@ -0,0 +1,36 @@
+package org.jzy3d.maths;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestPrimitiveArrayList {
+  @Test
+  public void growTrimAndClear() {
+    IntArrayList ints = new IntArrayList(1);
+    for (int i = 0; i < 100; i++)
+      ints.add(i);
+    ints.add(100, 101, 102);
+
+    Assert.assertEquals(103, ints.size());
+    Assert.assertEquals(102, ints.get(102));
+    Assert.assertTrue(ints.array().length >= 103);
+
+    ints.trim();
+    Assert.assertEquals(103, ints.array().length);
+
+    FloatArrayList floats = new FloatArrayList(0);
+    floats.ensureCapacity(10);
+    Assert.assertEquals(10, floats.array().length);
+    floats.addAll(new float[] {1, 2, 3}, 1, 2);
+    Assert.assertArrayEquals(new float[] {2, 3}, floats.toArray(), 0);
+
+    floats.clear();
+    Assert.assertTrue(floats.isEmpty());
+    Assert.assertEquals("FloatArrayList(size=0)", floats.toString());
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void growBeyondLimitFails() {
+    new IntArrayList(1).ensureCapacity(Integer.MAX_VALUE);
+  }
+}
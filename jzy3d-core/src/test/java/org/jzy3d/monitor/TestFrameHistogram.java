@@ -0,0 +1,66 @@
+package org.jzy3d.monitor;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestFrameHistogram {
+  @Test
+  public void percentilesAreWithinBucketPrecision() {
+    Random r = new Random(1);
+    long[] values = new long[10000];
+    FrameHistogram h = new FrameHistogram();
+    for (int i = 0; i < values.length; i++) {
+      values[i] = 1000 + (long) (r.nextDouble() * 50000000);
+      h.record(values[i]);
+    }
+    Arrays.sort(values);
+
+    for (double p : new double[] {50, 95, 99}) {
+      long expected = values[(int) Math.ceil(p / 100 * values.length) - 1];
+      long actual = h.getValueAtPercentile(p);
+      Assert.assertEquals(expected, actual, expected / (double) FrameHistogram.SUB_BUCKETS);
+      Assert.assertTrue(actual >= expected);
+    }
+
+    Assert.assertEquals(values.length, h.getCount());
+    Assert.assertEquals(values[0], h.getMin());
+    Assert.assertEquals(values[values.length - 1], h.getMax());
+    Assert.assertEquals(values[values.length - 1], h.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    FrameHistogram h = new FrameHistogram();
+    for (int i = 1; i <= 60; i++)
+      h.record(i);
+
+    Assert.assertEquals(30, h.getValueAtPercentile(50));
+    Assert.assertEquals(57, h.getValueAtPercentile(95));
+    Assert.assertEquals(30.5, h.getMean(), 1e-9);
+  }
+
+  @Test
+  public void bucketsCoverAllValues() {
+    for (long v = 0; v < FrameHistogram.HIGHEST_TRACKABLE_VALUE; v = v * 3 / 2 + 1) {
+      int index = FrameHistogram.index(v);
+      Assert.assertTrue(FrameHistogram.highestEquivalentValue(index) >= v);
+      if (index > 0)
+        Assert.assertTrue(FrameHistogram.highestEquivalentValue(index - 1) < v);
+    }
+  }
+
+  @Test
+  public void whenEmptyOrReset_thenPercentileIsZero() {
+    FrameHistogram h = new FrameHistogram();
+    Assert.assertEquals(0, h.getValueAtPercentile(99));
+
+    h.record(Long.MAX_VALUE);
+    Assert.assertEquals(FrameHistogram.HIGHEST_TRACKABLE_VALUE, h.getValueAtPercentile(99));
+
+    h.reset();
+    Assert.assertEquals(0, h.getCount());
+    Assert.assertEquals(0, h.getValueAtPercentile(99));
+  }
+}
@@ -0,0 +1,76 @@
+package org.jzy3d.monitor;
+
+import java.io.File;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.monitor.FrameTelemetry.Counter;
+import org.jzy3d.monitor.FrameTelemetry.Phase;
+
+public class TestFrameTelemetry {
+  @Test
+  public void whenDisabled_thenNothingIsRecorded() {
+    FrameTelemetry telemetry = new FrameTelemetry();
+    Assert.assertFalse(telemetry.isEnabled());
+
+    telemetry.beginFrame();
+    long start = telemetry.start();
+    telemetry.stop(Phase.SORT, start);
+    telemetry.count(Counter.DRAWABLES, 3);
+    telemetry.endFrame();
+
+    Assert.assertEquals(0, start);
+    Assert.assertEquals(0, telemetry.getFrames());
+    Assert.assertEquals(0, telemetry.getLastCount(Counter.DRAWABLES));
+    Assert.assertEquals(0, telemetry.getFrameHistogram().getCount());
+  }
+
+  @Test
+  public void whenEnabled_thenPhasesAndCountersArePublished() throws Exception {
+    FrameTelemetry telemetry = new FrameTelemetry();
+    telemetry.setEnabled(true);
+    Monitor monitor = new Monitor() {
+      @Override
+      public void dump(File file) {}
+
+      @Override
+      public void load(File file) {}
+    };
+    telemetry.add(monitor);
+
+    for (int i = 0; i < 3; i++) {
+      telemetry.beginFrame();
+      long start = telemetry.start();
+      Thread.sleep(2);
+      telemetry.stop(Phase.GRAPH, start);
+      telemetry.count(Counter.DRAWABLES, 2);
+      telemetry.count(Counter.DRAWABLES, 1);
+      telemetry.endFrame();
+    }
+
+    Assert.assertEquals(3, telemetry.getFrames());
+    Assert.assertEquals(3, telemetry.getLastCount(Counter.DRAWABLES));
+    Assert.assertTrue(telemetry.getLastNanos(Phase.GRAPH) >= 2000000);
+    Assert.assertTrue(telemetry.getLastFrameNanos() >= telemetry.getLastNanos(Phase.GRAPH));
+    Assert.assertEquals(0, telemetry.getLastNanos(Phase.SORT));
+    Assert.assertEquals(3, telemetry.getHistogram(Phase.GRAPH).getCount());
+
+    List<Measure> measures = monitor.getObservations().get(telemetry);
+    Assert.assertEquals(3, measures.size());
+    Measure last = measures.get(2);
+    Assert.assertTrue(last.getObservations().contains("frame.p99"));
+    Assert.assertTrue(last.getObservations().contains("phase.graph"));
+    Assert.assertEquals(3L, last.observations.get("count.drawables"));
+    Assert.assertTrue(((Measure.FrameTelemetryMeasure) last).getFrameMili() >= 2);
+  }
+
+  @Test
+  public void whenEnabledDuringFrame_thenFrameIsIgnored() {
+    FrameTelemetry telemetry = new FrameTelemetry();
+    telemetry.beginFrame();
+    telemetry.setEnabled(true);
+    telemetry.endFrame();
+
+    Assert.assertEquals(0, telemetry.getFrames());
+  }
+}
@@ -0,0 +1,97 @@
+package org.jzy3d.plot3d.primitives;
+
+import static org.mockito.Mockito.when;
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.io.octree.PointOctree;
+import org.jzy3d.io.octree.PointOctree.Node;
+import org.jzy3d.io.octree.TestPointOctree;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.transform.Transform;
+import org.jzy3d.plot3d.transform.Translate;
+import org.mockito.Mockito;
+
+public class TestOctreeScatter {
+  @Test
+  public void refineNodesLargerThanThreshold() throws IOException {
+    OctreeScatter scatter = new OctreeScatter(TestPointOctree.build(50000));
+    scatter.setRefinePixels(200);
+
+    // the points cover 10 pixels : only the root is refined
+    List<Node> coarse = scatter.select(painter(1));
+    Assert.assertEquals(scatter.getOctree().getRoot(), coarse.get(0));
+    for (Node node : coarse)
+      Assert.assertTrue(node.getDepth() <= 1);
+
+    // the points cover 4000 pixels, but the viewport only shows [0;1]x[0;1]
+    List<Node> fine = scatter.select(painter(400));
+    Assert.assertTrue(maxDepth(fine) > 1);
+    assertParentsFirst(scatter.getOctree(), fine);
+    for (Node node : fine)
+      Assert.assertTrue(node.getDepth() == 0 || node.getBounds().getXmin() <= 100 / 400f);
+
+    scatter.dispose();
+  }
+
+  @Test
+  public void selectionStopsAtCacheBudget() throws IOException {
+    OctreeScatter scatter = new OctreeScatter(TestPointOctree.build(50000));
+    PointOctree octree = scatter.getOctree();
+    long rootBytes = octree.getRoot().getPointCount() * octree.getVertexSize() * 4L;
+    scatter.getCache().setBudget(rootBytes);
+
+    List<Node> selected = scatter.select(painter(400));
+    Assert.assertEquals(1, selected.size());
+    Assert.assertEquals(octree.getRoot(), selected.get(0));
+
+    scatter.dispose();
+  }
+
+  @Test
+  public void geometryTransformMovesBoundsAndSelection() throws IOException {
+    OctreeScatter scatter = new OctreeScatter(TestPointOctree.build(50000));
+    scatter.applyGeometryTransform(new Transform(new Translate(new Coord3d(200, 0, 0))));
+
+    Assert.assertEquals(200, scatter.getBounds().getXmin(), 0.01);
+
+    // only the root, which crosses the camera plane, remains visible
+    List<Node> selected = scatter.select(painter(1));
+    Assert.assertEquals(1, selected.size());
+
+    scatter.dispose();
+  }
+
+  /** A painter projecting (x,y,z) to (x*scale,y*scale) in a 100x100 viewport. */
+  protected IPainter painter(float scale) {
+    IPainter painter = Mockito.mock(IPainter.class);
+    when(painter.getViewPortAsInt()).thenReturn(new int[] {0, 0, 100, 100});
+    when(painter.getModelViewAsFloat())
+        .thenReturn(new float[] {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1});
+    // clip x = x*scale/50-1, so that window x = 50*(clip x+1) = x*scale, and clip z = 0
+    float s = scale / 50;
+    when(painter.getProjectionAsFloat())
+        .thenReturn(new float[] {s, 0, 0, 0, 0, s, 0, 0, 0, 0, 0, 0, -1, -1, 0, 1});
+    return painter;
+  }
+
+  protected int maxDepth(List<Node> nodes) {
+    int depth = 0;
+    for (Node node : nodes)
+      depth = Math.max(depth, node.getDepth());
+    return depth;
+  }
+
+  protected void assertParentsFirst(PointOctree octree, List<Node> nodes) {
+    Set<Node> seen = new HashSet<>();
+    for (Node node : nodes) {
+      for (Node child : octree.getChildren(node))
+        Assert.assertFalse(seen.contains(child));
+      seen.add(node);
+    }
+  }
+}
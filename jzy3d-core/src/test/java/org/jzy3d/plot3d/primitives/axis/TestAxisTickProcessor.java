@@ -0,0 +1,92 @@
+package org.jzy3d.plot3d.primitives.axis;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.plot3d.primitives.axis.layout.renderers.DefaultDecimalTickRenderer;
+import org.jzy3d.plot3d.primitives.axis.layout.renderers.TickLabelMap;
+
+public class TestAxisTickProcessor {
+  @Test
+  public void layoutIsCachedUntilInputsChange() {
+    AxisBox axis = new AxisBox(new BoundingBox3d(0, 10, 0, 10, 0, 10));
+    AxisTickProcessor processor = axis.getTickProcessor();
+    double[] ticks = axis.getLayout().getXTicks();
+
+    AxisRenderingInfo info = layout(processor, axis, ticks, 1);
+    Assert.assertEquals(ticks.length, info.tickLabels.length);
+    Assert.assertEquals(ticks[0], info.tickPositions[0].x, 1e-6);
+    Assert.assertEquals(1, processor.getCacheMisses());
+
+    // same inputs
+    Assert.assertSame(info, layout(processor, axis, ticks, 1));
+    Assert.assertEquals(1, processor.getCacheHits());
+
+    // other axis position, then back to the first one
+    Assert.assertNotSame(info, layout(processor, axis, ticks, -1));
+    Assert.assertSame(info, layout(processor, axis, ticks, 1));
+    Assert.assertEquals(2, processor.getCacheMisses());
+    Assert.assertEquals(2, processor.getCacheHits());
+
+    // other ticks
+    axis.setAxe(new BoundingBox3d(0, 100, 0, 10, 0, 10));
+    Assert.assertNotSame(info, layout(processor, axis, axis.getLayout().getXTicks(), 1));
+
+    // other tick renderer
+    axis.getLayout().setXTickRenderer(new DefaultDecimalTickRenderer(2));
+    Assert.assertNotSame(info, layout(processor, axis, ticks, 1));
+    Assert.assertEquals(4, processor.getCacheMisses());
+  }
+
+  @Test
+  public void layoutIsComputedAgainWhenTickRendererIsEditedInPlaceAndCacheCleared() {
+    AxisBox axis = new AxisBox(new BoundingBox3d(0, 10, 0, 10, 0, 10));
+    AxisTickProcessor processor = axis.getTickProcessor();
+    TickLabelMap labels = new TickLabelMap();
+    axis.getLayout().setXTickRenderer(labels);
+    double[] ticks = axis.getLayout().getXTicks();
+
+    AxisRenderingInfo info = layout(processor, axis, ticks, 1);
+    labels.register(ticks[0], "origin");
+    processor.clearCache();
+
+    AxisRenderingInfo edited = layout(processor, axis, ticks, 1);
+    Assert.assertNotSame(info, edited);
+    Assert.assertEquals("origin", edited.tickLabels[0]);
+    Assert.assertEquals(2, processor.getCacheMisses());
+  }
+
+  @Test
+  public void layoutIsComputedAgainWhenTickRendererIsReplaced() {
+    AxisBox axis = new AxisBox(new BoundingBox3d(0, 10, 0, 10, 0, 10));
+    AxisTickProcessor processor = axis.getTickProcessor();
+    double[] ticks = axis.getLayout().getXTicks();
+
+    AxisRenderingInfo info = layout(processor, axis, ticks, 1);
+    TickLabelMap labels = new TickLabelMap();
+    labels.register(ticks[0], "origin");
+    axis.getLayout().setXTickRenderer(labels);
+
+    AxisRenderingInfo replaced = layout(processor, axis, ticks, 1);
+    Assert.assertNotSame(info, replaced);
+    Assert.assertEquals("origin", replaced.tickLabels[0]);
+    Assert.assertSame(replaced, layout(processor, axis, ticks, 1));
+    Assert.assertEquals(2, processor.getCacheMisses());
+  }
+
+  @Test
+  public void layoutIsComputedEachTimeWithoutCaching() {
+    AxisBox axis = new AxisBox(new BoundingBox3d(0, 10, 0, 10, 0, 10));
+    AxisTickProcessor processor = axis.getTickProcessor();
+    processor.setCaching(false);
+    double[] ticks = axis.getLayout().getXTicks();
+
+    Assert.assertNotSame(layout(processor, axis, ticks, 1), layout(processor, axis, ticks, 1));
+    Assert.assertEquals(0, processor.getCacheHits() + processor.getCacheMisses());
+  }
+
+  protected AxisRenderingInfo layout(AxisTickProcessor processor, AxisBox axis, double[] ticks,
+      float ydir) {
+    return processor.getAxisTicksLayout(AxisBox.AXE_X, 20, 0, 0, 0, 0, ydir, 1, ticks);
+  }
+}
@@ -0,0 +1,72 @@
+package org.jzy3d.plot3d.primitives.selectable;
+
+import java.util.BitSet;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestScreenGridIndex {
+  @Test
+  public void selectRectangleAsBruteForce() {
+    float[] screen = randomScreen(50000, new Random(0));
+    ScreenGridIndex index = new ScreenGridIndex(screen, 50000);
+
+    BitSet expected = new BitSet();
+    for (int i = 0; i < 50000; i++) {
+      float x = screen[i * 3], y = screen[i * 3 + 1];
+      if (100 <= x && x <= 357.5 && 40 <= y && y <= 221)
+        expected.set(i);
+    }
+    Assert.assertTrue(expected.cardinality() > 0);
+    Assert.assertEquals(expected, index.selectRectangle(100, 40, 357.5f, 221));
+
+    // out of the screen
+    Assert.assertTrue(index.selectRectangle(-50, -50, -10, -10).isEmpty());
+  }
+
+  @Test
+  public void selectPolygonAsBruteForce() {
+    float[] screen = randomScreen(50000, new Random(1));
+    ScreenGridIndex index = new ScreenGridIndex(screen, 50000);
+
+    // a triangle
+    float[] xs = {100, 700, 100};
+    float[] ys = {100, 100, 500};
+
+    BitSet expected = new BitSet();
+    for (int i = 0; i < 50000; i++) {
+      float x = screen[i * 3], y = screen[i * 3 + 1];
+      if (x > 100 && y > 100 && (x - 100) / 600 + (y - 100) / 400 < 1)
+        expected.set(i);
+    }
+
+    BitSet selected = index.selectPolygon(xs, ys);
+
+    // points exactly on edges may differ
+    BitSet diff = (BitSet) selected.clone();
+    diff.xor(expected);
+    Assert.assertTrue(diff.cardinality() + " differences", diff.cardinality() <= 2);
+    Assert.assertTrue(expected.cardinality() > 10000);
+  }
+
+  @Test
+  public void skipNotProjectedPoints() {
+    float[] screen = {10, 10, 0, Float.NaN, Float.NaN, Float.NaN, 20, 20, 0};
+    ScreenGridIndex index = new ScreenGridIndex(screen, 3);
+
+    BitSet selected = index.selectRectangle(0, 0, 100, 100);
+    Assert.assertEquals(2, selected.cardinality());
+    Assert.assertFalse(selected.get(1));
+  }
+
+  /** Points in a 800 x 600 screen. */
+  protected float[] randomScreen(int n, Random r) {
+    float[] screen = new float[n * 3];
+    for (int i = 0; i < n; i++) {
+      screen[i * 3] = r.nextFloat() * 800;
+      screen[i * 3 + 1] = r.nextFloat() * 600;
+      screen[i * 3 + 2] = r.nextFloat();
+    }
+    return screen;
+  }
+}
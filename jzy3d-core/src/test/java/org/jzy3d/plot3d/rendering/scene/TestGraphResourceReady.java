@@ -0,0 +1,101 @@
+package org.jzy3d.plot3d.rendering.scene;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.primitives.Drawable;
+import org.jzy3d.plot3d.primitives.IAsyncGLBindedResource;
+import org.jzy3d.plot3d.primitives.IGLBindedResource;
+import org.jzy3d.plot3d.transform.Transform;
+
+public class TestGraphResourceReady {
+  @Test
+  public void notifyEachResourceOnceReady() {
+    Graph graph = new Graph(null, false);
+    Resource sync = new Resource(true);
+    Resource async = new Resource(false);
+    Resource failing = new Resource(false);
+    graph.add(sync, false);
+    graph.add(async, false);
+    graph.add(failing, false);
+
+    List<Object> ready = new ArrayList<>();
+    List<Object> failed = new ArrayList<>();
+    graph.addGraphListener(new Graph.GraphListener() {
+      @Override
+      public void onMountAll() {
+        ready.add("all");
+      }
+
+      @Override
+      public void onResourceReady(IGLBindedResource resource) {
+        ready.add(resource);
+      }
+
+      @Override
+      public void onResourceFailed(IGLBindedResource resource, Throwable error) {
+        failed.add(resource);
+      }
+    });
+
+    graph.mountAllGLBindedResources(null);
+    // mounting again while async resources are not ready does not listen them twice
+    graph.mountAllGLBindedResources(null);
+    Assert.assertEquals(3, ready.size());
+    Assert.assertSame(sync, ready.get(0));
+    Assert.assertEquals("all", ready.get(1));
+    Assert.assertEquals("all", ready.get(2));
+
+    async.ready.complete(null);
+    failing.ready.completeExceptionally(new IllegalStateException());
+
+    Assert.assertEquals(4, ready.size());
+    Assert.assertSame(async, ready.get(3));
+    Assert.assertEquals(1, failed.size());
+    Assert.assertSame(failing, failed.get(0));
+  }
+
+  static class Resource extends Drawable implements IAsyncGLBindedResource {
+    boolean synchronous;
+    boolean mounted;
+    CompletableFuture<Void> ready = new CompletableFuture<>();
+
+    Resource(boolean synchronous) {
+      this.synchronous = synchronous;
+    }
+
+    @Override
+    public void mount(IPainter painter) {
+      mounted = synchronous;
+      if (synchronous)
+        ready.complete(null);
+    }
+
+    @Override
+    public boolean hasMountedOnce() {
+      return mounted;
+    }
+
+    @Override
+    public boolean isReady() {
+      return ready.isDone();
+    }
+
+    @Override
+    public CompletableFuture<Void> whenReady() {
+      return ready;
+    }
+
+    @Override
+    public void draw(IPainter painter) {}
+
+    @Override
+    public void applyGeometryTransform(Transform transform) {}
+
+    @Override
+    public void updateBounds() {}
+  }
+}
@@ -0,0 +1,77 @@
+package org.jzy3d.plot3d.rendering.view;
+
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.maths.Coord3d;
+
+public class TestScreenProjection {
+  static float[] IDENTITY = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+
+  @Test
+  public void projectAsGluProject() {
+    // scale x by 2 in model view, perspective divide by -z in projection
+    float[] modelView = {2, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1};
+    float[] projection = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, -1, 0, 0, 0, 0};
+    ScreenProjection p = new ScreenProjection(projection, modelView, new int[] {10, 20, 200, 100});
+
+    // clip (1, 0.5, -2, 2) : ndc (0.5, 0.25, -1)
+    Coord3d screen = p.project(new Coord3d(0.5, 0.5, -2));
+    Assert.assertEquals(10 + 200 * 0.75, screen.x, 1e-4);
+    Assert.assertEquals(20 + 100 * 0.625, screen.y, 1e-4);
+    Assert.assertEquals(0, screen.z, 1e-4);
+
+    // w = 0
+    Assert.assertNull(p.project(new Coord3d(1, 1, 0)));
+    float[] out = p.project(new float[] {1, 1, 0}, null);
+    Assert.assertTrue(Float.isNaN(out[0]));
+  }
+
+  @Test
+  public void unprojectIsInverseOfProject() {
+    float[] modelView = {2, 0, 0, 0, 0, 1, 0, 0, 0, 0, 1, 0, 0.5f, 0, -5, 1};
+    float[] projection = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, -1.2f, -1, 0, 0, -2.2f, 0};
+    ScreenProjection p = new ScreenProjection(projection, modelView, new int[] {10, 20, 200, 100});
+
+    Coord3d model = new Coord3d(0.3, -0.7, 1.1);
+    Coord3d back = p.unproject(p.project(model));
+    Assert.assertEquals(model.x, back.x, 1e-4);
+    Assert.assertEquals(model.y, back.y, 1e-4);
+    Assert.assertEquals(model.z, back.z, 1e-4);
+
+    // singular matrix
+    float[] flat = {1, 0, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 1};
+    Assert.assertNull(new ScreenProjection(flat, IDENTITY, new int[] {0, 0, 100, 100})
+        .unproject(new Coord3d(50, 50, 0.5)));
+  }
+
+  @Test
+  public void parallelProjectionInReusedArray() {
+    int n = ScreenProjection.PARALLEL_THRESHOLD + 10;
+    float[] xyz = new float[n * 3];
+    Random r = new Random(0);
+    for (int i = 0; i < xyz.length; i++)
+      xyz[i] = r.nextFloat() * 2 - 1;
+
+    ScreenProjection p = new ScreenProjection(IDENTITY, IDENTITY, new int[] {0, 0, 100, 100});
+    float[] screen = new float[n * 3];
+    Assert.assertSame(screen, p.project(xyz, screen));
+
+    for (int i = 0; i < n; i++) {
+      Assert.assertEquals((xyz[i * 3] + 1) * 50, screen[i * 3], 1e-3);
+      Assert.assertEquals((xyz[i * 3 + 1] + 1) * 50, screen[i * 3 + 1], 1e-3);
+      Assert.assertEquals((xyz[i * 3 + 2] + 1) / 2, screen[i * 3 + 2], 1e-5);
+    }
+  }
+
+  @Test
+  public void equalWhenSameMatricesAndViewport() {
+    ScreenProjection p1 = new ScreenProjection(IDENTITY, IDENTITY, new int[] {0, 0, 100, 100});
+    ScreenProjection p2 = new ScreenProjection(IDENTITY, IDENTITY, new int[] {0, 0, 100, 100});
+    ScreenProjection p3 = new ScreenProjection(IDENTITY, IDENTITY, new int[] {0, 0, 100, 50});
+
+    Assert.assertEquals(p1, p2);
+    Assert.assertEquals(p1.hashCode(), p2.hashCode());
+    Assert.assertNotEquals(p1, p3);
+  }
+}
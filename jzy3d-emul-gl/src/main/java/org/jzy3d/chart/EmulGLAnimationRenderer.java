@@ -0,0 +1,191 @@
+package org.jzy3d.chart;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.imageio.ImageIO;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.AsyncImageExporter;
+import org.jzy3d.io.AsyncImageExporter.DropPolicy;
+import org.jzy3d.plot3d.rendering.canvas.EmulGLCanvas;
+import org.jzy3d.plot3d.rendering.view.CameraPath;
+
+/**
+ * Render an animation of an EmulGL chart following a {@link CameraPath}, without displaying the
+ * chart, e.g. to produce a video out of an image sequence.
+ *
+ * Frames are rendered as fast as possible, independently of the screen refresh rate : frame i
+ * shows the viewpoint of the camera path at time <code>start + i / fps</code>. Rendered frames are
+ * handed to a {@link FrameWriter} invoked by background encoder threads, so that rendering the next
+ * frame does not wait for encoding the previous one.
+ *
+ * Frames can be rendered by several threads, each rendering with its own chart built by a chart
+ * supplier, which must build identical offscreen charts :
+ *
+ * <pre>
+ * <code>
+ * Supplier&lt;Chart&gt; charts = () -> {
+ *   EmulGLChartFactory factory = new EmulGLChartFactory();
+ *   factory.getPainterFactory().setOffscreen(800, 600);
+ *   Chart chart = factory.newChart();
+ *   chart.add(surface());
+ *   return chart;
+ * };
+ *
+ * CameraPath path = new CameraPath().add(0, new Coord3d(0, 0.5, 0)).add(10, new Coord3d(6.28, 0.5, 0));
+ * new EmulGLAnimationRenderer(charts, 4, path, 25).render(EmulGLAnimationRenderer.toFiles(dir, "frame", "png"));
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class EmulGLAnimationRenderer {
+  static Logger logger = Logger.getLogger(EmulGLAnimationRenderer.class);
+
+  /** Receive rendered frames, possibly concurrently, and not necessarily in frame order. */
+  public interface FrameWriter {
+    public void write(int frame, BufferedImage image) throws IOException;
+  }
+
+  protected Chart chart;
+  protected Supplier<Chart> charts;
+  protected int threads = 1;
+  protected int encoderThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+  protected CameraPath path;
+  protected double fps;
+
+  /** Render all frames with the given chart, which should be an offscreen EmulGL chart. */
+  public EmulGLAnimationRenderer(Chart chart, CameraPath path, double fps) {
+    this.chart = chart;
+    this.path = path;
+    this.fps = fps;
+  }
+
+  /**
+   * Render frames with the given number of threads, each thread rendering with a chart built by
+   * the supplier, and disposed once all frames are rendered.
+   */
+  public EmulGLAnimationRenderer(Supplier<Chart> charts, int threads, CameraPath path,
+      double fps) {
+    this.charts = charts;
+    this.threads = Math.max(1, threads);
+    this.path = path;
+    this.fps = fps;
+  }
+
+  /**
+   * Return a writer saving each frame in the directory, in files named prefix-000000.format, where
+   * format is an ImageIO format name such as "png" or "jpg".
+   */
+  public static FrameWriter toFiles(File dir, String prefix, String format) {
+    return (frame, image) -> {
+      if (!dir.exists())
+        dir.mkdirs();
+      File file = new File(dir, String.format("%s-%06d.%s", prefix, frame, format));
+      if (!ImageIO.write(image, format, file))
+        throw new IOException("No ImageIO writer for " + format);
+    };
+  }
+
+  /* ***************************************************************** */
+
+  /** Number of frames covering the camera path duration. */
+  public int getFrameCount() {
+    return (int) Math.floor(path.getDuration() * fps + 1e-9) + 1;
+  }
+
+  /** Render all frames and return once they are all written. */
+  public void render(FrameWriter writer) throws IOException {
+    int frames = getFrameCount();
+
+    AsyncImageExporter exporter = new AsyncImageExporter(
+        frame -> writer.write((Integer) frame.getAttachment(), frame.getImage()), encoderThreads,
+        AsyncImageExporter.DEFAULT_QUEUE_SIZE, DropPolicy.BLOCK);
+
+    try {
+      if (charts == null) {
+        render(chart, 0, 1, frames, exporter);
+      } else {
+        renderParallel(frames, exporter);
+      }
+    } finally {
+      exporter.terminate(1, TimeUnit.DAYS);
+    }
+
+    logger.info(frames + " frames rendered : " + exporter);
+
+    if (exporter.getFailedFrames() > 0)
+      throw new IOException(exporter.getFailedFrames() + " frames could not be written");
+  }
+
+  protected void renderParallel(int frames, AsyncImageExporter exporter) throws IOException {
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>(threads);
+      for (int t = 0; t < threads; t++) {
+        int first = t;
+        futures.add(executor.submit(() -> {
+          Chart c = charts.get();
+          try {
+            render(c, first, threads, frames, exporter);
+          } finally {
+            c.dispose();
+          }
+        }));
+      }
+      for (Future<?> future : futures)
+        future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while rendering", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Failed rendering", e.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /** Render frames first, first+step, ... with the given chart. */
+  protected void render(Chart chart, int first, int step, int frames,
+      AsyncImageExporter exporter) {
+    for (int i = first; i < frames; i += step) {
+      // rendered images are allocated at each frame and can be pinned
+      exporter.export(render(chart, i), i);
+    }
+  }
+
+  /** Render a single frame of the animation with the given chart. */
+  public BufferedImage render(Chart chart, int frame) {
+    EmulGLCanvas canvas = (EmulGLCanvas) chart.getCanvas();
+    chart.getView().setViewPoint(path.getViewPoint(path.getStart() + frame / fps), false);
+    canvas.doRender();
+    return canvas.screenshot();
+  }
+
+  /* ***************************************************************** */
+
+  public CameraPath getPath() {
+    return path;
+  }
+
+  public double getFps() {
+    return fps;
+  }
+
+  public int getEncoderThreads() {
+    return encoderThreads;
+  }
+
+  /** Number of threads invoking the {@link FrameWriter}. */
+  public void setEncoderThreads(int encoderThreads) {
+    this.encoderThreads = Math.max(1, encoderThreads);
+  }
+}
@@ -0,0 +1,259 @@
+package org.jzy3d.chart;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import org.apache.log4j.Logger;
+import org.jzy3d.chart.factories.EmulGLChartFactory;
+import org.jzy3d.colors.Color;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.plot3d.primitives.Drawable;
+import org.jzy3d.plot3d.rendering.canvas.EmulGLCanvas;
+import org.jzy3d.plot3d.rendering.view.View;
+import org.jzy3d.plot3d.rendering.view.modes.ViewBoundMode;
+import org.jzy3d.plot3d.rendering.view.modes.ViewPositionMode;
+
+/**
+ * Render chart images without display, with a pool of worker threads each reusing the same
+ * offscreen EmulGL chart for all the jobs it processes.
+ *
+ * Building an EmulGL chart (canvas, jGL context, fonts) is much more expensive than rendering a
+ * simple chart. Rather than building a chart per image, each worker builds its chart once and
+ * resets it between jobs : drawables of the previous job are removed and disposed, and the
+ * viewpoint, bounds mode, view position mode, background color and axis display are restored as
+ * they were when the chart was built. Other settings changed by a {@link SceneBuilder} are kept
+ * for the next job of the worker, so builders that change them should also set them explicitly.
+ *
+ * <pre>
+ * <code>
+ * try (EmulGLRenderService service = new EmulGLRenderService()) {
+ *   Future&lt;byte[]&gt; png = service.submit(new RenderJob(chart -> chart.add(surface(), false), 800, 600), "png");
+ *   ...
+ * }
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class EmulGLRenderService implements Closeable {
+  static Logger logger = Logger.getLogger(EmulGLRenderService.class);
+
+  /**
+   * Fill a chart with the content to render. Builders should add drawables without updating the
+   * view, e.g. <code>chart.add(drawable, false)</code>, to avoid useless renderings.
+   */
+  public interface SceneBuilder {
+    public void build(Chart chart) throws Exception;
+  }
+
+  /** What to render and the image size. */
+  public static class RenderJob {
+    protected SceneBuilder builder;
+    protected int width;
+    protected int height;
+    protected Coord3d viewpoint;
+
+    public RenderJob(SceneBuilder builder, int width, int height) {
+      this(builder, width, height, null);
+    }
+
+    /**
+     * @param viewpoint polar coordinates of the camera, see {@link View#setViewPoint(Coord3d)},
+     *        or null to keep the viewpoint set by the builder, if any.
+     */
+    public RenderJob(SceneBuilder builder, int width, int height, Coord3d viewpoint) {
+      this.builder = builder;
+      this.width = width;
+      this.height = height;
+      this.viewpoint = viewpoint;
+    }
+
+    public SceneBuilder getBuilder() {
+      return builder;
+    }
+
+    public int getWidth() {
+      return width;
+    }
+
+    public int getHeight() {
+      return height;
+    }
+
+    public Coord3d getViewPoint() {
+      return viewpoint;
+    }
+  }
+
+  /** A reusable chart and its initial settings. */
+  protected static class Worker {
+    protected Chart chart;
+    protected Color background;
+    protected boolean axisDisplayed;
+    protected int width;
+    protected int height;
+  }
+
+  protected ExecutorService executor;
+  protected ThreadLocal<Worker> workers = new ThreadLocal<>();
+  protected List<Worker> allWorkers = new ArrayList<>();
+
+  protected AtomicInteger createdCharts = new AtomicInteger();
+  protected AtomicLong renderedJobs = new AtomicLong();
+
+  /** Build a service with one worker per available processor. */
+  public EmulGLRenderService() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public EmulGLRenderService(int workers) {
+    AtomicInteger id = new AtomicInteger();
+    this.executor = Executors.newFixedThreadPool(workers, r -> {
+      Thread t = new Thread(r, "EmulGLRenderService " + id.getAndIncrement());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  /* ***************************************************************** */
+
+  /** Queue a job and return the future rendered image. */
+  public Future<BufferedImage> submit(RenderJob job) {
+    return executor.submit(() -> render(getWorker(job), job));
+  }
+
+  /**
+   * Queue a job and return the future image encoded with ImageIO in the given format, e.g. "png".
+   * Encoding is done by the worker after rendering.
+   */
+  public Future<byte[]> submit(RenderJob job, String format) {
+    return executor.submit(() -> encode(render(getWorker(job), job), format));
+  }
+
+  /** Render a job, waiting for a worker to be available. */
+  public BufferedImage render(RenderJob job) throws IOException {
+    try {
+      return submit(job).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while rendering", e);
+    } catch (ExecutionException e) {
+      throw new IOException("Failed rendering", e.getCause());
+    }
+  }
+
+  protected BufferedImage render(Worker worker, RenderJob job) throws Exception {
+    Chart chart = worker.chart;
+    try {
+      job.getBuilder().build(chart);
+
+      if (job.getViewPoint() != null)
+        chart.getView().setViewPoint(job.getViewPoint().clone(), false);
+
+      EmulGLCanvas canvas = (EmulGLCanvas) chart.getCanvas();
+      canvas.doRender();
+      renderedJobs.incrementAndGet();
+      return canvas.screenshot();
+    } finally {
+      reset(worker);
+    }
+  }
+
+  public static byte[] encode(BufferedImage image, String format) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    if (!ImageIO.write(image, format, out))
+      throw new IOException("No ImageIO writer for " + format);
+    return out.toByteArray();
+  }
+
+  /* ***************************************************************** */
+
+  /** Return the chart of the current worker thread, built on first use, sized for the job. */
+  protected Worker getWorker(RenderJob job) {
+    Worker worker = workers.get();
+    if (worker == null) {
+      worker = new Worker();
+      worker.chart = newChart(job.getWidth(), job.getHeight());
+      worker.width = job.getWidth();
+      worker.height = job.getHeight();
+      worker.background = worker.chart.getView().getBackgroundColor();
+      worker.axisDisplayed = worker.chart.getView().isAxisDisplayed();
+      workers.set(worker);
+      synchronized (allWorkers) {
+        allWorkers.add(worker);
+      }
+      createdCharts.incrementAndGet();
+    } else if (worker.width != job.getWidth() || worker.height != job.getHeight()) {
+      EmulGLCanvas canvas = (EmulGLCanvas) worker.chart.getCanvas();
+      canvas.setSize(job.getWidth(), job.getHeight());
+      canvas.doReshape(job.getWidth(), job.getHeight());
+      worker.width = job.getWidth();
+      worker.height = job.getHeight();
+    }
+    return worker;
+  }
+
+  /** Build an offscreen EmulGL chart. */
+  protected Chart newChart(int width, int height) {
+    EmulGLChartFactory factory = new EmulGLChartFactory();
+    factory.getPainterFactory().setOffscreen(width, height);
+    return factory.newChart();
+  }
+
+  /** Remove and dispose drawables of the last job and restore initial view settings. */
+  protected void reset(Worker worker) {
+    Chart chart = worker.chart;
+    View view = chart.getView();
+
+    List<Drawable> drawables = new ArrayList<>(chart.getScene().getGraph().getAll());
+    for (Drawable drawable : drawables) {
+      chart.getScene().getGraph().remove(drawable, false);
+      drawable.dispose();
+    }
+
+    view.setViewPoint(View.VIEWPOINT_DEFAULT.clone(), false);
+    view.setBoundMode(ViewBoundMode.AUTO_FIT);
+    view.setViewPositionMode(ViewPositionMode.FREE);
+    view.setBackgroundColor(worker.background);
+    view.setAxisDisplayed(worker.axisDisplayed);
+  }
+
+  /* ***************************************************************** */
+
+  /** Stop accepting jobs, wait for queued jobs to complete and dispose charts. */
+  @Override
+  public void close() {
+    executor.shutdown();
+    try {
+      if (!executor.awaitTermination(1, TimeUnit.MINUTES))
+        logger.warn("Jobs still running after 1 minute, disposing charts anyway");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    synchronized (allWorkers) {
+      for (Worker worker : allWorkers)
+        worker.chart.dispose();
+      allWorkers.clear();
+    }
+  }
+
+  /** Number of charts built since the service started, at most the number of workers. */
+  public int getCreatedCharts() {
+    return createdCharts.get();
+  }
+
+  public long getRenderedJobs() {
+    return renderedJobs.get();
+  }
+}
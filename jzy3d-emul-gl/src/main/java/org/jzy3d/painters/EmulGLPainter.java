@@ -44,6 +44,18 @@ public class EmulGLPainter extends AbstractPainter implements IPainter {
     this.gl = gl;
   }
 
+  /** Calls to glBegin as counted by jGL, which already counts them for profiling. */
+  @Override
+  public long getCountGLBegin() {
+    return gl.getPointer().geometry.countBegin;
+  }
+
+  @Override
+  public void resetCounts() {
+    super.resetCounts();
+    gl.getPointer().geometry.countBegin = 0;
+  }
+
   public GLU getGLU() {
     return glu;
   }
@@ -255,11 +267,13 @@ public class EmulGLPainter extends AbstractPainter implements IPainter {
 
   @Override
   public void glVertex3f(float x, float y, float z) {
+    countVertices++;
     gl.glVertex3f(x, y, z);
   }
 
   @Override
   public void glVertex3d(double x, double y, double z) {
+    countVertices++;
     gl.glVertex3d(x, y, z);
   }
 
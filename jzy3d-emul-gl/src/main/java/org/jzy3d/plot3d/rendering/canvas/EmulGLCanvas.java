@@ -27,6 +27,10 @@ import org.jzy3d.colors.Color;
 import org.jzy3d.io.AWTImageExporter;
 import org.jzy3d.maths.Coord2d;
 import org.jzy3d.maths.TicToc;
+import org.jzy3d.monitor.FrameHistogram;
+import org.jzy3d.monitor.FrameTelemetry;
+import org.jzy3d.monitor.FrameTelemetry.Counter;
+import org.jzy3d.monitor.FrameTelemetry.Phase;
 import org.jzy3d.monitor.IMonitorable;
 import org.jzy3d.monitor.Measure.CanvasPerfMeasure;
 import org.jzy3d.monitor.Monitor;
@@ -292,7 +296,8 @@ public class EmulGLCanvas extends GLCanvas implements IScreenCanvas, IMonitorabl
    * triggers a {@link ComponentEvent.COMPONENT_RESIZED} event.
    * 
    * Performance measurement can be seen on screen if {@link #setProfileDisplayMethod(boolean)} was
-   * set to true OR can be collected by a {@link Monitor} defined by {@link #add(Monitor)}.
+   * set to true OR can be collected by a {@link Monitor} defined by {@link #add(Monitor)}. Phase
+   * timings are collected by the {@link FrameTelemetry} of the view if it is enabled.
    * 
    * This method is synchronized to prevent multiple concurrent calls to doDisplay which might make
    * jGL get crazy with GL state consistency : GL states must be consistent during a complete
@@ -315,14 +320,21 @@ public class EmulGLCanvas extends GLCanvas implements IScreenCanvas, IMonitorabl
     profileDisplayTimer.tic();
 
     if (view != null) {
+      FrameTelemetry telemetry = view.getTelemetry();
+      telemetry.beginFrame();
 
       if (profileDisplayMethod) {
         resetCountGLBegin();
       }
+      if (telemetry.isEnabled()) {
+        painter.resetCounts();
+      }
 
       view.clear();
       view.render();
 
+      long flushStart = telemetry.start();
+
       // Ask opengl to provide an image for display
       myGL.glFlush();
       
@@ -338,6 +350,11 @@ public class EmulGLCanvas extends GLCanvas implements IScreenCanvas, IMonitorabl
       // the latest built with glFlush
       repaint();
 
+      telemetry.stop(Phase.FLUSH, flushStart);
+      telemetry.count(Counter.GL_BEGIN, painter.getCountGLBegin());
+      telemetry.count(Counter.VERTICES, painter.getCountVertices());
+      telemetry.endFrame();
+
       // checkAlphaChannelOfColorBuffer(painter);
 
       // -------------------------------
@@ -660,6 +677,15 @@ public class EmulGLCanvas extends GLCanvas implements IScreenCanvas, IMonitorabl
       profile("FrameID    : " + profileDisplayCount, x, y * line++, c);
       profile("Render in  : " + mili + "ms", x, y * line++, c);
 
+      // Percentiles of rendering time
+      FrameTelemetry telemetry = view.getTelemetry();
+      if (telemetry.isEnabled()) {
+        FrameHistogram frames = telemetry.getFrameHistogram();
+        profile(String.format("p50/p95/p99 : %.1f / %.1f / %.1f ms",
+            frames.getValueAtPercentile(50) / 1e6, frames.getValueAtPercentile(95) / 1e6,
+            frames.getValueAtPercentile(99) / 1e6), x, y * line++, c);
+      }
+
       // Drawables size
       profile("Drawables  : " + view.getScene().getGraph().getDecomposition().size(), x, y * line++,
           c);
@@ -778,6 +804,10 @@ public class EmulGLCanvas extends GLCanvas implements IScreenCanvas, IMonitorabl
     return exporter;
   }
 
+  /**
+   * Set an exporter receiving each rendered image on the rendering thread. Use an
+   * {@link org.jzy3d.io.AsyncImageExporter} to record frames without slowing down rendering.
+   */
   public void setExporter(AWTImageExporter exporter) {
     this.exporter = exporter;
   }
@@ -0,0 +1,85 @@
+package org.jzy3d.chart;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.chart.factories.EmulGLChartFactory;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.colors.colormaps.ColorMapRainbow;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.maths.Range;
+import org.jzy3d.plot3d.builder.Mapper;
+import org.jzy3d.plot3d.builder.SurfaceBuilder;
+import org.jzy3d.plot3d.builder.concrete.OrthonormalGrid;
+import org.jzy3d.plot3d.primitives.Shape;
+import org.jzy3d.plot3d.rendering.view.CameraPath;
+
+public class TestEmulGLAnimationRenderer {
+  @Test
+  public void cameraPathInterpolatesKeyframes() {
+    CameraPath path = new CameraPath();
+    path.add(2, new Coord3d(Math.PI, 0, 0));
+    path.add(0, new Coord3d(0, 1, 0));
+
+    Assert.assertEquals(2, path.getDuration(), 0);
+    Assert.assertEquals(new Coord3d(0, 1, 0), path.getViewPoint(-1));
+    Assert.assertEquals(Math.PI / 2, path.getViewPoint(1).x, 1e-6);
+    Assert.assertEquals(0.5, path.getViewPoint(1).y, 1e-6);
+    Assert.assertEquals(Math.PI, path.getViewPoint(3).x, 1e-6);
+  }
+
+  @Test
+  public void parallelRenderingGivesSameFramesAsSequential() throws Exception {
+    CameraPath path = new CameraPath();
+    path.add(0, new Coord3d(0, 0.5, 0));
+    path.add(1, new Coord3d(Math.PI, 0.2, 0));
+
+    Map<Integer, BufferedImage> sequential = new ConcurrentHashMap<>();
+    EmulGLAnimationRenderer renderer = new EmulGLAnimationRenderer(chart(), path, 5);
+    Assert.assertEquals(6, renderer.getFrameCount());
+    renderer.render(sequential::put);
+
+    Map<Integer, BufferedImage> parallel = new ConcurrentHashMap<>();
+    new EmulGLAnimationRenderer(this::chart, 2, path, 5).render(parallel::put);
+
+    Assert.assertEquals(6, sequential.size());
+    Assert.assertEquals(6, parallel.size());
+    for (int i = 0; i < 6; i++)
+      Assert.assertArrayEquals("frame " + i, pixels(sequential.get(i)), pixels(parallel.get(i)));
+
+    // the camera moved
+    Assert.assertFalse(Arrays.equals(pixels(sequential.get(0)), pixels(sequential.get(5))));
+  }
+
+  protected int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+
+  protected Chart chart() {
+    EmulGLChartFactory factory = new EmulGLChartFactory();
+    factory.getPainterFactory().setOffscreen(120, 100);
+    Chart chart = factory.newChart();
+    chart.add(surface());
+    return chart;
+  }
+
+  protected Shape surface() {
+    Range range = new Range(-3, 3);
+    Mapper mapper = new Mapper() {
+      @Override
+      public double f(double x, double y) {
+        return x * Math.sin(x * y);
+      }
+    };
+    Shape surface =
+        new SurfaceBuilder().orthonormal(new OrthonormalGrid(range, 10, range, 10), mapper);
+    surface.setColorMapper(new ColorMapper(new ColorMapRainbow(), surface.getBounds().getZmin(),
+        surface.getBounds().getZmax(), new Color(1, 1, 1, .5f)));
+    surface.setWireframeColor(Color.BLACK);
+    return surface;
+  }
+}
@@ -0,0 +1,69 @@
+package org.jzy3d.chart;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import javax.imageio.ImageIO;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.chart.EmulGLRenderService.RenderJob;
+import org.jzy3d.colors.Color;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.plot3d.primitives.Scatter;
+
+public class TestEmulGLRenderService {
+  @Test
+  public void reusedChartsRenderAsNewCharts() throws Exception {
+    // reference rendering on a new chart
+    RenderJob job = new RenderJob(chart -> chart.add(scatter(Color.RED), false), 120, 100,
+        new Coord3d(1, 0.5, 0));
+    BufferedImage expected;
+    try (EmulGLRenderService service = new EmulGLRenderService(1)) {
+      expected = service.render(job);
+    }
+
+    try (EmulGLRenderService service = new EmulGLRenderService(2)) {
+      List<Future<BufferedImage>> images = new ArrayList<>();
+      List<Future<byte[]>> pngs = new ArrayList<>();
+      for (int i = 0; i < 4; i++) {
+        // other jobs change size, color and background that must not leak to next jobs
+        images.add(service.submit(new RenderJob(chart -> {
+          chart.getView().setBackgroundColor(Color.BLACK);
+          chart.add(scatter(Color.BLUE), false);
+        }, 80, 60)));
+        images.add(service.submit(job));
+        pngs.add(service.submit(job, "png"));
+      }
+
+      for (int i = 0; i < images.size(); i++) {
+        BufferedImage image = images.get(i).get();
+        if (i % 2 == 0) {
+          Assert.assertEquals(80, image.getWidth());
+          Assert.assertEquals(60, image.getHeight());
+        } else {
+          Assert.assertArrayEquals(pixels(expected), pixels(image));
+        }
+      }
+      for (Future<byte[]> png : pngs) {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(png.get()));
+        Assert.assertArrayEquals(pixels(expected), pixels(image));
+      }
+
+      Assert.assertEquals(12, service.getRenderedJobs());
+      Assert.assertTrue(service.getCreatedCharts() <= 2);
+    }
+  }
+
+  protected int[] pixels(BufferedImage image) {
+    return image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+  }
+
+  protected Scatter scatter(Color color) {
+    Coord3d[] points = new Coord3d[100];
+    for (int i = 0; i < points.length; i++)
+      points[i] = new Coord3d(Math.cos(i * 0.1), Math.sin(i * 0.1), i * 0.01);
+    return new Scatter(points, color, 3);
+  }
+}
@@ -0,0 +1,50 @@
+package org.jzy3d.plot3d.rendering.canvas;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.chart.Chart;
+import org.jzy3d.chart.factories.EmulGLChartFactory;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.monitor.FrameTelemetry;
+import org.jzy3d.monitor.FrameTelemetry.Counter;
+import org.jzy3d.monitor.FrameTelemetry.Phase;
+import org.jzy3d.painters.EmulGLPainter;
+import org.jzy3d.plot3d.primitives.Scatter;
+
+public class TestEmulGLCanvasTelemetry {
+  @Test
+  public void whenTelemetryEnabled_thenRenderingPublishesPhasesAndCounters() {
+    EmulGLChartFactory factory = new EmulGLChartFactory();
+    factory.getPainterFactory().setOffscreen(200, 100);
+    Chart chart = factory.newChart();
+    chart.add(new Scatter(new Coord3d[] {new Coord3d(0, 0, 0), new Coord3d(1, 1, 1)}));
+
+    EmulGLCanvas canvas = (EmulGLCanvas) chart.getCanvas();
+    FrameTelemetry telemetry = chart.getView().getTelemetry();
+
+    // When disabled
+    canvas.doRender();
+    Assert.assertEquals(0, telemetry.getFrames());
+
+    // When enabled
+    telemetry.setEnabled(true);
+    canvas.doRender();
+    canvas.doRender();
+
+    // Then
+    Assert.assertEquals(2, telemetry.getFrames());
+    Assert.assertEquals(1, telemetry.getLastCount(Counter.DRAWABLES));
+    Assert.assertTrue(telemetry.getLastCount(Counter.GL_BEGIN) > 0);
+    // counted once, by jGL
+    EmulGLPainter painter = (EmulGLPainter) chart.getView().getPainter();
+    Assert.assertEquals(painter.getGL().getPointer().geometry.countBegin,
+        telemetry.getLastCount(Counter.GL_BEGIN));
+    Assert.assertTrue(telemetry.getLastCount(Counter.VERTICES) > 0);
+    Assert.assertTrue(telemetry.getLastNanos(Phase.CAMERA) > 0);
+    Assert.assertTrue(telemetry.getLastNanos(Phase.AXIS) > 0);
+    Assert.assertTrue(telemetry.getLastNanos(Phase.FLUSH) > 0);
+    Assert.assertTrue(telemetry.getFrameHistogram().getValueAtPercentile(50) > 0);
+
+    chart.dispose();
+  }
+}
@@ -37,6 +37,7 @@ import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.ss.usermodel.WorkbookFactory;
 import org.apache.poi.ss.util.CellRangeAddress;
 import org.apache.poi.util.IOUtils;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFDrawing;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
@@ -45,6 +46,11 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
  *
  * Comments only supported on XLS type (no XLSX)
  *
+ * The {@link Type#SXLSX} type writes XLSX files with a streaming workbook that only keeps a window
+ * of the last rows in memory, older rows being flushed to a temporary file. It allows writing very
+ * large sheets, provided that rows are written in increasing order, as rows that left the window
+ * can not be read or modified anymore. Temporary files are deleted by {@link #dispose()}.
+ *
  * To add new excel features, see
  *
  * @see http://poi.apache.org/spreadsheet/quick-guide.html (or a copy in /doc)
@@ -61,6 +67,12 @@ public class ExcelBuilder implements IExcelBuilder {
   /** The max number of rows supported by an excel sheet */
   public static int MAX_ROW = 65536;
 
+  /** The max number of rows supported by an XLSX excel sheet */
+  public static int MAX_ROW_XLSX = 1048576;
+
+  /** The default number of rows kept in memory by a {@link Type#SXLSX} builder */
+  public static int DEFAULT_ROW_WINDOW = SXSSFWorkbook.DEFAULT_WINDOW_SIZE;
+
   public static int LAST_COLUMN = MAX_COLUMN - 1;
 
   public static int LAST_ROW = MAX_ROW - 1;
@@ -72,7 +84,9 @@ public class ExcelBuilder implements IExcelBuilder {
   public static boolean CRASH_ON_CELL_OVERFLOW = false;
 
   public enum Type {
-    XLS, XLSX
+    XLS, XLSX,
+    /** XLSX written with a streaming workbook keeping only a window of rows in memory. */
+    SXLSX
   }
 
   // factories and content
@@ -100,7 +114,14 @@ public class ExcelBuilder implements IExcelBuilder {
   }
 
   public ExcelBuilder(Type type, String firstSheetName) {
-    this(type, firstSheetName, Type.XLSX.equals(type) ? new XSSFWorkbook() : new HSSFWorkbook());
+    this(type, firstSheetName, newWorkbook(type, DEFAULT_ROW_WINDOW));
+  }
+
+  /**
+   * Build a {@link Type#SXLSX} builder keeping at most rowWindow rows of each sheet in memory.
+   */
+  public ExcelBuilder(String firstSheetName, int rowWindow) {
+    this(Type.SXLSX, firstSheetName, newWorkbook(Type.SXLSX, rowWindow));
   }
 
   public ExcelBuilder(Type type, String firstSheetName, Workbook workbook) {
@@ -120,6 +141,7 @@ public class ExcelBuilder implements IExcelBuilder {
   }
   
   public ExcelBuilder(Workbook workbook) {
+  	this.type = typeOf(workbook);
   	this.workbook = workbook;
   	this.currentSheetId = 0;
 	  
@@ -134,6 +156,36 @@ public class ExcelBuilder implements IExcelBuilder {
     this.boldFont = workbook.createFont();
   }
 
+  protected static Workbook newWorkbook(Type type, int rowWindow) {
+    if (Type.XLSX.equals(type)) {
+      return new XSSFWorkbook();
+    } else if (Type.SXLSX.equals(type)) {
+      SXSSFWorkbook workbook = new SXSSFWorkbook(rowWindow);
+      workbook.setCompressTempFiles(true);
+      return workbook;
+    } else {
+      return new HSSFWorkbook();
+    }
+  }
+
+  protected static Type typeOf(Workbook workbook) {
+    if (workbook instanceof SXSSFWorkbook)
+      return Type.SXLSX;
+    else if (workbook instanceof XSSFWorkbook)
+      return Type.XLSX;
+    else
+      return Type.XLS;
+  }
+
+  public Type getType() {
+    return type;
+  }
+
+  /** The max number of rows supported by a sheet of this builder type. */
+  public int getMaxRow() {
+    return Type.XLS.equals(type) ? MAX_ROW : MAX_ROW_XLSX;
+  }
+
   /** {@inheritDoc} */
   @Override
   public Workbook getWorkbook() {
@@ -148,6 +200,10 @@ public class ExcelBuilder implements IExcelBuilder {
     return (XSSFWorkbook) workbook;
   }
 
+  public SXSSFWorkbook getSXSSFWorkbook() {
+    return (SXSSFWorkbook) workbook;
+  }
+
   /* CELL MANAGEMENT */
 
   /** {@inheritDoc} */
@@ -178,9 +234,9 @@ public class ExcelBuilder implements IExcelBuilder {
    * </ul>
    */
   protected boolean validateCellIndex(int row, int column, String content) {
-    if (row >= MAX_ROW) {
+    if (row >= getMaxRow()) {
       String message =
-          "max number of row (" + MAX_ROW + ") exceeded @ " + row + " by '" + content + "'";
+          "max number of row (" + getMaxRow() + ") exceeded @ " + row + " by '" + content + "'";
       if (CRASH_ON_CELL_OVERFLOW)
         throw new IllegalArgumentException(message);
       else
@@ -384,7 +440,10 @@ public class ExcelBuilder implements IExcelBuilder {
   }
 
   public Cell getOrCreateCell(int i, int j) {
-    Sheet sheet = getCurrentSheet();
+    return getOrCreateCell(getCurrentSheet(), i, j);
+  }
+
+  public Cell getOrCreateCell(Sheet sheet, int i, int j) {
     Row row = sheet.getRow(i);
     if (row == null) {
       row = sheet.createRow(i);
@@ -551,6 +610,15 @@ public class ExcelBuilder implements IExcelBuilder {
     fileOut.close();
   }
 
+  /**
+   * Delete the temporary files of a {@link Type#SXLSX} builder. The builder can not be used
+   * anymore afterward. Does nothing for other types.
+   */
+  public void dispose() {
+    if (workbook instanceof SXSSFWorkbook)
+      ((SXSSFWorkbook) workbook).dispose();
+  }
+
   public static Workbook load(String file) throws IOException {
     return load(new File(file));
   }
@@ -1,14 +1,62 @@
 package org.jzy3d.io.xls;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 
 /**
  * Override the default {@link ExcelBuilder} to write over several excel sheet
  * once a cell column exceeds the maximum number of column for excel.
+ *
+ * Alternatively, with {@link #setMultiSheetRows(boolean)}, the builder writes
+ * rows exceeding {@link #getRowsPerSheet()} in continuation sheets named after
+ * the current sheet, e.g. "data (2)", "data (3)", repeating the first
+ * {@link #getHeaderRows()} rows on top of each continuation sheet. Combined
+ * with a {@link ExcelBuilder.Type#SXLSX} workbook, this allows dumping an
+ * unbounded number of rows with a bounded memory.
  */
 public class ExcelBuilderMultiSheet extends ExcelBuilder {
     protected boolean multiSheetMode = false;
 
+    protected boolean multiSheetRows = false;
+    protected int rowsPerSheet = -1;
+    protected int headerRows = 0;
+
+    /**
+     * Header cells of each base sheet, kept to be copied on continuation
+     * sheets. Indices are kept aside as a streaming sheet forgets the index of
+     * flushed rows.
+     */
+    protected Map<Sheet, Map<Cell, int[]>> headers = new HashMap<>();
+
+    public ExcelBuilderMultiSheet() {
+        super();
+    }
+
+    public ExcelBuilderMultiSheet(Type type) {
+        super(type);
+    }
+
+    public ExcelBuilderMultiSheet(Type type, String firstSheetName) {
+        super(type, firstSheetName);
+    }
+
+    public ExcelBuilderMultiSheet(Type type, String firstSheetName,
+            Workbook workbook) {
+        super(type, firstSheetName, workbook);
+    }
+
+    /**
+     * Build a {@link ExcelBuilder.Type#SXLSX} builder keeping at most rowWindow
+     * rows of each sheet in memory.
+     */
+    public ExcelBuilderMultiSheet(String firstSheetName, int rowWindow) {
+        super(firstSheetName, rowWindow);
+    }
+
     public boolean isMultiSheetColumns() {
         return multiSheetMode;
     }
@@ -18,9 +66,68 @@ public class ExcelBuilderMultiSheet extends ExcelBuilder {
      * column id > 255.
      */
     public void setMultiSheetColumns(boolean multiSheetMode) {
+        if (multiSheetMode && multiSheetRows)
+            throw new IllegalStateException(
+                    "can not split both rows and columns on several sheets");
         this.multiSheetMode = multiSheetMode;
     }
 
+    public boolean isMultiSheetRows() {
+        return multiSheetRows;
+    }
+
+    /**
+     * If true, the builder writes rows with id >= {@link #getRowsPerSheet()}
+     * in continuation sheets of the current sheet. Can not be combined with
+     * {@link #setMultiSheetColumns(boolean)}.
+     */
+    public void setMultiSheetRows(boolean multiSheetRows) {
+        if (multiSheetRows && multiSheetMode)
+            throw new IllegalStateException(
+                    "can not split both rows and columns on several sheets");
+        this.multiSheetRows = multiSheetRows;
+    }
+
+    /**
+     * Number of rows of each sheet, including header rows. Default to
+     * {@link #getMaxRow()}.
+     */
+    public int getRowsPerSheet() {
+        return rowsPerSheet > 0 ? rowsPerSheet : getMaxRow();
+    }
+
+    /**
+     * Set the number of rows of each sheet, including header rows, or the
+     * default if rowsPerSheet <= 0.
+     *
+     * @throws IllegalArgumentException if there is no room left for data rows
+     *         below the header rows.
+     */
+    public void setRowsPerSheet(int rowsPerSheet) {
+        if (rowsPerSheet > 0 && rowsPerSheet <= headerRows)
+            throw new IllegalArgumentException("rows per sheet (" + rowsPerSheet
+                    + ") must exceed header rows (" + headerRows + ")");
+        this.rowsPerSheet = rowsPerSheet;
+    }
+
+    public int getHeaderRows() {
+        return headerRows;
+    }
+
+    /**
+     * Number of first rows to repeat on top of each continuation sheet.
+     *
+     * @throws IllegalArgumentException if there is no room left for data rows
+     *         below the header rows.
+     */
+    public void setHeaderRows(int headerRows) {
+        if (headerRows < 0 || headerRows >= getRowsPerSheet())
+            throw new IllegalArgumentException("header rows (" + headerRows
+                    + ") must be positive and below rows per sheet ("
+                    + getRowsPerSheet() + ")");
+        this.headerRows = headerRows;
+    }
+
     @Override
     public Cell getOrCreateCell(int i, int j) {
         if (multiSheetMode)
@@ -28,6 +135,28 @@ public class ExcelBuilderMultiSheet extends ExcelBuilder {
         return super.getOrCreateCell(i, j);
     }
 
+    @Override
+    public Cell getOrCreateCell(Sheet sheet, int i, int j) {
+        if (!multiSheetRows)
+            return super.getOrCreateCell(sheet, i, j);
+
+        if (i < headerRows) {
+            Cell cell = super.getOrCreateCell(sheet, i, j);
+            Map<Cell, int[]> header = headers.get(sheet);
+            if (header == null) {
+                header = new LinkedHashMap<>();
+                headers.put(sheet, header);
+            }
+            header.put(cell, new int[] {i, j});
+            return cell;
+        }
+
+        int dataRows = getRowsPerSheet() - headerRows;
+        int part = (i - headerRows) / dataRows;
+        int row = headerRows + (i - headerRows) % dataRows;
+        return super.getOrCreateCell(getContinuationSheet(sheet, part), row, j);
+    }
+
     /**
      * Only invalidate cells having a too large row id.
      *
@@ -35,9 +164,11 @@ public class ExcelBuilderMultiSheet extends ExcelBuilder {
      */
     @Override
     protected boolean validateCellIndex(int row, int column, String content) {
-        if (multiSheetMode) {
-            if (row >= MAX_ROW) {
-                String message = "max number of row (" + MAX_ROW
+        if (multiSheetRows) {
+            return super.validateCellIndex(0, column, content);
+        } else if (multiSheetMode) {
+            if (row >= getMaxRow()) {
+                String message = "max number of row (" + getMaxRow()
                         + ") exceeded @ " + row + " by '" + content + "'";
                 if (CRASH_ON_CELL_OVERFLOW)
                     throw new IllegalArgumentException(message);
@@ -99,4 +230,51 @@ public class ExcelBuilderMultiSheet extends ExcelBuilder {
         return column;
     }
 
+    /**
+     * Return the continuation sheet of the given base sheet, the base sheet
+     * itself for part 0. If it does not exist, create it and copy the header
+     * rows of the base sheet.
+     */
+    protected Sheet getContinuationSheet(Sheet base, int part) {
+        if (part == 0)
+            return base;
+
+        String suffix = " (" + (part + 1) + ")";
+        String name = base.getSheetName();
+        if (name.length() + suffix.length() > 31)
+            name = name.substring(0, 31 - suffix.length());
+        name += suffix;
+
+        Sheet sheet = getWorkbook().getSheet(name);
+        if (sheet == null) {
+            sheet = newSheet(name);
+            Map<Cell, int[]> header = headers.get(base);
+            if (header != null)
+                for (Map.Entry<Cell, int[]> cell : header.entrySet())
+                    copy(cell.getKey(), super.getOrCreateCell(sheet,
+                            cell.getValue()[0], cell.getValue()[1]));
+        }
+        return sheet;
+    }
+
+    protected void copy(Cell from, Cell to) {
+        switch (from.getCellType()) {
+        case STRING:
+            to.setCellValue(from.getRichStringCellValue());
+            break;
+        case NUMERIC:
+            to.setCellValue(from.getNumericCellValue());
+            break;
+        case BOOLEAN:
+            to.setCellValue(from.getBooleanCellValue());
+            break;
+        case FORMULA:
+            to.setCellFormula(from.getCellFormula());
+            break;
+        default:
+            break;
+        }
+        to.setCellStyle(from.getCellStyle());
+    }
+
 }
@@ -9,17 +9,83 @@ import java.util.Set;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.jzy3d.io.xls.ExcelBuilder;
 import org.jzy3d.io.xls.ExcelBuilder.Type;
+import org.jzy3d.io.xls.ExcelBuilderMultiSheet;
 import org.jzy3d.monitor.IMonitorable;
 import org.jzy3d.monitor.Measure;
 import org.jzy3d.monitor.Monitor;
 
+/**
+ * Dump measures to an XLSX file, with one sheet per {@link IMonitorable}.
+ *
+ * By default, measures are kept in memory until {@link #dump(File)}. A streaming monitor, built
+ * with {@link #MonitorXLS(int)}, rather appends each measure to a streaming workbook as soon as it
+ * is added, so that only a window of rows stays in memory. Sheets exceeding
+ * {@link ExcelBuilder#getMaxRow()} rows continue in a new sheet with the same header. The first
+ * monitorable is written in the first sheet of the workbook if it is still empty. A streaming
+ * monitor can be dumped only once, and its temporary files are deleted by {@link #dispose()}.
+ */
 public class MonitorXLS extends Monitor {
   final static String timestamp = "timestamp";
-  
+
+  protected ExcelBuilderMultiSheet streaming;
+  protected Map<IMonitorable, Columns> streamingColumns = new HashMap<>();
+  protected boolean dumped = false;
+
   public MonitorXLS() {
     super();
   }
 
+  /**
+   * Build a streaming monitor appending measures to a workbook keeping at most rowWindow rows of
+   * each sheet in memory.
+   */
+  public MonitorXLS(int rowWindow) {
+    this(new ExcelBuilderMultiSheet("all", rowWindow));
+  }
+
+  /** Build a streaming monitor appending measures to the given builder. */
+  public MonitorXLS(ExcelBuilderMultiSheet streaming) {
+    super();
+    this.streaming = streaming;
+    this.streaming.setMultiSheetRows(true);
+    this.streaming.setHeaderRows(1);
+  }
+
+  public boolean isStreaming() {
+    return streaming != null;
+  }
+
+  /**
+   * Append the measure to the workbook if streaming, otherwise keep it until dump.
+   *
+   * @throws IllegalStateException if a streaming monitor was already dumped.
+   */
+  @Override
+  public void add(IMonitorable monitorable, Measure observation) {
+    if (streaming == null) {
+      super.add(monitorable, observation);
+      return;
+    }
+    synchronized (this) {
+      if (dumped)
+        throw new IllegalStateException("streaming monitor already dumped");
+
+      Columns columns = streamingColumns.get(monitorable);
+      if (columns == null) {
+        Sheet first = streaming.getWorkbook().getSheetAt(0);
+        if (streamingColumns.isEmpty() && first.getPhysicalNumberOfRows() == 0) {
+          // use the initial empty sheet rather than leaving it empty
+          streaming.getWorkbook().setSheetName(0, monitorable.getLabel());
+          columns = new Columns(streaming, first, observation);
+        } else {
+          columns = new Columns(streaming, monitorable.getLabel(), observation);
+        }
+        streamingColumns.put(monitorable, columns);
+      }
+      columns.write(streaming, observation);
+    }
+  }
+
   @Override
   public void load(File file) throws IOException {
     ExcelBuilder xls = new ExcelBuilder(file.getAbsolutePath());
@@ -35,55 +101,49 @@ public class MonitorXLS extends Monitor {
 
   
   
+  /**
+   * Write all measures to the file.
+   *
+   * Dumping a streaming monitor is terminal : it writes the measures appended so far and completes
+   * the streaming workbook, so that measures can not be added or dumped anymore.
+   *
+   * @throws IllegalStateException if a streaming monitor was already dumped.
+   */
   @Override
   public void dump(File file) throws IOException {
+    if (streaming != null) {
+      synchronized (this) {
+        if (dumped)
+          throw new IllegalStateException("streaming monitor already dumped");
+        dumped = true;
+        streaming.save(file);
+      }
+      return;
+    }
+
     ExcelBuilder xls = new ExcelBuilder(Type.XLSX);
 
 
     for (IMonitorable monitorable : observations.keySet()) {
-      Sheet s = xls.newSheet(monitorable.getLabel());
-      xls.setCurrentSheet(s);
-
       List<Measure> measures = observations.get(monitorable);
 
 
       // -----------------------
       // CASE OF NO MEASURE
       if (measures.size() > 0) {
-        int line = 0;
-
-        //---------------------
-        // HEADER
-        Map<String, Integer> columnToId = new HashMap<>();
-        
-        // timestamp on first column
-        columnToId.put(timestamp, 0);
-        xls.setCell(line, 0, timestamp);
-
-        // all meta dynamically based on first measurement (assume all other have same columns
-        Set<String> columns = measures.get(line).getObservationsOrdered();
-
-        int k = 1;
-        for (String col : columns) {
-          columnToId.put(col, k);
-          xls.setCell(line, k, col);
-          k++;
-        }
-        line++;
+        Columns columns = new Columns(xls, monitorable.getLabel(), measures.get(0));
 
         //---------------------
         // MEASURES
         for (Measure measure : measures) {
-          xls.setCell(line, 0, measure.getTimestamp());
-          for (Map.Entry<String, Object> fact : measure.getEntries()) {
-            xls.setCell(line, columnToId.get(fact.getKey()), fact.getValue().toString());
-          }
-          line++;
+          columns.write(xls, measure);
         }
       } 
       // -----------------------
       // CASE OF NO MEASURE
       else {
+        Sheet s = xls.newSheet(monitorable.getLabel());
+        xls.setCurrentSheet(s);
         xls.setCell(0, 0, "no entry for " + monitorable.getFullname());
       }
 
@@ -93,4 +153,56 @@ public class MonitorXLS extends Monitor {
     xls.save(file);
   }
 
+  /** Delete the temporary files of a streaming monitor, which can not be used anymore. */
+  public synchronized void dispose() {
+    if (streaming != null)
+      streaming.dispose();
+  }
+
+  /**
+   * The sheet of a monitorable and its header, made of the timestamp followed by all observations
+   * of the first measure (assuming all other measures have the same observations).
+   */
+  protected static class Columns {
+    protected Sheet sheet;
+    protected Map<String, Integer> columnToId = new HashMap<>();
+    protected int line = 0;
+
+    protected Columns(ExcelBuilder xls, String label, Measure first) {
+      this(xls, xls.newSheet(label), first);
+    }
+
+    protected Columns(ExcelBuilder xls, Sheet sheet, Measure first) {
+      this.sheet = sheet;
+      xls.setCurrentSheet(sheet);
+
+      // timestamp on first column
+      columnToId.put(timestamp, 0);
+      xls.setCell(line, 0, timestamp);
+
+      // all meta dynamically based on first measurement
+      Set<String> columns = first.getObservationsOrdered();
+
+      int k = 1;
+      for (String col : columns) {
+        columnToId.put(col, k);
+        xls.setCell(line, k, col);
+        k++;
+      }
+      line++;
+    }
+
+    protected void write(ExcelBuilder xls, Measure measure) {
+      if (xls.getCurrentSheet() != sheet)
+        xls.setCurrentSheet(sheet);
+
+      xls.setCell(line, 0, measure.getTimestamp());
+      for (Map.Entry<String, Object> fact : measure.getEntries()) {
+        Integer column = columnToId.get(fact.getKey());
+        if (column != null)
+          xls.setCell(line, column, fact.getValue().toString());
+      }
+      line++;
+    }
+  }
 }
@@ -0,0 +1,127 @@
+package org.jzy3d.io.xls.monitor;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.jzy3d.io.xls.ExcelBuilder;
+import org.jzy3d.io.xls.ExcelBuilderMultiSheet;
+import org.jzy3d.monitor.IMonitorable;
+import org.jzy3d.monitor.Measure;
+import org.jzy3d.monitor.Monitor;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestMonitorXLS {
+  @Test
+  public void streamingMonitorSpillsOnSeveralSheets() throws Exception {
+    ExcelBuilderMultiSheet xls = new ExcelBuilderMultiSheet("all", 10);
+    xls.setRowsPerSheet(100);
+
+    MonitorXLS monitor = new MonitorXLS(xls);
+    IMonitorable monitorable = monitorable("canvas");
+
+    int measures = 250;
+    for (int i = 0; i < measures; i++) {
+      Map<String, Object> observations = new HashMap<>();
+      observations.put("frame", i);
+      observations.put("mili", i / 10.0);
+      monitor.add(monitorable, new Measure(i, observations));
+    }
+    Assert.assertTrue(monitor.getObservations().isEmpty());
+
+    File file = File.createTempFile("monitor", ".xlsx");
+    try {
+      monitor.dump(file);
+      monitor.dispose();
+
+      Workbook workbook = ExcelBuilder.load(file);
+      // the initial sheet is used by the first monitorable
+      Assert.assertEquals(3, workbook.getNumberOfSheets());
+      Assert.assertEquals("canvas", workbook.getSheetAt(0).getSheetName());
+
+      String[] names = {"canvas", "canvas (2)", "canvas (3)"};
+      int[] rows = {100, 100, 250 - 2 * 99 + 1};
+
+      int frame = 0;
+      for (int s = 0; s < names.length; s++) {
+        Sheet sheet = workbook.getSheet(names[s]);
+        Assert.assertNotNull(names[s], sheet);
+        Assert.assertEquals(rows[s], sheet.getLastRowNum() + 1);
+
+        // header is repeated
+        Assert.assertEquals("timestamp", sheet.getRow(0).getCell(0).getStringCellValue());
+        Assert.assertEquals("frame", sheet.getRow(0).getCell(1).getStringCellValue());
+        Assert.assertEquals("mili", sheet.getRow(0).getCell(2).getStringCellValue());
+
+        for (int r = 1; r < rows[s]; r++) {
+          Assert.assertEquals(frame, sheet.getRow(r).getCell(0).getNumericCellValue(), 0);
+          Assert.assertEquals("" + frame, sheet.getRow(r).getCell(1).getStringCellValue());
+          frame++;
+        }
+      }
+      Assert.assertEquals(measures, frame);
+      workbook.close();
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void streamingMonitorRejectsMeasuresAfterDump() throws Exception {
+    MonitorXLS monitor = new MonitorXLS(10);
+    IMonitorable monitorable = monitorable("canvas");
+
+    for (int i = 0; i < 50; i++)
+      monitor.add(monitorable, measure(i));
+
+    File file = File.createTempFile("monitor", ".xlsx");
+    try {
+      monitor.dump(file);
+      try {
+        monitor.add(monitorable, measure(50));
+        Assert.fail();
+      } catch (IllegalStateException e) {
+        // expected
+      }
+
+      Workbook workbook = ExcelBuilder.load(file);
+      Assert.assertEquals(51, workbook.getSheet("canvas").getLastRowNum() + 1);
+      workbook.close();
+    } finally {
+      monitor.dispose();
+      file.delete();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rowsPerSheetMustExceedHeaderRows() {
+    ExcelBuilderMultiSheet xls = new ExcelBuilderMultiSheet("all", 10);
+    xls.setHeaderRows(1);
+    xls.setRowsPerSheet(1);
+  }
+
+  protected static Measure measure(int i) {
+    Map<String, Object> observations = new HashMap<>();
+    observations.put("frame", i);
+    return new Measure(i, observations);
+  }
+
+  protected static IMonitorable monitorable(String label) {
+    return new IMonitorable() {
+      @Override
+      public String getFullname() {
+        return label;
+      }
+
+      @Override
+      public String getLabel() {
+        return label;
+      }
+
+      @Override
+      public void add(Monitor monitor) {}
+    };
+  }
+}
@@ -3,6 +3,7 @@ package org.jzy3d.plot3d.primitives.vbo;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.io.IAsyncGLLoader;
 import org.jzy3d.maths.BoundingBox3d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.painters.IPainter;
@@ -12,7 +13,8 @@ import org.jzy3d.plot3d.primitives.vbo.builders.VBOBuilder;
 import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
 import com.jogamp.opengl.GL2;
 
-public class ShaderMeshVBOBuilder extends VBOBuilder {
+public class ShaderMeshVBOBuilder extends VBOBuilder
+    implements IAsyncGLLoader<DrawableVBO, FloatVBO> {
 
   private float[] x;
   private float[] y;
@@ -28,20 +30,35 @@ public class ShaderMeshVBOBuilder extends VBOBuilder {
   }
 
   public void earlyInitalise(DrawableVBO drawable) {
-    // vbo = initFloatVBO(drawable, true, (y.length-1)*(x.length-1)*4);
-    int size = (y.length - 1) * (x.length - 1);
-    // xyz for quads give 3*4
-    vbo = new FloatVBO(x.length * y.length * 3, size * 6);
-    fillFromArray(drawable, x, y, z, mapper, vbo);
+    prepare();
     drawable.doSetBoundingBox(vbo.getBounds());
   }
 
+  /** Fill the buffers, unless {@link #earlyInitalise(DrawableVBO)} already did. */
   @Override
-  public void load(IPainter painter, DrawableVBO drawable) throws Exception {
+  public synchronized FloatVBO prepare() {
+    if (vbo == null) {
+      // vbo = initFloatVBO(drawable, true, (y.length-1)*(x.length-1)*4);
+      int size = (y.length - 1) * (x.length - 1);
+      // xyz for quads give 3*4
+      FloatVBO filled = new FloatVBO(x.length * y.length * 3, size * 6);
+      fillFromArray(null, x, y, z, mapper, filled);
+      vbo = filled;
+    }
+    return vbo;
+  }
+
+  @Override
+  public void upload(IPainter painter, DrawableVBO drawable, FloatVBO vbo) {
     drawable.setData(((NativeDesktopPainter) painter).getGL(), vbo);
     drawable.setGeometry(GL2.GL_TRIANGLES);
   }
 
+  @Override
+  public void load(IPainter painter, DrawableVBO drawable) throws Exception {
+    upload(painter, drawable, prepare());
+  }
+
   private void fillFromArray(DrawableVBO drawable, float[] x, float[] y, float[] z,
       ColorMapper colors, FloatVBO vbo) {
     FloatBuffer vertices = vbo.getVertices();
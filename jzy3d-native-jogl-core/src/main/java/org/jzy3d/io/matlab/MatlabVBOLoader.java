@@ -1,17 +1,15 @@
 package org.jzy3d.io.matlab;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import org.apache.log4j.Logger;
-import org.jzy3d.io.IGLLoader;
-import org.jzy3d.maths.BoundingBox3d;
-import org.jzy3d.maths.Coord3d;
-import org.jzy3d.maths.Normal;
+import org.jzy3d.io.IAsyncGLLoader;
+import org.jzy3d.io.mesh.MeshBuffers;
+import org.jzy3d.io.mesh.MeshNormals;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.painters.NativeDesktopPainter;
 import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
-import com.jmatio.io.MatFileReader;
-import com.jmatio.types.MLNumericArray;
 
 /**
  * Load a Matlab (TM) .mat file, assuming it contains at least three arrays named "X", "Y" and "Z".
@@ -19,78 +17,123 @@ import com.jmatio.types.MLNumericArray;
  * Will fill buffers used to setup a {@link DrawableVBO} which efficiently load geometries in GPU
  * memory once program starts.
  * 
+ * By default, the file is read lazily when the drawable is mounted. A loader built with
+ * <code>lazy=false</code> starts reading the file in background immediately, so that mounting
+ * only waits for the end of the reading and then uploads the buffers. A {@link DrawableVBO} loading
+ * asynchronously reads the file in background in any case.
+ * 
+ * The buffers can also be obtained with {@link #loadBuffers()}, e.g. to store them in a
+ * {@link org.jzy3d.io.mesh.MeshCache}.
+ * 
+ * Triangles are given flat normals, or smooth normals computed by {@link MeshNormals} out of
+ * triangles sharing the same vertex coordinates if {@link #setSmoothNormals(boolean)} is enabled.
+ * 
  * @author Martin Pernollet
  */
-public class MatlabVBOLoader implements IGLLoader<DrawableVBO> {
+public class MatlabVBOLoader implements IAsyncGLLoader<DrawableVBO, MeshBuffers> {
+  static Logger logger = Logger.getLogger(MatlabVBOLoader.class);
+
   protected String filename;
+  protected MatlabMeshReader reader = new MatlabMeshReader();
+  protected CompletableFuture<MeshBuffers> preloaded;
+  protected boolean smoothNormals = false;
 
   public MatlabVBOLoader(String filename) {
+    this(filename, true);
+  }
+
+  /**
+   * @param lazy if false, start reading the file in background now rather than when the drawable
+   *        is mounted.
+   */
+  public MatlabVBOLoader(String filename, boolean lazy) {
     this.filename = filename;
+    if (!lazy)
+      preload();
   }
 
-  @Override
-  @SuppressWarnings("unchecked")
-  public void load(IPainter painter, DrawableVBO drawable) throws Exception {
-    MatFileReader mfr = new MatFileReader(filename);
-    MLNumericArray<Float> x = (MLNumericArray<Float>) mfr.getMLArray("X");
-    MLNumericArray<Float> y = (MLNumericArray<Float>) mfr.getMLArray("Y");
-    MLNumericArray<Float> z = (MLNumericArray<Float>) mfr.getMLArray("Z");
-
-    int n = x.getN(); // number of triangles
-    int components = 3; // x, y, z
-    int geomsize = 3; // triangle
-
-    // Allocate content
-    FloatBuffer vertices = FloatBuffer.allocate(n * (components * 2) * geomsize); // *2 normals
-    IntBuffer indices = IntBuffer.allocate(n * geomsize);
-    BoundingBox3d bounds = new BoundingBox3d();
-
-    // Feed buffers
-    int size = 0;
-    for (int i = 0; i < n; i++) {
-      Coord3d c1 = new Coord3d(x.getReal(C1, i), y.getReal(C1, i), z.getReal(C1, i));
-      Coord3d c2 = new Coord3d(x.getReal(C2, i), y.getReal(C2, i), z.getReal(C2, i));
-      Coord3d c3 = new Coord3d(x.getReal(C3, i), y.getReal(C3, i), z.getReal(C3, i));
-      Coord3d no = Normal.compute(c1, c2, c3);
-
-      indices.put(size++);
-      vertices.put(c1.x);
-      vertices.put(c1.y);
-      vertices.put(c1.z);
-      vertices.put(no.x);
-      vertices.put(no.y);
-      vertices.put(no.z);
-      bounds.add(c1);
-
-      indices.put(size++);
-      vertices.put(c2.x);
-      vertices.put(c2.y);
-      vertices.put(c2.z);
-      vertices.put(no.x);
-      vertices.put(no.y);
-      vertices.put(no.z);
-      bounds.add(c2);
-
-      indices.put(size++);
-      vertices.put(c3.x);
-      vertices.put(c3.y);
-      vertices.put(c3.z);
-      vertices.put(no.x);
-      vertices.put(no.y);
-      vertices.put(no.z);
-      bounds.add(c3);
+  /** Start reading the file in background, if not already started. */
+  public synchronized void preload() {
+    if (preloaded == null) {
+      preloaded = CompletableFuture.supplyAsync(() -> {
+        try {
+          return read();
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      });
     }
-    vertices.rewind();
-    indices.rewind();
+  }
+
+  /** Read the file, or wait for the end of {@link #preload()}. */
+  @Override
+  public MeshBuffers prepare() throws Exception {
+    return loadBuffers();
+  }
 
+  @Override
+  public void upload(IPainter painter, DrawableVBO drawable, MeshBuffers mesh) throws Exception {
     // Store in GPU
-    drawable.setData(((NativeDesktopPainter) painter).getGL(), indices, vertices, bounds);
+    drawable.setData(((NativeDesktopPainter) painter).getGL(), mesh.getIndices(),
+        mesh.getVertices(), mesh.getBounds());
+
+    // Do not retain buffers once uploaded
+    synchronized (this) {
+      preloaded = null;
+    }
 
-    Logger.getLogger(MatlabVBOLoader.class).info("done loading " + filename);
+    logger.info("done loading " + filename);
   }
 
+  /**
+   * Read the file and return interleaved triangle vertices and normals, with one normal per
+   * triangle. Return the result of {@link #preload()} if it was invoked.
+   */
+  public MeshBuffers loadBuffers() throws IOException {
+    CompletableFuture<MeshBuffers> future;
+    synchronized (this) {
+      future = preloaded;
+    }
+    if (future == null)
+      return read();
+
+    try {
+      return future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while reading " + filename, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException && cause.getCause() instanceof IOException)
+        throw (IOException) cause.getCause();
+      throw new IOException("Failed reading " + filename, cause);
+    }
+  }
 
-  protected static int C1 = 0;
-  protected static int C2 = 1;
-  protected static int C3 = 2;
+  protected MeshBuffers read() throws IOException {
+    MeshBuffers mesh = reader.read(filename);
+    if (smoothNormals)
+      mesh = new MeshNormals().withSharedNormals(mesh, true);
+    return mesh;
+  }
+
+  public boolean isSmoothNormals() {
+    return smoothNormals;
+  }
+
+  /**
+   * Average normals of triangles sharing a vertex, instead of giving each triangle its own normal.
+   * Must be set before the file is read or preloaded.
+   */
+  public void setSmoothNormals(boolean smoothNormals) {
+    this.smoothNormals = smoothNormals;
+  }
+
+  public MatlabMeshReader getReader() {
+    return reader;
+  }
+
+  public void setReader(MatlabMeshReader reader) {
+    this.reader = reader;
+  }
 }
@@ -0,0 +1,109 @@
+package org.jzy3d.io.mesh;
+
+import java.io.File;
+import java.nio.FloatBuffer;
+import java.util.concurrent.Callable;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.IGLLoader;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO2;
+
+/**
+ * Send {@link MeshBuffers} to the GPU through a {@link DrawableVBO2}.
+ *
+ * {@link DrawableVBO2} expects a vertex buffer made of coordinates, optionally followed by a
+ * normal, and a separate color buffer. Vertex buffers having this layout are given as is, which
+ * is the case of meshes written from an OBJ file or a Matlab file. Other layouts are split once in
+ * a vertex buffer and a color buffer.
+ *
+ * @author Martin Pernollet
+ */
+public class MeshVBO2Loader implements IGLLoader<DrawableVBO2> {
+  static Logger logger = Logger.getLogger(MeshVBO2Loader.class);
+
+  protected Callable<MeshBuffers> source;
+
+  public MeshVBO2Loader(MeshBuffers mesh) {
+    this(() -> mesh);
+  }
+
+  /** Load the mesh lazily, once the drawable is mounted. */
+  public MeshVBO2Loader(Callable<MeshBuffers> source) {
+    this.source = source;
+  }
+
+  /** A loader opening a cache file written by {@link MeshCache}. */
+  public static MeshVBO2Loader open(File cache) {
+    return new MeshVBO2Loader(() -> MeshCache.open(cache));
+  }
+
+  /**
+   * A loader opening the cache file if it is up to date with the source file, or invoking the
+   * loader and writing the cache file otherwise.
+   */
+  public static MeshVBO2Loader cached(File source, File cache, Callable<MeshBuffers> loader) {
+    return new MeshVBO2Loader(() -> MeshCache.cached(source, cache, loader));
+  }
+
+  @Override
+  public void load(IPainter painter, DrawableVBO2 drawable) throws Exception {
+    MeshBuffers mesh = source.call();
+    logger.info(mesh);
+
+    FloatBuffer vertices = mesh.getVertices();
+    FloatBuffer colors = null;
+
+    boolean normals = mesh.hasNormals();
+    int size = normals ? 6 : 3;
+
+    boolean sameLayout = mesh.getVertexSize() == size && (!normals || mesh.getNormalOffset() == 3);
+    if (!sameLayout)
+      vertices = extract(mesh, size);
+
+    if (mesh.hasColors()) {
+      colors = extractColors(mesh);
+      drawable.setColorChannels(mesh.getColorChannels());
+    }
+
+    drawable.setHasNormalInVertexArray(normals);
+    drawable.setData(painter, mesh.getIndices(), vertices, null, colors, mesh.getBounds());
+  }
+
+  /** Copy coordinates, and normals if size is 6. */
+  protected FloatBuffer extract(MeshBuffers mesh, int size) {
+    FloatBuffer src = mesh.getVertices();
+    FloatBuffer dst = MeshBuffers.newFloatBuffer(mesh.getVertexCount() * size);
+    int vertexSize = mesh.getVertexSize();
+    int normalOffset = mesh.getNormalOffset();
+
+    for (int i = 0; i < mesh.getVertexCount(); i++) {
+      int v = i * vertexSize;
+      dst.put(src.get(v));
+      dst.put(src.get(v + 1));
+      dst.put(src.get(v + 2));
+      if (size == 6) {
+        dst.put(src.get(v + normalOffset));
+        dst.put(src.get(v + normalOffset + 1));
+        dst.put(src.get(v + normalOffset + 2));
+      }
+    }
+    dst.rewind();
+    return dst;
+  }
+
+  protected FloatBuffer extractColors(MeshBuffers mesh) {
+    FloatBuffer src = mesh.getVertices();
+    int channels = mesh.getColorChannels();
+    FloatBuffer dst = MeshBuffers.newFloatBuffer(mesh.getVertexCount() * channels);
+    int vertexSize = mesh.getVertexSize();
+    int colorOffset = mesh.getColorOffset();
+
+    for (int i = 0; i < mesh.getVertexCount(); i++) {
+      int v = i * vertexSize + colorOffset;
+      for (int c = 0; c < channels; c++)
+        dst.put(src.get(v + c));
+    }
+    dst.rewind();
+    return dst;
+  }
+}
@@ -0,0 +1,155 @@
+package org.jzy3d.io.mesh;
+
+import java.io.File;
+import java.nio.IntBuffer;
+import java.util.concurrent.Callable;
+import org.apache.log4j.Logger;
+import org.jzy3d.io.IAsyncGLLoader;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.painters.NativeDesktopPainter;
+import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+
+/**
+ * Send {@link MeshBuffers} to the GPU through a {@link DrawableVBO}. The interleaved vertex buffer
+ * is given as is, so a mesh opened from a {@link MeshCache} goes from disk to GPU without being
+ * parsed nor copied.
+ *
+ * <pre>
+ * <code>
+ * chart.add(new DrawableVBO(MeshVBOLoader.cached(new File("lidar.ply"), new File("lidar.jzy3d"),
+ *     () -&gt; MeshBuffers.of(new PlyReader().read("lidar.ply")))));
+ * </code>
+ * </pre>
+ *
+ * The mesh is read and optimized by {@link #prepare()}, in background if the drawable loads
+ * asynchronously, then uploaded by {@link #upload(IPainter, DrawableVBO, MeshBuffers)}.
+ *
+ * If the drawable geometry is {@link GL#GL_POINTS} or if the mesh has no index, vertices are drawn
+ * as points.
+ *
+ * Triangles can be reordered for the GPU vertex cache before loading (see
+ * {@link #setOptimize(boolean)} and {@link MeshOptimizer}). Meshes having at most 65536 vertices
+ * are indexed with 16 bits indices unless {@link #setShortIndices(boolean)} disables it.
+ *
+ * @author Martin Pernollet
+ */
+public class MeshVBOLoader implements IAsyncGLLoader<DrawableVBO, MeshBuffers> {
+  protected static Logger logger = Logger.getLogger(MeshVBOLoader.class);
+
+  protected Callable<MeshBuffers> source;
+  protected boolean optimize = false;
+  protected boolean shortIndices = true;
+
+  public MeshVBOLoader(MeshBuffers mesh) {
+    this(() -> mesh);
+  }
+
+  /** Load the mesh lazily, once the drawable is mounted. */
+  public MeshVBOLoader(Callable<MeshBuffers> source) {
+    this.source = source;
+  }
+
+  protected MeshVBOLoader() {}
+
+  /** A loader opening a cache file written by {@link MeshCache}. */
+  public static MeshVBOLoader open(File cache) {
+    return new MeshVBOLoader(() -> MeshCache.open(cache));
+  }
+
+  /**
+   * A loader opening the cache file if it is up to date with the source file, or invoking the
+   * loader and writing the cache file otherwise.
+   */
+  public static MeshVBOLoader cached(File source, File cache, Callable<MeshBuffers> loader) {
+    return new MeshVBOLoader(() -> MeshCache.cached(source, cache, loader));
+  }
+
+  /** Return the mesh to load, invoked when the drawable is mounted. */
+  protected MeshBuffers getMesh() throws Exception {
+    return source.call();
+  }
+
+  /** Read and optimize the mesh, without GL call. */
+  @Override
+  public MeshBuffers prepare() throws Exception {
+    MeshBuffers mesh = getMesh();
+    logger.info(mesh);
+
+    if (optimize && mesh.hasIndices() && mesh.getPrimitive() == Primitive.TRIANGLES)
+      mesh = new MeshOptimizer().optimize(mesh).getMesh();
+    return mesh;
+  }
+
+  @Override
+  public void upload(IPainter painter, DrawableVBO drawable, MeshBuffers mesh) throws Exception {
+    IntBuffer indices = null;
+
+    if (drawable.getGeometry() != GL.GL_POINTS && mesh.hasIndices()) {
+      indices = mesh.getIndices();
+
+      if (mesh.getPrimitive() == Primitive.LINES)
+        drawable.setGeometry(GL.GL_LINES);
+    } else {
+      if (drawable.getGeometry() != GL.GL_POINTS) {
+        logger.warn("Mesh has no index, will draw vertices as points");
+        drawable.setGeometry(GL.GL_POINTS);
+      }
+    }
+
+    int stride = mesh.getVertexSize() * Buffers.SIZEOF_FLOAT;
+
+    // DrawableVBO always enables a normal array, which must remain inside the vertex
+    int normalOffset = 0;
+    if (mesh.hasNormals())
+      normalOffset = mesh.getNormalOffset() * Buffers.SIZEOF_FLOAT;
+    else if (mesh.hasColors())
+      normalOffset = mesh.getColorOffset() * Buffers.SIZEOF_FLOAT;
+
+    // DrawableVBO reads colors right after the coordinates
+    boolean colors = mesh.hasColors() && mesh.getColorOffset() == 3;
+    if (mesh.hasColors() && !colors)
+      logger.warn("Colors at offset " + mesh.getColorOffset() + " are ignored");
+
+    drawable.setHasColorBuffer(colors);
+    if (colors)
+      drawable.setColorChannelNumber(mesh.getColorChannels());
+
+    GL gl = ((NativeDesktopPainter) painter).getGL();
+
+    // points are drawn in order with glDrawArrays rather than through an identity index
+    int size = indices != null ? indices.capacity() : mesh.getVertexCount();
+    drawable.setDrawArrays(indices == null);
+    drawable.doConfigure(0, size, stride, normalOffset, 3);
+    drawable.doLoadArrayFloatBuffer(gl, mesh.getVertexCount() * stride, mesh.getVertices());
+    if (indices != null) {
+      if (shortIndices && mesh.getVertexCount() <= MeshOptimizer.MAX_SHORT_VERTICES)
+        drawable.doLoadElementShortBuffer(gl, MeshOptimizer.toShortIndices(indices));
+      else
+        drawable.doLoadElementIntBuffer(gl, indices);
+    }
+    drawable.doSetBoundingBox(mesh.getBounds());
+  }
+
+  public boolean isOptimize() {
+    return optimize;
+  }
+
+  /** Reorder indexed triangles for the GPU vertex cache before loading them. */
+  public MeshVBOLoader setOptimize(boolean optimize) {
+    this.optimize = optimize;
+    return this;
+  }
+
+  public boolean isShortIndices() {
+    return shortIndices;
+  }
+
+  /** Use 16 bits indices for meshes having at most 65536 vertices (default). */
+  public MeshVBOLoader setShortIndices(boolean shortIndices) {
+    this.shortIndices = shortIndices;
+    return this;
+  }
+}
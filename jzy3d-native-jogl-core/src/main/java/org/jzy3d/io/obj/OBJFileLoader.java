@@ -1,28 +1,60 @@
 package org.jzy3d.io.obj;
 
-import java.nio.FloatBuffer;
-import java.nio.IntBuffer;
 import org.apache.log4j.Logger;
-import org.jzy3d.io.IGLLoader;
-import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.io.IAsyncGLLoader;
+import org.jzy3d.io.mesh.MeshBuffers;
+import org.jzy3d.io.mesh.MeshNormals;
+import org.jzy3d.io.mesh.MeshOptimizer;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.painters.NativeDesktopPainter;
 import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
 import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
 
-public class OBJFileLoader implements IGLLoader<DrawableVBO> {
+/**
+ * Load an OBJ file in a {@link DrawableVBO}.
+ * 
+ * By default, the file is read with the {@link OBJFile} reader. Giving parallel=true to
+ * {@link #OBJFileLoader(String, boolean)} reads it with an {@link OBJFileParallel} instead, which
+ * maps the file in memory and parse it concurrently.
+ * 
+ * Files that do not define normals can be given smooth normals computed by {@link MeshNormals} if
+ * enabled with {@link #setComputeNormals(boolean)}.
+ * 
+ * Triangles and vertices can then be reordered for the GPU vertex cache by {@link MeshOptimizer}
+ * if enabled with {@link #setOptimize(boolean)}, and models having at most 65536 vertices are
+ * indexed with 16 bits indices unless {@link #setShortIndices(boolean)} disables it.
+ * 
+ * Parsing and normal computation occur in {@link #prepare()}, in background if the drawable loads
+ * asynchronously, and only the upload requires the GL thread.
+ */
+public class OBJFileLoader implements IAsyncGLLoader<DrawableVBO, MeshBuffers> {
   static Logger logger = Logger.getLogger(OBJFileLoader.class);
 
   protected String filename;
   protected OBJFile obj;
+  protected boolean parallel;
+  protected boolean computeNormals = false;
+  protected boolean optimize = false;
+  protected boolean shortIndices = true;
 
   public OBJFileLoader(String filename) {
+    this(filename, false);
+  }
+
+  /**
+   * @param filename an URL to the OBJ file, e.g. "file:///home/me/model.obj"
+   * @param parallel use {@link OBJFileParallel} if true, {@link OBJFile} otherwise.
+   */
+  public OBJFileLoader(String filename, boolean parallel) {
     this.filename = filename;
+    this.parallel = parallel;
   }
 
+  /** Parse and compile the file, and compute normals if required, without GL call. */
   @Override
-  public void load(IPainter painter, DrawableVBO drawable) {
-    obj = new OBJFile();
+  public MeshBuffers prepare() {
+    obj = newOBJFile();
 
     logger.info("Start loading OBJ file '" + filename + "'");
     obj.loadModelFromFilename(filename);
@@ -33,23 +65,64 @@ public class OBJFileLoader implements IGLLoader<DrawableVBO> {
     logger.info(obj.getPositionCount() + " vertices");
     logger.info((obj.getIndexCount() / 3) + " triangles");
 
-    int size = obj.getIndexCount();
-    int indexSize = size * Buffers.SIZEOF_INT;
-    int vertexSize = obj.getCompiledVertexCount() * Buffers.SIZEOF_FLOAT;
-    int byteOffset = obj.getCompiledVertexSize() * Buffers.SIZEOF_FLOAT;
-    int normalOffset = obj.getCompiledNormalOffset() * Buffers.SIZEOF_FLOAT;
-    int dimensions = obj.getPositionSize();
+    MeshBuffers mesh = MeshBuffers.of(obj);
+
+    if (computeNormals && !obj.hasNormals()) {
+      logger.info("Start computing normals");
+      mesh = new MeshNormals().withSharedNormals(mesh);
+    }
+
+    if (optimize && mesh.getIndexCount() > 0) {
+      logger.info("Start optimizing mesh");
+      mesh = new MeshOptimizer().optimize(mesh).getMesh();
+    }
+    return mesh;
+  }
+
+  @Override
+  public void upload(IPainter painter, DrawableVBO drawable, MeshBuffers mesh) {
+    GL gl = ((NativeDesktopPainter) painter).getGL();
+    int byteOffset = mesh.getVertexSize() * Buffers.SIZEOF_FLOAT;
+    int normalOffset = mesh.hasNormals() ? mesh.getNormalOffset() * Buffers.SIZEOF_FLOAT : 0;
 
-    int pointer = 0;
+    drawable.doConfigure(0, mesh.getIndexCount(), byteOffset, normalOffset, obj.getPositionSize());
+    drawable.doLoadArrayFloatBuffer(gl, mesh.getVertexCount() * byteOffset, mesh.getVertices());
+    if (shortIndices && mesh.getVertexCount() <= MeshOptimizer.MAX_SHORT_VERTICES)
+      drawable.doLoadElementShortBuffer(gl, MeshOptimizer.toShortIndices(mesh.getIndices()));
+    else
+      drawable.doLoadElementIntBuffer(gl, mesh.getIndices());
+    drawable.doSetBoundingBox(mesh.getBounds());
+  }
+
+  public boolean isComputeNormals() {
+    return computeNormals;
+  }
 
-    FloatBuffer vertices = obj.getCompiledVertices();
-    IntBuffer indices = obj.getCompiledIndices();
-    BoundingBox3d bounds = obj.computeBoundingBox();
+  /** If true, compute smooth normals for files that do not define normals (default false). */
+  public void setComputeNormals(boolean computeNormals) {
+    this.computeNormals = computeNormals;
+  }
+
+  public boolean isOptimize() {
+    return optimize;
+  }
+
+  /** If true, reorder triangles and vertices for the GPU vertex cache (default false). */
+  public void setOptimize(boolean optimize) {
+    this.optimize = optimize;
+  }
+
+  public boolean isShortIndices() {
+    return shortIndices;
+  }
+
+  /** If true (default), use 16 bits indices for models having at most 65536 vertices. */
+  public void setShortIndices(boolean shortIndices) {
+    this.shortIndices = shortIndices;
+  }
 
-    drawable.doConfigure(pointer, size, byteOffset, normalOffset, dimensions);
-    drawable.doLoadArrayFloatBuffer(((NativeDesktopPainter) painter).getGL(), vertexSize, vertices);
-    drawable.doLoadElementIntBuffer(((NativeDesktopPainter) painter).getGL(), indexSize, indices);
-    drawable.doSetBoundingBox(bounds);
+  protected OBJFile newOBJFile() {
+    return parallel ? new OBJFileParallel() : new OBJFile();
   }
 
 }
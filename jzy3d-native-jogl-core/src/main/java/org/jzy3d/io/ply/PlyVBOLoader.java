@@ -0,0 +1,57 @@
+package org.jzy3d.io.ply;
+
+import org.jzy3d.io.mesh.MeshBuffers;
+import org.jzy3d.io.mesh.MeshVBOLoader;
+import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
+import org.jzy3d.plot3d.primitives.vbo.drawable.ScatterVBO;
+import com.jogamp.opengl.GL;
+
+/**
+ * Load a PLY file with a {@link PlyReader} and send its buffers to the GPU.
+ *
+ * The interleaved vertex buffer produced by the reader (positions, colors, normals) is given as is
+ * to the {@link DrawableVBO}, so that points are never converted to objects.
+ *
+ * If the drawable geometry is {@link GL#GL_TRIANGLES} and the file has faces, the triangles are
+ * drawn. Otherwise vertices are drawn as points.
+ *
+ * <pre>
+ * <code>
+ * chart.add(PlyVBOLoader.scatter("lidar.ply"));
+ * chart.add(PlyVBOLoader.mesh("bunny.ply"));
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class PlyVBOLoader extends MeshVBOLoader {
+  protected String filename;
+  protected PlyReader reader;
+
+  public PlyVBOLoader(String filename) {
+    this(filename, new PlyReader());
+  }
+
+  public PlyVBOLoader(String filename, PlyReader reader) {
+    this.filename = filename;
+    this.reader = reader;
+  }
+
+  /** A drawable showing the vertices of a PLY file as points. */
+  public static ScatterVBO scatter(String filename) {
+    PlyReader reader = new PlyReader();
+    reader.setReadFaces(false);
+    return new ScatterVBO(new PlyVBOLoader(filename, reader));
+  }
+
+  /** A drawable showing the faces of a PLY file. */
+  public static DrawableVBO mesh(String filename) {
+    return new DrawableVBO(new PlyVBOLoader(filename));
+  }
+
+  @Override
+  protected MeshBuffers getMesh() throws Exception {
+    logger.info("Start loading PLY file '" + filename + "'");
+    return MeshBuffers.of(reader.read(filename));
+  }
+}
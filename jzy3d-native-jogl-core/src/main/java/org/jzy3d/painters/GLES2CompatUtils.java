@@ -123,6 +123,10 @@ public class GLES2CompatUtils {
 
   }
 
+  public static void glDrawArrays(int geometry, int first, int count) {
+    gl2es1.glDrawArrays(geometry, first, count);
+  }
+
   public static void glGetDoublev(int glProjectionMatrix, double[] projection, int i) {
     // pmvMatrix handles only floats
 
@@ -257,6 +257,7 @@ public class NativeDesktopPainter extends AbstractPainter implements IPainter {
 
   @Override
   public void glBegin(int type) {
+    countGLBegin++;
     gl.getGL2().glBegin(type);
   }
 
@@ -272,11 +273,13 @@ public class NativeDesktopPainter extends AbstractPainter implements IPainter {
 
   @Override
   public void glVertex3f(float x, float y, float z) {
+    countVertices++;
     gl.getGL2().glVertex3f(x, y, z);
   }
 
   @Override
   public void glVertex3d(double x, double y, double z) {
+    countVertices++;
     gl.getGL2().glVertex3d(x, y, z);
   }
 
@@ -0,0 +1,158 @@
+package org.jzy3d.plot3d.primitives.vbo.buffers;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+
+/**
+ * Track the ranges of a CPU side buffer that were modified since they were last uploaded to the
+ * GPU, so that only these ranges are uploaded with <code>glBufferSubData</code>.
+ *
+ * Ranges are given in buffer elements (e.g. floats of a {@link java.nio.FloatBuffer}) as
+ * <code>[from, to[</code>. Overlapping and contiguous ranges are merged, and when more than
+ * {@link #getMaxRanges()} ranges are tracked, the two ranges having the smallest gap are merged,
+ * so that the number of upload calls remains bounded.
+ *
+ * @author Martin Pernollet
+ */
+public class DirtyRanges {
+  public static final int DEFAULT_MAX_RANGES = 16;
+
+  /** Sorted, disjoint and not contiguous ranges, each as {from, to}. */
+  protected List<int[]> ranges = new ArrayList<>();
+  protected int maxRanges;
+
+  public DirtyRanges() {
+    this(DEFAULT_MAX_RANGES);
+  }
+
+  public DirtyRanges(int maxRanges) {
+    this.maxRanges = Math.max(1, maxRanges);
+  }
+
+  /** Mark elements from (inclusive) to (exclusive) as modified. */
+  public synchronized void add(int from, int to) {
+    if (from < 0 || to < from)
+      throw new IllegalArgumentException("Invalid range [" + from + ", " + to + "[");
+    if (from == to)
+      return;
+
+    // first range that ends at or after from, i.e. that may be merged with the new range
+    int i = 0;
+    while (i < ranges.size() && ranges.get(i)[1] < from)
+      i++;
+
+    // merge all ranges that overlap or touch the new range
+    int[] merged = {from, to};
+    while (i < ranges.size() && ranges.get(i)[0] <= to) {
+      int[] r = ranges.remove(i);
+      merged[0] = Math.min(merged[0], r[0]);
+      merged[1] = Math.max(merged[1], r[1]);
+    }
+    ranges.add(i, merged);
+
+    while (ranges.size() > maxRanges)
+      mergeSmallestGap();
+  }
+
+  protected void mergeSmallestGap() {
+    int best = 0;
+    int bestGap = Integer.MAX_VALUE;
+    for (int i = 0; i < ranges.size() - 1; i++) {
+      int gap = ranges.get(i + 1)[0] - ranges.get(i)[1];
+      if (gap < bestGap) {
+        bestGap = gap;
+        best = i;
+      }
+    }
+    int[] next = ranges.remove(best + 1);
+    ranges.get(best)[1] = next[1];
+  }
+
+  /** Mark elements from 0 (inclusive) to length (exclusive) as modified. */
+  public void addAll(int length) {
+    add(0, length);
+  }
+
+  public synchronized boolean isEmpty() {
+    return ranges.isEmpty();
+  }
+
+  /** Return true if elements from 0 to length are all marked as modified. */
+  public synchronized boolean covers(int length) {
+    return ranges.size() == 1 && ranges.get(0)[0] == 0 && ranges.get(0)[1] >= length;
+  }
+
+  /** Return a copy of the tracked ranges, sorted, each as {from, to}. */
+  public synchronized List<int[]> getRanges() {
+    List<int[]> copy = new ArrayList<>(ranges.size());
+    for (int[] r : ranges)
+      copy.add(r.clone());
+    return copy;
+  }
+
+  /** Return the tracked ranges and stop tracking them, typically once they are uploaded. */
+  public synchronized List<int[]> poll() {
+    List<int[]> polled = ranges;
+    ranges = new ArrayList<>();
+    return polled;
+  }
+
+  /**
+   * Upload the modified ranges of the buffer to the GPU buffer object currently bound to target,
+   * and stop tracking them. If the whole buffer is modified, the buffer object storage is
+   * reallocated with <code>glBufferData</code> and the given usage hint, which lets the driver
+   * avoid waiting for the GPU to release the previous storage.
+   *
+   * @return the number of uploaded bytes.
+   */
+  public long upload(GL gl, int target, FloatBuffer buffer, int usage) {
+    int length = buffer.capacity();
+    List<int[]> polled = poll();
+
+    if (polled.size() == 1 && polled.get(0)[0] == 0 && polled.get(0)[1] >= length) {
+      FloatBuffer all = buffer.duplicate();
+      all.rewind();
+      gl.glBufferData(target, (long) length * Buffers.SIZEOF_FLOAT, all, usage);
+      return (long) length * Buffers.SIZEOF_FLOAT;
+    }
+
+    long bytes = 0;
+    for (int[] r : polled) {
+      int to = Math.min(r[1], length);
+      if (r[0] >= to)
+        continue;
+      FloatBuffer range = buffer.duplicate();
+      range.limit(to);
+      range.position(r[0]);
+      gl.glBufferSubData(target, (long) r[0] * Buffers.SIZEOF_FLOAT,
+          (long) (to - r[0]) * Buffers.SIZEOF_FLOAT, range);
+      bytes += (long) (to - r[0]) * Buffers.SIZEOF_FLOAT;
+    }
+    return bytes;
+  }
+
+  /** Total number of elements marked as modified. */
+  public synchronized int getLength() {
+    int length = 0;
+    for (int[] r : ranges)
+      length += r[1] - r[0];
+    return length;
+  }
+
+  public synchronized void clear() {
+    ranges.clear();
+  }
+
+  public int getMaxRanges() {
+    return maxRanges;
+  }
+
+  public synchronized void setMaxRanges(int maxRanges) {
+    this.maxRanges = Math.max(1, maxRanges);
+    while (ranges.size() > this.maxRanges)
+      mergeSmallestGap();
+  }
+}
@@ -0,0 +1,205 @@
+package org.jzy3d.plot3d.primitives.vbo.buffers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Coord3d;
+
+/**
+ * A fixed capacity ring of colored points, filled by any number of producer threads and read by a
+ * single consumer, typically the rendering thread uploading points to a GPU buffer of same layout.
+ *
+ * Each point is stored as {@link #STRIDE} floats <code>x, y, z, r, g, b, a</code>. Producers never
+ * lock : each appended point gets a sequence number from an atomic counter, is written at slot
+ * <code>sequence % capacity</code> and is then published. The consumer {@link #poll()}s the slots
+ * published since the previous poll, as at most two contiguous slot ranges, and draws the last
+ * <code>capacity</code> points with at most two contiguous ranges given by
+ * {@link #getDrawRanges()}. When producers append more than <code>capacity</code> points between
+ * two polls, the oldest ones are never seen by the consumer.
+ *
+ * This class does not require a GL context.
+ *
+ * @author Martin Pernollet
+ */
+public class PointRing {
+  /** Number of floats per point. */
+  public static final int STRIDE = 7;
+  /** Index of the red component in a point. */
+  public static final int COLOR_OFFSET = 3;
+
+  protected final int capacity;
+  protected final float[] data;
+
+  /** Number of points claimed by producers. */
+  protected final AtomicLong claimed = new AtomicLong();
+  /** Sequence number of the last point written in each slot, or -1. */
+  protected final AtomicLongArray published;
+
+  /** Number of points polled by the consumer. */
+  protected long polled = 0;
+  protected BoundingBox3d bounds = new BoundingBox3d();
+
+  public PointRing(int capacity) {
+    if (capacity <= 0)
+      throw new IllegalArgumentException("Capacity must be positive : " + capacity);
+    this.capacity = capacity;
+    this.data = new float[capacity * STRIDE];
+    this.published = new AtomicLongArray(capacity);
+    for (int i = 0; i < capacity; i++)
+      published.set(i, -1);
+  }
+
+  /* ***************************************************************** */
+  /* *************************** PRODUCERS *************************** */
+  /* ***************************************************************** */
+
+  /** Append a point, from any thread, and return its sequence number. */
+  public long append(float x, float y, float z, float r, float g, float b, float a) {
+    long sequence = claimed.getAndIncrement();
+    int slot = slot(sequence);
+    int o = slot * STRIDE;
+    data[o] = x;
+    data[o + 1] = y;
+    data[o + 2] = z;
+    data[o + 3] = r;
+    data[o + 4] = g;
+    data[o + 5] = b;
+    data[o + 6] = a;
+    published.set(slot, sequence); // volatile write publishes the above
+    return sequence;
+  }
+
+  public long append(float x, float y, float z, Color c) {
+    return append(x, y, z, c.r, c.g, c.b, c.a);
+  }
+
+  /* ***************************************************************** */
+  /* **************************** CONSUMER *************************** */
+  /* ***************************************************************** */
+
+  /**
+   * Return the slot ranges written since the previous poll, as at most two {from, to} ranges, and
+   * grow bounds to contain their points. Must be invoked by a single consumer thread.
+   */
+  public synchronized List<int[]> poll() {
+    long end = claimed.get();
+
+    // points older than capacity are overwritten, or being overwritten
+    long from = Math.max(polled, end - capacity);
+
+    // stop at the first point claimed but not written yet
+    long to = from;
+    while (to < end && published.get(slot(to)) >= to)
+      to++;
+
+    List<int[]> ranges = slotRanges(from, to);
+    for (int[] r : ranges)
+      for (int slot = r[0]; slot < r[1]; slot++)
+        bounds.add(data[slot * STRIDE], data[slot * STRIDE + 1], data[slot * STRIDE + 2]);
+
+    polled = to;
+    return ranges;
+  }
+
+  /**
+   * Return the slot ranges holding the points polled so far, at most <code>capacity</code> and at
+   * most two {from, to} ranges, oldest points first.
+   */
+  public synchronized List<int[]> getDrawRanges() {
+    return slotRanges(Math.max(0, polled - capacity), polled);
+  }
+
+  /** Return the slots of sequence numbers from (inclusive) to (exclusive) as up to two ranges. */
+  protected List<int[]> slotRanges(long from, long to) {
+    List<int[]> ranges = new ArrayList<>(2);
+    if (to <= from)
+      return ranges;
+    if (to - from >= capacity) {
+      int head = slot(to);
+      ranges.add(new int[] {head, capacity});
+      if (head > 0)
+        ranges.add(new int[] {0, head});
+      return ranges;
+    }
+    int start = slot(from);
+    int stop = slot(to);
+    if (start < stop) {
+      ranges.add(new int[] {start, stop});
+    } else {
+      ranges.add(new int[] {start, capacity});
+      if (stop > 0)
+        ranges.add(new int[] {0, stop});
+    }
+    return ranges;
+  }
+
+  protected int slot(long sequence) {
+    return (int) (sequence % capacity);
+  }
+
+  /**
+   * Recompute colors of polled points with the mapper, e.g. after changing its range. Must be
+   * invoked by the consumer thread.
+   */
+  public synchronized void recolor(ColorMapper mapper) {
+    Coord3d c = new Coord3d();
+    for (int[] r : getDrawRanges()) {
+      for (int slot = r[0]; slot < r[1]; slot++) {
+        int o = slot * STRIDE;
+        c.set(data[o], data[o + 1], data[o + 2]);
+        Color color = mapper.getColor(c);
+        data[o + 3] = color.r;
+        data[o + 4] = color.g;
+        data[o + 5] = color.b;
+        data[o + 6] = color.a;
+      }
+    }
+  }
+
+  /**
+   * Bounds of points polled so far, which grow with new points but do not shrink when old points
+   * are overwritten, which requires invoking {@link #updateBounds()}.
+   */
+  public synchronized BoundingBox3d getBounds() {
+    return bounds;
+  }
+
+  /** Recompute bounds of the polled points that are still in the ring. */
+  public synchronized BoundingBox3d updateBounds() {
+    bounds = new BoundingBox3d();
+    for (int[] r : getDrawRanges())
+      for (int slot = r[0]; slot < r[1]; slot++)
+        bounds.add(data[slot * STRIDE], data[slot * STRIDE + 1], data[slot * STRIDE + 2]);
+    return bounds;
+  }
+
+  /* ***************************************************************** */
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  /** Number of points appended since creation, including points not written yet. */
+  public long getAppended() {
+    return claimed.get();
+  }
+
+  /** Number of points polled since creation. */
+  public synchronized long getPolled() {
+    return polled;
+  }
+
+  /** Number of points that can be drawn, at most the capacity. */
+  public synchronized int size() {
+    return (int) Math.min(polled, capacity);
+  }
+
+  /** The interleaved point data, written concurrently by producers. */
+  public float[] getData() {
+    return data;
+  }
+}
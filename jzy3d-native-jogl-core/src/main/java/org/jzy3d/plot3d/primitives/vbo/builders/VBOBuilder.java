@@ -11,8 +11,10 @@ import org.jzy3d.io.IGLLoader;
 import org.jzy3d.maths.BoundingBox3d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.plot3d.primitives.vbo.buffers.FloatVBO;
+import org.jzy3d.plot3d.primitives.vbo.drawable.ChunkedVBO;
 import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
 import org.jzy3d.plot3d.rendering.canvas.Quality;
+import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL;
 
 /**
@@ -172,7 +174,11 @@ public abstract class VBOBuilder implements IGLLoader<DrawableVBO> {
 
   private int computeIndexBufferSize(int n, int geometrySize, boolean hasColor) {
     // if(hasColor)
-    return n * geometrySize;
+    long size = (long) n * geometrySize;
+    if (size > Integer.MAX_VALUE / Buffers.SIZEOF_INT)
+      throw new IllegalArgumentException(
+          n + " geometries need more indices than a single index buffer can hold");
+    return (int) size;
   }
 
   protected int geometryTypeToMultiplier(int geometrySize) {
@@ -217,8 +223,24 @@ public abstract class VBOBuilder implements IGLLoader<DrawableVBO> {
   }
 
   /* */
+
+  /**
+   * Number of floats of the vertex buffer, computed with long arithmetic.
+   *
+   * @throws IllegalArgumentException if the buffer byte size does not fit an int, in which case
+   *         the geometries should be split in several buffers with a {@link ChunkedVBO}.
+   */
   protected int computeVerticeBufferSize(int type, int n, int dim, int geometrySize,
       boolean hasNormal, boolean hasColor) {
+    long size = computeVerticeBufferSizeLong(type, n, dim, geometrySize, hasNormal, hasColor);
+    if (size > Integer.MAX_VALUE / Buffers.SIZEOF_FLOAT)
+      throw new IllegalArgumentException(n + " geometries need " + size * Buffers.SIZEOF_FLOAT
+          + " bytes, more than a single vertex buffer can hold : use a ChunkedVBO");
+    return (int) size;
+  }
+
+  protected long computeVerticeBufferSizeLong(int type, long n, int dim, int geometrySize,
+      boolean hasNormal, boolean hasColor) {
     if (type == GL.GL_LINES) {
       if (hasColor) {
         return n * (dim * 2 * 2) * geometrySize;// *2 points for lines,
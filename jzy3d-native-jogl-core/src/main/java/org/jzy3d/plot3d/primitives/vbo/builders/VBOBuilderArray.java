@@ -0,0 +1,76 @@
+package org.jzy3d.plot3d.primitives.vbo.builders;
+
+import java.nio.FloatBuffer;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.io.IGLLoader;
+import org.jzy3d.io.mesh.MeshBuffers;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.io.mesh.MeshBuffersBuilder;
+import org.jzy3d.io.mesh.MeshVBOLoader;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
+
+/**
+ * A loader filling a Vertex Buffer Object straight from a <code>float[]</code>,
+ * <code>double[]</code> or {@link FloatBuffer} once GL initialization stage requires it to be
+ * loaded, without building a collection of coordinates as {@link VBOBuilderListCoord3d} does.
+ *
+ * The source holds <code>stride</code> values per vertex, the first <code>dimensions</code> being
+ * coordinates. If a colormapper is given, each vertex is followed by its color. The vertex buffer
+ * is a direct buffer filled by several threads for large sources (see {@link MeshBuffersBuilder}).
+ *
+ * <pre>
+ * <code>
+ * ScatterVBO scatter = new ScatterVBO(new VBOBuilderArray(xyzm, 4, 3, mapper));
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class VBOBuilderArray extends VBOBuilder implements IGLLoader<DrawableVBO> {
+  protected MeshBuffersBuilder builder;
+
+  public VBOBuilderArray(float[] points, int stride, int dimensions) {
+    this(new MeshBuffersBuilder(points, stride, dimensions));
+  }
+
+  public VBOBuilderArray(float[] points, int stride, int dimensions, ColorMapper coloring) {
+    this(new MeshBuffersBuilder(points, stride, dimensions).setColorMapper(coloring));
+  }
+
+  public VBOBuilderArray(double[] points, int stride, int dimensions) {
+    this(new MeshBuffersBuilder(points, stride, dimensions));
+  }
+
+  public VBOBuilderArray(double[] points, int stride, int dimensions, ColorMapper coloring) {
+    this(new MeshBuffersBuilder(points, stride, dimensions).setColorMapper(coloring));
+  }
+
+  public VBOBuilderArray(FloatBuffer points, int stride, int dimensions) {
+    this(new MeshBuffersBuilder(points, stride, dimensions));
+  }
+
+  public VBOBuilderArray(FloatBuffer points, int stride, int dimensions, ColorMapper coloring) {
+    this(new MeshBuffersBuilder(points, stride, dimensions).setColorMapper(coloring));
+  }
+
+  public VBOBuilderArray(MeshBuffersBuilder builder) {
+    this.builder = builder;
+  }
+
+  /** Draw triangles made of the vertices referenced by the elements. */
+  public VBOBuilderArray setTriangles(int[] elements) {
+    builder.setElements(elements, Primitive.TRIANGLES);
+    return this;
+  }
+
+  @Override
+  public void load(IPainter painter, DrawableVBO drawable) throws Exception {
+    MeshBuffers mesh = builder.build();
+    new MeshVBOLoader(mesh).load(painter, drawable);
+  }
+
+  public MeshBuffersBuilder getBuilder() {
+    return builder;
+  }
+}
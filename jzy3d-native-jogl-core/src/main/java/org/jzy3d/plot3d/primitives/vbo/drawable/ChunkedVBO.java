@@ -0,0 +1,253 @@
+package org.jzy3d.plot3d.primitives.vbo.drawable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.apache.log4j.Logger;
+import org.jzy3d.colors.Color;
+import org.jzy3d.io.mesh.MeshBuffers;
+import org.jzy3d.io.mesh.MeshBuffers.Primitive;
+import org.jzy3d.io.mesh.MeshChunker;
+import org.jzy3d.io.mesh.MeshVBOLoader;
+import org.jzy3d.maths.BoundingBox3d;
+import org.jzy3d.maths.Frustum;
+import org.jzy3d.monitor.FrameTelemetry.Counter;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.plot3d.primitives.Drawable;
+import org.jzy3d.plot3d.primitives.IGLBindedResource;
+import org.jzy3d.plot3d.rendering.canvas.ICanvas;
+import org.jzy3d.plot3d.rendering.view.View;
+import org.jzy3d.plot3d.transform.Transform;
+import com.jogamp.opengl.GL;
+
+/**
+ * Draw a mesh too large for a single vertex buffer as a group of {@link DrawableVBO} chunks, each
+ * having its own vertex and index buffers (see {@link MeshChunker}).
+ *
+ * <ul>
+ * <li>Chunks out of the view frustum are not drawn (see {@link #setCulling(boolean)}).
+ * <li>Chunks are mounted progressively, a few chunks per frame, visible chunks first, so that
+ * loading a huge mesh does not freeze the UI. A repaint is requested until all chunks are mounted.
+ * </ul>
+ *
+ * <pre>
+ * <code>
+ * ChunkedVBO terrain = new ChunkedVBO(MeshBuffers.of(new PlyReader().read("terrain.ply")));
+ * terrain.setColor(Color.GRAY);
+ * chart.add(terrain);
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class ChunkedVBO extends Drawable implements IGLBindedResource {
+  static Logger logger = Logger.getLogger(ChunkedVBO.class);
+
+  public static final int DEFAULT_CHUNKS_PER_FRAME = 4;
+
+  protected List<DrawableVBO> chunks = new ArrayList<>();
+  protected List<BoundingBox3d> chunkBounds = new ArrayList<>();
+
+  protected int chunksPerFrame = DEFAULT_CHUNKS_PER_FRAME;
+  protected boolean culling = true;
+  protected boolean repaintWhileMounting = true;
+  protected boolean hasMountedOnce = false;
+
+  protected int mounted = 0;
+  protected int drawn = 0;
+
+  /**
+   * Split the mesh in chunks of at most 65536 vertices. A single {@link MeshBuffers} can not hold
+   * more than 2 GB of vertices nor 2 GB of indices (see {@link MeshChunker}). Larger meshes must be
+   * read in several parts, chunked separately, and given to {@link #ChunkedVBO(List)}.
+   */
+  public ChunkedVBO(MeshBuffers mesh) {
+    this(new MeshChunker().chunk(mesh));
+  }
+
+  public ChunkedVBO(List<MeshBuffers> meshes) {
+    bbox = new BoundingBox3d();
+    for (MeshBuffers mesh : meshes) {
+      DrawableVBO chunk = new DrawableVBO(new MeshVBOLoader(mesh));
+      // chunks are already in memory, only their upload is spread over frames
+      chunk.setAsyncLoading(false);
+      if (mesh.getPrimitive() == Primitive.POINTS || !mesh.hasIndices())
+        chunk.setGeometry(GL.GL_POINTS);
+      chunks.add(chunk);
+      chunkBounds.add(mesh.getBounds());
+      bbox.add(mesh.getBounds());
+    }
+  }
+
+  /* ***************************************************************** */
+
+  /** Mount the first chunks, others being mounted while rendering. */
+  @Override
+  public void mount(IPainter painter) {
+    mountNext(painter, null);
+    hasMountedOnce = true;
+  }
+
+  @Override
+  public boolean hasMountedOnce() {
+    return hasMountedOnce;
+  }
+
+  /**
+   * Mount at most {@link #getChunksPerFrame()} chunks, visible ones first, and request a repaint
+   * if some remain.
+   */
+  protected void mountNext(IPainter painter, Frustum frustum) {
+    if (mounted == chunks.size())
+      return;
+
+    int budget = chunksPerFrame;
+    for (int pass = 0; pass < 2 && budget > 0; pass++) {
+      for (int i = 0; i < chunks.size() && budget > 0; i++) {
+        DrawableVBO chunk = chunks.get(i);
+        if (chunk.hasMountedOnce())
+          continue;
+        if (pass == 0 && frustum != null && !frustum.intersects(chunkBounds.get(i)))
+          continue;
+
+        chunk.mount(painter);
+        chunkBounds.set(i, chunk.getBounds());
+        mounted++;
+        budget--;
+      }
+    }
+
+    if (mounted < chunks.size() && repaintWhileMounting) {
+      ICanvas canvas = painter.getCanvas();
+      if (canvas != null)
+        CompletableFuture.runAsync(canvas::forceRepaint);
+    }
+  }
+
+  @Override
+  public void draw(IPainter painter) {
+    if (!hasMountedOnce)
+      return;
+
+    Frustum frustum = null;
+    if (culling) {
+      doTransform(painter);
+      frustum = new Frustum(painter.getProjectionAsFloat(), painter.getModelViewAsFloat());
+    }
+
+    mountNext(painter, frustum);
+
+    drawn = 0;
+    int culled = 0;
+    for (int i = 0; i < chunks.size(); i++) {
+      DrawableVBO chunk = chunks.get(i);
+      if (!chunk.hasMountedOnce())
+        continue;
+      if (frustum != null && !frustum.intersects(chunkBounds.get(i))) {
+        culled++;
+        continue;
+      }
+      chunk.draw(painter);
+      drawn++;
+    }
+
+    View view = painter.getView();
+    if (view != null)
+      view.getTelemetry().count(Counter.CULLED, culled);
+
+    doDrawBoundsIfDisplayed(painter);
+  }
+
+  /* ***************************************************************** */
+
+  /** Only applies once all chunks are mounted, since vertices are then held by chunks. */
+  @Override
+  public void applyGeometryTransform(Transform transform) {
+    if (mounted < chunks.size()) {
+      logger.warn("not mounted yet");
+      return;
+    }
+    for (DrawableVBO chunk : chunks)
+      chunk.applyGeometryTransform(transform);
+    updateBounds();
+  }
+
+  @Override
+  public void updateBounds() {
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (int i = 0; i < chunks.size(); i++) {
+      DrawableVBO chunk = chunks.get(i);
+      if (chunk.hasMountedOnce())
+        chunkBounds.set(i, chunk.getBounds());
+      bounds.add(chunkBounds.get(i));
+    }
+    bbox = bounds;
+  }
+
+  @Override
+  public void setTransform(Transform transform) {
+    for (DrawableVBO chunk : chunks)
+      chunk.setTransform(transform);
+    super.setTransform(transform);
+  }
+
+  @Override
+  public void setTransformBefore(Transform transformBefore) {
+    for (DrawableVBO chunk : chunks)
+      chunk.setTransformBefore(transformBefore);
+    super.setTransformBefore(transformBefore);
+  }
+
+  public void setColor(Color color) {
+    for (DrawableVBO chunk : chunks)
+      chunk.setColor(color);
+  }
+
+  public void setWidth(float width) {
+    for (DrawableVBO chunk : chunks)
+      chunk.setWidth(width);
+  }
+
+  /* ***************************************************************** */
+
+  public List<DrawableVBO> getChunks() {
+    return chunks;
+  }
+
+  /** Number of chunks mounted so far. */
+  public int getMountedCount() {
+    return mounted;
+  }
+
+  /** Number of chunks drawn at the last rendering, i.e. mounted and not culled. */
+  public int getDrawnCount() {
+    return drawn;
+  }
+
+  public int getChunksPerFrame() {
+    return chunksPerFrame;
+  }
+
+  /** Number of chunks mounted at each rendering until all are mounted. */
+  public void setChunksPerFrame(int chunksPerFrame) {
+    this.chunksPerFrame = Math.max(1, chunksPerFrame);
+  }
+
+  public boolean isCulling() {
+    return culling;
+  }
+
+  /** Skip chunks out of the view frustum, true by default. */
+  public void setCulling(boolean culling) {
+    this.culling = culling;
+  }
+
+  public boolean isRepaintWhileMounting() {
+    return repaintWhileMounting;
+  }
+
+  /** Request a repaint after each rendering that leaves chunks to mount, true by default. */
+  public void setRepaintWhileMounting(boolean repaintWhileMounting) {
+    this.repaintWhileMounting = repaintWhileMounting;
+  }
+}
@@ -2,18 +2,29 @@ package org.jzy3d.plot3d.primitives.vbo.drawable;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import org.apache.log4j.Logger;
 import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.io.IAsyncGLLoader;
 import org.jzy3d.io.IGLLoader;
+import org.jzy3d.io.mesh.MeshOptimizer;
 import org.jzy3d.maths.BoundingBox3d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.painters.GLES2CompatUtils;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.painters.NativeDesktopPainter;
 import org.jzy3d.plot3d.primitives.Drawable;
-import org.jzy3d.plot3d.primitives.IGLBindedResource;
+import org.jzy3d.plot3d.primitives.IAsyncGLBindedResource;
+import org.jzy3d.plot3d.primitives.Parallelepiped;
 import org.jzy3d.plot3d.primitives.PolygonMode;
+import org.jzy3d.plot3d.primitives.vbo.buffers.DirtyRanges;
 import org.jzy3d.plot3d.primitives.vbo.buffers.FloatVBO;
+import org.jzy3d.plot3d.rendering.canvas.ICanvas;
 import org.jzy3d.plot3d.rendering.canvas.Quality;
 import org.jzy3d.plot3d.transform.Rotate;
 import org.jzy3d.plot3d.transform.Rotator;
@@ -39,9 +50,23 @@ import com.jogamp.opengl.fixedfunc.GLPointerFunc;
  * DrawableVBO shape1 = new DrawableVBO(new MemoryVBOLoader(getScatter(size)));
  * shape1.setGeometry(GL.GL_POINTS); shape1.setColor(Color.WHITE);
  * 
+ * Once mounted, vertices and colors can be edited with {@link #setVertex(int, float, float, float)},
+ * {@link #setVertexColor(int, Color)} or {@link #updateColors(ColorMapper)}. Only the modified
+ * ranges of the buffers are uploaded to the GPU at the next rendering, and colors held by a separate
+ * color buffer (see {@link #setColors(FloatBuffer)}) are uploaded without uploading vertices. A VBO
+ * edited often should be given a {@link #setUsage(int)} hint. Editing vertices requires the CPU side
+ * vertex buffer, which is only kept after upload with a usage other than GL_STATIC_DRAW or if
+ * enabled with {@link #setKeepVertices(boolean)}, and released otherwise to save memory.
+ * 
+ * If asynchronous loading is enabled (see {@link #setAsyncLoading(boolean)}), a loader implementing
+ * {@link IAsyncGLLoader} prepares its data in background when the drawable is mounted, so that
+ * parsing a large file does not block rendering. Meanwhile the drawable shows its bounds if they
+ * are known, and the data is uploaded at the first rendering once prepared (see
+ * {@link #whenReady()}).
+ * 
  * @author Martin Pernollet
  */
-public class DrawableVBO extends Drawable implements IGLBindedResource {
+public class DrawableVBO extends Drawable implements IAsyncGLBindedResource {
   protected int geometry = GL.GL_TRIANGLES;
   protected float width = 1;
   protected Quality quality = Quality.Nicest();
@@ -60,25 +85,142 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
     return hasMountedOnce;
   }
 
+  /**
+   * Load the VBO. If the loader is an {@link IAsyncGLLoader} and asynchronous loading is enabled,
+   * only start preparing data in background, the upload occurring at the first rendering following
+   * the preparation.
+   */
   @Override
   public void mount(IPainter painter) {
+    if (asyncLoading && loader instanceof IAsyncGLLoader) {
+      mountAsync(painter);
+      return;
+    }
     try {
       loader.load(painter, this);
       hasMountedOnce = true;
+      ready.complete(null);
     } catch (Exception e) {
       e.printStackTrace();
       Logger.getLogger(DrawableVBO.class).error(e, e);
+      ready.completeExceptionally(e);
+    }
+  }
+
+  protected synchronized void mountAsync(IPainter painter) {
+    if (prepared != null) {
+      if (prepared.isDone())
+        doUploadPrepared(painter);
+      return;
+    }
+
+    IAsyncGLLoader<DrawableVBO, ?> asyncLoader = (IAsyncGLLoader<DrawableVBO, ?>) loader;
+    ICanvas canvas = painter.getCanvas();
+
+    prepared = CompletableFuture.supplyAsync(() -> {
+      try {
+        return asyncLoader.prepare();
+      } catch (Exception e) {
+        throw new CompletionException(e);
+      }
+    }, executor);
+
+    prepared.whenComplete((data, e) -> {
+      if (e != null) {
+        Logger.getLogger(DrawableVBO.class).error("Failed preparing VBO", e);
+        ready.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+      } else if (canvas != null) {
+        // let the next rendering upload data
+        canvas.forceRepaint();
+      }
+    });
+  }
+
+  /** Upload prepared data if preparation is done. Must be invoked on the GL thread. */
+  protected synchronized void doUploadPrepared(IPainter painter) {
+    if (hasMountedOnce || prepared == null || !prepared.isDone()
+        || prepared.isCompletedExceptionally())
+      return;
+    try {
+      upload((IAsyncGLLoader<DrawableVBO, ?>) loader, painter, prepared.join());
+      hasMountedOnce = true;
+      prepared = null;
+      ready.complete(null);
+    } catch (Exception e) {
+      Logger.getLogger(DrawableVBO.class).error(e, e);
+      prepared = null;
+      ready.completeExceptionally(e);
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private <D> void upload(IAsyncGLLoader<DrawableVBO, D> loader, IPainter painter, Object data)
+      throws Exception {
+    loader.upload(painter, this, (D) data);
+  }
+
+  /** Draw the bounds, if known, while data is being prepared. */
+  protected void doDrawPlaceholder(IPainter painter) {
+    if (bbox != null && bbox.valid()) {
+      doTransform(painter);
+      Parallelepiped p = new Parallelepiped(bbox);
+      p.setFaceDisplayed(false);
+      p.setWireframeColor(getBoundingBoxColor());
+      p.draw(painter);
+    }
+  }
+
+  @Override
+  public boolean isReady() {
+    return hasMountedOnce;
+  }
+
+  @Override
+  public CompletableFuture<Void> whenReady() {
+    // subclasses mounting by themselves are ready once mounted
+    if (hasMountedOnce && !ready.isDone())
+      ready.complete(null);
+    return ready;
+  }
+
+  public boolean isAsyncLoading() {
+    return asyncLoading;
+  }
+
+  /**
+   * If true, an {@link IAsyncGLLoader} prepares data in background when the drawable is mounted.
+   * Must be set before mounting. False by default, as the bounds of the drawable are unknown when
+   * the view is initialized : the view bounds should then be updated once the drawable is ready,
+   * e.g. with <code>drawable.whenReady().thenRun(view::updateBounds)</code>.
+   */
+  public void setAsyncLoading(boolean asyncLoading) {
+    this.asyncLoading = asyncLoading;
+  }
+
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /** The executor preparing data of an {@link IAsyncGLLoader}, the common pool by default. */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
   // element array buffer is an index:
   // @see
   // http://www.opengl-tutorial.org/intermediate-tutorials/tutorial-9-vbo-indexing/
   @Override
   public void draw(IPainter painter) {
+    if (!hasMountedOnce && prepared != null) {
+      doUploadPrepared(painter);
+      if (!hasMountedOnce)
+        doDrawPlaceholder(painter);
+    }
+
     if (hasMountedOnce) {
       GL gl = ((NativeDesktopPainter) painter).getGL();
 
+      doUploadModifiedRanges(gl);
       doTransform(painter);
       configure(painter, gl);
       doDrawElements(gl);
@@ -126,7 +268,10 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
       GLES2CompatUtils.glNormalPointer(GL.GL_FLOAT, byteOffset, normalOffset);
       GLES2CompatUtils.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
       GLES2CompatUtils.glEnableClientState(GLPointerFunc.GL_NORMAL_ARRAY);
-      GLES2CompatUtils.glDrawElements(getGeometry(), size, GL.GL_UNSIGNED_INT, pointer);
+      if (drawArrays)
+        GLES2CompatUtils.glDrawArrays(getGeometry(), 0, size);
+      else
+        GLES2CompatUtils.glDrawElements(getGeometry(), size, elementType, pointer);
       GLES2CompatUtils.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, elementName[0]);
       GLES2CompatUtils.glBindBuffer(GL.GL_ARRAY_BUFFER, arrayName[0]);
       GLES2CompatUtils.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
@@ -146,7 +291,12 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
   }
 
   protected void color(GL gl) {
-    if (hasColorBuffer) {
+    if (hasColorBuffer && colorName[0] != 0) {
+      gl.getGL2().glBindBuffer(GL.GL_ARRAY_BUFFER, colorName[0]);
+      gl.getGL2().glEnableClientState(GL2.GL_COLOR_ARRAY);
+      gl.getGL2().glColorPointer(colorChannelNumber, GL.GL_FLOAT, 0, 0);
+      gl.getGL2().glBindBuffer(GL.GL_ARRAY_BUFFER, arrayName[0]);
+    } else if (hasColorBuffer) {
       // int bo = 6 * Buffers.SIZEOF_FLOAT;
       int p = 3 * Buffers.SIZEOF_FLOAT;
       gl.getGL2().glEnableClientState(GL2.GL_COLOR_ARRAY);
@@ -165,7 +315,10 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
   }
 
   protected void applyVertices(GL gl) {
-    gl.getGL2().glDrawElements(getGeometry(), size, GL.GL_UNSIGNED_INT, pointer);
+    if (drawArrays)
+      gl.getGL2().glDrawArrays(getGeometry(), 0, size);
+    else
+      gl.getGL2().glDrawElements(getGeometry(), size, elementType, pointer);
     doBindGL2(gl);
   }
 
@@ -287,6 +440,15 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
     this.hasColorBuffer = hasColorBuffer;
   }
 
+  public int getColorChannelNumber() {
+    return colorChannelNumber;
+  }
+
+  /** Number of color components per vertex in the color buffer, 3 (RGB) or 4 (RGBA). */
+  public void setColorChannelNumber(int colorChannelNumber) {
+    this.colorChannelNumber = colorChannelNumber;
+  }
+
 
 
   public int getGeometry() {
@@ -302,17 +464,216 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
     this.geometry = geometry;
   }
 
+  /**
+   * Transform vertex positions in the CPU side vertex buffer, which is uploaded again at the next
+   * rendering. Normals stored in the vertex buffer are not transformed.
+   */
   @Override
   public void applyGeometryTransform(Transform transform) {
-    /*
-     * Coord3d c = transform.compute(new Coord3d(x,y, z)); x = c.x; y = c.y; z = c.z;
-     */
-    Logger.getLogger(DrawableVBO.class).warn("not implemented");
+    if (vertices == null) {
+      Logger.getLogger(DrawableVBO.class).warn("no CPU side vertices, see setKeepVertices");
+      return;
+    }
+    for (int i = 0; i < getVertexCount(); i++) {
+      Coord3d c = transform.compute(getVertex(i));
+      int o = vertexIndex(i);
+      vertices.put(o, c.x);
+      vertices.put(o + 1, c.y);
+      vertices.put(o + 2, c.z);
+    }
+    dirtyVertices.addAll(vertices.capacity());
+    updateBounds();
   }
 
+  /** Compute bounds out of the CPU side vertex buffer. */
   @Override
-  public void updateBounds() { // requires smart reload
-    Logger.getLogger(DrawableVBO.class).warn("not implemented");
+  public void updateBounds() {
+    if (vertices == null) {
+      Logger.getLogger(DrawableVBO.class).warn("no CPU side vertices, see setKeepVertices");
+      return;
+    }
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (int i = 0; i < getVertexCount(); i++) {
+      int o = vertexIndex(i);
+      bounds.add(vertices.get(o), vertices.get(o + 1), vertices.get(o + 2));
+    }
+    bbox = bounds;
+  }
+
+  /* ***************************************************************** */
+  /* ************************* DYNAMIC UPDATES *********************** */
+  /* ***************************************************************** */
+
+  /** Number of floats per vertex in the vertex buffer. */
+  public int getVertexStride() {
+    return byteOffset / Buffers.SIZEOF_FLOAT;
+  }
+
+  /** Number of vertices in the vertex buffer, or 0 if not mounted yet. */
+  public int getVertexCount() {
+    if (getVertexStride() == 0)
+      return 0;
+    return (vertexFloats - pointer / Buffers.SIZEOF_FLOAT) / getVertexStride();
+  }
+
+  protected void checkVertices() {
+    if (vertices == null)
+      throw new IllegalStateException(
+          "No CPU side vertices : not mounted yet, or released after upload, see setKeepVertices");
+  }
+
+  /** Index of the x coordinate of the i-th vertex in the vertex buffer. */
+  protected int vertexIndex(int i) {
+    return pointer / Buffers.SIZEOF_FLOAT + i * getVertexStride();
+  }
+
+  public Coord3d getVertex(int i) {
+    checkVertices();
+    int o = vertexIndex(i);
+    return new Coord3d(vertices.get(o), vertices.get(o + 1), vertices.get(o + 2));
+  }
+
+  /**
+   * Move the i-th vertex. Bounds grow to contain the new position but do not shrink, which
+   * requires invoking {@link #updateBounds()}.
+   */
+  public void setVertex(int i, float x, float y, float z) {
+    checkVertices();
+    int o = vertexIndex(i);
+    vertices.put(o, x);
+    vertices.put(o + 1, y);
+    vertices.put(o + 2, z);
+    dirtyVertices.add(o, o + 3);
+
+    if (bbox == null)
+      bbox = new BoundingBox3d();
+    bbox.add(x, y, z);
+  }
+
+  /**
+   * Change the color of the i-th vertex, in the separate color buffer if any, in the vertex buffer
+   * otherwise.
+   */
+  public void setVertexColor(int i, Color c) {
+    int o;
+    if (colors != null) {
+      o = i * colorChannelNumber;
+      putColor(colors, o, c);
+      dirtyColors.add(o, o + colorChannelNumber);
+    } else if (hasColorBuffer) {
+      checkVertices();
+      o = vertexIndex(i) + 3;
+      putColor(vertices, o, c);
+      dirtyVertices.add(o, o + colorChannelNumber);
+    } else {
+      throw new IllegalStateException("No color buffer, use setColors(..) or updateColors(..)");
+    }
+  }
+
+  protected void putColor(FloatBuffer buffer, int o, Color c) {
+    buffer.put(o, c.r);
+    buffer.put(o + 1, c.g);
+    buffer.put(o + 2, c.b);
+    if (colorChannelNumber > 3)
+      buffer.put(o + 3, c.a);
+  }
+
+  /**
+   * Color vertices with a separate color buffer holding {@link #getColorChannelNumber()} floats
+   * per vertex, that will be uploaded at next rendering. Updating the colors later on only uploads
+   * the color buffer.
+   */
+  public void setColors(FloatBuffer colors) {
+    this.colors = colors;
+    this.hasColorBuffer = colors != null;
+    if (colors != null)
+      dirtyColors.addAll(colors.capacity());
+  }
+
+  /**
+   * Recompute all vertex colors with the mapper, e.g. after changing its range, in a separate color
+   * buffer created if needed. Vertices are not uploaded again.
+   */
+  public void updateColors(ColorMapper mapper) {
+    int n = getVertexCount();
+    if (colors == null || colors.capacity() != n * colorChannelNumber)
+      colors = Buffers.newDirectFloatBuffer(n * colorChannelNumber);
+
+    for (int i = 0; i < n; i++) {
+      putColor(colors, i * colorChannelNumber, mapper.getColor(getVertex(i)));
+    }
+    setColors(colors);
+  }
+
+  /**
+   * Mark floats of the vertex buffer returned by {@link #getVertices()} as modified, from
+   * (inclusive) to (exclusive), so that they are uploaded at next rendering.
+   */
+  public void markVerticesModified(int from, int to) {
+    dirtyVertices.add(from, to);
+  }
+
+  /** Mark floats of the separate color buffer as modified, from (inclusive) to (exclusive). */
+  public void markColorsModified(int from, int to) {
+    dirtyColors.add(from, to);
+  }
+
+  /** Upload modified ranges of the vertex and color buffers. */
+  protected void doUploadModifiedRanges(GL gl) {
+    if (vertices != null && !dirtyVertices.isEmpty()) {
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, arrayName[0]);
+      dirtyVertices.upload(gl, GL.GL_ARRAY_BUFFER, vertices, usage);
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, pointer);
+    }
+    if (colors != null && !dirtyColors.isEmpty()) {
+      if (colorName[0] == 0) {
+        gl.glGenBuffers(1, colorName, 0);
+        dirtyColors.addAll(colors.capacity());
+      }
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, colorName[0]);
+      dirtyColors.upload(gl, GL.GL_ARRAY_BUFFER, colors, usage);
+      gl.glBindBuffer(GL.GL_ARRAY_BUFFER, pointer);
+    }
+  }
+
+  public FloatBuffer getVertices() {
+    return vertices;
+  }
+
+  public FloatBuffer getColors() {
+    return colors;
+  }
+
+  public int getUsage() {
+    return usage;
+  }
+
+  public boolean isKeepVertices() {
+    return keepVertices;
+  }
+
+  /**
+   * Keep the CPU side vertex buffer after upload, to edit vertices with
+   * {@link #setVertex(int, float, float, float)} or transform them. Implied by a usage other than
+   * GL_STATIC_DRAW. False by default, so that static VBOs do not hold their vertices twice. Must be
+   * set before mounting.
+   */
+  public void setKeepVertices(boolean keepVertices) {
+    this.keepVertices = keepVertices;
+  }
+
+  /** True if the vertex buffer is kept after upload for partial updates. */
+  protected boolean isVerticesKept() {
+    return keepVertices || usage != GL.GL_STATIC_DRAW;
+  }
+
+  /**
+   * Set the usage hint given to the GPU when loading buffers : GL.GL_STATIC_DRAW (default) for
+   * buffers that are not modified, GL.GL_DYNAMIC_DRAW for buffers modified from time to time, and
+   * GL2ES2.GL_STREAM_DRAW for buffers modified at each frame. Must be set before mounting.
+   */
+  public void setUsage(int usage) {
+    this.usage = usage;
   }
 
   /** To be called by the VBOBuilder */
@@ -353,10 +714,15 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
   }
 
   public void doLoadArrayFloatBuffer(GL gl, int vertexSize, FloatBuffer vertices) {
+    this.vertexFloats = vertices.capacity();
+    this.dirtyVertices.clear();
     gl.glGenBuffers(1, arrayName, 0);
     gl.glBindBuffer(GL.GL_ARRAY_BUFFER, arrayName[0]);
-    gl.glBufferData(GL.GL_ARRAY_BUFFER, vertexSize, vertices, GL.GL_STATIC_DRAW);
+    gl.glBufferData(GL.GL_ARRAY_BUFFER, vertexSize, vertices, usage);
     gl.glBindBuffer(GL.GL_ARRAY_BUFFER, pointer);
+
+    // the GPU holds a copy of static vertices
+    this.vertices = isVerticesKept() ? vertices : null;
   }
 
   public void doLoadElementIntBuffer(GL gl, IntBuffer indices) {
@@ -364,12 +730,43 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
   }
 
   public void doLoadElementIntBuffer(GL gl, int indexSize, IntBuffer indices) {
+    elementType = GL.GL_UNSIGNED_INT;
+    gl.glGenBuffers(1, elementName, 0);
+    gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, elementName[0]);
+    gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, indexSize, indices, usage);
+    gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, pointer);
+  }
+
+  /**
+   * Load 16 bits indices, which halve the element buffer size of meshes having at most 65536
+   * vertices (see {@link MeshOptimizer#toShortIndices(IntBuffer)}).
+   */
+  public void doLoadElementShortBuffer(GL gl, ShortBuffer indices) {
+    elementType = GL.GL_UNSIGNED_SHORT;
     gl.glGenBuffers(1, elementName, 0);
     gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, elementName[0]);
-    gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, indexSize, indices, GL.GL_STATIC_DRAW);
+    gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, indices.capacity() * Buffers.SIZEOF_SHORT,
+        indices, usage);
     gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, pointer);
   }
 
+  /** Type of the indices, {@link GL#GL_UNSIGNED_INT} or {@link GL#GL_UNSIGNED_SHORT}. */
+  public int getElementType() {
+    return elementType;
+  }
+
+  public boolean isDrawArrays() {
+    return drawArrays;
+  }
+
+  /**
+   * Draw the first size vertices in order with glDrawArrays, without loading an element buffer,
+   * e.g. for point clouds which would otherwise need an index per vertex.
+   */
+  public void setDrawArrays(boolean drawArrays) {
+    this.drawArrays = drawArrays;
+  }
+
   public void doSetBoundingBox(BoundingBox3d bounds) {
     bbox = bounds;
   }
@@ -429,8 +826,23 @@ public class DrawableVBO extends Drawable implements IGLBindedResource {
 
   protected int arrayName[] = new int[1];
   protected int elementName[] = new int[1];
+  protected int elementType = GL.GL_UNSIGNED_INT;
+  protected boolean drawArrays = false;
+  protected int colorName[] = new int[1];
+
+  protected int usage = GL.GL_STATIC_DRAW;
+  protected boolean keepVertices = false;
+  protected FloatBuffer vertices;
+  protected int vertexFloats;
+  protected FloatBuffer colors;
+  protected DirtyRanges dirtyVertices = new DirtyRanges();
+  protected DirtyRanges dirtyColors = new DirtyRanges();
 
   protected boolean hasMountedOnce = false;
+  protected boolean asyncLoading = false;
+  protected Executor executor = ForkJoinPool.commonPool();
+  protected CompletableFuture<?> prepared;
+  protected CompletableFuture<Void> ready = new CompletableFuture<>();
   protected Color color = new Color(1f, 0f, 1f, 0.75f);
 
   protected boolean polygonOffsetFillEnable = true;
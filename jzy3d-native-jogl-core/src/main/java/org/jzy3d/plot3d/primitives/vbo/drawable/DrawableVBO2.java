@@ -3,15 +3,16 @@ package org.jzy3d.plot3d.primitives.vbo.drawable;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.nio.ShortBuffer;
 import org.apache.log4j.Logger;
 import org.jzy3d.colors.Color;
 import org.jzy3d.colors.ColorMapper;
 import org.jzy3d.colors.colormaps.IColorMap;
 import org.jzy3d.io.IGLLoader;
+import org.jzy3d.io.mesh.MeshBuffersBuilder;
+import org.jzy3d.io.mesh.MeshBuffersBuilder.VertexSource;
+import org.jzy3d.io.mesh.MeshNormals;
+import org.jzy3d.io.mesh.MeshOptimizer;
 import org.jzy3d.maths.BoundingBox3d;
 import org.jzy3d.maths.Coord3d;
 import org.jzy3d.maths.Normal;
@@ -19,10 +20,10 @@ import org.jzy3d.painters.IPainter;
 import org.jzy3d.painters.NativeDesktopPainter;
 import org.jzy3d.plot3d.primitives.IGLBindedResource;
 import org.jzy3d.plot3d.primitives.Wireframeable;
+import org.jzy3d.plot3d.primitives.vbo.buffers.DirtyRanges;
 import org.jzy3d.plot3d.rendering.lights.Light;
 import org.jzy3d.plot3d.rendering.scene.Graph;
 import org.jzy3d.plot3d.transform.Transform;
-import com.google.common.collect.ArrayListMultimap;
 import com.jogamp.common.nio.Buffers;
 import com.jogamp.opengl.GL;
 import com.jogamp.opengl.GL2;
@@ -88,6 +89,28 @@ import com.jogamp.opengl.fixedfunc.GLPointerFunc;
  * </pre>
  * </p>
  * 
+ * <p>
+ * <b>Updating a mounted DrawableVBO2</b><br>
+ * 
+ * Vertices, normals and colors can be edited after mounting with
+ * {@link #setVertex(int, float, float, float)}, {@link #setVertexColor(int, Color)},
+ * {@link #updateColors(ColorMapper)} or by writing in the buffers and invoking
+ * <code>mark*Modified</code>. Each buffer only has its modified ranges uploaded at the next
+ * rendering, so that changing the colormap of a large mesh does not upload its vertices again. A
+ * VBO edited often should be given a {@link #setUsage(int)} hint.
+ * </p>
+ * 
+ * <p>
+ * <b>Element buffer</b><br>
+ * 
+ * Triangles can be reordered for the GPU vertex cache when mounting (see {@link MeshOptimizer})
+ * if enabled with {@link #setOptimize(boolean)}, in which case {@link #getElements()} does not
+ * hold triangles in the given order. Vertices are not reordered, so that indices given to
+ * {@link #setVertex(int, float, float, float)} remain those of the input array. Meshes having at
+ * most 65536 vertices are indexed with 16 bits indices unless {@link #setShortIndices(boolean)}
+ * disables it.
+ * </p>
+ * 
  * @see {@link DrawableVBO2} constructor documentation for details.
  * 
  * 
@@ -99,6 +122,9 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
 
   public static boolean COMPUTE_NORMALS_IN_JAVA = true;
 
+  /** Number of threads filling buffers of large meshes when mounting. */
+  public static int THREADS = Runtime.getRuntime().availableProcessors();
+
   protected IntBuffer elements;
   protected FloatBuffer vertices;
   protected FloatBuffer normals;
@@ -112,6 +138,11 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
   protected int normalOffset;
   /** Number of element (geometries) in the element buffer. */
   protected int elementSize;
+  /** Type of the indices, {@link GL#GL_UNSIGNED_INT} or {@link GL#GL_UNSIGNED_SHORT}. */
+  protected int elementType = GL.GL_UNSIGNED_INT;
+
+  protected boolean optimize = false;
+  protected boolean shortIndices = true;
 
   protected int[] colorArrayIds = new int[1];
   protected int[] vertexArrayIds = new int[1];
@@ -127,6 +158,10 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
   protected boolean hasColorBuffer = false;
   protected Color color = new Color(1f, 0f, 1f, 0.75f);
 
+  protected int usage = GL.GL_STATIC_DRAW;
+  protected DirtyRanges dirtyVertices = new DirtyRanges();
+  protected DirtyRanges dirtyNormals = new DirtyRanges();
+  protected DirtyRanges dirtyColors = new DirtyRanges();
 
 
   /**
@@ -225,27 +260,14 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
       public void load(IPainter painter, DrawableVBO2 drawable) throws Exception {
 
         // -------------------------------
-        // Vertices
-
-        FloatBuffer vertices = FloatBuffer.allocate((points.length / pointDimensions) * 3);
-
-        // Temporary list, for computing color and normals later
-        List<Coord3d> verticeList = new ArrayList<>();
+        // Vertices, copied straight from the array to a direct buffer
 
-        BoundingBox3d bounds = new BoundingBox3d();
+        int n = points.length / pointDimensions;
 
-        for (int i = 0; i < points.length; i += pointDimensions) {
-          Coord3d c = new Coord3d(points[i], points[i + 1], points[i + 2]);
+        FloatBuffer vertices = Buffers.newDirectFloatBuffer(n * VERTEX_SIZE);
 
-          verticeList.add(c);
-
-          vertices.put(c.x);
-          vertices.put(c.y);
-          vertices.put(c.z);
-
-          bounds.add(c);
-        }
-        vertices.rewind();
+        BoundingBox3d bounds = MeshBuffersBuilder.copy(VertexSource.of(points), pointDimensions,
+            VERTEX_SIZE, vertices, VERTEX_SIZE, n, THREADS);
 
 
         // -------------------------------
@@ -256,21 +278,13 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
         // drawable.setColorChannels(4);
 
         if (colormap != null) {
-          colors = FloatBuffer.allocate(verticeList.size() * drawable.colorChannels);
+          int channels = drawable.getColorChannels();
+          colors = Buffers.newDirectFloatBuffer(n * channels);
 
           ColorMapper colorMapper = new ColorMapper(colormap, bounds.getZmin(), bounds.getZmax());
 
-          for (Coord3d c : verticeList) {
-            Color color = colorMapper.getColor(c);
-
-            colors.put(color.r);
-            colors.put(color.g);
-            colors.put(color.b);
-
-            if (drawable.getColorChannels() > 3)
-              colors.put(color.a);
-          }
-          colors.rewind();
+          MeshBuffersBuilder.colorize(vertices, VERTEX_SIZE, n, colorMapper, colors, channels, 0,
+              channels, THREADS);
         }
 
         // -------------------------------
@@ -279,8 +293,12 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
         IntBuffer elements = null;
 
         if (geometries != null) {
-          elements = IntBuffer.allocate(geometries.length);
-          elements.put(geometries);
+          int[] triangles = geometries;
+          if (drawable.isOptimize() && geometrySize == 3 && geometries.length % 3 == 0)
+            triangles = new MeshOptimizer().reorderTriangles(geometries, n);
+
+          elements = Buffers.newDirectIntBuffer(triangles.length);
+          elements.put(triangles);
           elements.rewind();
         }
 
@@ -291,9 +309,9 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
 
         if (COMPUTE_NORMALS_IN_JAVA) {
           if (geometries != null) {
-            normals = computeSharedNormals(geometries, geometrySize, verticeList);
+            normals = computeSharedNormals(geometries, geometrySize, vertices);
           } else {
-            normals = computeSimpleNormals(verticeList);
+            normals = computeSimpleNormals(vertices);
           }
         }
 
@@ -308,25 +326,29 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
         // drawable.setData(painter, elements, verticeAndNormals, null, colors, bounds);
       }
 
-      public FloatBuffer computeSimpleNormals(List<Coord3d> verticeList) {
-        FloatBuffer simpleNormals = FloatBuffer.allocate(verticeList.size() * VERTEX_SIZE);
-
-        for (int i = 0; i < verticeList.size(); i += GEOMETRY_SIZE) {
-          // gather coordinates of a triangle
-          Coord3d c0 = verticeList.get(i + 0);
-          Coord3d c1 = verticeList.get(i + 1);
-          Coord3d c2 = verticeList.get(i + 2);
-
-          // compute normal
-          Coord3d normal = Normal.compute(c0, c1, c2);
-
-          for (int j = 0; j < GEOMETRY_SIZE; j++) {
-            simpleNormals.put(normal.x);
-            simpleNormals.put(normal.y);
-            simpleNormals.put(normal.z);
+      public FloatBuffer computeSimpleNormals(FloatBuffer vertices) {
+        int n = vertices.capacity() / VERTEX_SIZE;
+        FloatBuffer simpleNormals = Buffers.newDirectFloatBuffer(n * VERTEX_SIZE);
+
+        MeshBuffersBuilder.forRanges(n / GEOMETRY_SIZE, THREADS, (from, to) -> {
+          for (int t = from; t < to; t++) {
+            // gather coordinates of a triangle
+            Coord3d c0 = vertex(vertices, t * GEOMETRY_SIZE + 0);
+            Coord3d c1 = vertex(vertices, t * GEOMETRY_SIZE + 1);
+            Coord3d c2 = vertex(vertices, t * GEOMETRY_SIZE + 2);
+
+            // compute normal
+            Coord3d normal = Normal.compute(c0, c1, c2);
+
+            for (int j = 0; j < GEOMETRY_SIZE; j++) {
+              int o = (t * GEOMETRY_SIZE + j) * VERTEX_SIZE;
+              simpleNormals.put(o, normal.x);
+              simpleNormals.put(o + 1, normal.y);
+              simpleNormals.put(o + 2, normal.z);
+            }
           }
-        }
-        simpleNormals.rewind();
+          return null;
+        });
 
         return simpleNormals;
       }
@@ -346,91 +368,35 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
        * vertices between faces. To do so, do NOT provide any <code>geometry</code> array as
        * {@link DrawableVBO2} constructor.
        * 
+       * Normals are computed by {@link MeshNormals} with several threads for large meshes.
+       * 
        * @param geometries
        * @param geometrySize
-       * @param verticeList
+       * @param vertices
        * @return
        */
       public FloatBuffer computeSharedNormals(int[] geometries, int geometrySize,
-          List<Coord3d> verticeList) {
-
-        ArrayListMultimap<Coord3d, Coord3d> vertexNormals = ArrayListMultimap.create();
-
-        Map<Coord3d, Integer> vertexPosition = new HashMap<>();
-
-        for (int i = 0; i < geometries.length; i += geometrySize) {
-          // gather coordinates of a triangle
-          Coord3d c0 = verticeList.get(geometries[i + 0]);
-          Coord3d c1 = verticeList.get(geometries[i + 1]);
-          Coord3d c2 = verticeList.get(geometries[i + 2]);
-
-          // compute normal
-          Coord3d normal = Normal.compute(c0, c1, c2);
-
-          // append normals for each geometry
-          vertexNormals.put(c0, normal);
-          vertexNormals.put(c1, normal);
-          vertexNormals.put(c2, normal);
+          FloatBuffer vertices) {
+        if (geometrySize != GEOMETRY_SIZE)
+          throw new IllegalArgumentException("Can only compute normals of triangles");
 
-          // Keep index of each vertex to later store the normal at appropriate position
-          vertexPosition.put(c0, geometries[i + 0]);
-          vertexPosition.put(c1, geometries[i + 1]);
-          vertexPosition.put(c2, geometries[i + 2]);
+        MeshNormals meshNormals = new MeshNormals();
+        meshNormals.setThreads(THREADS);
 
-        }
-
-        // average all normals that come from all triangles sharing this
-        // vertex
-
-        Coord3d[] averagedNormals = new Coord3d[vertexNormals.keySet().size()];
-
-        for (Coord3d vertex : vertexNormals.keySet()) {
-          Coord3d averagedNormal = new Coord3d();
-
-          List<Coord3d> normals = vertexNormals.get(vertex);
-
-          for (Coord3d normal : normals) {
-            averagedNormal.addSelf(normal);
-          }
-          averagedNormal.x /= normals.size();
-          averagedNormal.y /= normals.size();
-          averagedNormal.z /= normals.size();
-
-          // Get vertex position
-          int position = vertexPosition.get(vertex);
+        int n = vertices.capacity() / VERTEX_SIZE;
+        float[] averagedNormals =
+            meshNormals.compute(vertices, VERTEX_SIZE, IntBuffer.wrap(geometries), n);
 
-          averagedNormals[position] = averagedNormal;
-        }
-
-        FloatBuffer normals = FloatBuffer.allocate(verticeList.size() * VERTEX_SIZE);
-
-        for (Coord3d averagedNormal : averagedNormals) {
-          normals.put(averagedNormal.x);
-          normals.put(averagedNormal.y);
-          normals.put(averagedNormal.z);
-        }
+        FloatBuffer normals = Buffers.newDirectFloatBuffer(averagedNormals.length);
+        normals.put(averagedNormals);
         normals.rewind();
-
-        // Build a Buffer with vertices AND normals. Nice but less readable than a separate
-        // normal buffer.
-        //
-        // FloatBuffer verticeAndNormals = FloatBuffer.allocate(verticeList.size() * VERTEX_SIZE *
-        // 2);
-        // for (int j = 0; j < verticeList.size(); j++) {
-        // Coord3d v = verticeList.get(j);
-        // Coord3d n = averagedNormals[j];
-        //
-        // verticeAndNormals.put(v.x);
-        // verticeAndNormals.put(v.y);
-        // verticeAndNormals.put(v.z);
-        // verticeAndNormals.put(n.x);
-        // verticeAndNormals.put(n.y);
-        // verticeAndNormals.put(n.z);
-        // }
-        // verticeAndNormals.rewind();
-
         return normals;
       }
+
+      protected Coord3d vertex(FloatBuffer vertices, int i) {
+        int o = i * VERTEX_SIZE;
+        return new Coord3d(vertices.get(o), vertices.get(o + 1), vertices.get(o + 2));
+      }
     };
 
     return loader;
@@ -452,6 +418,10 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
     this.normals = normals;
     this.colors = colors;
 
+    dirtyVertices.clear();
+    dirtyNormals.clear();
+    dirtyColors.clear();
+
     if (hasNormalInVertexArray) {
       this.vertexOffset = (VERTEX_SIZE * 2) * Buffers.SIZEOF_FLOAT; // (coord+normal)
     } else {
@@ -468,7 +438,7 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
     int vertexSize = vertices.capacity() * Buffers.SIZEOF_FLOAT;
     gl.glGenBuffers(1, vertexArrayIds, 0);
     gl.glBindBuffer(GL.GL_ARRAY_BUFFER, vertexArrayIds[0]);
-    gl.glBufferData(GL.GL_ARRAY_BUFFER, vertexSize, vertices, GL.GL_STATIC_DRAW);
+    gl.glBufferData(GL.GL_ARRAY_BUFFER, vertexSize, vertices, usage);
 
 
     // -----------------------------------
@@ -478,7 +448,7 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
       int normalSize = normals.capacity() * Buffers.SIZEOF_FLOAT;
       gl.glGenBuffers(1, normalArrayIds, 0);
       gl.glBindBuffer(GL.GL_ARRAY_BUFFER, normalArrayIds[0]);
-      gl.glBufferData(GL.GL_ARRAY_BUFFER, normalSize, normals, GL.GL_STATIC_DRAW);
+      gl.glBufferData(GL.GL_ARRAY_BUFFER, normalSize, normals, usage);
     }
 
     // -----------------------------------
@@ -490,7 +460,7 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
       int colorSize = colors.capacity() * Buffers.SIZEOF_FLOAT;
       gl.glGenBuffers(1, colorArrayIds, 0);
       gl.glBindBuffer(GL.GL_ARRAY_BUFFER, colorArrayIds[0]);
-      gl.glBufferData(GL.GL_ARRAY_BUFFER, colorSize, colors, GL.GL_STATIC_DRAW);
+      gl.glBufferData(GL.GL_ARRAY_BUFFER, colorSize, colors, usage);
     }
 
 
@@ -500,12 +470,21 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
     if (elements != null) {
       this.elementSize = elements.capacity();
 
-      int indexSize = elements.capacity() * Buffers.SIZEOF_INT;
-
       gl.glGenBuffers(1, elementArrayIds, 0);
       gl.glBindBuffer(GL.GL_ELEMENT_ARRAY_BUFFER, elementArrayIds[0]);
-      gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, indexSize, elements, GL.GL_STATIC_DRAW);
 
+      int vertexCount = vertices.capacity() * Buffers.SIZEOF_FLOAT / vertexOffset;
+
+      if (shortIndices && vertexCount <= MeshOptimizer.MAX_SHORT_VERTICES) {
+        ShortBuffer shorts = MeshOptimizer.toShortIndices(elements);
+        elementType = GL.GL_UNSIGNED_SHORT;
+        gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, elementSize * Buffers.SIZEOF_SHORT, shorts,
+            usage);
+      } else {
+        elementType = GL.GL_UNSIGNED_INT;
+        gl.glBufferData(GL.GL_ELEMENT_ARRAY_BUFFER, elementSize * Buffers.SIZEOF_INT, elements,
+            usage);
+      }
     }
 
 
@@ -523,6 +502,7 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
   @Override
   public void draw(IPainter painter) {
     if (hasMountedOnce) {
+      doUploadModifiedRanges(getGL(painter));
       doTransform(painter);
       doDrawElements(painter);
       doDrawBoundsIfDisplayed(painter);
@@ -594,7 +574,7 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
       gl2.glPolygonMode(GL.GL_FRONT_AND_BACK, GL2GL3.GL_FILL);
 
       if (elementSize > 0) {
-        gl2.glDrawElements(GL.GL_TRIANGLES, elementSize, GL.GL_UNSIGNED_INT, firstCoordOffset);
+        gl2.glDrawElements(GL.GL_TRIANGLES, elementSize, elementType, firstCoordOffset);
       } else {
         // in case indices where not defined
         gl2.glDrawArrays(GL.GL_TRIANGLES, 0, vertices.capacity());
@@ -619,7 +599,7 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
       gl2.glPolygonMode(GL.GL_FRONT_AND_BACK, GL2.GL_LINE);
 
       if (elementSize > 0) {
-        gl2.glDrawElements(GL.GL_TRIANGLES, elementSize, GL.GL_UNSIGNED_INT, firstCoordOffset);
+        gl2.glDrawElements(GL.GL_TRIANGLES, elementSize, elementType, firstCoordOffset);
       } else {
         // in case indices where not defined
         gl2.glDrawArrays(GL.GL_TRIANGLES, 0, vertices.capacity());
@@ -675,20 +655,184 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
     this.colorChannels = colorChannels;
   }
 
+  /**
+   * Transform vertex positions in the CPU side vertex buffer, which is uploaded again at the next
+   * rendering. Normals are not transformed.
+   */
   @Override
   public void applyGeometryTransform(Transform transform) {
-    Logger.getLogger(DrawableVBO2.class).warn("not implemented");
+    if (vertices == null) {
+      Logger.getLogger(DrawableVBO2.class).warn("not mounted yet");
+      return;
+    }
+    for (int i = 0; i < getVertexCount(); i++) {
+      Coord3d c = transform.compute(getVertex(i));
+      int o = vertexIndex(i);
+      vertices.put(o, c.x);
+      vertices.put(o + 1, c.y);
+      vertices.put(o + 2, c.z);
+    }
+    dirtyVertices.addAll(vertices.capacity());
+    updateBounds();
   }
 
+  /** Compute bounds out of the CPU side vertex buffer. */
   @Override
-  public void updateBounds() { // requires smart reload
-    Logger.getLogger(DrawableVBO2.class).warn("not implemented");
+  public void updateBounds() {
+    if (vertices == null) {
+      Logger.getLogger(DrawableVBO2.class).warn("not mounted yet");
+      return;
+    }
+    BoundingBox3d bounds = new BoundingBox3d();
+    for (int i = 0; i < getVertexCount(); i++) {
+      int o = vertexIndex(i);
+      bounds.add(vertices.get(o), vertices.get(o + 1), vertices.get(o + 2));
+    }
+    bbox = bounds;
   }
 
   protected GL getGL(IPainter painter) {
     return ((NativeDesktopPainter) painter).getGL();
   }
 
+  public int getUsage() {
+    return usage;
+  }
+
+  /**
+   * Set the usage hint given to the GPU when loading buffers : GL.GL_STATIC_DRAW (default) for
+   * buffers that are not modified, GL.GL_DYNAMIC_DRAW for buffers modified from time to time, and
+   * GL2ES2.GL_STREAM_DRAW for buffers modified at each frame. Must be set before mounting.
+   */
+  public void setUsage(int usage) {
+    this.usage = usage;
+  }
+
+  /* ***************************************************************** */
+  /* ************************* DYNAMIC UPDATES *********************** */
+  /* ***************************************************************** */
+
+  /** Number of vertices in the vertex buffer, or 0 if not mounted yet. */
+  public int getVertexCount() {
+    if (vertices == null)
+      return 0;
+    return vertices.capacity() / (vertexOffset / Buffers.SIZEOF_FLOAT);
+  }
+
+  /** Index of the x coordinate of the i-th vertex in the vertex buffer. */
+  protected int vertexIndex(int i) {
+    return i * (vertexOffset / Buffers.SIZEOF_FLOAT);
+  }
+
+  public Coord3d getVertex(int i) {
+    int o = vertexIndex(i);
+    return new Coord3d(vertices.get(o), vertices.get(o + 1), vertices.get(o + 2));
+  }
+
+  /**
+   * Move the i-th vertex. Bounds grow to contain the new position but do not shrink, which
+   * requires invoking {@link #updateBounds()}. Normals are not updated.
+   */
+  public void setVertex(int i, float x, float y, float z) {
+    int o = vertexIndex(i);
+    vertices.put(o, x);
+    vertices.put(o + 1, y);
+    vertices.put(o + 2, z);
+    dirtyVertices.add(o, o + VERTEX_SIZE);
+
+    if (bbox == null)
+      bbox = new BoundingBox3d();
+    bbox.add(x, y, z);
+  }
+
+  /** Change the normal of the i-th vertex, in the separate normal buffer. */
+  public void setVertexNormal(int i, float x, float y, float z) {
+    int o = i * VERTEX_SIZE;
+    normals.put(o, x);
+    normals.put(o + 1, y);
+    normals.put(o + 2, z);
+    dirtyNormals.add(o, o + VERTEX_SIZE);
+  }
+
+  /** Change the color of the i-th vertex. Requires a color buffer. */
+  public void setVertexColor(int i, Color c) {
+    if (colors == null)
+      throw new IllegalStateException("No color buffer, use setColors(..) or updateColors(..)");
+    int o = i * colorChannels;
+    putColor(colors, o, c);
+    dirtyColors.add(o, o + colorChannels);
+  }
+
+  protected void putColor(FloatBuffer buffer, int o, Color c) {
+    buffer.put(o, c.r);
+    buffer.put(o + 1, c.g);
+    buffer.put(o + 2, c.b);
+    if (colorChannels > 3)
+      buffer.put(o + 3, c.a);
+  }
+
+  /**
+   * Replace the color buffer, holding {@link #getColorChannels()} floats per vertex, which is
+   * uploaded at next rendering without uploading vertices.
+   */
+  public void setColors(FloatBuffer colors) {
+    this.colors = colors;
+    this.hasColorBuffer = colors != null;
+    if (colors != null)
+      dirtyColors.addAll(colors.capacity());
+  }
+
+  /**
+   * Recompute all vertex colors with the mapper, e.g. after changing its range. Only the color
+   * buffer is uploaded again.
+   */
+  public void updateColors(ColorMapper mapper) {
+    int n = getVertexCount();
+    if (colors == null || colors.capacity() != n * colorChannels)
+      colors = Buffers.newDirectFloatBuffer(n * colorChannels);
+
+    for (int i = 0; i < n; i++) {
+      putColor(colors, i * colorChannels, mapper.getColor(getVertex(i)));
+    }
+    setColors(colors);
+  }
+
+  /**
+   * Mark floats of the buffer returned by {@link #getVertices()} as modified, from (inclusive) to
+   * (exclusive), so that they are uploaded at next rendering.
+   */
+  public void markVerticesModified(int from, int to) {
+    dirtyVertices.add(from, to);
+  }
+
+  /** Mark floats of the normal buffer as modified, from (inclusive) to (exclusive). */
+  public void markNormalsModified(int from, int to) {
+    dirtyNormals.add(from, to);
+  }
+
+  /** Mark floats of the color buffer as modified, from (inclusive) to (exclusive). */
+  public void markColorsModified(int from, int to) {
+    dirtyColors.add(from, to);
+  }
+
+  /** Upload modified ranges of each buffer, and only of the buffers having modified ranges. */
+  protected void doUploadModifiedRanges(GL gl) {
+    doUploadModifiedRanges(gl, vertexArrayIds, vertices, dirtyVertices);
+    doUploadModifiedRanges(gl, normalArrayIds, normals, dirtyNormals);
+    doUploadModifiedRanges(gl, colorArrayIds, colors, dirtyColors);
+  }
+
+  protected void doUploadModifiedRanges(GL gl, int[] ids, FloatBuffer buffer, DirtyRanges dirty) {
+    if (buffer == null || dirty.isEmpty())
+      return;
+    if (ids[0] == 0) {
+      gl.glGenBuffers(1, ids, 0);
+      dirty.addAll(buffer.capacity());
+    }
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, ids[0]);
+    dirty.upload(gl, GL.GL_ARRAY_BUFFER, buffer, usage);
+  }
+
 
   /* ***************************************************************** */
   /* **************************** BUFFERS **************************** */
@@ -698,6 +842,29 @@ public class DrawableVBO2 extends Wireframeable implements IGLBindedResource {
     return elements;
   }
 
+  /** Type of the indices, {@link GL#GL_UNSIGNED_INT} or {@link GL#GL_UNSIGNED_SHORT}. */
+  public int getElementType() {
+    return elementType;
+  }
+
+  public boolean isOptimize() {
+    return optimize;
+  }
+
+  /** Reorder triangles for the GPU vertex cache when mounting (default false). */
+  public void setOptimize(boolean optimize) {
+    this.optimize = optimize;
+  }
+
+  public boolean isShortIndices() {
+    return shortIndices;
+  }
+
+  /** Use 16 bits indices for meshes having at most 65536 vertices (default true). */
+  public void setShortIndices(boolean shortIndices) {
+    this.shortIndices = shortIndices;
+  }
+
   public FloatBuffer getVertices() {
     return vertices;
   }
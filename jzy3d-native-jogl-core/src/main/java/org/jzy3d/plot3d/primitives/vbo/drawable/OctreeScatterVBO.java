@@ -0,0 +1,141 @@
+package org.jzy3d.plot3d.primitives.vbo.drawable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import org.jzy3d.io.octree.OctreeNodeCache;
+import org.jzy3d.io.octree.PointOctree;
+import org.jzy3d.io.octree.PointOctree.Node;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.painters.NativeDesktopPainter;
+import org.jzy3d.plot3d.primitives.OctreeScatter;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+/**
+ * An {@link OctreeScatter} uploading each resident node in its own vertex buffer, drawn with
+ * <code>glDrawArrays</code>.
+ *
+ * A node is uploaded at the first rendering after it became resident in the
+ * {@link OctreeNodeCache}, and its buffer is deleted at the first rendering after it was evicted,
+ * so that the GPU holds at most the cache budget.
+ *
+ * <pre>
+ * <code>
+ * OctreeScatterVBO scatter = new OctreeScatterVBO(new File("cloud.oct"));
+ * chart.add(scatter);
+ * </code>
+ * </pre>
+ */
+public class OctreeScatterVBO extends OctreeScatter {
+  /** GPU buffers by node id. */
+  protected Map<Integer, NodeBuffer> buffers = new HashMap<>();
+
+  /** A vertex buffer holding the points of a node. */
+  protected static class NodeBuffer {
+    int name;
+    /** The resident points that were uploaded, to detect nodes that were reloaded. */
+    FloatBuffer points;
+
+    NodeBuffer(int name, FloatBuffer points) {
+      this.name = name;
+      this.points = points;
+    }
+  }
+
+  public OctreeScatterVBO(File file) throws IOException {
+    super(file);
+  }
+
+  public OctreeScatterVBO(PointOctree octree) {
+    super(octree);
+  }
+
+  public OctreeScatterVBO(OctreeNodeCache cache) {
+    super(cache);
+  }
+
+  @Override
+  protected void doDrawPoints(IPainter painter, List<Node> nodes) {
+    GL gl = ((NativeDesktopPainter) painter).getGL();
+    if (!gl.isGL2())
+      throw new RuntimeException("Need a GL2 instance");
+    GL2 gl2 = gl.getGL2();
+
+    int stride = octree.getVertexSize() * Buffers.SIZEOF_FLOAT;
+    boolean colors = octree.hasColors();
+
+    doDeleteEvicted(gl);
+    drawnNodes.clear();
+
+    gl2.glPointSize(width);
+    gl2.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+    if (colors)
+      gl2.glEnableClientState(GL2.GL_COLOR_ARRAY);
+    else
+      painter.color(color);
+
+    for (Node node : nodes) {
+      FloatBuffer points = cache.get(node);
+      if (points == null)
+        continue;
+      drawnNodes.add(node);
+
+      gl2.glBindBuffer(GL.GL_ARRAY_BUFFER, doUpload(gl, node, points).name);
+      gl2.glVertexPointer(3, GL.GL_FLOAT, stride, 0);
+      if (colors)
+        gl2.glColorPointer(4, GL.GL_FLOAT, stride, 3 * Buffers.SIZEOF_FLOAT);
+      gl2.glDrawArrays(GL.GL_POINTS, 0, node.getPointCount());
+    }
+
+    if (colors)
+      gl2.glDisableClientState(GL2.GL_COLOR_ARRAY);
+    gl2.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+    gl2.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+  }
+
+  /** Return the buffer of the node, uploading its points if they were not uploaded yet. */
+  protected NodeBuffer doUpload(GL gl, Node node, FloatBuffer points) {
+    NodeBuffer buffer = buffers.get(node.getId());
+    if (buffer != null && buffer.points == points)
+      return buffer;
+
+    if (buffer == null) {
+      int[] name = new int[1];
+      gl.glGenBuffers(1, name, 0);
+      buffer = new NodeBuffer(name[0], points);
+      buffers.put(node.getId(), buffer);
+    }
+    buffer.points = points;
+
+    points.rewind();
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, buffer.name);
+    gl.glBufferData(GL.GL_ARRAY_BUFFER, (long) points.capacity() * Buffers.SIZEOF_FLOAT, points,
+        GL.GL_STATIC_DRAW);
+    return buffer;
+  }
+
+  /** Delete the buffers of nodes that are not resident anymore. */
+  protected void doDeleteEvicted(GL gl) {
+    Iterator<Map.Entry<Integer, NodeBuffer>> it = buffers.entrySet().iterator();
+    while (it.hasNext()) {
+      Map.Entry<Integer, NodeBuffer> e = it.next();
+      // not using get() which would refresh the node in the LRU order
+      if (!cache.isResident(octree.getNode(e.getKey()))) {
+        gl.glDeleteBuffers(1, new int[] {e.getValue().name}, 0);
+        it.remove();
+      }
+    }
+  }
+
+  /** Number of nodes currently held in GPU buffers. */
+  public int getBufferCount() {
+    return buffers.size();
+  }
+}
@@ -0,0 +1,190 @@
+package org.jzy3d.plot3d.primitives.vbo.drawable;
+
+import java.nio.FloatBuffer;
+import java.util.List;
+import org.jzy3d.colors.Color;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.io.IGLLoader;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.painters.NativeDesktopPainter;
+import org.jzy3d.plot3d.primitives.vbo.buffers.PointRing;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+import com.jogamp.opengl.GL2;
+import com.jogamp.opengl.GL2ES2;
+import com.jogamp.opengl.fixedfunc.GLPointerFunc;
+
+/**
+ * A scatter showing the last N points of a continuous stream of points, e.g. a sensor feed.
+ *
+ * Points are appended from any thread in a {@link PointRing} without locking. The GPU holds a
+ * buffer of the same capacity, and each rendering only uploads the points appended since the
+ * previous rendering, with at most two <code>glBufferSubData</code> calls, then draws the ring
+ * with at most two <code>glDrawArrays</code> calls.
+ *
+ * Points are colored when appended, either with the given color, the {@link ColorMapper} if any,
+ * or the drawable color. Bounds grow with appended points, and can be shrunk to the points that
+ * are still displayed with {@link #updateBounds()}.
+ *
+ * <pre>
+ * <code>
+ * StreamingScatterVBO scatter = new StreamingScatterVBO(1000000);
+ * scatter.setColorMapper(new ColorMapper(new ColorMapRainbow(), -1, 1));
+ * chart.add(scatter);
+ *
+ * // from the feed thread
+ * scatter.append(x, y, z);
+ * </code>
+ * </pre>
+ *
+ * @author Martin Pernollet
+ */
+public class StreamingScatterVBO extends DrawableVBO {
+  protected PointRing ring;
+  protected ColorMapper mapper;
+  protected volatile boolean recolor = false;
+
+  public StreamingScatterVBO(int capacity) {
+    this(new PointRing(capacity));
+  }
+
+  public StreamingScatterVBO(PointRing ring) {
+    super(makeLoader());
+    this.ring = ring;
+    this.geometry = GL.GL_POINTS;
+    this.usage = GL2ES2.GL_STREAM_DRAW;
+    this.colorChannelNumber = 4;
+    this.hasColorBuffer = true;
+    this.bbox = ring.getBounds();
+  }
+
+  /** Allocate the GPU ring buffer, filled later by rendering. */
+  protected static IGLLoader<DrawableVBO> makeLoader() {
+    return new IGLLoader<DrawableVBO>() {
+      @Override
+      public void load(IPainter painter, DrawableVBO drawable) throws Exception {
+        StreamingScatterVBO scatter = (StreamingScatterVBO) drawable;
+        GL gl = ((NativeDesktopPainter) painter).getGL();
+
+        int stride = PointRing.STRIDE * Buffers.SIZEOF_FLOAT;
+        scatter.doConfigure(0, 0, stride, PointRing.COLOR_OFFSET * Buffers.SIZEOF_FLOAT, 3);
+        scatter.doLoadArrayFloatBuffer(gl,
+            scatter.ring.getCapacity() * stride, null);
+
+        // slots polled before mounting must be uploaded
+        scatter.recolor = scatter.recolor || scatter.ring.getPolled() > 0;
+      }
+    };
+  }
+
+  /* ***************************************************************** */
+
+  /** Append a point colored by the color mapper if any, or by the drawable color. */
+  public long append(float x, float y, float z) {
+    ColorMapper m = mapper;
+    if (m != null)
+      return ring.append(x, y, z, m.getColor(new Coord3d(x, y, z)));
+    else
+      return ring.append(x, y, z, color);
+  }
+
+  public long append(Coord3d c) {
+    return append(c.x, c.y, c.z);
+  }
+
+  public long append(float x, float y, float z, Color c) {
+    return ring.append(x, y, z, c);
+  }
+
+  /* ***************************************************************** */
+
+  @Override
+  public void draw(IPainter painter) {
+    if (hasMountedOnce) {
+      GL gl = ((NativeDesktopPainter) painter).getGL();
+
+      doUploadRing(gl);
+      doTransform(painter);
+      configure(painter, gl);
+      doDrawRing(gl);
+      doDrawBoundsIfDisplayed(painter);
+    }
+  }
+
+  /** Upload points appended since the previous rendering, or all points if they were recolored. */
+  protected void doUploadRing(GL gl) {
+    List<int[]> ranges = ring.poll();
+
+    if (recolor) {
+      recolor = false;
+      if (mapper != null)
+        ring.recolor(mapper);
+      ranges = ring.getDrawRanges();
+    }
+    bbox = ring.getBounds();
+
+    if (ranges.isEmpty())
+      return;
+
+    FloatBuffer data = FloatBuffer.wrap(ring.getData());
+    gl.glBindBuffer(GL.GL_ARRAY_BUFFER, arrayName[0]);
+    for (int[] r : ranges) {
+      data.limit(r[1] * PointRing.STRIDE);
+      data.position(r[0] * PointRing.STRIDE);
+      gl.glBufferSubData(GL.GL_ARRAY_BUFFER, (long) r[0] * byteOffset,
+          (long) (r[1] - r[0]) * byteOffset, data);
+      data.clear();
+    }
+  }
+
+  protected void doDrawRing(GL gl) {
+    if (!gl.isGL2())
+      throw new RuntimeException("Need a GL2 instance");
+    GL2 gl2 = gl.getGL2();
+
+    gl2.glBindBuffer(GL.GL_ARRAY_BUFFER, arrayName[0]);
+    gl2.glVertexPointer(dimensions, GL.GL_FLOAT, byteOffset, 0);
+    gl2.glEnableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+    color(gl);
+    applyWidth(gl);
+    applyQuality(gl);
+
+    for (int[] r : ring.getDrawRanges())
+      gl2.glDrawArrays(geometry, r[0], r[1] - r[0]);
+
+    gl2.glDisableClientState(GLPointerFunc.GL_VERTEX_ARRAY);
+    disableColor(gl);
+    gl2.glBindBuffer(GL.GL_ARRAY_BUFFER, 0);
+  }
+
+  /** Shrink bounds to the points that are still displayed. */
+  @Override
+  public void updateBounds() {
+    bbox = ring.updateBounds();
+  }
+
+  @Override
+  public int getVertexCount() {
+    return ring.size();
+  }
+
+  /* ***************************************************************** */
+
+  public PointRing getRing() {
+    return ring;
+  }
+
+  public ColorMapper getColorMapper() {
+    return mapper;
+  }
+
+  /**
+   * Color appended points with the mapper. Points already displayed are recolored at next
+   * rendering, which uploads the whole ring once.
+   */
+  public void setColorMapper(ColorMapper mapper) {
+    this.mapper = mapper;
+    this.recolor = true;
+  }
+}
@@ -1,6 +1,10 @@
 package org.jzy3d.plot3d.rendering.view;
 
 import org.jzy3d.maths.TicToc;
+import org.jzy3d.monitor.FrameTelemetry;
+import org.jzy3d.monitor.FrameTelemetry.Counter;
+import org.jzy3d.monitor.FrameTelemetry.Phase;
+import org.jzy3d.painters.AbstractPainter;
 import org.jzy3d.painters.IPainter;
 import org.jzy3d.painters.NativeDesktopPainter;
 import org.jzy3d.plot3d.rendering.canvas.ICanvas;
@@ -19,6 +23,10 @@ import com.jogamp.opengl.util.texture.TextureData;
  * One can activate OpenGl errors in console by setting debugGL to true in the constructor One can
  * activate OpenGl feedback in console by setting traceGL to true in the constructor
  * 
+ * Each display is a frame of the {@link FrameTelemetry} of the view. Its {@link Phase#FLUSH} phase
+ * only covers screenshot reading, as buffers are swapped by JOGL once
+ * {@link #display(GLAutoDrawable)} returns.
+ * 
  * @author Martin Pernollet
  */
 public class Renderer3d implements GLEventListener {
@@ -89,15 +97,33 @@ public class Renderer3d implements GLEventListener {
     updatePainterWithGL(canvas);
 
     if (view != null) {
+      FrameTelemetry telemetry = view.getTelemetry();
+      telemetry.beginFrame();
+
+      AbstractPainter painter = null;
+      if (telemetry.isEnabled() && view.getPainter() instanceof AbstractPainter) {
+        painter = (AbstractPainter) view.getPainter();
+        painter.resetCounts();
+      }
+
       view.clear();
       view.render();
 
+      long flushStart = telemetry.start();
+
       if (doScreenshotAtNextDisplay) {
         GLReadBufferUtil screenshot = new GLReadBufferUtil(false, false);
         screenshot.readPixels(gl, true);
         image = screenshot.getTextureData();
         doScreenshotAtNextDisplay = false;
       }
+
+      telemetry.stop(Phase.FLUSH, flushStart);
+      if (painter != null) {
+        telemetry.count(Counter.GL_BEGIN, painter.getCountGLBegin());
+        telemetry.count(Counter.VERTICES, painter.getCountVertices());
+      }
+      telemetry.endFrame();
     }
     
     profileDisplayTimer.toc();
@@ -0,0 +1,50 @@
+package org.jzy3d.io.mesh;
+
+import java.nio.IntBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.mocks.jogl.GLMock;
+import org.jzy3d.painters.NativeDesktopPainter;
+import org.jzy3d.plot3d.primitives.vbo.drawable.DrawableVBO;
+import com.jogamp.opengl.GL;
+
+public class TestMeshVBOLoader {
+  @Test
+  public void pointsAreDrawnWithoutIndices() throws Exception {
+    MeshBuffers mesh =
+        MeshBuffers.of(new Coord3d[] {new Coord3d(0, 0, 0), new Coord3d(1, 1, 1), new Coord3d()});
+
+    DrawableVBO drawable = upload(mesh);
+
+    Assert.assertEquals(GL.GL_POINTS, drawable.getGeometry());
+    Assert.assertTrue(drawable.isDrawArrays());
+    Assert.assertEquals(3, drawable.getVertexCount());
+  }
+
+  @Test
+  public void trianglesAreDrawnWithIndices() throws Exception {
+    IntBuffer indices = MeshBuffers.newIntBuffer(3);
+    indices.put(new int[] {0, 1, 2}).rewind();
+    MeshBuffers points = MeshBuffers.of(new Coord3d[] {new Coord3d(0, 0, 0),
+        new Coord3d(1, 0, 0), new Coord3d(0, 1, 0)});
+    MeshBuffers mesh = new MeshBuffers(MeshBuffers.Primitive.TRIANGLES, points.getVertices(), 3,
+        -1, -1, 0, indices, null);
+
+    DrawableVBO drawable = upload(mesh);
+
+    Assert.assertEquals(GL.GL_TRIANGLES, drawable.getGeometry());
+    Assert.assertFalse(drawable.isDrawArrays());
+    Assert.assertEquals(GL.GL_UNSIGNED_SHORT, drawable.getElementType());
+  }
+
+  protected DrawableVBO upload(MeshBuffers mesh) throws Exception {
+    MeshVBOLoader loader = new MeshVBOLoader(mesh);
+    DrawableVBO drawable = new DrawableVBO(loader);
+    NativeDesktopPainter painter = new NativeDesktopPainter();
+    painter.setGL(new GLMock());
+
+    loader.upload(painter, drawable, loader.prepare());
+    return drawable;
+  }
+}
@@ -0,0 +1,58 @@
+package org.jzy3d.plot3d.primitives.vbo.buffers;
+
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TestDirtyRanges {
+  @Test
+  public void mergesOverlappingAndContiguousRanges() {
+    DirtyRanges ranges = new DirtyRanges();
+    ranges.add(10, 20);
+    ranges.add(30, 40);
+    ranges.add(20, 25); // contiguous with first
+    ranges.add(35, 50); // overlaps second
+    ranges.add(0, 3);
+
+    List<int[]> r = ranges.getRanges();
+    Assert.assertEquals(3, r.size());
+    Assert.assertArrayEquals(new int[] {0, 3}, r.get(0));
+    Assert.assertArrayEquals(new int[] {10, 25}, r.get(1));
+    Assert.assertArrayEquals(new int[] {30, 50}, r.get(2));
+    Assert.assertEquals(3 + 15 + 20, ranges.getLength());
+
+    ranges.add(2, 31);
+    Assert.assertEquals(1, ranges.getRanges().size());
+    Assert.assertArrayEquals(new int[] {0, 50}, ranges.getRanges().get(0));
+    Assert.assertTrue(ranges.covers(50));
+    Assert.assertFalse(ranges.covers(51));
+  }
+
+  @Test
+  public void mergesSmallestGapWhenTooManyRanges() {
+    DirtyRanges ranges = new DirtyRanges(2);
+    ranges.add(0, 1);
+    ranges.add(100, 101);
+    ranges.add(103, 104); // gap of 2 with previous, merged
+
+    List<int[]> r = ranges.getRanges();
+    Assert.assertEquals(2, r.size());
+    Assert.assertArrayEquals(new int[] {0, 1}, r.get(0));
+    Assert.assertArrayEquals(new int[] {100, 104}, r.get(1));
+  }
+
+  @Test
+  public void pollClearsRanges() {
+    DirtyRanges ranges = new DirtyRanges();
+    ranges.add(5, 8);
+    ranges.add(8, 8); // empty
+
+    Assert.assertEquals(1, ranges.poll().size());
+    Assert.assertTrue(ranges.isEmpty());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void rejectsInvalidRange() {
+    new DirtyRanges().add(5, 4);
+  }
+}
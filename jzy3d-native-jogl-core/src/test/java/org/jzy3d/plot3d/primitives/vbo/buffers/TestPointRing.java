@@ -0,0 +1,102 @@
+package org.jzy3d.plot3d.primitives.vbo.buffers;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.colors.Color;
+
+public class TestPointRing {
+  @Test
+  public void pollsNewSlotsInAtMostTwoRanges() {
+    PointRing ring = new PointRing(10);
+
+    append(ring, 4);
+    assertRanges(ring.poll(), 0, 4);
+    assertRanges(ring.getDrawRanges(), 0, 4);
+    Assert.assertTrue(ring.poll().isEmpty());
+
+    // wraps around
+    append(ring, 8);
+    assertRanges(ring.poll(), 4, 10, 0, 2);
+    assertRanges(ring.getDrawRanges(), 2, 10, 0, 2);
+    Assert.assertEquals(10, ring.size());
+    Assert.assertEquals(12, ring.getPolled());
+  }
+
+  @Test
+  public void skipsOverwrittenPoints() {
+    PointRing ring = new PointRing(10);
+    append(ring, 25);
+
+    // only the last 10 points can be polled
+    assertRanges(ring.poll(), 5, 10, 0, 5);
+    assertRanges(ring.getDrawRanges(), 5, 10, 0, 5);
+
+    // slot 5 holds point 15
+    Assert.assertEquals(15, ring.getData()[5 * PointRing.STRIDE], 0);
+  }
+
+  @Test
+  public void boundsGrowWithPolledPointsAndShrinkOnUpdate() {
+    PointRing ring = new PointRing(10);
+    append(ring, 10);
+    ring.poll();
+    Assert.assertEquals(0, ring.getBounds().getXmin(), 0);
+    Assert.assertEquals(9, ring.getBounds().getXmax(), 0);
+
+    append(ring, 5);
+    ring.poll();
+    Assert.assertEquals(0, ring.getBounds().getXmin(), 0);
+    Assert.assertEquals(14, ring.getBounds().getXmax(), 0);
+
+    ring.updateBounds();
+    Assert.assertEquals(5, ring.getBounds().getXmin(), 0);
+    Assert.assertEquals(14, ring.getBounds().getXmax(), 0);
+  }
+
+  @Test
+  public void concurrentProducersArePolledOnce() throws Exception {
+    int producers = 4;
+    int points = 50000;
+    PointRing ring = new PointRing(producers * points);
+
+    List<Thread> threads = new ArrayList<>();
+    for (int t = 0; t < producers; t++) {
+      Thread thread = new Thread(() -> {
+        for (int i = 0; i < points; i++)
+          ring.append(1, 2, 3, Color.RED);
+      });
+      threads.add(thread);
+      thread.start();
+    }
+
+    long polled = 0;
+    while (polled < producers * points) {
+      for (int[] r : ring.poll())
+        polled += r[1] - r[0];
+    }
+    for (Thread thread : threads)
+      thread.join();
+
+    Assert.assertEquals(producers * points, polled);
+    Assert.assertTrue(ring.poll().isEmpty());
+    for (int slot = 0; slot < ring.getCapacity(); slot++)
+      Assert.assertEquals(3, ring.getData()[slot * PointRing.STRIDE + 2], 0);
+  }
+
+  /** Append n points with x being the point sequence number. */
+  protected void append(PointRing ring, int n) {
+    for (int i = 0; i < n; i++) {
+      long x = ring.getAppended();
+      ring.append(x, 0, 0, Color.BLUE);
+    }
+  }
+
+  protected void assertRanges(List<int[]> ranges, int... bounds) {
+    Assert.assertEquals(bounds.length / 2, ranges.size());
+    for (int i = 0; i < ranges.size(); i++) {
+      Assert.assertArrayEquals(new int[] {bounds[2 * i], bounds[2 * i + 1]}, ranges.get(i));
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package org.jzy3d.plot3d.primitives.vbo.drawable;
+
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.io.mesh.MeshOptimizer;
+import org.jzy3d.mocks.jogl.GLMock;
+import org.jzy3d.painters.NativeDesktopPainter;
+import com.jogamp.opengl.GL;
+
+public class TestDrawableVBO2Elements {
+  static final int N = 20;
+
+  @Test
+  public void trianglesAreReorderedAndIndexedWithShorts() {
+    int[] triangles = grid();
+    DrawableVBO2 vbo = new DrawableVBO2(vertices(), 3, triangles);
+    vbo.setOptimize(true);
+    vbo.mount(painter());
+
+    Assert.assertEquals(GL.GL_UNSIGNED_SHORT, vbo.getElementType());
+    Assert.assertEquals(sorted(triangles), sorted(toArray(vbo.getElements())));
+    Assert.assertTrue(MeshOptimizer.acmr(toArray(vbo.getElements()), 32) < MeshOptimizer
+        .acmr(triangles, 32));
+  }
+
+  @Test
+  public void trianglesAreKeptByDefault() {
+    int[] triangles = grid();
+    DrawableVBO2 vbo = new DrawableVBO2(vertices(), 3, triangles);
+    vbo.setShortIndices(false);
+    vbo.mount(painter());
+
+    Assert.assertEquals(GL.GL_UNSIGNED_INT, vbo.getElementType());
+    Assert.assertArrayEquals(triangles, toArray(vbo.getElements()));
+  }
+
+  /** A NxN grid of vertices. */
+  protected double[] vertices() {
+    double[] vertices = new double[N * N * 3];
+    for (int i = 0; i < N * N; i++) {
+      vertices[i * 3] = i % N;
+      vertices[i * 3 + 1] = i / N;
+    }
+    return vertices;
+  }
+
+  /** Two triangles per grid cell, column by column. */
+  protected int[] grid() {
+    int[] triangles = new int[(N - 1) * (N - 1) * 6];
+    int t = 0;
+    for (int x = 0; x < N - 1; x++) {
+      for (int y = 0; y < N - 1; y++) {
+        int v = y * N + x;
+        int[] cell = {v, v + 1, v + N, v + 1, v + N + 1, v + N};
+        for (int c : cell)
+          triangles[t++] = c;
+      }
+    }
+    return triangles;
+  }
+
+  /** Triangles as sorted strings, to compare triangle sets regardless of their order. */
+  protected List<String> sorted(int[] triangles) {
+    List<String> list = new ArrayList<>();
+    for (int t = 0; t < triangles.length; t += 3) {
+      int[] tri = {triangles[t], triangles[t + 1], triangles[t + 2]};
+      // rotate so that the smallest index comes first, preserving the winding
+      int m = tri[0] < tri[1] ? (tri[0] < tri[2] ? 0 : 2) : (tri[1] < tri[2] ? 1 : 2);
+      list.add(tri[m] + " " + tri[(m + 1) % 3] + " " + tri[(m + 2) % 3]);
+    }
+    Collections.sort(list);
+    return list;
+  }
+
+  protected int[] toArray(IntBuffer buffer) {
+    int[] array = new int[buffer.capacity()];
+    for (int i = 0; i < array.length; i++)
+      array[i] = buffer.get(i);
+    return array;
+  }
+
+  protected NativeDesktopPainter painter() {
+    NativeDesktopPainter painter = new NativeDesktopPainter();
+    painter.setGL(new GLMock());
+    return painter;
+  }
+}
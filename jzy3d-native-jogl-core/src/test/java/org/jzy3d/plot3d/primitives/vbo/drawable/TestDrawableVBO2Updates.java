@@ -0,0 +1,105 @@
+package org.jzy3d.plot3d.primitives.vbo.drawable;
+
+import java.nio.Buffer;
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.colors.ColorMapper;
+import org.jzy3d.colors.colormaps.ColorMapRainbow;
+import org.jzy3d.mocks.jogl.GL2Mock;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+
+public class TestDrawableVBO2Updates {
+  static final int VERTEX_BUFFER = 1;
+  static final int COLOR_BUFFER = 2;
+
+  @Test
+  public void changingColorsDoesNotUploadVertices() {
+    DrawableVBO2 vbo = mountedVBO(1000);
+    RecordingGL gl = new RecordingGL();
+
+    vbo.updateColors(new ColorMapper(new ColorMapRainbow(), 0, 500));
+    vbo.doUploadModifiedRanges(gl);
+
+    Assert.assertEquals(1, gl.uploads.size());
+    Assert.assertEquals("data buffer=2 offset=0 size=" + 1000 * 3 * Buffers.SIZEOF_FLOAT,
+        gl.uploads.get(0));
+
+    // nothing left to upload
+    gl.uploads.clear();
+    vbo.doUploadModifiedRanges(gl);
+    Assert.assertTrue(gl.uploads.isEmpty());
+  }
+
+  @Test
+  public void movingVerticesOnlyUploadsModifiedRanges() {
+    DrawableVBO2 vbo = mountedVBO(1000);
+    RecordingGL gl = new RecordingGL();
+
+    vbo.setVertex(5, 1, 2, 3);
+    vbo.setVertex(6, 1, 2, 2000);
+    vbo.setVertex(900, 1, 2, 3);
+    vbo.doUploadModifiedRanges(gl);
+
+    Assert.assertEquals(2, gl.uploads.size());
+    Assert.assertEquals("sub buffer=1 offset=" + 5 * 3 * Buffers.SIZEOF_FLOAT + " size="
+        + 2 * 3 * Buffers.SIZEOF_FLOAT, gl.uploads.get(0));
+    Assert.assertEquals("sub buffer=1 offset=" + 900 * 3 * Buffers.SIZEOF_FLOAT + " size="
+        + 3 * Buffers.SIZEOF_FLOAT, gl.uploads.get(1));
+
+    // bounds grow incrementally
+    Assert.assertEquals(2000, vbo.getBounds().getZmax(), 0);
+
+    // and shrink when recomputed
+    vbo.setVertex(6, 1, 2, 3);
+    vbo.updateBounds();
+    Assert.assertEquals(999, vbo.getBounds().getZmax(), 0);
+  }
+
+  /** A VBO as if mounted, with vertex i at (i, i, i) and a color buffer. */
+  protected DrawableVBO2 mountedVBO(int n) {
+    FloatBuffer vertices = FloatBuffer.allocate(n * 3);
+    for (int i = 0; i < n; i++) {
+      vertices.put(i).put(i).put(i);
+    }
+    vertices.rewind();
+
+    DrawableVBO2 vbo = new DrawableVBO2((painter, drawable) -> {
+    });
+    vbo.vertices = vertices;
+    vbo.colors = FloatBuffer.allocate(n * 3);
+    vbo.hasColorBuffer = true;
+    vbo.vertexOffset = 3 * Buffers.SIZEOF_FLOAT;
+    vbo.vertexArrayIds[0] = VERTEX_BUFFER;
+    vbo.colorArrayIds[0] = COLOR_BUFFER;
+    vbo.updateBounds();
+    vbo.hasMountedOnce = true;
+    return vbo;
+  }
+
+  /** Record buffer uploads. */
+  static class RecordingGL extends GL2Mock {
+    List<String> uploads = new ArrayList<>();
+    int bound;
+
+    @Override
+    public void glBindBuffer(int target, int buffer) {
+      if (target == GL.GL_ARRAY_BUFFER)
+        bound = buffer;
+    }
+
+    @Override
+    public void glBufferData(int target, long size, Buffer data, int usage) {
+      uploads.add("data buffer=" + bound + " offset=0 size=" + size);
+    }
+
+    @Override
+    public void glBufferSubData(int target, long offset, long size, Buffer data) {
+      Assert.assertEquals(size / Buffers.SIZEOF_FLOAT, data.remaining());
+      uploads.add("sub buffer=" + bound + " offset=" + offset + " size=" + size);
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package org.jzy3d.plot3d.primitives.vbo.drawable;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.io.IAsyncGLLoader;
+import org.jzy3d.painters.IPainter;
+import org.jzy3d.painters.NativeDesktopPainter;
+
+public class TestDrawableVBOAsyncLoading {
+  @Test
+  public void prepareInBackgroundAndUploadOnRenderingThread() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingLoader loader = new RecordingLoader(() -> {
+      release.await();
+      return "data";
+    });
+    DrawableVBO drawable = new DrawableVBO(loader);
+    drawable.setAsyncLoading(true);
+    NativeDesktopPainter painter = new NativeDesktopPainter();
+
+    // mounting returns while data is being prepared
+    drawable.mount(painter);
+    Assert.assertFalse(drawable.isReady());
+    Assert.assertFalse(drawable.hasMountedOnce());
+
+    release.countDown();
+    drawable.prepared.get(5, TimeUnit.SECONDS);
+    Assert.assertNotEquals(Thread.currentThread(), loader.prepareThread);
+    Assert.assertFalse(drawable.isReady());
+
+    // the next rendering uploads
+    drawable.doUploadPrepared(painter);
+    Assert.assertTrue(drawable.isReady());
+    Assert.assertTrue(drawable.whenReady().isDone());
+    Assert.assertEquals("data", loader.uploaded);
+    Assert.assertEquals(Thread.currentThread(), loader.uploadThread);
+  }
+
+  @Test
+  public void failedPreparationCompletesExceptionally() throws Exception {
+    DrawableVBO drawable = new DrawableVBO(new RecordingLoader(() -> {
+      throw new IllegalStateException("corrupted file");
+    }));
+    drawable.setAsyncLoading(true);
+    drawable.mount(new NativeDesktopPainter());
+
+    CompletableFuture<Void> ready = drawable.whenReady();
+    try {
+      ready.get(5, TimeUnit.SECONDS);
+      Assert.fail();
+    } catch (ExecutionException e) {
+      Assert.assertEquals("corrupted file", e.getCause().getMessage());
+    }
+    Assert.assertFalse(drawable.isReady());
+  }
+
+  @Test
+  public void synchronousLoadingWhenDisabled() throws Exception {
+    RecordingLoader loader = new RecordingLoader(() -> "data");
+    DrawableVBO drawable = new DrawableVBO(loader);
+    Assert.assertFalse(drawable.isAsyncLoading());
+    drawable.setAsyncLoading(false);
+
+    drawable.mount(new NativeDesktopPainter());
+
+    Assert.assertTrue(drawable.isReady());
+    Assert.assertEquals(Thread.currentThread(), loader.prepareThread);
+    Assert.assertEquals("data", loader.uploaded);
+  }
+
+  interface Preparation {
+    String run() throws Exception;
+  }
+
+  static class RecordingLoader implements IAsyncGLLoader<DrawableVBO, String> {
+    Preparation preparation;
+    volatile Thread prepareThread;
+    volatile Thread uploadThread;
+    volatile String uploaded;
+
+    RecordingLoader(Preparation preparation) {
+      this.preparation = preparation;
+    }
+
+    @Override
+    public String prepare() throws Exception {
+      prepareThread = Thread.currentThread();
+      return preparation.run();
+    }
+
+    @Override
+    public void upload(IPainter painter, DrawableVBO drawable, String data) {
+      uploadThread = Thread.currentThread();
+      uploaded = data;
+    }
+  }
+}
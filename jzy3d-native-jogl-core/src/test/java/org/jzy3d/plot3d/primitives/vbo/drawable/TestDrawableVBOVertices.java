@@ -0,0 +1,47 @@
+package org.jzy3d.plot3d.primitives.vbo.drawable;
+
+import java.nio.FloatBuffer;
+import org.junit.Assert;
+import org.junit.Test;
+import org.jzy3d.maths.Coord3d;
+import org.jzy3d.mocks.jogl.GLMock;
+import com.jogamp.common.nio.Buffers;
+import com.jogamp.opengl.GL;
+
+public class TestDrawableVBOVertices {
+  @Test
+  public void staticVerticesAreReleasedAfterUpload() {
+    DrawableVBO vbo = load(new DrawableVBO(null));
+
+    Assert.assertNull(vbo.getVertices());
+    Assert.assertEquals(2, vbo.getVertexCount());
+    try {
+      vbo.setVertex(0, 1, 2, 3);
+      Assert.fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void dynamicVerticesAreKeptForUpdates() {
+    DrawableVBO dynamic = new DrawableVBO(null);
+    dynamic.setUsage(GL.GL_DYNAMIC_DRAW);
+    load(dynamic);
+    dynamic.setVertex(1, 7, 8, 9);
+    Assert.assertEquals(new Coord3d(7, 8, 9), dynamic.getVertex(1));
+
+    DrawableVBO kept = new DrawableVBO(null);
+    kept.setKeepVertices(true);
+    load(kept);
+    Assert.assertNotNull(kept.getVertices());
+    Assert.assertEquals(new Coord3d(4, 5, 6), kept.getVertex(1));
+  }
+
+  protected DrawableVBO load(DrawableVBO vbo) {
+    FloatBuffer vertices = Buffers.newDirectFloatBuffer(new float[] {1, 2, 3, 4, 5, 6});
+    vbo.doConfigure(0, 2, 3 * Buffers.SIZEOF_FLOAT, 0, 3);
+    vbo.doLoadArrayFloatBuffer(new GLMock(), vertices);
+    return vbo;
+  }
+}